@@ -47,9 +47,20 @@ int bufferdecorator_getbuffer(PyBufferDecorator *self, Py_buffer *view, int flag
     return PyBuffer_FillInfo(view, (PyObject*)self, polyglot_get_member(self, "buf_delegate"), PyObject_Size((PyObject *)self) * sizeof(PyObject*), self->readonly, flags);
 }
 
+int memoryview_getbuffer(PyObject *self, Py_buffer *view, int flags) {
+    // the managed memoryview exports its exporter's storage or, for non-contiguous views, a read-only copy
+    PyObject *nbytes_obj = PyObject_GetAttrString(self, "nbytes");
+    if (nbytes_obj == NULL) {
+        return -1;
+    }
+    Py_ssize_t nbytes = PyLong_AsSsize_t(nbytes_obj);
+    Py_DECREF(nbytes_obj);
+    if (nbytes == -1 && PyErr_Occurred()) {
+        return -1;
+    }
+    return PyBuffer_FillInfo(view, self, polyglot_get_member(self, "buf_delegate"), nbytes, polyglot_as_i32(polyglot_get_member(self, "readonly")), flags);
+}
+
 PyObject * PyMemoryView_FromObject(PyObject *v) {
-	// TODO(fa): This needs to be fixed. The actual implementation is located in
-	// '_memoryview.c'. However, the current way we use it does not allow C exts
-	// to link to it. We need to restructure this.
-	return NULL;
+    return PyObject_CallFunctionObjArgs((PyObject *)&PyMemoryView_Type, v, NULL);
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.oracle.graal.python.parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.sst.SSTNode;
+import com.oracle.graal.python.parser.sst.SSTSerializer;
+import com.oracle.graal.python.runtime.PythonParser;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.graal.python.test.parser.ParserTestBase;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * Round trips sources through the {@link SSTCache}: the deserialized syntax and scope trees must
+ * serialize to the same bytes and create the same Truffle tree as a fresh parse.
+ */
+public class SSTSerializationTests extends ParserTestBase {
+
+    public SSTSerializationTests() {
+        Map<String, String> options = new HashMap<>();
+        options.put("python.LazyFunctionBodies", "false");
+        options.put("python.ParserCache", "true");
+        PythonTests.enterContext(options, new String[0]);
+        context = PythonLanguage.getContext();
+    }
+
+    @Test
+    public void formatStrings() throws Exception {
+        checkRoundTrip("name = 'x'\n" +
+                        "width = 10\n" +
+                        "a = f'{name}'\n" +
+                        "b = f'{name!r:>{width}} and {{braces}}'\n" +
+                        "c = f'{3.14159:.2f}' f\"{name.upper()}\" 'plain'\n" +
+                        "d = f'{[i for i in range(3)]}{ {1: 2}[1] }'\n");
+    }
+
+    @Test
+    public void comprehensions() throws Exception {
+        checkRoundTrip("def f(xs):\n" +
+                        "    a = [x * y for x in xs if x for y in range(x)]\n" +
+                        "    b = {x: [y for y in range(x)] for x in xs}\n" +
+                        "    c = {x for x in xs if x % 2}\n" +
+                        "    d = (x for x in xs)\n" +
+                        "    e = sum(x for x in xs)\n" +
+                        "    return lambda z: [z + x for x in a]\n");
+    }
+
+    @Test
+    public void decorators() throws Exception {
+        checkRoundTrip("import functools\n" +
+                        "def deco(*args):\n" +
+                        "    return lambda f: f\n" +
+                        "@deco\n" +
+                        "@deco(1, key='value')\n" +
+                        "@functools.lru_cache(maxsize=None)\n" +
+                        "def g(x):\n" +
+                        "    return x\n" +
+                        "@deco()\n" +
+                        "class C(object, metaclass=type):\n" +
+                        "    @staticmethod\n" +
+                        "    def s(): pass\n" +
+                        "    @property\n" +
+                        "    def p(self):\n" +
+                        "        return self.__class__\n");
+    }
+
+    @Test
+    public void asyncConstructs() throws Exception {
+        checkRoundTrip("async def agen(n):\n" +
+                        "    for i in range(n):\n" +
+                        "        yield i\n" +
+                        "async def f(cm, it):\n" +
+                        "    x = await g()\n" +
+                        "    async for a in it:\n" +
+                        "        x += a\n" +
+                        "    else:\n" +
+                        "        pass\n" +
+                        "    async with cm as c, cm:\n" +
+                        "        await c\n" +
+                        "    return [y async for y in agen(x)], [await z for z in it]\n");
+    }
+
+    @Test
+    public void starArgs() throws Exception {
+        checkRoundTrip("def f(a, b=1, *args, c, d=2, **kwargs):\n" +
+                        "    return f(*args, *kwargs, a, **kwargs, e=b)\n" +
+                        "def g(*, key):\n" +
+                        "    first, *rest = key\n" +
+                        "    return [*rest, *first], {**{}, 'k': key}, {*rest}\n" +
+                        "h = lambda *a, **k: (a, k)\n");
+    }
+
+    @Test
+    public void mixed() throws Exception {
+        checkRoundTrip("import sys as system\n" +
+                        "from os.path import join as j, dirname\n" +
+                        "counter = 0\n" +
+                        "def outer():\n" +
+                        "    value = 1\n" +
+                        "    def inner():\n" +
+                        "        nonlocal value\n" +
+                        "        global counter\n" +
+                        "        value += 1\n" +
+                        "        counter += value\n" +
+                        "        return f'{value}-{counter}'\n" +
+                        "    return inner\n" +
+                        "class D(dict):\n" +
+                        "    def __getitem__(self, key):\n" +
+                        "        try:\n" +
+                        "            return super().__getitem__(key)\n" +
+                        "        except (KeyError, IndexError) as e:\n" +
+                        "            raise ValueError(key) from e\n" +
+                        "        finally:\n" +
+                        "            del key\n" +
+                        "while counter < 3 and not system.flags:\n" +
+                        "    counter = counter + 1 if counter else -1\n" +
+                        "    assert counter, 'message'\n" +
+                        "x = [1, 2, 3][1:2:-1], b'\\x00bytes', 1j, 0x10, ..., None\n");
+    }
+
+    private void checkRoundTrip(String code) throws Exception {
+        Path dir = Files.createTempDirectory("sstcache");
+        try {
+            File file = dir.resolve("corpus.py").toFile();
+            Files.write(file.toPath(), code.getBytes(StandardCharsets.UTF_8));
+            Source source = createSource(file);
+
+            Node fresh = parse(source, PythonParser.ParserMode.File);
+            String freshTree = printTreeToString(fresh);
+            String freshScopes = printScopes(getLastGlobalScope());
+
+            TruffleFile cacheFile = SSTCache.getCacheFile(context.getEnv(), source);
+            assertNotNull(cacheFile);
+            assertTrue("the cache file was not written", cacheFile.isRegularFile());
+
+            // the deserialized trees must serialize to the same bytes
+            ScopeEnvironment scopeEnvironment = new PythonSSTNodeFactory(context.getCore(), source).getScopeEnvironment();
+            SSTNode root = SSTCache.load(cacheFile, SSTCache.hash(source.getCharacters()), source.getLength(), scopeEnvironment);
+            assertNotNull("the cache file could not be read", root);
+            byte[] data = cacheFile.readAllBytes();
+            byte[] reserialized = SSTSerializer.serialize(scopeEnvironment.getGlobalScope(), root);
+            assertEquals(data.length - headerSize(), reserialized.length);
+            assertArrayEquals(Arrays.copyOfRange(data, headerSize(), data.length), reserialized);
+
+            // and the tree created from the cache must match the one from the parser
+            Node cached = parse(source, PythonParser.ParserMode.File);
+            assertEquals(freshTree, printTreeToString(cached));
+            assertEquals(freshScopes, printScopes(getLastGlobalScope()));
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    /**
+     * The size of the header written by {@link SSTCache#store}: magic, format version, language
+     * version, source hash and source length.
+     */
+    private static int headerSize() {
+        return 4 + 4 + 2 + PythonLanguage.VERSION.getBytes(StandardCharsets.UTF_8).length + 8 + 4;
+    }
+
+    private static String printScopes(ScopeInfo globalScope) {
+        StringBuilder sb = new StringBuilder();
+        globalScope.debugPrint(sb, 0);
+        return sb.toString();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
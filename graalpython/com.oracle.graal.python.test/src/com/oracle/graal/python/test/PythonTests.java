@@ -45,6 +45,8 @@ import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
@@ -97,10 +99,14 @@ public class PythonTests {
     }
 
     public static void enterContext(String... newArgs) {
+        enterContext(Collections.emptyMap(), newArgs);
+    }
+
+    public static void enterContext(Map<String, String> options, String[] newArgs) {
         PythonTests.outArray.reset();
         PythonTests.errArray.reset();
         Context prevContext = context;
-        context = Context.newBuilder().engine(engine).allowExperimentalOptions(true).allowAllAccess(true).arguments("python", newArgs).option("python.Executable", executable).build();
+        context = Context.newBuilder().engine(engine).allowExperimentalOptions(true).allowAllAccess(true).arguments("python", newArgs).option("python.Executable", executable).options(options).build();
         context.initialize("python");
         if (prevContext != null) {
             closeContext(prevContext);
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.datatype;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins.AppendNode;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins.ExtendNode;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.DoubleDequeStorage;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.EmptyDequeStorage;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.IntDequeStorage;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.ObjectDequeStorage;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class DequeTests {
+    @Before
+    public void setup() {
+        PythonTests.enterContext();
+    }
+
+    static class TestRoot extends RootNode {
+        protected TestRoot(PythonLanguage language) {
+            super(language);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return null;
+        }
+
+        public void doInsert(Node child) {
+            insert(child);
+        }
+    }
+
+    private static PDeque createDeque(Object... values) {
+        PythonObjectFactory factory = PythonObjectFactory.getUncached();
+        PDeque deque = factory.createDeque(PythonBuiltinClassType.PDeque);
+        TestRoot testRoot = new TestRoot(PythonLanguage.getCurrent());
+        ExtendNode extend = ExtendNode.create();
+        testRoot.doInsert(extend);
+        extend.execute(null, deque, factory.createList(values));
+        return deque;
+    }
+
+    @Test
+    public void specializesOnFirstElement() {
+        assertTrue(createDeque().getStorage() instanceof EmptyDequeStorage);
+
+        PDeque ints = createDeque(1, 2, 3);
+        assertTrue(ints.getStorage() instanceof IntDequeStorage);
+        assertEquals(3, ints.getLength());
+        assertEquals(2, ints.getStorage().getItem(1));
+
+        assertTrue(createDeque(1.5, 2.5).getStorage() instanceof DoubleDequeStorage);
+        assertTrue(createDeque(1, "a").getStorage() instanceof ObjectDequeStorage);
+    }
+
+    @Test
+    public void clearRespecializes() {
+        PDeque deque = createDeque(1, 2, 3);
+        deque.clear();
+        assertTrue(deque.getStorage() instanceof EmptyDequeStorage);
+
+        TestRoot testRoot = new TestRoot(PythonLanguage.getCurrent());
+        AppendNode append = AppendNode.create();
+        testRoot.doInsert(append);
+        append.execute(deque, 1.5);
+        assertTrue(deque.getStorage() instanceof DoubleDequeStorage);
+        assertEquals(1.5, deque.getStorage().getItem(0));
+    }
+}
@@ -57,6 +57,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.CharBuffer;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Assert;
 import static org.junit.Assert.assertTrue;
@@ -79,7 +80,8 @@ public class ParserTestBase {
     private ScopeInfo lastGlobalScope;
 
     public ParserTestBase() {
-        PythonTests.enterContext();
+        // the golden files contain the complete trees of all functions
+        PythonTests.enterContext(Collections.singletonMap("python.LazyFunctionBodies", "false"), new String[0]);
         context = PythonLanguage.getContext();
     }
 
@@ -251,7 +253,7 @@ public class ParserTestBase {
         assertDescriptionMatches(scopes.toString(), goldenScopeFile);
     }
 
-    private String printTreeToString(Node node) {
+    protected String printTreeToString(Node node) {
         ParserTreePrinter visitor = new ParserTreePrinter();
         visitor.printFormatStringLiteralDetail = printFormatStringLiteralValues;
         node.accept(visitor);
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
+
+public class EconomicMapStorageTests {
+
+    private static final Equivalence EQ = new Equivalence() {
+        @Override
+        public int hashCode(Object o) {
+            return o.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object left, Object right) {
+            return left.equals(right);
+        }
+    };
+
+    /** Maps all integers to only three hash codes. */
+    private static final Equivalence COLLIDING_EQ = new Equivalence() {
+        @Override
+        public int hashCode(Object o) {
+            return (Integer) o % 3;
+        }
+
+        @Override
+        public boolean equals(Object left, Object right) {
+            return left.equals(right);
+        }
+    };
+
+    private static void fill(EconomicMapStorage storage, int count, Equivalence eq) {
+        for (int i = 0; i < count; i++) {
+            storage.setItem(i, i * 10, eq);
+        }
+    }
+
+    @Test
+    public void setAndGet() {
+        for (Equivalence eq : new Equivalence[]{EQ, COLLIDING_EQ}) {
+            EconomicMapStorage storage = EconomicMapStorage.create(false);
+            fill(storage, 1000, eq);
+            assertEquals(1000, storage.length());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i * 10, storage.getItem(i, eq));
+            }
+            assertNull(storage.getItem(1000, eq));
+            storage.setItem(5, 42, eq);
+            assertEquals(42, storage.getItem(5, eq));
+            assertEquals(1000, storage.length());
+        }
+    }
+
+    @Test
+    public void removeKeepsOrder() {
+        for (Equivalence eq : new Equivalence[]{EQ, COLLIDING_EQ}) {
+            EconomicMapStorage storage = EconomicMapStorage.create(false);
+            fill(storage, 100, eq);
+            for (int i = 0; i < 100; i += 2) {
+                assertTrue(storage.remove(i, eq));
+            }
+            assertFalse(storage.remove(0, eq));
+            assertEquals(50, storage.length());
+            List<Object> keys = new ArrayList<>();
+            for (Object key : storage.keys()) {
+                keys.add(key);
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals(2 * i + 1, keys.get(i));
+                assertFalse(storage.hasKey(2 * i, eq));
+                assertTrue(storage.hasKey(2 * i + 1, eq));
+            }
+        }
+    }
+
+    @Test
+    public void reinsertAfterRemove() {
+        EconomicMapStorage storage = EconomicMapStorage.create(false);
+        for (int round = 0; round < 10; round++) {
+            fill(storage, 64, EQ);
+            for (int i = 0; i < 64; i++) {
+                assertTrue(storage.remove(i, EQ));
+            }
+            assertEquals(0, storage.length());
+        }
+        fill(storage, 8, EQ);
+        assertEquals(70, storage.getItem(7, EQ));
+    }
+
+    @Test
+    public void addAllReusesHashes() {
+        int[] hashCalls = new int[1];
+        Equivalence countingEq = new Equivalence() {
+            @Override
+            public int hashCode(Object o) {
+                hashCalls[0]++;
+                return (Integer) o % 3;
+            }
+
+            @Override
+            public boolean equals(Object left, Object right) {
+                return left.equals(right);
+            }
+        };
+        EconomicMapStorage left = EconomicMapStorage.create(false);
+        EconomicMapStorage right = EconomicMapStorage.create(false);
+        for (int i = 0; i < 40; i++) {
+            left.setItem(i, i, countingEq);
+            right.setItem(i + 20, -i, countingEq);
+        }
+        right.remove(20, countingEq);
+        hashCalls[0] = 0;
+        left.addAll(right, countingEq);
+        assertEquals(0, hashCalls[0]);
+        assertEquals(60, left.length());
+        assertEquals(19, left.getItem(19, countingEq));
+        assertEquals(-1, left.getItem(21, countingEq));
+        assertEquals(-39, left.getItem(59, countingEq));
+        assertFalse(left.hasKey(60, countingEq));
+
+        EconomicMapStorage keys = EconomicMapStorage.create(true);
+        keys.addAllKeys(right, 0, countingEq);
+        keys.addAllKeys(left, 0, countingEq);
+        assertEquals(60, keys.length());
+        List<Object> order = new ArrayList<>();
+        for (Object key : keys.keys()) {
+            order.add(key);
+        }
+        assertEquals(21, order.get(0));
+        assertEquals(0, order.get(39));
+        assertEquals(0, keys.getItem(59, COLLIDING_EQ));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
+import com.oracle.graal.python.builtins.objects.common.IntKeyedStorage;
+import com.oracle.graal.python.builtins.objects.common.StringKeyedStorage;
+
+public class KeyedStorageTests {
+
+    /** Behaves like Python's numeric tower for {@code long} and {@code double} keys. */
+    private static final Equivalence EQ = new Equivalence() {
+        @Override
+        public int hashCode(Object o) {
+            if (o instanceof Number) {
+                return Long.hashCode(((Number) o).longValue());
+            }
+            return Long.hashCode(o.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object left, Object right) {
+            if (left instanceof Number && right instanceof Number) {
+                return ((Number) left).doubleValue() == ((Number) right).doubleValue();
+            }
+            return left.equals(right);
+        }
+    };
+
+    private static List<Object> keys(HashingStorage storage) {
+        List<Object> keys = new ArrayList<>();
+        for (Object key : storage.keys()) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    @Test
+    public void intKeyedSetAndGet() {
+        IntKeyedStorage storage = new IntKeyedStorage();
+        for (long i = 0; i < 1000; i++) {
+            storage.setItem(i << 32, i);
+        }
+        assertEquals(1000, storage.length());
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i, storage.getItem(i << 32));
+            assertEquals(i, storage.getItem(Long.valueOf(i << 32), EQ));
+        }
+        assertNull(storage.getItem(1));
+        assertFalse(storage.hasKey(1));
+
+        // keys that fit into an int come back as Integer, like any other int
+        List<Object> keys = keys(storage);
+        assertEquals(0, keys.get(0));
+        assertEquals(1L << 32, keys.get(1));
+    }
+
+    @Test
+    public void intKeyedRemoveKeepsOrder() {
+        IntKeyedStorage storage = new IntKeyedStorage();
+        for (int i = 0; i < 100; i++) {
+            storage.setItem(i, i, EQ);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertTrue(storage.remove(i));
+        }
+        assertFalse(storage.remove(0));
+        assertEquals(50, storage.length());
+        List<Object> keys = keys(storage);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(2 * i + 1, keys.get(i));
+        }
+        storage.setItem(0, 0);
+        assertEquals(0, keys(storage).get(50));
+    }
+
+    @Test
+    public void intKeyedForeignKeys() {
+        IntKeyedStorage storage = new IntKeyedStorage();
+        storage.setItem(1, "a");
+        assertEquals("a", storage.getItem(1.0, EQ));
+        assertTrue(storage.hasKey(1.0, EQ));
+        assertFalse(storage.hasKey(1.5, EQ));
+
+        // an equal key just replaces the value
+        storage.setItem(1.0, "b", EQ);
+        assertEquals(1, storage.length());
+        assertEquals(1, keys(storage).get(0));
+        assertEquals("b", storage.getItem(1));
+
+        try {
+            storage.setItem(2.5, "c", EQ);
+            fail();
+        } catch (UnmodifiableStorageException e) {
+            // expected
+        }
+        EconomicMapStorage generalized = storage.generalizeFor(2.5, false, EQ);
+        generalized.setItem(2.5, "c", EQ);
+        assertEquals(2, generalized.length());
+        assertEquals("b", generalized.getItem(1L, EQ));
+        assertEquals("c", generalized.getItem(2.5, EQ));
+        assertTrue(generalized.toString().startsWith("map("));
+        assertTrue(storage.generalizeFor(2.5, true, EQ).toString().startsWith("set("));
+    }
+
+    @Test
+    public void stringKeyedSetRemoveAndCopy() {
+        StringKeyedStorage storage = new StringKeyedStorage();
+        for (int i = 0; i < 500; i++) {
+            storage.setItem("key" + i, i);
+        }
+        for (int i = 0; i < 500; i += 5) {
+            assertTrue(storage.remove("key" + i, EQ));
+        }
+        assertEquals(400, storage.length());
+        HashingStorage copy = storage.copy(EQ);
+        storage.clear();
+        assertEquals(0, storage.length());
+        assertEquals(400, copy.length());
+        assertEquals(7, copy.getItem("key7", EQ));
+        assertNull(copy.getItem("key10", EQ));
+        assertFalse(copy.hasKey(7, EQ));
+        assertEquals("key1", keys(copy).get(0));
+    }
+}
@@ -97,4 +97,107 @@ public class SequenceStorageTests {
         assertEquals(6, store.getItemNormalized(6));
         assertEquals(7, store.length());
     }
+
+    @Test
+    public void bytesPrefixView() {
+        byte[] values = new byte[200];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (byte) i;
+        }
+        ByteSequenceStorage store = new ByteSequenceStorage(values);
+        assertFalse(store.isPrefixViewProfitable(10));
+        assertFalse(store.isPrefixViewProfitable(80));
+        assertTrue(store.isPrefixViewProfitable(150));
+
+        ByteSequenceStorage view = (ByteSequenceStorage) store.getPrefixView(150);
+        assertEquals(150, view.length());
+        assertEquals(149, view.getIntItemNormalized(149));
+        assertEquals(150, view.getInternalByteArray().length);
+        // the view's array is trimmed only once and the parent keeps its array
+        assertSame(view.getInternalByteArray(), view.getInternalByteArray());
+        assertEquals(200, store.getInternalByteArray().length);
+
+        // growing the view must not overwrite the elements of the parent
+        view.ensureCapacity(151);
+        view.setByteItemNormalized(150, (byte) -1);
+        assertEquals(150, store.getIntItemNormalized(150));
+    }
+
+    @Test
+    public void bytesSliceView() {
+        byte[] values = new byte[200];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (byte) i;
+        }
+        ByteSequenceStorage store = new ByteSequenceStorage(values);
+        assertFalse(store.isSliceViewProfitable(80));
+        assertTrue(store.isSliceViewProfitable(150));
+
+        ByteSequenceStorage view = store.getSliceView(30, 150);
+        assertEquals(150, view.length());
+        assertEquals(30, view.getIntItemNormalized(0));
+        assertEquals(179, view.getIntItemNormalized(149));
+        assertEquals(10, view.indexOfInt(40));
+        assertEquals(-1, view.indexOfInt(20));
+
+        // a view of a view refers to the same array
+        ByteSequenceStorage nested = view.getSliceView(10, 100);
+        assertEquals(40, nested.getIntItemNormalized(0));
+        assertTrue(nested.equals(store.getSliceInBound(40, 140, 1, 100)));
+        assertTrue(nested.equals(nested.copy()));
+        assertEquals(45, nested.getSliceInBound(5, 15, 2, 5).getIntItemNormalized(0));
+
+        // none of the read-only operations above copied the array
+        assertSame(values, view.getArrayForReading());
+        assertSame(values, nested.getArrayForReading());
+        assertEquals(40, nested.getArrayOffset());
+
+        // the view gets its own array before it is changed and the parent is not affected
+        view.appendInt(255);
+        view.setByteItemNormalized(0, (byte) -1);
+        assertNotSame(values, view.getArrayForReading());
+        assertEquals(0, view.getArrayOffset());
+        assertEquals(151, view.length());
+        assertEquals(31, view.getIntItemNormalized(1));
+        assertEquals(30, store.getIntItemNormalized(30));
+        assertEquals(180, store.getIntItemNormalized(180));
+        assertEquals(40, nested.getIntItemNormalized(0));
+
+        // the raw array of a view starts at its first element
+        byte[] trimmed = nested.getInternalByteArray();
+        assertEquals(100, trimmed.length);
+        assertEquals(40, trimmed[0]);
+        assertSame(trimmed, nested.getInternalByteArray());
+        assertSame(values, store.getInternalByteArray());
+    }
+
+    @Test
+    public void boolPacked() {
+        boolean[] values = new boolean[150];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0;
+        }
+        BoolSequenceStorage store = new BoolSequenceStorage(values);
+        assertEquals(150, store.length());
+        assertTrue(store.getBoolItemNormalized(63));
+        assertFalse(store.getBoolItemNormalized(64));
+        assertEquals(1, store.indexOfBool(false));
+
+        // slice across word boundaries
+        BoolSequenceStorage slice = (BoolSequenceStorage) store.getSliceInBound(61, 131, 1, 70);
+        for (int i = 0; i < 70; i++) {
+            assertEquals((i + 61) % 3 == 0, slice.getBoolItemNormalized(i));
+        }
+
+        store.insertBoolItem(1, true);
+        assertEquals(151, store.length());
+        assertTrue(store.getBoolItemNormalized(1));
+        assertTrue(store.getBoolItemNormalized(64));
+        assertEquals(2, store.indexOfBool(false));
+
+        store.extendWithBoolStorage(slice);
+        assertEquals(221, store.length());
+        assertEquals(130 % 3 == 0, store.popBool());
+        assertEquals(220, store.getInternalBoolArray().length);
+    }
 }
@@ -0,0 +1,89 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import threading
+import time
+from . import CPyExtType, GRAALPYTHON
+
+
+class TestThread(object):
+    def test_native_calls_are_serialized(self):
+        if not GRAALPYTHON:
+            return
+        import _thread
+        TestInteropLock = CPyExtType("TestInteropLock",
+                             """
+                             PyObject* call_back(PyObject* self, PyObject* callback) {
+                                 return PyObject_CallObject(callback, NULL);
+                             }
+                             """,
+                             tp_methods='{"call_back", (PyCFunction)call_back, METH_O, ""}'
+        )
+        tester = TestInteropLock()
+        entered = threading.Event()
+        proceed = threading.Event()
+        log = []
+
+        def blocking_callback():
+            log.append("first entered")
+            entered.set()
+            proceed.wait(10)
+            log.append("first left")
+
+        def first():
+            tester.call_back(blocking_callback)
+
+        def second():
+            entered.wait(10)
+            tester.call_back(lambda: log.append("second entered"))
+
+        contention = _thread.__truffle_interop_lock_contention__()
+        threads = [threading.Thread(target=first), threading.Thread(target=second)]
+        for t in threads:
+            t.start()
+        # the first thread is still inside the native function, so the second one has to wait
+        for _ in range(1000):
+            if _thread.__truffle_interop_lock_contention__() > contention:
+                break
+            time.sleep(0.01)
+        proceed.set()
+        for t in threads:
+            t.join()
+        assert _thread.__truffle_interop_lock_contention__() > contention
+        assert log == ["first entered", "first left", "second entered"], log
@@ -1,4 +1,4 @@
-# Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -37,30 +37,26 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
-@__builtin__
-def reduce(function, iterable, initializer=None):
-    it = iter(iterable)
-    if initializer is None:
-        value = next(it)
-    else:
-        value = initializer
-    for element in it:
-        value = function(value, element)
-    return value
 
+def documented(a, b=2):
+    """adds two numbers"""
+    return a + b
 
-class partial:
-    def __init__(self, func, *args, **keywords):
-        def newfunc(*fargs, **fkeywords):
-            newkeywords = keywords.copy()
-            newkeywords.update(fkeywords)
-            return func(*args, *fargs, **newkeywords)
-        self.func = func
-        self.args = args
-        self.keywords = keywords
-        self.newfunc = newfunc
-    
-    def __call__(self, *args, **keywords):
-        return self.newfunc(*args, **keywords)
-    
-    # TODO: correctly implement '__reduce__' and '__setstate__'
+
+def only_doc():
+    """nothing else"""
+
+
+def closure(x):
+    def inner(y):
+        return [x + i for i in range(y)]
+    return inner
+
+
+def var_args(*args, **kwargs):
+    return len(args), sorted(kwargs)
+
+
+def generator(n):
+    for i in range(n):
+        yield i
@@ -413,6 +413,20 @@ def test_count():
     assert b"hello".count(b"ll") == 1, "3"
     assert b"hellohello".count(b"ll") == 2, "4"
     assert b"hellohello".count(b"ll", 5) == 1, "5"
+    assert b"hellohello".count(b"l", 1, -3) == 2, "6"
+    assert b"hello".count(b"") == 6, "7"
+    assert b"hello".count(b"", 10) == 0, "8"
+    assert b"aaaa".count(b"aa") == 2, "9"
+    assert b"hello".count(ord("l")) == 2, "10"
+    assert bytearray(b"hello").count(b"l") == 2, "11"
+    assert bytearray(b"hello").count(ord("o"), -1) == 1, "12"
+    haystack = b"abcdefgh" * 100 + b"needle in a haystack" + b"abcdefgh" * 100
+    assert haystack.count(b"needle in a haystack") == 1, "13"
+    assert haystack.count(b"defghabc") == 198, "14"
+    assert (b"a" * 1001).count(b"a" * 8) == 125, "15"
+    assert haystack.count(b"defghabc", 3, 811) == 99, "16"
+    assert bytearray(haystack).count(b"habcdefg", 500) == 136, "17"
+    assert_raises(ValueError, b"hello".count, 256)
 
 
 def test_rfind():
@@ -421,6 +435,26 @@ def test_rfind():
     assert b"hello".rfind(b"l") == 3, "3"
     assert b"hello".rfind(b"x") == -1, "4"
     assert b"hello".rfind(b"ll") == 2, "3"
+    assert b"hello".rfind(b"l", 0, 3) == 2, "5"
+    assert b"hello".rfind(b"l", -2) == 3, "6"
+    assert b"hello".rfind(b"", 10) == -1, "7"
+    assert b"hello".rfind(ord("h")) == 0, "8"
+    assert bytearray(b"hello").rfind(b"lo") == 3, "9"
+    haystack = b"needle in a haystack" + b"abcdefgh" * 100 + b"needle in a haystack" + b"abcdefgh" * 100
+    assert haystack.rfind(b"needle in a haystack") == 820, "10"
+    assert haystack.rfind(b"needle in a haystack", 0, 840) == 820, "11"
+    assert haystack.rfind(b"needle in a haystack", 0, 839) == 0, "12"
+    assert haystack.find(b"needle in a haystack", 1) == 820, "13"
+    assert haystack.find(b"hgfedcba") == -1, "14"
+
+
+def test_decode():
+    assert b"hello".decode() == "hello"
+    assert b"\xc3\xa4".decode("utf-8") == "\u00e4"
+    assert bytearray(b"\xc3\xa4").decode(errors="strict") == "\u00e4"
+    assert b"\xe4".decode("latin-1") == "\u00e4"
+    assert b"\xe4".decode("utf-8", "replace") == "\ufffd"
+    assert_raises(UnicodeDecodeError, b"\xe4".decode)
 
 
 def test_extend():
@@ -584,6 +618,11 @@ def test_strip_bytearray():
 
 def test_strip_bytes():
     assert b'abc'.strip(b'ac') == b'b'
+    assert b' \t\nabc \x0b\x0c\r'.strip() == b'abc'
+    assert b'\x1cabc\x1c'.strip() == b'\x1cabc\x1c'
+    assert b'   '.strip() == b''
+    assert b'abc'.strip(bytearray(b'cb')) == b'a'
+    assert bytearray(b'  abc  ').strip() == bytearray(b'abc')
     assert b'abc'.lstrip(b'ac') == b'bc'
     assert b'abc'.rstrip(b'ac') == b'ab'
 
@@ -640,6 +679,19 @@ class BaseTestSplit:
         self.assertEqual(self.type2test(b'').split(b' '), [b''])
         self.assertEqual(self.type2test(b'').rsplit(b' '), [b''])
 
+    def test_separator_at_ends(self):
+        self.assertEqual(self.type2test(b',a,,b,').split(b','), [b'', b'a', b'', b'b', b''])
+        self.assertEqual(self.type2test(b',a,,b,').rsplit(b','), [b'', b'a', b'', b'b', b''])
+        self.assertEqual(self.type2test(b',a,,b,').split(b',', 2), [b'', b'a', b',b,'])
+        self.assertEqual(self.type2test(b',a,,b,').rsplit(b',', 2), [b',a,', b'b', b''])
+
+    def test_long_separator(self):
+        sep = b'<separator>'
+        b = self.type2test(sep.join([b'x' * i for i in range(40)]))
+        self.assertEqual(b.split(sep), [b'x' * i for i in range(40)])
+        self.assertEqual(b.rsplit(sep), [b'x' * i for i in range(40)])
+        self.assertEqual(b.rsplit(sep, 1), [sep.join([b'x' * i for i in range(39)]), b'x' * 39])
+
     def test_empty_separator(self):
         self.assertRaises(ValueError, self.type2test(b'a b').split, b'')
         self.assertRaises(ValueError, self.type2test(b'a b').rsplit, b'')
@@ -682,6 +734,42 @@ def test_add_mv_to_bytearray():
     ba += mv
     assert ba == b'hello world'
 
+
+def test_big_prefix_slices():
+    b = bytes(range(256)) * 4
+    s = b[:1000]
+    assert len(s) == 1000 and s[999] == 999 % 256
+    s += b'!'
+    assert s[1000] == ord('!') and b[1000] == 1000 % 256
+    ba = bytearray(b[:900])
+    ba[0] = 42
+    assert b[0] == 0 and ba[0] == 42
+    assert b[:1024] == b
+
+
+def test_big_offset_slices():
+    b = (b'header' + bytes(range(256)) * 4 + 'caf\xe9'.encode()) * 2
+    for s in (b[6:], b[6:1030], b[1:-1], b[1036:]):
+        expected = bytes(s[i] for i in range(len(s)))
+        assert len(s) == len(expected) and s == expected
+        assert hash(s) == hash(expected)
+        assert s[10:300] == expected[10:300] and s[5:400:3] == expected[5:400:3]
+        assert s.find(b'caf') == expected.find(b'caf')
+        assert s.rfind(b'head') == expected.rfind(b'head')
+        assert s.find(7, 300) == expected.find(7, 300)
+        assert s.rfind(255) == expected.rfind(255)
+        assert s.count(b'\x01\x02') == expected.count(b'\x01\x02')
+        assert s.count(0) == expected.count(0)
+        assert s.startswith(expected[:8]) and s.endswith(expected[-8:])
+        assert s.decode('latin-1') == expected.decode('latin-1')
+        assert list(s) == list(expected)
+        assert bytearray(s) == expected
+        t = s + b'!'
+        assert t[:-1] == expected and t[-1] == ord('!')
+    text = ('abc' * 100 + 'caf\xe9') * 2
+    assert text.encode()[3:].decode() == text[3:]
+
+
 class BaseLikeBytes:
 
     def test_maketrans(self):
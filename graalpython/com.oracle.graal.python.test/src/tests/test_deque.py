@@ -629,3 +629,53 @@ class TestBasic(unittest.TestCase):
         klass = type(reversed(deque()))
         for s in ('abcd', range(2000)):
             self.assertEqual(list(klass(deque(s))), list(reversed(s)))
+
+    def test_mixed_element_types(self):
+        d = deque(range(5))
+        d.append(5.5)
+        d.appendleft('x')
+        d.insert(3, None)
+        self.assertEqual(list(d), ['x', 0, 1, None, 2, 3, 4, 5.5])
+        d = deque([1.5, 2.5], maxlen=3)
+        d.append(3)
+        d.append(4.5)
+        self.assertEqual(list(d), [2.5, 3, 4.5])
+        d[0] = 'a'
+        self.assertEqual(d.pop(), 4.5)
+        self.assertEqual(d.popleft(), 'a')
+
+    def test_rotate_wraparound(self):
+        d = deque(range(10))
+        for i in range(5):
+            d.popleft()
+            d.append(i + 10)
+        s = list(d)
+        d.rotate(3)
+        self.assertEqual(list(d), s[-3:] + s[:-3])
+        d.rotate(-13)
+        self.assertEqual(list(d), s)
+        d.reverse()
+        self.assertEqual(list(d), s[::-1])
+
+    def test_index_conversion(self):
+        class Index:
+            def __index__(self):
+                return 1
+
+        d = deque('abc')
+        self.assertEqual(d[Index()], 'b')
+        d[Index()] = 'x'
+        self.assertEqual(list(d), ['a', 'x', 'c'])
+        del d[Index()]
+        d.insert(Index(), 'y')
+        self.assertEqual(list(d), ['a', 'y', 'c'])
+        self.assertEqual(d.index('c', Index()), 2)
+        self.assertRaises(TypeError, d.__getitem__, 1.5)
+        self.assertRaises(TypeError, d.__setitem__, 1.5, 'z')
+        self.assertRaises(TypeError, d.__delitem__, 1.5)
+        self.assertRaises(TypeError, d.insert, 1.5, 'z')
+        self.assertRaises(TypeError, d.index, 'c', 1.5)
+        self.assertRaises(TypeError, deque, 'abc', 1.5)
+        with self.assertRaises(IndexError):
+            d[2 ** 100]
+        self.assertEqual(list(d), ['a', 'y', 'c'])
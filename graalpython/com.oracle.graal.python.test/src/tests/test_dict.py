@@ -597,3 +597,129 @@ def test_calling_hash_and_eq():
     assert b in d
     assert count_hash == 4, count_hash
     assert count_eq == 1, count_eq
+
+
+def test_eq_deletes_compared_entry():
+    class Key(object):
+        doomed = False
+
+        def __hash__(self):
+            return 7
+
+        def __eq__(self, other):
+            victim = self if self.doomed else other if isinstance(other, Key) and other.doomed else None
+            if victim is not None and self is not other:
+                # deletes the compared entry in place; the lookup must start over
+                victim.doomed = False
+                del d[victim]
+                return True
+            return self is other
+
+    for size in (2, 20):
+        d = {}
+        stored = Key()
+        d[stored] = 1
+        stored.doomed = True
+        for i in range(size - 1):
+            d[i] = i
+        probe = Key()
+        assert probe not in d
+        assert stored not in d
+        assert len(d) == size - 1
+
+
+def test_int_keys():
+    d = {}
+    for i in range(200):
+        d[i * 1000003] = i
+    assert len(d) == 200
+    assert d[5 * 1000003] == 5
+    assert d.get(1) is None
+    assert d[0.0] == 0
+    assert True not in d
+    d[True] = 'one'
+    assert d[1] == 'one'
+    d[3000009.0] = 'three'
+    assert d[3 * 1000003] == 'three'
+    assert type(list(d.keys())[3]) is int
+    del d[2 * 1000003]
+    assert 2 * 1000003 not in d
+    assert list(d.keys())[:3] == [0, 1000003, 3000009]
+    d['x'] = 'x'
+    assert d['x'] == 'x' and d[0] == 0
+
+
+def test_many_string_keys():
+    d = {}
+    for i in range(500):
+        d['k%d' % i] = i
+    for i in range(0, 500, 2):
+        del d['k%d' % i]
+    assert len(d) == 250
+    assert list(d)[:3] == ['k1', 'k3', 'k5']
+    assert d['k499'] == 499
+    assert 'k0' not in d
+    d[1] = 'one'
+    assert d[1] == 'one' and d['k1'] == 1
+    d2 = dict(('s%d' % i, i) for i in range(300))
+    d2.update(a=1)
+    assert len(d2) == 301 and d2['s299'] == 299
+
+
+def test_dict_from_int_pairs_and_kwargs():
+    d = dict([(1, 'a'), (2, 'b')], x='y')
+    assert d == {1: 'a', 2: 'b', 'x': 'y'}
+
+
+def test_update():
+    d = {'a': 1}
+    assert d.update({'b': 2}, c=3) is None
+    assert d == {'a': 1, 'b': 2, 'c': 3}
+    d.update([('a', 4), ['e', 5]])
+    assert d == {'a': 4, 'b': 2, 'c': 3, 'e': 5}
+    d.update(d)
+    assert d == {'a': 4, 'b': 2, 'c': 3, 'e': 5}
+
+    class Mapping:
+        def keys(self):
+            return ['x', 'y']
+
+        def __getitem__(self, key):
+            return key * 2
+
+    d = {}
+    d.update(Mapping(), z=1)
+    assert d == {'x': 'xx', 'y': 'yy', 'z': 1}
+    assert list(d) == ['x', 'y', 'z']
+
+    d = {i: i for i in range(100)}
+    d.update({i: -i for i in range(50, 150)})
+    assert len(d) == 150 and d[49] == 49 and d[50] == -50 and d[149] == -149
+    assert list(d)[:3] == [0, 1, 2]
+
+    d = {}
+    d.update({(1, 2)})
+    assert d == {1: 2}
+    assert_raises(TypeError, d.update, {1, 2})
+    assert_raises(TypeError, d.update, {}, {})
+    assert_raises(TypeError, d.update, 1)
+    # strings and other primitives go through the generic sequence protocol
+    assert_raises(ValueError, d.update, 'ab')
+    d.update(['ab', 'cd'])
+    assert d == {1: 2, 'a': 'b', 'c': 'd'}
+    d.update(iter([]))
+    assert d == {1: 2, 'a': 'b', 'c': 'd'}
+
+
+def test_fromkeys_collections():
+    d = dict.fromkeys({'a': 1, 'b': 2}, 0)
+    assert d == {'a': 0, 'b': 0}
+    d = dict.fromkeys(set(range(100)))
+    assert len(d) == 100 and d[99] is None
+
+    class MyDict(dict):
+        pass
+
+    d = MyDict.fromkeys('ab', 1)
+    assert type(d) == MyDict
+    assert d == {'a': 1, 'b': 1}
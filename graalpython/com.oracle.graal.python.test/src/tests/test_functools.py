@@ -0,0 +1,157 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import functools
+import unittest
+
+
+def capture(*args, **kw):
+    return args, kw
+
+
+class PartialTests(unittest.TestCase):
+    def test_call(self):
+        p = functools.partial(capture, 1, 2, a=10, b=20)
+        self.assertEqual(p(), ((1, 2), {'a': 10, 'b': 20}))
+        self.assertEqual(p(3, 4), ((1, 2, 3, 4), {'a': 10, 'b': 20}))
+        self.assertEqual(p(b=30, c=40), ((1, 2), {'a': 10, 'b': 30, 'c': 40}))
+        self.assertEqual(p(), ((1, 2), {'a': 10, 'b': 20}))
+
+    def test_attributes(self):
+        p = functools.partial(capture, 1, a=2)
+        self.assertIs(p.func, capture)
+        self.assertEqual(p.args, (1,))
+        self.assertEqual(p.keywords, {'a': 2})
+        p.attr = 42
+        self.assertEqual(p.attr, 42)
+        self.assertRaises(TypeError, functools.partial, 1)
+        self.assertRaises(TypeError, functools.partial)
+
+    def test_nested(self):
+        inner = functools.partial(capture, 1, a=1, b=2)
+        outer = functools.partial(inner, 2, b=3)
+        self.assertIs(outer.func, capture)
+        self.assertEqual(outer.args, (1, 2))
+        self.assertEqual(outer(), ((1, 2), {'a': 1, 'b': 3}))
+
+    def test_repr(self):
+        p = functools.partial(capture, 1, a=2)
+        self.assertEqual(repr(p), 'functools.partial(%r, 1, a=2)' % capture)
+
+    def test_reduce(self):
+        p = functools.partial(capture, 1, a=2)
+        cls, args, state = p.__reduce__()
+        q = cls(*args)
+        q.__setstate__(state)
+        self.assertEqual(q(3), ((1, 3), {'a': 2}))
+
+
+class ReduceTests(unittest.TestCase):
+    def test_reduce(self):
+        add = lambda x, y: x + y
+        self.assertEqual(functools.reduce(add, range(5)), 10)
+        self.assertEqual(functools.reduce(add, range(5), 10), 20)
+        self.assertEqual(functools.reduce(add, ['a', 'b', 'c']), 'abc')
+        self.assertEqual(functools.reduce(add, [], 42), 42)
+        self.assertIsNone(functools.reduce(add, [], None))
+        self.assertEqual(functools.reduce(add, [1]), 1)
+        self.assertRaises(TypeError, functools.reduce, add, [])
+        self.assertRaises(TypeError, functools.reduce, add, 42)
+
+
+class LruCacheTests(unittest.TestCase):
+    def test_bounded(self):
+        calls = []
+
+        @functools.lru_cache(maxsize=2)
+        def f(x):
+            calls.append(x)
+            return x * 2
+
+        self.assertEqual(f(1), 2)
+        self.assertEqual(f(2), 4)
+        self.assertEqual(f(1), 2)
+        self.assertEqual(f(3), 6)
+        # 2 was the least recently used entry and has been evicted
+        self.assertEqual(f(2), 4)
+        self.assertEqual(calls, [1, 2, 3, 2])
+        self.assertEqual(f.cache_info(), (1, 4, 2, 2))
+        f.cache_clear()
+        self.assertEqual(f.cache_info(), (0, 0, 2, 0))
+
+    def test_unbounded(self):
+        @functools.lru_cache(maxsize=None)
+        def fib(n):
+            return n if n < 2 else fib(n - 1) + fib(n - 2)
+
+        self.assertEqual(fib(80), 23416728348467685)
+        self.assertEqual(fib.cache_info().misses, 81)
+        self.assertEqual(fib.__name__, 'fib')
+        self.assertEqual(fib.__wrapped__.__name__, 'fib')
+
+    def test_keywords_and_typed(self):
+        @functools.lru_cache(typed=True)
+        def f(*args, **kw):
+            return args, kw
+
+        self.assertEqual(f(1, a=2), ((1,), {'a': 2}))
+        self.assertEqual(f(1, a=2), ((1,), {'a': 2}))
+        f(1.0, a=2)
+        self.assertEqual(f.cache_info().hits, 1)
+        self.assertEqual(f.cache_info().misses, 2)
+
+    def test_zero_size(self):
+        @functools.lru_cache(maxsize=0)
+        def f(x):
+            return x
+
+        f(1)
+        f(1)
+        self.assertEqual(f.cache_info(), (0, 2, 0, 0))
+
+    def test_method(self):
+        class A:
+            @functools.lru_cache()
+            def m(self, x):
+                return self, x
+
+        a = A()
+        self.assertEqual(a.m(1), (a, 1))
+        self.assertEqual(A.m(a, 1), (a, 1))
+        self.assertEqual(A.m.cache_info().hits, 1)
@@ -52,3 +52,37 @@ def test_callCustomAttr():
 def test_getattr():
     assert getattr(CustomAttr(), "uff") == "hello from uff"
     
+
+
+def test_megamorphic_lookup():
+    class Base:
+        def name(self):
+            return "base"
+
+    classes = [type("C%d" % i, (Base,), {}) for i in range(20)]
+    classes.append(type("Override", (Base,), {"name": lambda self: "override"}))
+
+    def names():
+        return [cls().name() for cls in classes]
+
+    assert names() == ["base"] * 20 + ["override"]
+    assert names() == ["base"] * 20 + ["override"]
+
+    Base.name = lambda self: "patched"
+    assert names() == ["patched"] * 20 + ["override"]
+
+    classes[3].name = lambda self: "sub"
+    assert names()[3] == "sub"
+    assert names()[4] == "patched"
+
+    del classes[3].name
+    assert names()[3] == "patched"
+
+    del Base.name
+    try:
+        classes[0]().name()
+    except AttributeError:
+        pass
+    else:
+        assert False
+    assert classes[-1]().name() == "override"
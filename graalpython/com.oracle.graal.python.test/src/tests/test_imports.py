@@ -82,6 +82,73 @@ def test_recursive_import2():
         raise e
 
 
+def test_imported_functions():
+    from package import moduleFunctions as m
+    assert m.documented.__doc__ == "adds two numbers"
+    assert m.documented(1) == 3
+    assert m.documented(1, b=3) == 4
+    assert m.only_doc.__doc__ == "nothing else"
+    assert m.only_doc() is None
+    assert m.closure(10)(3) == [10, 11, 12]
+    assert m.var_args(1, 2, c=3, a=4) == (2, ["a", "c"])
+    assert m.var_args.__code__.co_flags & 0x0c == 0x0c
+    assert list(m.generator(3)) == [0, 1, 2]
+
+
+def test_syntax_error_in_function_body():
+    import io
+    import os
+    import tempfile
+    bodies = ["def f():\n    nonlocal x\n    x = 1\n",
+              "def f():\n    del f()\n",
+              "def f():\n    class C:\n        return 1\n",
+              "def f():\n    def g():\n        a, *b, *c = range(3)\n",
+              "def f():\n    for *a in range(3):\n        pass\n",
+              "def f():\n    with open('x') as (*a, *b):\n        pass\n",
+              "def f():\n    return [1 for *a, *b in ()]\n",
+              "def f():\n    x += 1\n    (x, y) += 1\n"]
+    for body in bodies:
+        # the function is never called, the error must be found when compiling it
+        try:
+            compile(body, "<test>", "exec")
+        except SyntaxError:
+            pass
+        else:
+            assert False, "expected SyntaxError for %r" % body
+    with tempfile.TemporaryDirectory() as tmpdir:
+        for i, body in enumerate(bodies):
+            with io.open(os.path.join(tmpdir, "bad_body_%d.py" % i), "w") as f:
+                f.write(body)
+        sys.path.insert(0, tmpdir)
+        try:
+            for i in range(len(bodies)):
+                try:
+                    __import__("bad_body_%d" % i)
+                except SyntaxError:
+                    pass
+                else:
+                    assert False, "expected SyntaxError for %r" % bodies[i]
+        finally:
+            sys.path.remove(tmpdir)
+
+
+def test_valid_function_body_not_called():
+    import io
+    import os
+    import tempfile
+    # deleting a closure variable is valid, also in a function that is never called
+    body = "def f():\n    x = 1\n    def g():\n        return x\n    del x\n    return g\n"
+    compile(body, "<test>", "exec")
+    with tempfile.TemporaryDirectory() as tmpdir:
+        with io.open(os.path.join(tmpdir, "good_body.py"), "w") as f:
+            f.write(body)
+        sys.path.insert(0, tmpdir)
+        try:
+            __import__("good_body")
+        finally:
+            sys.path.remove(tmpdir)
+
+
 def test_import_star_has_to_be_module():
     compile("from foo import *", "exec", "exec")
 
@@ -130,6 +197,15 @@ def test_imp_fix_co_filename():
     assert code.co_filename == old_name + '_more_path'
 
 
+def test_imp_source_hash():
+    import _imp
+    h = _imp.source_hash(42, b"x = 1")
+    assert len(h) == 8
+    assert h == _imp.source_hash(42, bytes(b"x = 1"))
+    assert h != _imp.source_hash(42, b"x = 2")
+    assert h != _imp.source_hash(43, b"x = 1")
+
+
 def test_recursive_import_from():
     if sys.version_info.minor >= 6:
         import package.recpkg
@@ -82,6 +82,78 @@ def test_bigint_mul():
     assert 99999937497465632974931 * (2**100) == 126764980791447734004805377032945185921379990352429056
 
 
+def test_int128_arithmetic():
+    max64 = 2**63 - 1
+    min64 = -2**63
+    max128 = 2**127 - 1
+    min128 = -2**127
+    assert max64 + max64 == 18446744073709551614
+    assert min64 + min64 == -18446744073709551616
+    assert min64 - max64 == -18446744073709551615
+    assert max64 - min64 == 18446744073709551615
+    assert max64 * max64 == 85070591730234615847396907784232501249
+    assert min64 * min64 == 85070591730234615865843651857942052864
+    assert min64 * max64 == -85070591730234615856620279821087277056
+    assert max64 << 63 == 85070591730234615856620279821087277056
+    assert -3 << 62 == -13835058055282163712
+    assert min64.__rsub__(1) == 9223372036854775809
+    assert (max64 + 1).__rsub__(1) == -9223372036854775807
+    # results crossing the 128-bit boundary
+    assert max128 + 1 == 170141183460469231731687303715884105728
+    assert min128 - 1 == -170141183460469231731687303715884105729
+    assert min128 + max128 == -1
+    assert max128 - max128 == 0
+    assert (max128 + 1) - 1 == max128
+    assert min64 * min64 * 2 - 1 == max128
+    # carries and borrows between the two halves
+    assert (2**64 - 1) + 1 == 2**64
+    assert 2**64 - 1 == 18446744073709551615
+    assert -2**64 + 1 == -18446744073709551615
+    x = 0
+    for i in range(130):
+        x = x + x + 1
+    assert x == 2**130 - 1
+    for i in range(130):
+        x = x - (x + 1) // 2
+    assert x == 0
+    assert max64 * max64 < max128
+    assert min64 * max64 < min64
+    assert max64 * max64 > max64 * max64 - 1
+    assert max64 * max64 >= -(max64 * max64)
+    assert max64 * max64 <= max64 * max64
+    assert max64 * max64 == (max64 * max64 + 1) - 1
+    assert hash(max64 * max64) == hash((max64 * max64 + 1) - 1)
+
+
+def test_int128_mul_long():
+    max64 = 2**63 - 1
+    min64 = -2**63
+    max128 = 2**127 - 1
+    min128 = -2**127
+    x = max64 * 3
+    assert x * 5 == 138350580552821637105
+    assert 5 * x == 138350580552821637105
+    assert x * -7 == -193690812773950291947
+    assert (min64 * 2) * min64 == 2**127
+    assert (min64 * 2) * max64 == -170141183460469231713240559642174554112
+    assert (min64 * 4) * -min64 * -1 == 2**128
+    assert (max64 * 5) * max64 * max64 == 3923188584616675476121309513551272272214667955473712414715
+    # products crossing the 128-bit boundary
+    assert (max128 // 3 + 1) * 3 == max128 + 2
+    assert (min128 // 2) * 2 == min128
+    assert (min128 // 2) * -2 == 2**127
+    assert (-(2**126)) * 2 == min128
+    # lower halves with the top bit set
+    y = 2**64 + 2**63
+    assert y * 3 == 83010348331692982272
+    assert y * -3 == -83010348331692982272
+    assert -y * max64 == -255211775190703847569860839463261831168
+    f = 1
+    for i in range(1, 35):
+        f = f * i
+    assert f == 295232799039604140847618609643520000000
+
+
 def test_int_from_custom():
     class CustomInt4():
         def __int__(self):
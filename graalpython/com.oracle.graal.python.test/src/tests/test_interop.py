@@ -279,6 +279,34 @@ if sys.implementation.name == "graalpython":
         else:
             assert False, "requesting a non-existing host symbol should raise KeyError"
 
+    def test_host_calls_run_concurrently():
+        import java
+        import threading
+        import _thread
+        try:
+            CyclicBarrier = java.type("java.util.concurrent.CyclicBarrier")
+            TimeUnit = java.type("java.util.concurrent.TimeUnit")
+        except NotImplementedError as e:
+            assert "host lookup is not allowed" in str(e)
+            return
+
+        # both threads must be inside a host call at the same time to pass the barrier
+        barrier = CyclicBarrier(2)
+        arrivals = []
+
+        def wait_at_barrier():
+            arrivals.append(getattr(barrier, "await")(10, TimeUnit.SECONDS))
+
+        contention = _thread.__truffle_interop_lock_contention__()
+        threads = [threading.Thread(target=wait_at_barrier) for _ in range(2)]
+        for t in threads:
+            t.start()
+        for t in threads:
+            t.join()
+        assert sorted(arrivals) == [0, 1], arrivals
+        # host calls do not take the interop lock
+        assert _thread.__truffle_interop_lock_contention__() == contention
+
     def test_internal_languages_dont_eval():
         try:
             polyglot.eval(language="nfi", string="default")
@@ -98,3 +98,86 @@ class CombinationsTests(unittest.TestCase):
         self.assertRaises(ExpectedError, gulp, [None], keyfunc)
         keyfunc.skip = 1
         self.assertRaises(ExpectedError, gulp, [None, None], keyfunc)
+
+    def test_groupby_none_keys(self):
+        r = [(k, list(g)) for k, g in groupby([None, None, 1, None])]
+        self.assertEqual(r, [(None, [None, None]), (1, [1]), (None, [None])])
+
+    def test_chain(self):
+        self.assertEqual(list(chain('abc', 'def')), list('abcdef'))
+        self.assertEqual(list(chain('abc')), list('abc'))
+        self.assertEqual(list(chain('')), [])
+        self.assertEqual(list(chain([1, 2], range(3, 5), (5,))), [1, 2, 3, 4, 5])
+        self.assertEqual(list(chain.from_iterable(['abc', 'def'])), list('abcdef'))
+        self.assertRaises(TypeError, list, chain(2, 3))
+
+    def test_islice(self):
+        self.assertEqual(list(islice(range(10), 3)), [0, 1, 2])
+        self.assertEqual(list(islice(range(10), 2, 8, 3)), [2, 5])
+        self.assertEqual(list(islice(range(10), 2, None)), list(range(2, 10)))
+        self.assertEqual(list(islice(range(10), None, None, 4)), [0, 4, 8])
+        self.assertEqual(list(islice(range(10), 5, 2)), [])
+        self.assertEqual(list(islice(count(), 3, 6)), [3, 4, 5])
+        it = iter(range(10))
+        self.assertEqual(list(islice(it, 3)), [0, 1, 2])
+        self.assertEqual(next(it), 3)
+        self.assertRaises(ValueError, islice, range(10), -1)
+        self.assertRaises(ValueError, islice, range(10), 1, 5, 0)
+        self.assertRaises(ValueError, islice, range(10), 'a')
+        self.assertRaises(TypeError, islice, range(10))
+        self.assertRaises(TypeError, islice, range(10), 1, 2, 3, 4)
+
+    def test_count(self):
+        self.assertEqual(list(islice(count(), 3)), [0, 1, 2])
+        self.assertEqual(list(islice(count(10, -2), 3)), [10, 8, 6])
+        self.assertEqual(list(islice(count(0.5, 0.25), 3)), [0.5, 0.75, 1.0])
+        self.assertEqual(repr(count(3)), 'count(3)')
+        self.assertEqual(repr(count(3, 2)), 'count(3, 2)')
+        c = count(2 ** 63 - 1)
+        next(c)
+        self.assertEqual(next(c), 2 ** 63)
+        self.assertRaises(TypeError, count, 'a')
+
+    def test_cycle(self):
+        self.assertEqual(list(islice(cycle('abc'), 7)), list('abcabca'))
+        self.assertEqual(list(cycle('')), [])
+
+    def test_accumulate(self):
+        self.assertEqual(list(accumulate(range(5))), [0, 1, 3, 6, 10])
+        self.assertEqual(list(accumulate([2, 3, 1], max)), [2, 3, 3])
+        self.assertEqual(list(accumulate(['a', 'b'])), ['a', 'ab'])
+        self.assertEqual(list(accumulate([])), [])
+
+    def test_zip_longest(self):
+        self.assertEqual(list(zip_longest('ab', 'xyz')), [('a', 'x'), ('b', 'y'), (None, 'z')])
+        self.assertEqual(list(zip_longest('ab', 'x', fillvalue='-')), [('a', 'x'), ('b', '-')])
+        self.assertEqual(list(zip_longest()), [])
+
+    def test_permutations(self):
+        self.assertEqual(list(permutations(range(3), 2)), [(0, 1), (0, 2), (1, 0), (1, 2), (2, 0), (2, 1)])
+        self.assertEqual(len(list(permutations(range(4)))), 24)
+        self.assertEqual(list(permutations('ab', 3)), [])
+        self.assertEqual(list(permutations('ab', 0)), [()])
+        self.assertRaises(ValueError, permutations, 'ab', -1)
+
+    def test_permutations_pickle(self):
+        import pickle
+        it = permutations(range(3), 2)
+        next(it)
+        self.assertEqual(list(pickle.loads(pickle.dumps(it))), [(0, 2), (1, 0), (1, 2), (2, 0), (2, 1)])
+        self.assertEqual(list(it), [(0, 2), (1, 0), (1, 2), (2, 0), (2, 1)])
+        # an exhausted iterator must stay exhausted
+        self.assertEqual(list(pickle.loads(pickle.dumps(it))), [])
+        # also right after the last permutation, before StopIteration was raised
+        it = permutations('ab')
+        self.assertEqual(next(it), ('a', 'b'))
+        self.assertEqual(next(it), ('b', 'a'))
+        self.assertEqual(list(pickle.loads(pickle.dumps(it))), [])
+        it = permutations('ab', 3)
+        self.assertEqual(list(pickle.loads(pickle.dumps(it))), [])
+
+    def test_product(self):
+        self.assertEqual(list(product('ab', range(2))), [('a', 0), ('a', 1), ('b', 0), ('b', 1)])
+        self.assertEqual(list(product(range(2), repeat=2)), [(0, 0), (0, 1), (1, 0), (1, 1)])
+        self.assertEqual(list(product()), [()])
+        self.assertEqual(list(product('ab', '')), [])
@@ -697,6 +697,32 @@ class ListTest(list_tests.CommonTest):
         l.extend(b)
         self.assertEqual(l, [1,2,3,4,255])
 
+    def test_bool_list(self):
+        n = 200
+        sieve = [True] * n
+        sieve[0] = sieve[1] = False
+        for i in range(2, n):
+            if sieve[i]:
+                for j in range(i * i, n, i):
+                    sieve[j] = False
+        primes = [i for i in range(n) if sieve[i]]
+        self.assertEqual(primes[:10], [2, 3, 5, 7, 11, 13, 17, 19, 23, 29])
+        self.assertEqual(len(primes), 46)
+        self.assertEqual(sieve.index(True), 2)
+
+        l = [False, True] * 50
+        l2 = l[3:77] + l
+        self.assertEqual(len(l2), 174)
+        self.assertEqual(l2[:4], [True, False, True, False])
+        self.assertEqual(l2[74:78], [False, True, False, True])
+        l2.insert(70, True)
+        l2.reverse()
+        self.assertEqual(l2[:4], [True, False, True, False])
+        self.assertEqual(l2.pop(), True)
+        l2.extend(l2)
+        self.assertEqual(len(l2), 348)
+        self.assertEqual(l2[:174], l2[174:])
+
     def test_init_extend_with_lying_list(self):
         class LyingList(list):
             def __iter__(self):
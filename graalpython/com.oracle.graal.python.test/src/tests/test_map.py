@@ -80,3 +80,37 @@ def test_map_contains():
     m = map(lambda s: s, X())
     assert 0 in m
     assert 0 not in m
+
+
+def test_map_sources():
+    assert list(map(lambda x: x + 1, range(2, 12, 3))) == [3, 6, 9, 12]
+    assert list(map(str, (1, 2))) == ["1", "2"]
+    m = map(lambda x: -x, [1, 2, 3])
+    assert next(m) == -1
+    assert list(m) == [-2, -3]
+    assert list(m) == []
+    assert list(map(lambda x, y: x + y, range(3), "abcd", [])) == []
+    assert sum(map(lambda x: x * 2, range(100))) == 9900
+    assert iter(m) is m
+
+
+def test_filter():
+    assert list(filter(None, [0, 1, "", "a", None, [], [0]])) == [1, "a", [0]]
+    assert list(filter(lambda x: x % 3 == 0, range(10))) == [0, 3, 6, 9]
+    assert list(filter(lambda x: x > "b", iter("abcd"))) == ["c", "d"]
+    items = [1, 2, 3, 4]
+
+    def shrink(x):
+        del items[-1]
+        return True
+
+    assert list(filter(shrink, items)) == [1, 2]
+
+
+def test_any_all():
+    assert any(x > 5 for x in range(10))
+    assert not any([])
+    assert not any(map(bool, [0, "", None]))
+    assert all(range(1, 4))
+    assert not all([1, 0, 1])
+    assert all(())
@@ -0,0 +1,181 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+import io
+
+
+def test_stringio_read_write():
+    s = io.StringIO("hello\nworld\n")
+    assert s.readline() == "hello\n"
+    assert s.read() == "world\n"
+    assert s.read() == ""
+    assert s.write("!") == 1
+    assert s.getvalue() == "hello\nworld\n!"
+    assert s.seek(0) == 0
+    assert list(s) == ["hello\n", "world\n", "!"]
+    s.seek(20)
+    s.write("x")
+    assert s.getvalue() == "hello\nworld\n!" + "\0" * 7 + "x"
+
+
+def test_stringio_newline():
+    s = io.StringIO("a\r\nb\rc\n", newline=None)
+    assert s.getvalue() == "a\nb\nc\n"
+    s = io.StringIO(newline="")
+    s.write("a\r\nb\rc\n")
+    assert s.getvalue() == "a\r\nb\rc\n"
+    s.seek(0)
+    assert s.readlines() == ["a\r\n", "b\r", "c\n"]
+    s = io.StringIO(newline="\r\n")
+    s.write("a\nb")
+    assert s.getvalue() == "a\r\nb"
+    try:
+        io.StringIO(newline="x")
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_stringio_newline_split():
+    s = io.StringIO(newline=None)
+    s.write("a\r")
+    assert s.getvalue() == "a\n"
+    assert s.write("\nb\r") == 3
+    assert s.getvalue() == "a\nb\n"
+    s.write("\r\n")
+    assert s.getvalue() == "a\nb\n\n"
+    s = io.StringIO(newline="")
+    s.write("a\r")
+    s.write("\nb")
+    assert s.getvalue() == "a\r\nb"
+    s.seek(0)
+    assert s.readlines() == ["a\r\n", "b"]
+
+def test_stringio_seek_truncate_close():
+    s = io.StringIO("abcdef")
+    s.seek(0, 2)
+    assert s.tell() == 6
+    assert s.truncate(3) == 3
+    assert s.getvalue() == "abc"
+    try:
+        s.seek(1, 1)
+    except OSError:
+        pass
+    else:
+        assert False, "expected OSError"
+    with s:
+        assert not s.closed
+    assert s.closed
+    try:
+        s.read()
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_bytesio_read_write():
+    b = io.BytesIO(b"ab\ncd")
+    assert b.readline() == b"ab\n"
+    assert b.read(1) == b"c"
+    assert b.read() == b"d"
+    b.seek(0, 2)
+    assert b.write(bytearray(b"ef")) == 2
+    assert b.getvalue() == b"ab\ncdef"
+    b.seek(10)
+    b.write(b"z")
+    assert b.getvalue() == b"ab\ncdef\0\0\0z"
+    assert b.truncate(2) == 2
+    assert b.getvalue() == b"ab"
+
+
+def test_bytesio_readinto_getbuffer():
+    b = io.BytesIO(b"hello")
+    buf = bytearray(3)
+    assert b.readinto(buf) == 3
+    assert buf == bytearray(b"hel")
+    assert b.readinto(buf) == 2
+    assert buf == bytearray(b"lol")
+    view = b.getbuffer()
+    assert bytes(view) == b"hello"
+
+
+def test_bytesio_getbuffer_exports():
+    b = io.BytesIO(b"hello")
+    view = b.getbuffer()
+    view[0] = ord("j")
+    assert b.getvalue() == b"jello"
+    for op in (lambda: b.write(b"x"), lambda: b.truncate(1), b.close):
+        try:
+            op()
+        except BufferError:
+            pass
+        else:
+            assert False, "expected BufferError"
+    b.seek(1)
+    assert b.read() == b"ello"
+    view.release()
+    b.write(b"!")
+    assert b.getvalue() == b"jello!"
+    with b.getbuffer() as view:
+        assert len(view) == 6
+    b.truncate(1)
+    assert b.getvalue() == b"j"
+    b.close()
+
+
+def test_io_abcs():
+    assert isinstance(io.StringIO(), io.TextIOBase)
+    assert isinstance(io.BytesIO(), io.BufferedIOBase)
+
+    class MyIO(io.StringIO):
+        pass
+
+    m = MyIO("x")
+    assert m.read() == "x"
+
+
+def test_textiowrapper_readline():
+    data = "".join("line %d\n" % i for i in range(1000))
+    w = io.TextIOWrapper(io.BytesIO(data.encode("utf-8")), encoding="utf-8")
+    lines = w.readlines()
+    assert len(lines) == 1000
+    assert "".join(lines) == data
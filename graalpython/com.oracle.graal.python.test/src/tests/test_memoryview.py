@@ -1,4 +1,4 @@
-# Copyright (c) 2018, Oracle and/or its affiliates.
+# Copyright (c) 2018, 2020, Oracle and/or its affiliates.
 # Copyright (C) 1996-2017 Python Software Foundation
 #
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
@@ -25,7 +25,7 @@ def test_readonly():
         assert False
 
 
-def _test_assignment():
+def test_assignment():
     data = bytearray(b'abcefg')
     v = memoryview(data)
     v[0] = ord(b'z')
@@ -33,9 +33,9 @@ def _test_assignment():
     v[1:4] = b'123'
     assert data == bytearray(b'z123fg')
     try:
-            v[2:3] = b'spam'
+        v[2:3] = b'spam'
     except ValueError:
-            assert True
+        assert True
     else:
         assert False
     v[2:6] = b'spam'
@@ -50,3 +50,140 @@ def test_tobytes():
     b = b"\xff\x00\x00"
     v = memoryview(b)
     assert v.tobytes() == b
+
+
+def test_slice_shares_storage():
+    data = bytearray(b'abcdef')
+    v = memoryview(data)[1:5]
+    v[0] = ord('x')
+    assert data == bytearray(b'axcdef')
+    data[2] = ord('y')
+    assert v.tobytes() == b'xyde'
+    assert v[::2].tobytes() == b'xd'
+    assert v.obj is data
+
+
+def test_cast():
+    data = bytearray(range(12))
+    v = memoryview(data).cast('B', (3, 4))
+    assert v.ndim == 2
+    assert v.shape == (3, 4)
+    assert v.strides == (4, 1)
+    assert v.tolist() == [[0, 1, 2, 3], [4, 5, 6, 7], [8, 9, 10, 11]]
+    assert v[1, 2] == 6
+    v[2, 3] = 42
+    assert data[11] == 42
+    w = memoryview(bytearray(b'\x01\x00\x02\x00')).cast('h')
+    assert w.itemsize == 2
+    assert w.format == 'h'
+    assert len(w) == 2
+    assert w.nbytes == 4
+    try:
+        memoryview(b'abc').cast('h')
+    except TypeError:
+        assert True
+    else:
+        assert False
+
+
+def test_release():
+    v = memoryview(b'abc')
+    v.release()
+    try:
+        len(v)
+    except ValueError:
+        assert True
+    else:
+        assert False
+    with memoryview(b'abc') as w:
+        assert w[0] == 97
+    try:
+        w.tobytes()
+    except ValueError:
+        assert True
+    else:
+        assert False
+
+
+def test_grown_bytearray():
+    # appending leaves spare capacity in the bytearray's backing array
+    data = bytearray(b'a')
+    for i in range(5):
+        data.append(ord('b') + i)
+    with memoryview(data) as v:
+        v[1:3] = b'xy'
+        assert data == bytearray(b'axydef')
+        assert v.tobytes() == b'axydef'
+        assert v[4:].tobytes() == b'ef'
+
+
+def assert_buffer_error(fun, *args):
+    try:
+        fun(*args)
+    except BufferError:
+        assert True
+    else:
+        assert False
+
+
+def test_resize_exported_bytearray():
+    data = bytearray(b'abcd')
+    v = memoryview(data)
+    w = v[1:3]
+    assert_buffer_error(data.append, 1)
+    assert_buffer_error(data.extend, b'xy')
+    assert_buffer_error(data.clear)
+    assert_buffer_error(data.__delitem__, 0)
+    assert_buffer_error(data.__setitem__, slice(0, 1), b'xy')
+    assert_buffer_error(data.__iadd__, b'xy')
+    # operations that keep the size are allowed
+    data[0:1] = b'z'
+    data.extend(b'')
+    del data[0:0]
+    data += b''
+    assert data == bytearray(b'zbcd')
+    assert w.tobytes() == b'bc'
+    v.release()
+    # the slice is still exporting the buffer
+    assert_buffer_error(data.append, 1)
+    w.release()
+    data.append(ord('e'))
+    data.clear()
+    assert data == bytearray()
+
+
+def test_unreleased_view_blocks_resize():
+    # views are not released when they become garbage, only by release() or a with block
+    import gc
+    data = bytearray(b'abcd')
+    assert memoryview(data)[0] == ord('a')
+    gc.collect()
+    assert_buffer_error(data.append, 1)
+    assert_buffer_error(data.append, 1)
+
+
+def test_resize_after_with():
+    data = bytearray(b'abcd')
+    with memoryview(data) as v, v.cast('B', (2, 2)) as w:
+        assert_buffer_error(data.append, 1)
+        assert w[1, 1] == ord('d')
+    data.extend(b'ef')
+    assert data == bytearray(b'abcdef')
+
+
+def test_hex_and_hash():
+    assert memoryview(b'\x01\xab\xff').hex() == '01abff'
+    assert hash(memoryview(b'abc')) == hash(b'abc')
+    try:
+        hash(memoryview(bytearray(b'abc')))
+    except ValueError:
+        assert True
+    else:
+        assert False
+
+
+def test_eq():
+    assert memoryview(b'abc') == b'abc'
+    assert memoryview(b'abc') == memoryview(bytearray(b'abc'))
+    assert memoryview(b'abc') != b'abd'
+    assert memoryview(b'abc') != 'abc'
@@ -162,8 +162,126 @@ class MmapTests(unittest.TestCase):
         self.assertEqual(m.read(-42), bytes(range(9, 16)))
         m.close()
 
+    def test_readline_find_write(self):
+        with open(TESTFN, 'wb') as f:
+            f.write(b'first line\nsecond line\nlast')
+        with open(TESTFN, 'r+b') as f:
+            m = mmap.mmap(f.fileno(), 0)
+        self.assertEqual(len(m), 27)
+        self.assertEqual(m.readline(), b'first line\n')
+        self.assertEqual(m.tell(), 11)
+        # find starts at the current position by default
+        self.assertEqual(m.find(b'line'), 18)
+        self.assertEqual(m.find(b'line', 0), 6)
+        self.assertEqual(m.find(b'line', -9), 18)
+        self.assertEqual(m.find(b'line', 0, 9), -1)
+        self.assertEqual(m.readline(), b'second line\n')
+        self.assertEqual(m.readline(), b'last')
+        self.assertEqual(m.readline(), b'')
+        m.seek(0)
+        self.assertEqual(m.write(b'FIRST'), 5)
+        self.assertEqual(m.tell(), 5)
+        self.assertRaises(ValueError, m.write, b'x' * 23)
+        m[-4:] = b'LAST'
+        self.assertEqual(m[::9], b'Fel')
+        m.flush()
+        m.close()
+        self.assertRaises(ValueError, m.read_byte)
+        with open(TESTFN, 'rb') as f:
+            self.assertEqual(f.read(), b'FIRST line\nsecond line\nLAST')
+
+    def test_find_rfind_large(self):
+        # larger than the chunks the map is searched in, with matches across chunk borders
+        data = bytearray(b'a' * 200000)
+        needle = b'0123456789abcdef'
+        positions = (0, 65530, 65536 * 2 - 8, 199984)
+        for p in positions:
+            data[p:p + len(needle)] = needle
+        with open(TESTFN, 'wb') as f:
+            f.write(data)
+        with open(TESTFN, 'r+b') as f:
+            m = mmap.mmap(f.fileno(), 0)
+        self.assertEqual(m.find(needle), 0)
+        self.assertEqual(m.find(needle, 1), 65530)
+        self.assertEqual(m.find(needle, 65531), 65536 * 2 - 8)
+        self.assertEqual(m.find(needle, 65536 * 2), 199984)
+        self.assertEqual(m.find(needle, 65540, 199999), 131064)
+        self.assertEqual(m.find(b'9a', 10), 65539)
+        self.assertEqual(m.find(b'x'), -1)
+        self.assertEqual(m.rfind(needle), 199984)
+        self.assertEqual(m.rfind(needle, 0, 199999), 65536 * 2 - 8)
+        self.assertEqual(m.rfind(needle, 0, 65536 * 2 + 7), 65530)
+        self.assertEqual(m.rfind(needle, 1, 65545), -1)
+        self.assertEqual(m.rfind(b'f', -20), 199999)
+        self.assertEqual(m.rfind(b''), 200000)
+        m.seek(65531)
+        self.assertEqual(m.rfind(needle), 199984)
+        self.assertEqual(m.readline(), bytes(data[65531:]))
+        m.close()
+
+    def test_access_read(self):
+        with open(TESTFN, 'wb') as f:
+            f.write(b'abcdef')
+        with open(TESTFN, 'rb') as f:
+            m = mmap.mmap(f.fileno(), 4, access=mmap.ACCESS_READ)
+        self.assertEqual(m[:], b'abcd')
+        self.assertEqual(m.read_byte(), ord('a'))
+        self.assertRaises(TypeError, m.__setitem__, 0, ord('x'))
+        self.assertRaises(TypeError, m.write, b'x')
+        m.close()
+        with open(TESTFN, 'rb') as f:
+            self.assertRaises(ValueError, mmap.mmap, f.fileno(), 7, access=mmap.ACCESS_READ)
 
 
+
+    def test_close(self):
+        with open(TESTFN, 'wb') as f:
+            f.write(b'abcdef')
+        with open(TESTFN, 'r+b') as f:
+            m = mmap.mmap(f.fileno(), 0)
+        with memoryview(m) as view:
+            self.assertEqual(view[1], ord('b'))
+        m.close()
+        m.close()
+        self.assertRaises(ValueError, m.__getitem__, 0)
+        self.assertRaises(ValueError, m.read, 1)
+        self.assertRaises(ValueError, memoryview, m)
+        if sys.implementation.name == "graalpython":
+            # the mapping is gone, so views that outlive the map must not reach it
+            with open(TESTFN, 'r+b') as f:
+                m = mmap.mmap(f.fileno(), 0)
+            view = memoryview(m)
+            m.close()
+            self.assertRaises(ValueError, view.__getitem__, 0)
+            self.assertRaises(ValueError, view.tobytes)
+
+    def test_close_reopen_large(self):
+        # each round sees the writes of the previous ones and the closed map cannot be used
+        size = 64 * 1024 * 1024 + 3
+        with open(TESTFN, 'wb') as f:
+            f.seek(size - 1)
+            f.write(b'\0')
+        for i in range(10):
+            with open(TESTFN, 'r+b') as f:
+                m = mmap.mmap(f.fileno(), 0)
+            self.assertEqual(len(m), size)
+            self.assertEqual(m[:i], bytes(range(1, i + 1)))
+            m[i] = i + 1
+            m[size - 1] = i + 1
+            m.close()
+            self.assertRaises(ValueError, m.__getitem__, 0)
+        with open(TESTFN, 'rb') as f:
+            self.assertEqual(f.read(10), bytes(range(1, 11)))
+            f.seek(size - 1)
+            self.assertEqual(f.read(), b'\x0a')
+        # the file can be shrunk and mapped again after close
+        with open(TESTFN, 'r+b') as f:
+            f.truncate(size // 2)
+            m = mmap.mmap(f.fileno(), 0)
+        self.assertEqual(len(m), size // 2)
+        self.assertEqual(m[:10], bytes(range(1, 11)))
+        m.close()
+
     def test_context_manager(self):
         with mmap.mmap(-1, 10) as m:
             self.assertFalse(m.closed)
@@ -176,3 +176,74 @@ def test_builtin_open():
         unlink(file_name)
 
     assert success
+
+
+def test_read_large_file():
+    import _pyio as pyio  # Python implementation.
+    file_name = "large.bin"
+    data = bytes(range(256)) * (3 * 4096 + 1)
+
+    unlink(file_name)
+    try:
+        with pyio.open(file_name, "wb") as f:
+            f.write(data)
+
+        with pyio.open(file_name, "rb", buffering=0) as f:
+            assert f.read(10) == data[:10]
+            rest = f.readall()
+            assert type(rest) is bytes
+            assert rest == data[10:]
+            assert f.readall() == b""
+
+        with pyio.open(file_name, "rb", buffering=0) as f:
+            buf = bytearray(len(data) + 10)
+            assert f.readinto(buf) == len(data)
+            assert buf[:len(data)] == data
+    finally:
+        unlink(file_name)
+
+
+def test_resize_after_readinto():
+    import _pyio as pyio  # Python implementation.
+    file_name = "readinto.bin"
+    unlink(file_name)
+    try:
+        with pyio.open(file_name, "wb") as f:
+            f.write(b"abcdef")
+
+        for buffering in (0, 4):
+            with pyio.open(file_name, "rb", buffering=buffering) as f:
+                buf = bytearray(4)
+                assert f.readinto(buf) == 4
+                # the views used to fill the buffer must not keep it from being resized
+                buf.extend(b"xy")
+                assert buf == bytearray(b"abcdxy")
+                assert f.read(1) == b"e"
+                del buf[:]
+                assert buf == bytearray()
+    finally:
+        unlink(file_name)
+
+
+def test_buffered_readline():
+    import _pyio as pyio  # Python implementation.
+    file_name = "readline.bin"
+    lines = [b"x" * (i % 23) + b"\n" for i in range(500)] + [b"tail"]
+    unlink(file_name)
+    try:
+        with pyio.open(file_name, "wb") as f:
+            f.write(b"".join(lines))
+
+        # small buffers make lines span several reads of the raw file
+        for buffering in (7, 64, 8192):
+            with pyio.open(file_name, "rb", buffering=buffering) as f:
+                assert list(f) == lines
+        with pyio.open(file_name, "rb") as f:
+            assert f.readline(3) == b"\n"
+            assert f.readline(3) == b"x\n"
+            assert f.readline(0) == b""
+            assert f.readline(None) == b"xx\n"
+            assert f.readline(2) == b"xx"
+            assert f.readline() == b"x\n"
+    finally:
+        unlink(file_name)
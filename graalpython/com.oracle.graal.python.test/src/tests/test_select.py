@@ -0,0 +1,122 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import os
+import select
+import sys
+import time
+import unittest
+
+
+class SelectTests(unittest.TestCase):
+
+    def test_select_pipe(self):
+        r, w = os.pipe()
+        try:
+            self.assertEqual(([], [w], []), select.select([r], [w], [], 0))
+            os.write(w, b"x")
+            self.assertEqual(([r], [], []), select.select([r], [], [], 1.0))
+        finally:
+            os.close(r)
+            os.close(w)
+
+    def test_select_timeout(self):
+        r, w = os.pipe()
+        try:
+            start = time.time()
+            self.assertEqual(([], [], []), select.select([r], [], [], 0.2))
+            self.assertGreaterEqual(time.time() - start, 0.1)
+            self.assertRaises(ValueError, select.select, [r], [], [], -1)
+        finally:
+            os.close(r)
+            os.close(w)
+
+    def test_select_fileno_object(self):
+        class FD():
+            def __init__(self, fd):
+                self.fd = fd
+
+            def fileno(self):
+                return self.fd
+
+        r, w = os.pipe()
+        try:
+            os.write(w, b"x")
+            reader = FD(r)
+            self.assertEqual(([reader], [], []), select.select([reader], [], [], 0))
+        finally:
+            os.close(r)
+            os.close(w)
+
+    def test_poll(self):
+        r, w = os.pipe()
+        try:
+            p = select.poll()
+            p.register(r, select.POLLIN)
+            p.register(w, select.POLLOUT)
+            self.assertEqual([(w, select.POLLOUT)], p.poll(0))
+            os.write(w, b"x")
+            self.assertEqual(sorted([(r, select.POLLIN), (w, select.POLLOUT)]), sorted(p.poll(0)))
+            p.unregister(w)
+            self.assertEqual([(r, select.POLLIN)], p.poll())
+            self.assertRaises(KeyError, p.unregister, w)
+        finally:
+            os.close(r)
+            os.close(w)
+
+    def test_epoll(self):
+        r, w = os.pipe()
+        try:
+            with select.epoll() as ep:
+                ep.register(r, select.EPOLLIN | select.EPOLLONESHOT)
+                self.assertRaises(FileExistsError, ep.register, r)
+                self.assertEqual([], ep.poll(0.1))
+                os.write(w, b"x")
+                self.assertEqual([(r, select.EPOLLIN)], ep.poll(1))
+                # one-shot registrations are disabled after the first event
+                self.assertEqual([], ep.poll(0))
+            self.assertTrue(ep.closed)
+            if sys.implementation.name == "graalpython":
+                # there is no kernel epoll instance behind the object
+                with select.epoll() as ep:
+                    self.assertRaises(NotImplementedError, ep.fileno)
+                self.assertRaises(NotImplementedError, select.epoll.fromfd, r)
+        finally:
+            os.close(r)
+            os.close(w)
@@ -323,3 +323,36 @@ def test_hashable_frozenset():
     d = {key1: 42}
     assert hash(key1) == hash(key2)
     assert d[key2] == 42
+
+
+def test_update():
+    s = set('ab')
+    assert s.update('bc', ['d'], {'e': 1}, frozenset('f')) is None
+    assert s == set('abcdef')
+    s.update(s)
+    assert s == set('abcdef')
+    s = set()
+    s.update(set(range(100)), range(50, 150))
+    assert s == set(range(150))
+    assert_raises(TypeError, s.update, 1)
+    assert_raises(PassThru, s.update, check_pass_thru())
+
+
+def test_multi_argument_algebra():
+    big = set(range(1000))
+    small = {3, 500, 2000}
+    assert big.intersection(small) == {3, 500}
+    assert small.intersection(big) == {3, 500}
+    assert big.intersection(small, [500]) == {500}
+    assert big.difference(small) == set(range(1000)) - {3, 500}
+    assert small.difference(big, [2000]) == set()
+    assert type(frozenset('abc').intersection('b')) == frozenset
+    assert type(frozenset('abc').difference('b', 'c')) == frozenset
+    assert frozenset('abc').difference('b', 'c') == frozenset('a')
+    assert type(set('abc').intersection(frozenset('b'))) == set
+
+    s = set(range(100))
+    s.difference_update(range(10), {i for i in range(1000) if i % 2})
+    assert s == set(range(10, 100, 2))
+    s.difference_update(s)
+    assert s == set()
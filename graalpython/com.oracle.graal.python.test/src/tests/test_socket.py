@@ -0,0 +1,183 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import socket
+import sys
+import unittest
+
+
+class SocketTests(unittest.TestCase):
+
+    def test_timeout_modes(self):
+        s = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        try:
+            self.assertIsNone(s.gettimeout())
+            self.assertTrue(s.getblocking())
+            s.settimeout(1.5)
+            self.assertEqual(1.5, s.gettimeout())
+            self.assertTrue(s.getblocking())
+            s.setblocking(False)
+            self.assertEqual(0.0, s.gettimeout())
+            self.assertFalse(s.getblocking())
+            s.settimeout(None)
+            self.assertIsNone(s.gettimeout())
+            self.assertRaises(ValueError, s.settimeout, -1)
+        finally:
+            s.close()
+
+    def test_send_recv(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        server.bind(("127.0.0.1", 0))
+        server.listen(1)
+        client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        try:
+            client.connect(server.getsockname())
+            conn, _ = server.accept()
+            try:
+                self.assertEqual(5, client.send(b"hello"))
+                client.sendall(bytearray(b" world"))
+                data = b""
+                while len(data) < 11:
+                    data += conn.recv(64)
+                self.assertEqual(b"hello world", data)
+
+                buf = bytearray(4)
+                client.sendall(b"abcdef")
+                self.assertEqual(2, conn.recv_into(buf, 2))
+                self.assertEqual(b"ab\x00\x00", buf)
+
+                conn.settimeout(0.1)
+                conn.recv(64)
+                self.assertRaises(socket.timeout, conn.recv, 64)
+                conn.setblocking(False)
+                self.assertRaises(BlockingIOError, conn.recv, 64)
+            finally:
+                conn.close()
+        finally:
+            client.close()
+            server.close()
+
+    def test_recv_into_memoryview(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        server.bind(("127.0.0.1", 0))
+        server.listen(1)
+        client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        try:
+            client.connect(server.getsockname())
+            conn, _ = server.accept()
+            try:
+                buf = bytearray(b"xxxxxx")
+                client.sendall(b"abcd")
+                with memoryview(buf) as view:
+                    self.assertEqual(3, conn.recv_into(view[2:], 3))
+                self.assertEqual(b"xxabcx", buf)
+                self.assertRaises(TypeError, conn.recv_into, memoryview(b"abc"))
+            finally:
+                conn.close()
+        finally:
+            client.close()
+            server.close()
+
+    def test_sendall_nonblocking(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        server.bind(("127.0.0.1", 0))
+        server.listen(1)
+        client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        try:
+            client.connect(server.getsockname())
+            conn, _ = server.accept()
+            try:
+                # nobody reads, so the data cannot fit into the socket buffers
+                data = b"x" * (64 * 1024 * 1024)
+                client.setblocking(False)
+                self.assertRaises(BlockingIOError, client.sendall, data)
+                self.assertRaises(BlockingIOError, client.send, data)
+                client.settimeout(0.1)
+                self.assertRaises(socket.timeout, client.sendall, data)
+            finally:
+                conn.close()
+        finally:
+            client.close()
+            server.close()
+
+    def test_send_memoryview(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        server.bind(("127.0.0.1", 0))
+        server.listen(1)
+        client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        try:
+            client.connect(server.getsockname())
+            conn, _ = server.accept()
+            try:
+                view = memoryview(b"xxhelloxx")[2:7]
+                self.assertEqual(5, client.send(view))
+                client.sendall(memoryview(bytearray(b" world"))[:3])
+                data = b""
+                while len(data) < 8:
+                    data += conn.recv(64)
+                self.assertEqual(b"hello wo", data)
+                view.release()
+                self.assertRaises(ValueError, client.send, view)
+            finally:
+                conn.close()
+        finally:
+            client.close()
+            server.close()
+
+    def test_recv_flags(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        server.bind(("127.0.0.1", 0))
+        server.listen(1)
+        client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        try:
+            client.connect(server.getsockname())
+            conn, _ = server.accept()
+            try:
+                client.sendall(b"abc")
+                self.assertEqual(b"a", conn.recv(1, 0))
+                if sys.implementation.name == "graalpython":
+                    # MSG_PEEK is not supported and must not consume the data
+                    self.assertRaises(OSError, conn.recv, 2, 2)
+                    self.assertRaises(OSError, client.send, b"d", 2)
+                self.assertEqual(b"bc", conn.recv(2))
+            finally:
+                conn.close()
+        finally:
+            client.close()
+            server.close()
@@ -3,6 +3,7 @@
 #
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
 # Test of a sorted() written in Python
+import math
 import unittest
 
 def sorted(iterable):
@@ -34,6 +35,78 @@ class TestSorted(unittest.TestCase):
         for T in types:
             self.assertEqual(sorted(s), sorted(T(s)))
 
+    def test_sorted_builtin(self):
+        from builtins import sorted as builtin_sorted
+        data = (3, 1, 2)
+        self.assertEqual(builtin_sorted(data), [1, 2, 3])
+        self.assertEqual(builtin_sorted(iter(data), reverse=True), [3, 2, 1])
+        self.assertEqual(builtin_sorted("bCa", key=str.lower), ["a", "b", "C"])
+        self.assertRaises(TypeError, builtin_sorted, data, None)
+
     def test_baddecorator(self):
         data = 'The quick Brown fox Jumped over The lazy Dog'.split()
         self.assertRaises(TypeError, sorted, data, None, lambda x,y: 0)
+
+    def test_primitive_storages(self):
+        for data in ([5, -3, 8, 0, 8, 2], [2**40, -2**41, 7, 2**40 + 1], [2.5, -1.0, 3.25, 0.5]):
+            expected = list(data)
+            expected.sort(key=lambda x: x)
+            l = list(data)
+            l.sort()
+            self.assertEqual(l, expected)
+            l = list(data)
+            l.sort(reverse=True)
+            self.assertEqual(l, expected[::-1])
+
+    def test_signed_zero_and_nan(self):
+        l = [0.0, -0.0, 1.0, -0.0]
+        l.sort()
+        self.assertEqual([str(x) for x in l], ['0.0', '-0.0', '-0.0', '1.0'])
+        nan = float('nan')
+        l = [3.0, nan, 1.0]
+        l.sort()
+        self.assertTrue(math.isnan(l[1]))
+
+    def test_strings(self):
+        l = ['pear', 'apple', 'fig', 'apple']
+        l.sort()
+        self.assertEqual(l, ['apple', 'apple', 'fig', 'pear'])
+        l.sort(reverse=True)
+        self.assertEqual(l, ['pear', 'fig', 'apple', 'apple'])
+
+    def test_key_called_once(self):
+        calls = []
+        def key(x):
+            calls.append(x)
+            return -x
+        l = list(range(100))
+        l.sort(key=key)
+        self.assertEqual(l, list(range(99, -1, -1)))
+        self.assertEqual(len(calls), 100)
+
+    def test_stability(self):
+        data = [(i % 5, i) for i in range(200)]
+        l = list(data)
+        l.sort(key=lambda x: x[0])
+        self.assertEqual(l, [(k, i) for k in range(5) for i in range(200) if i % 5 == k])
+        l = list(data)
+        l.sort(key=lambda x: x[0], reverse=True)
+        self.assertEqual(l, [(k, i) for k in range(4, -1, -1) for i in range(200) if i % 5 == k])
+
+    def test_modified_during_sort(self):
+        l = [3, 'a', 2]
+        lengths = []
+        def key(x):
+            lengths.append(len(l))
+            l.append(x)
+            return str(x)
+        self.assertRaises(ValueError, l.sort, key=key)
+        self.assertEqual(lengths[0], 0)
+        self.assertEqual(l, [2, 3, 'a'])
+
+    def test_failing_comparison(self):
+        l = [3, 'a', 1]
+        self.assertRaises(TypeError, l.sort)
+        self.assertEqual(l, [3, 'a', 1])
+        l.sort(key=str)
+        self.assertEqual(l, [1, 3, 'a'])
@@ -89,6 +89,75 @@ def test_format():
     assert "{}".format("part1") == "part1"
 
 
+def test_format_spec():
+    assert "{:>10}|{:<4}|{:^7}".format("a", "b", "c") == "         a|b   |   c   "
+    assert "{:05d} {:x} {:#o} {:+,}".format(42, 255, 8, 1234567) == "00042 ff 0o10 +1,234,567"
+    assert "{:.2f}".format(3) == "3.00"
+    assert "{:{}}|{:.{prec}}".format("a", 5, "hello", prec=2) == "a    |he"
+    assert "{0[1]}{0[x]}{1.real}".format({1: "a", "x": "b"}, 7) == "ab7"
+    assert "{!a}".format("\xe4") == "'\\xe4'"
+    assert format(True, "") == "True"
+    assert format(True, "d") == "1"
+    assert format("abc", ".2") == "ab"
+    for i in range(20):
+        assert "{}-{}".format(i, str(i)) == "%d-%d" % (i, i)
+    # the parsed specs are cached, so repeat with the same and with changing specs
+    for i in range(3):
+        for spec, expected in ((">4", "  12"), ("<4", "12  "), ("^4", " 12 "), ("04d", "0012"), ("x", "c")):
+            assert format(12, spec) == expected
+            assert ("{:" + spec + "}").format(12) == expected
+        try:
+            format(12, "z")
+        except ValueError:
+            pass
+        else:
+            assert False, "ValueError expected"
+
+
+def test_format_big_int_as_float():
+    assert format(10**20, "e") == "1.000000e+20"
+    assert "{:.1f}|{:%}".format(2**100, 2**70) == "1267650600228229401496703205376.0|118059162071741130342400.000000%"
+    for spec in ("e", "E", "f", "F", "g", "G", "%", ".3f"):
+        try:
+            format(10**400, spec)
+        except OverflowError:
+            pass
+        else:
+            assert False, "OverflowError expected for %r" % spec
+        try:
+            ("{:" + spec + "}").format(-10**400)
+        except OverflowError:
+            pass
+        else:
+            assert False, "OverflowError expected for %r" % spec
+
+
+def test_concatenated_string_access():
+    s = ""
+    expected = []
+    for i in range(2000):
+        s += "item%d," % i
+        expected.append("item%d," % i)
+    expected = "".join(expected)
+    assert len(s) == len(expected)
+    for i in (0, 1, 17, 500, len(s) - 1, -1, -len(s)):
+        assert s[i] == expected[i]
+    assert s[10:10000] == expected[10:10000]
+    assert s[5:3] == ""
+    assert s[::7] == expected[::7]
+    assert s.startswith("item0,item1,")
+    assert not s.startswith("item1")
+    assert s.endswith("item1998,item1999,")
+    assert not s.endswith("item1999")
+    try:
+        s[len(s)]
+    except IndexError:
+        pass
+    else:
+        assert False, "expected IndexError"
+    assert s == expected
+
+
 class FormattingTestClass:
     def __repr__(self):
         return "FormattingTestClass.repr"
@@ -0,0 +1,181 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import struct
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    try:
+        fn(*args, **kwargs)
+    except err:
+        pass
+    else:
+        assert False, "expected %s" % err
+
+
+def test_pack_unpack_byte_orders():
+    assert struct.pack('<hIq', -2, 0xdeadbeef, -3) == b'\xfe\xff\xef\xbe\xad\xde\xfd\xff\xff\xff\xff\xff\xff\xff'
+    assert struct.pack('>hIq', -2, 0xdeadbeef, -3) == b'\xff\xfe\xde\xad\xbe\xef\xff\xff\xff\xff\xff\xff\xff\xfd'
+    assert struct.pack('!H', 0x1234) == b'\x12\x34'
+    for fmt in ('<bBhHiIlLqQ', '>bBhHiIlLqQ', '=bBhHiIlLqQ', 'bBhHiIlLqQ'):
+        values = (-128, 255, -32768, 65535, -2 ** 31, 2 ** 32 - 1, -2 ** 31, 2 ** 32 - 1, -2 ** 63, 2 ** 64 - 1)
+        assert struct.unpack(fmt, struct.pack(fmt, *values)) == values
+    assert struct.unpack('<d', struct.pack('<d', 1.5)) == (1.5,)
+    assert struct.unpack('>f', struct.pack('>f', -0.25)) == (-0.25,)
+    assert struct.unpack('?c', struct.pack('?c', 3, b'x')) == (True, b'x')
+
+
+def test_native_alignment():
+    assert struct.calcsize('bi') == 2 * struct.calcsize('i')
+    assert struct.calcsize('=bi') == 5
+    assert struct.calcsize('<bi') == 5
+    assert struct.calcsize('bd') == 16
+    assert struct.calcsize('3s') == 3
+    assert struct.calcsize('0i') == 0
+    assert struct.calcsize('b 3x i') == 8
+    assert struct.pack('<b3xi', 1, 2) == b'\x01\x00\x00\x00\x02\x00\x00\x00'
+    assert struct.calcsize(b'<q') == 8
+
+
+def test_unpack_from():
+    data = b'\x00\x01\x02\x03\x04\x05'
+    assert struct.unpack_from('>H', data, 2) == (0x0203,)
+    assert struct.unpack_from('>H', data) == (0x0001,)
+    assert struct.unpack_from('>H', data, -2) == (0x0405,)
+    assert struct.unpack_from('>H', memoryview(data)[1:], 1) == (0x0203,)
+    assert struct.unpack_from('>H', bytearray(data), offset=4) == (0x0405,)
+    assert_raises(struct.error, struct.unpack_from, '>H', data, 5)
+    assert_raises(struct.error, struct.unpack, '>H', data)
+
+
+def test_pack_into():
+    buf = bytearray(8)
+    struct.pack_into('<hh', buf, 2, 1, -1)
+    assert buf == bytearray(b'\x00\x00\x01\x00\xff\xff\x00\x00')
+    struct.pack_into('>h', buf, -2, 0x0102)
+    assert buf == bytearray(b'\x00\x00\x01\x00\xff\xff\x01\x02')
+    view = memoryview(buf)[4:]
+    struct.Struct('<i').pack_into(view, 0, 7)
+    assert buf == bytearray(b'\x00\x00\x01\x00\x07\x00\x00\x00')
+    assert_raises(struct.error, struct.pack_into, '<i', buf, 6, 1)
+    assert_raises(TypeError, struct.pack_into, '<i', b'1234', 0, 1)
+    assert_raises(struct.error, struct.pack_into, '<i')
+    assert_raises(struct.error, struct.pack_into, '<i', buf)
+
+
+def test_pack_into_grown_bytearray():
+    # appending leaves spare capacity in the bytearray's backing array
+    buf = bytearray(b'a')
+    for i in range(7):
+        buf.append(0)
+    struct.pack_into('<i', buf, 2, 0x01020304)
+    assert buf == bytearray(b'a\x00\x04\x03\x02\x01\x00\x00')
+    assert struct.unpack_from('<i', buf, 2) == (0x01020304,)
+    assert_raises(struct.error, struct.pack_into, '<i', buf, 5, 1)
+    assert_raises(struct.error, struct.unpack_from, '<i', buf, 5)
+
+
+def test_iter_unpack():
+    it = struct.iter_unpack('<h', b'\x01\x00\x02\x00\x03\x00')
+    assert it.__length_hint__() == 3
+    assert list(it) == [(1,), (2,), (3,)]
+    assert it.__length_hint__() == 0
+    assert list(struct.Struct('>bb').iter_unpack(bytearray(b'\x01\x02\x03\x04'))) == [(1, 2), (3, 4)]
+    assert_raises(struct.error, struct.iter_unpack, '<h', b'\x00')
+    assert_raises(struct.error, struct.iter_unpack, '', b'')
+
+
+def test_strings():
+    assert struct.pack('5s', b'ab') == b'ab\x00\x00\x00'
+    assert struct.pack('2s', b'abc') == b'ab'
+    assert struct.unpack('3s', b'abc') == (b'abc',)
+    assert struct.pack('4p', b'ab') == b'\x02ab\x00'
+    assert struct.pack('3p', b'abcd') == b'\x02ab'
+    assert struct.unpack('4p', b'\x02ab\x00') == (b'ab',)
+    assert struct.unpack('4p', b'\x09abc') == (b'abc',)
+    assert_raises(struct.error, struct.pack, 's', 'a')
+    assert_raises(struct.error, struct.pack, 'c', b'ab')
+
+
+def test_half_float():
+    for value, packed in ((1.0, b'\x00\x3c'), (-2.0, b'\x00\xc0'), (65504.0, b'\xff\x7b'),
+                          (2 ** -24, b'\x01\x00'), (float('inf'), b'\x00\x7c')):
+        assert struct.pack('<e', value) == packed, value
+        assert struct.unpack('<e', packed) == (value,)
+    # round half to even
+    assert struct.pack('<e', 1.0 + 2 ** -11) == b'\x00\x3c'
+    assert struct.pack('<e', 1.0 + 3 * 2 ** -11) == b'\x02\x3c'
+    assert_raises(OverflowError, struct.pack, '<e', 65520.0)
+
+
+def test_errors():
+    assert issubclass(struct.error, Exception)
+    assert_raises(struct.error, struct.pack, '<b', 128)
+    assert_raises(struct.error, struct.pack, '<B', -1)
+    assert_raises(struct.error, struct.pack, '<I', 2 ** 32)
+    assert_raises(struct.error, struct.pack, '<Q', 2 ** 64)
+    assert_raises(struct.error, struct.pack, '<i', 1.0)
+    assert_raises(struct.error, struct.pack, '<d', 'x')
+    assert_raises(struct.error, struct.pack, '<ii', 1)
+    assert_raises(struct.error, struct.calcsize, 'z')
+    assert_raises(struct.error, struct.calcsize, '3')
+    assert_raises(struct.error, struct.calcsize, '<n')
+    assert_raises(TypeError, struct.calcsize, 3)
+    assert_raises(TypeError, struct.unpack, '<b', 'a')
+
+
+def test_index_argument():
+    class Index:
+        def __index__(self):
+            return 42
+
+    assert struct.pack('<i', Index()) == b'\x2a\x00\x00\x00'
+    assert struct.pack('<?', []) == b'\x00'
+
+
+def test_struct_object():
+    s = struct.Struct('<ih')
+    assert s.format == '<ih'
+    assert s.size == 6
+    assert s.unpack(s.pack(1, 2)) == (1, 2)
+    s.__init__(b'>q')
+    assert s.size == 8
+    assert s.unpack(s.pack(-1)) == (-1,)
+    struct._clearcache()
+    assert struct.unpack('<ih', b'\x01\x00\x00\x00\x02\x00') == (1, 2)
@@ -395,3 +395,15 @@ def test_hashing():
         assert "unhashable type: 'list'" in str(e)
     else:
         assert False
+
+
+def test_big_prefix_slices():
+    t = tuple(range(1000))
+    s = t[:900]
+    assert len(s) == 900 and s[-1] == 899
+    assert s + (1,) == tuple(range(900)) + (1,)
+    assert t[899] == 899 and t[900] == 900
+    assert s[:500] == tuple(range(500))
+    l = list(s)
+    l[0] = 'x'
+    assert t[0] == 0 and s[0] == 0
@@ -157,6 +157,7 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     protected void finalizeContext(PythonContext context) {
         context.shutdownThreads();
         context.runShutdownHooks();
+        context.closeSelectors();
         super.finalizeContext(context);
     }
 
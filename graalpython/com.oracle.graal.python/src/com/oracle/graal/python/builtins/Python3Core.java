@@ -82,6 +82,7 @@ import com.oracle.graal.python.builtins.modules.SelectModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SignalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SocketModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.StringModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.StructModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SysConfigModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SysModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ThreadModuleBuiltins;
@@ -99,6 +100,8 @@ import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
 import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeIterBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictKeysIteratorBuiltins;
@@ -118,14 +121,30 @@ import com.oracle.graal.python.builtins.objects.function.BuiltinFunctionBuiltins
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
+import com.oracle.graal.python.builtins.objects.functools.LruCacheWrapperBuiltins;
+import com.oracle.graal.python.builtins.objects.functools.PartialBuiltins;
 import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BytesIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.StringIOBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.ForeignIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.IteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.PFilterBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.PMapBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PZipBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.SentinelIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.AccumulateBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ChainBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CountBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CycleBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.GroupByBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.GrouperBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.IsliceBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.PermutationsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ProductBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ZipLongestBuiltins;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins;
 import com.oracle.graal.python.builtins.objects.lzma.LZMACompressorBuiltins;
 import com.oracle.graal.python.builtins.objects.lzma.LZMADecompressorBuiltins;
@@ -154,6 +173,8 @@ import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
 import com.oracle.graal.python.builtins.objects.slice.SliceBuiltins;
 import com.oracle.graal.python.builtins.objects.socket.SocketBuiltins;
 import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
+import com.oracle.graal.python.builtins.objects.struct.StructBuiltins;
+import com.oracle.graal.python.builtins.objects.struct.StructUnpackIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.LockBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.RLockBuiltins;
@@ -186,7 +207,6 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
-
 import org.graalvm.nativeimage.ImageInfo;
 
 /**
@@ -210,7 +230,6 @@ public final class Python3Core implements PythonCore {
                         "array",
                         "_thread",
                         "function",
-                        "_functools",
                         "method",
                         "code",
                         "_warnings",
@@ -225,7 +244,6 @@ public final class Python3Core implements PythonCore {
                         "base_exception",
                         PythonCextBuiltins.PYTHON_CEXT,
                         "_collections",
-                        "memoryview",
                         "list",
                         "_codecs",
                         "bytes",
@@ -237,6 +255,7 @@ public final class Python3Core implements PythonCore {
                         "function",
                         "_sysconfig",
                         "_socket",
+                        "select",
                         "ctypes",
                         "zlib",
                         "termios",
@@ -293,6 +312,8 @@ public final class Python3Core implements PythonCore {
                         new IteratorBuiltins(),
                         new ReversedBuiltins(),
                         new PZipBuiltins(),
+                        new PMapBuiltins(),
+                        new PFilterBuiltins(),
                         new EnumerateBuiltins(),
                         new SentinelIteratorBuiltins(),
                         new ForeignIteratorBuiltins(),
@@ -324,12 +345,28 @@ public final class Python3Core implements PythonCore {
                         new WeakRefModuleBuiltins(),
                         new ReferenceTypeBuiltins(),
                         new IOModuleBuiltins(),
+                        new StringIOBuiltins(),
+                        new BytesIOBuiltins(),
                         new StringModuleBuiltins(),
                         new ItertoolsModuleBuiltins(),
+                        new ChainBuiltins(),
+                        new IsliceBuiltins(),
+                        new CountBuiltins(),
+                        new CycleBuiltins(),
+                        new AccumulateBuiltins(),
+                        new ZipLongestBuiltins(),
+                        new PermutationsBuiltins(),
+                        new ProductBuiltins(),
+                        new GroupByBuiltins(),
+                        new GrouperBuiltins(),
                         new FunctoolsModuleBuiltins(),
+                        new PartialBuiltins(),
+                        new LruCacheWrapperBuiltins(),
                         new ErrnoModuleBuiltins(),
                         new CodecsModuleBuiltins(),
                         new CollectionsModuleBuiltins(),
+                        new DequeBuiltins(),
+                        new DequeIterBuiltins(),
                         new JavaModuleBuiltins(),
                         new SREModuleBuiltins(),
                         new AstModuleBuiltins(),
@@ -371,6 +408,9 @@ public final class Python3Core implements PythonCore {
                         new LZMAModuleBuiltins(),
                         new LZMACompressorBuiltins(),
                         new LZMADecompressorBuiltins(),
+                        new StructModuleBuiltins(),
+                        new StructBuiltins(),
+                        new StructUnpackIteratorBuiltins(),
                         new MultiprocessingModuleBuiltins()));
         if (!TruffleOptions.AOT) {
             ServiceLoader<PythonBuiltins> providers = ServiceLoader.load(PythonBuiltins.class, Python3Core.class.getClassLoader());
@@ -100,6 +100,8 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     Super("super", BuiltinNames.BUILTINS),
     PCode("code"),
     PZip("zip", BuiltinNames.BUILTINS),
+    PMap("map", BuiltinNames.BUILTINS),
+    PFilter("filter", BuiltinNames.BUILTINS),
     PZipImporter("zipimporter", "zipimport"),
     PBuffer("buffer", BuiltinNames.BUILTINS),
     PThread("start_new_thread", "_thread"),
@@ -113,6 +115,25 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     PDirEntry("DirEntry", "posix"),
     PLZMACompressor("LZMACompressor", "_lzma"),
     PLZMADecompressor("LZMADecompressor", "_lzma"),
+    PStringIO("StringIO", "_io"),
+    PBytesIO("BytesIO", "_io"),
+    PDeque("deque", "_collections"),
+    PDequeIter("_deque_iterator", "_collections"),
+    PDequeRevIter("_deque_reverse_iterator", "_collections"),
+    PChain("chain", "itertools"),
+    PIslice("islice", "itertools"),
+    PCount("count", "itertools"),
+    PCycle("cycle", "itertools"),
+    PAccumulate("accumulate", "itertools"),
+    PZipLongest("zip_longest", "itertools"),
+    PPermutations("permutations", "itertools"),
+    PProduct("product", "itertools"),
+    PGroupBy("groupby", "itertools"),
+    PGrouper("_grouper", "itertools"),
+    PPartial("partial", "_functools"),
+    PLruCacheWrapper("_lru_cache_wrapper", "_functools"),
+    PStruct("Struct", "_struct"),
+    PStructUnpackIterator("unpack_iterator"),
 
     // Errors and exceptions:
 
@@ -158,6 +179,8 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     ZipImportError("ZipImportError", "zipimport"),
     ZLibError("error", "zlib"),
     LZMAError("LZMAError", "_lzma"),
+    StructError("error", "_struct"),
+    SocketTimeout("timeout", "_socket"),
 
     // todo: all OS errors
 
@@ -290,6 +313,8 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
         ZipImportError.base = ImportError;
         ZLibError.base = Exception;
         LZMAError.base = Exception;
+        StructError.base = Exception;
+        SocketTimeout.base = OSError;
 
         ReferenceError.base = Exception;
         RuntimeError.base = Exception;
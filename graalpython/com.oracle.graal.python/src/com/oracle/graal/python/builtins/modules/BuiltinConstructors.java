@@ -35,10 +35,12 @@ import static com.oracle.graal.python.nodes.BuiltinNames.CLASSMETHOD;
 import static com.oracle.graal.python.nodes.BuiltinNames.COMPLEX;
 import static com.oracle.graal.python.nodes.BuiltinNames.DICT;
 import static com.oracle.graal.python.nodes.BuiltinNames.ENUMERATE;
+import static com.oracle.graal.python.nodes.BuiltinNames.FILTER;
 import static com.oracle.graal.python.nodes.BuiltinNames.FLOAT;
 import static com.oracle.graal.python.nodes.BuiltinNames.FROZENSET;
 import static com.oracle.graal.python.nodes.BuiltinNames.INT;
 import static com.oracle.graal.python.nodes.BuiltinNames.LIST;
+import static com.oracle.graal.python.nodes.BuiltinNames.MAP;
 import static com.oracle.graal.python.nodes.BuiltinNames.MEMORYVIEW;
 import static com.oracle.graal.python.nodes.BuiltinNames.MODULE;
 import static com.oracle.graal.python.nodes.BuiltinNames.OBJECT;
@@ -61,6 +63,7 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__SLOTS__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__WEAKREF__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.DECODE;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.BufferError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
@@ -114,10 +117,13 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
@@ -175,8 +181,8 @@ import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNodeGen;
 import com.oracle.graal.python.nodes.util.CoerceToStringNode;
 import com.oracle.graal.python.nodes.util.SplitArgsNode;
-import com.oracle.graal.python.runtime.ExecutionContext.ForeignCallContext;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
+import com.oracle.graal.python.runtime.ExecutionContext.NativeCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -1928,6 +1934,33 @@ public final class BuiltinConstructors extends PythonBuiltins {
         }
     }
 
+    // map(function, iterable, ...)
+    @Builtin(name = MAP, minNumOfPositionalArgs = 3, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PMap)
+    @GenerateNodeFactory
+    public abstract static class MapNode extends PythonBuiltinNode {
+        @Specialization
+        PMap map(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable, Object[] args,
+                        @Cached GetIteratorNode getIterator) {
+            Object[] iterators = new Object[args.length + 1];
+            iterators[0] = getIterator.executeWith(frame, iterable);
+            for (int i = 0; i < args.length; i++) {
+                iterators[i + 1] = getIterator.executeWith(frame, args[i]);
+            }
+            return factory().createMap(cls, function, iterators);
+        }
+    }
+
+    // filter(function or None, iterable)
+    @Builtin(name = FILTER, minNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PFilter)
+    @GenerateNodeFactory
+    public abstract static class FilterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PFilter filter(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable,
+                        @Cached GetIteratorNode getIterator) {
+            return factory().createFilter(cls, function, getIterator.executeWith(frame, iterable));
+        }
+    }
+
     // function(code, globals[, name[, argdefs[, closure]]])
     @Builtin(name = "function", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 6, constructsClass = PythonBuiltinClassType.PFunction, isPublic = false)
     @GenerateNodeFactory
@@ -2183,7 +2216,7 @@ public final class BuiltinConstructors extends PythonBuiltins {
                     // Make slots into a tuple
                 }
                 PythonContext context = getContextRef().get();
-                Object state = ForeignCallContext.enter(frame, context, this);
+                Object state = NativeCallContext.enter(frame, context, this);
                 try {
                     PTuple newSlots = copySlots(name, slotList, slotlen, addDict, false, namespace);
                     pythonClass.setAttribute(__SLOTS__, newSlots);
@@ -2197,7 +2230,7 @@ public final class BuiltinConstructors extends PythonBuiltins {
                         addNativeSlots(pythonClass, newSlots);
                     }
                 } finally {
-                    ForeignCallContext.exit(frame, context, state);
+                    NativeCallContext.exit(frame, context, state);
                 }
             }
 
@@ -2931,8 +2964,64 @@ public final class BuiltinConstructors extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class MemoryViewNode extends PythonBuiltinNode {
         @Specialization
-        public PMemoryView doGeneric(LazyPythonClass cls, Object value) {
-            return factory().createMemoryView(cls, value);
+        PMemoryView doBytes(LazyPythonClass cls, PBytes object,
+                        @Shared("toByteArrayNode") @Cached SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            return fromBytesLike(cls, object, object.getSequenceStorage(), true, toByteArrayNode);
+        }
+
+        @Specialization
+        PMemoryView doByteArray(LazyPythonClass cls, PByteArray object,
+                        @Shared("toByteArrayNode") @Cached SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            return fromBytesLike(cls, object, object.getSequenceStorage(), false, toByteArrayNode);
+        }
+
+        @Specialization
+        PMemoryView doMMap(LazyPythonClass cls, PMMap object) {
+            if (object.isClosed()) {
+                throw raise(ValueError, "mmap closed or invalid");
+            }
+            if (object.getLength() > Integer.MAX_VALUE) {
+                throw raise(BufferError, "memoryview: mmap objects larger than 2 GB are not supported");
+            }
+            return factory().createMemoryView(cls, object, object, (int) object.getLength(), object.isReadonly());
+        }
+
+        @Specialization
+        PMemoryView doMemoryView(LazyPythonClass cls, PMemoryView object) {
+            if (object.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            }
+            return factory().createMemoryView(cls, object.getOwner(), object.getBuffer(), object.getOffset(), object.isReadOnly(), object.getFormat(), object.getItemSize(), object.getShape(),
+                            object.getStrides());
+        }
+
+        @Specialization(guards = "!isManagedBuffer(object)", limit = "getCallSiteInlineCacheMaxDepth()")
+        PMemoryView doGeneric(LazyPythonClass cls, Object object,
+                        @CachedLibrary("object") PythonObjectLibrary lib) {
+            if (lib.isBuffer(object)) {
+                try {
+                    // we cannot access the exporter's memory directly, so the view is a read-only
+                    // snapshot
+                    byte[] bytes = lib.getBufferBytes(object);
+                    return factory().createMemoryView(cls, object, bytes, bytes.length, true);
+                } catch (UnsupportedMessageException e) {
+                    // fall through
+                }
+            }
+            throw raise(TypeError, "memoryview: a bytes-like object is required, not '%p'", object);
+        }
+
+        private PMemoryView fromBytesLike(LazyPythonClass cls, Object object, SequenceStorage storage, boolean readonly, SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            if (storage instanceof ByteSequenceStorage) {
+                return factory().createMemoryView(cls, object, object, storage.length(), readonly);
+            }
+            // e.g. native storage; the view works on a read-only copy
+            byte[] bytes = toByteArrayNode.execute(storage);
+            return factory().createMemoryView(cls, object, bytes, bytes.length, true);
+        }
+
+        protected static boolean isManagedBuffer(Object object) {
+            return object instanceof PBytes || object instanceof PByteArray || object instanceof PMMap || object instanceof PMemoryView;
         }
     }
 
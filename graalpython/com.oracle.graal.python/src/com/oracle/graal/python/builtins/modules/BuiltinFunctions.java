@@ -28,6 +28,8 @@ package com.oracle.graal.python.builtins.modules;
 import static com.oracle.graal.python.builtins.objects.PNone.NO_VALUE;
 import static com.oracle.graal.python.builtins.objects.PNotImplemented.NOT_IMPLEMENTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.ABS;
+import static com.oracle.graal.python.nodes.BuiltinNames.ALL;
+import static com.oracle.graal.python.nodes.BuiltinNames.ANY;
 import static com.oracle.graal.python.nodes.BuiltinNames.BIN;
 import static com.oracle.graal.python.nodes.BuiltinNames.BREAKPOINT;
 import static com.oracle.graal.python.nodes.BuiltinNames.BREAKPOINTHOOK;
@@ -57,6 +59,7 @@ import static com.oracle.graal.python.nodes.BuiltinNames.PRINT;
 import static com.oracle.graal.python.nodes.BuiltinNames.REPR;
 import static com.oracle.graal.python.nodes.BuiltinNames.ROUND;
 import static com.oracle.graal.python.nodes.BuiltinNames.SETATTR;
+import static com.oracle.graal.python.nodes.BuiltinNames.SORTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.SUM;
 import static com.oracle.graal.python.nodes.BuiltinNames.__BUILTIN__;
 import static com.oracle.graal.python.nodes.BuiltinNames.__DEBUG__;
@@ -108,6 +111,9 @@ import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListSortNode;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltinsFactory;
+import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
@@ -136,6 +142,7 @@ import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.SetAttributeNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes;
+import com.oracle.graal.python.nodes.builtins.ListNodes.CreateStorageFromIteratorNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.GenericInvokeNode;
 import com.oracle.graal.python.nodes.call.PythonCallNode;
@@ -255,6 +262,58 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // all(iterable)
+    @Builtin(name = ALL, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class AllNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean all(VirtualFrame frame, Object iterable,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode next,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            Object iterator = getIterator.executeWith(frame, iterable);
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return true;
+                }
+                if (!isTrue.executeBoolean(frame, item)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    // any(iterable)
+    @Builtin(name = ANY, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class AnyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean any(VirtualFrame frame, Object iterable,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode next,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            Object iterator = getIterator.executeWith(frame, iterable);
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return false;
+                }
+                if (isTrue.executeBoolean(frame, item)) {
+                    return true;
+                }
+            }
+        }
+    }
+
     // bin(object)
     @Builtin(name = BIN, minNumOfPositionalArgs = 1)
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -1769,6 +1828,25 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // sorted(iterable, *, key=None, reverse=False)
+    @Builtin(name = SORTED, minNumOfPositionalArgs = 1, parameterNames = {"iterable"}, varArgsMarker = true, keywordOnlyNames = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class SortedNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PList sorted(VirtualFrame frame, Object iterable, Object key, Object reverse,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached CreateStorageFromIteratorNode createStorage,
+                        @Cached("createSort()") ListSortNode sortNode) {
+            PList list = factory().createList(createStorage.execute(frame, getIterator.executeWith(frame, iterable)));
+            sortNode.execute(frame, list, key, reverse);
+            return list;
+        }
+
+        protected static ListSortNode createSort() {
+            return ListBuiltinsFactory.ListSortNodeFactory.create();
+        }
+    }
+
     @Builtin(name = __BUILTIN__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class BuiltinNode extends PythonUnaryBuiltinNode {
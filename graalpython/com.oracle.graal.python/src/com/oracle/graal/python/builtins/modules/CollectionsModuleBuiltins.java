@@ -40,18 +40,57 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIter;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_collections")
 public class CollectionsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return CollectionsModuleBuiltinsFactory.getFactories();
+    }
+
+    // deque([iterable[, maxlen]])
+    @Builtin(name = "deque", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PDeque)
+    @GenerateNodeFactory
+    public abstract static class DequeNode extends PythonVarargsBuiltinNode {
+        @Specialization
+        PDeque construct(LazyPythonClass cls, @SuppressWarnings("unused") Object[] arguments, @SuppressWarnings("unused") PKeyword[] keywords) {
+            return factory().createDeque(cls);
+        }
+    }
+
+    // _deque_iterator(deque)
+    @Builtin(name = "_deque_iterator", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PDequeIter)
+    @GenerateNodeFactory
+    public abstract static class DequeIterNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDequeIter construct(@SuppressWarnings("unused") LazyPythonClass cls, PDeque deque) {
+            return factory().createDequeIter(deque);
+        }
+    }
+
+    // _deque_reverse_iterator(deque)
+    @Builtin(name = "_deque_reverse_iterator", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PDequeRevIter)
+    @GenerateNodeFactory
+    public abstract static class DequeRevIterNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDequeIter construct(@SuppressWarnings("unused") LazyPythonClass cls, PDeque deque) {
+            return factory().createDequeRevIter(deque);
+        }
     }
 }
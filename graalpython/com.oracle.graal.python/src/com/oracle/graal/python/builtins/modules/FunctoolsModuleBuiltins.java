@@ -40,18 +40,134 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
+import com.oracle.graal.python.builtins.objects.functools.PartialBuiltins;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode.CannotCastException;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    // reduce(function, sequence[, initial])
+    @Builtin(name = "reduce", minNumOfPositionalArgs = 2, parameterNames = {"function", "sequence", "initial"})
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object reduce(VirtualFrame frame, Object function, Object sequence, Object initial,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode next,
+                        @Cached CallNode callNode,
+                        @Cached IsBuiltinClassProfile errorProfile) {
+            Object iterator = getIterator.executeWith(frame, sequence);
+            Object result = initial == PNone.NO_VALUE ? null : initial;
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    break;
+                }
+                if (result == null) {
+                    result = item;
+                } else {
+                    result = callNode.execute(frame, function, new Object[]{result, item}, PKeyword.EMPTY_KEYWORDS);
+                }
+            }
+            if (result == null) {
+                throw raise(TypeError, "reduce() of empty sequence with no initial value");
+            }
+            return result;
+        }
+    }
+
+    // partial(func, *args, **keywords)
+    @Builtin(name = "partial", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PPartial)
+    @GenerateNodeFactory
+    public abstract static class PartialNode extends PythonVarargsBuiltinNode {
+        @Specialization
+        PPartial construct(LazyPythonClass cls, Object[] arguments, PKeyword[] keywords,
+                        @Cached GetLazyClassNode getClass,
+                        @Cached("create(__CALL__)") LookupInheritedAttributeNode lookupCall) {
+            if (arguments.length == 0) {
+                throw raise(TypeError, "type 'partial' takes at least one argument");
+            }
+            Object fn = arguments[0];
+            if (!PGuards.isCallable(fn) && lookupCall.execute(fn) == PNone.NO_VALUE) {
+                throw raise(TypeError, "the first argument must be callable");
+            }
+            Object[] args = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, args, 0, args.length);
+            if (fn instanceof PPartial && cls == PythonBuiltinClassType.PPartial && getClass.execute(fn) == PythonBuiltinClassType.PPartial) {
+                // flatten nested partial objects
+                PPartial inner = (PPartial) fn;
+                return factory().createPartial(cls, inner.getFn(), PartialBuiltins.concat(inner.getArgs(), args), PartialBuiltins.mergeKeywords(inner.getKeywords(), keywords));
+            }
+            return factory().createPartial(cls, fn, args, keywords);
+        }
+    }
+
+    // _lru_cache_wrapper(user_function, maxsize, typed, cache_info_type)
+    @Builtin(name = "_lru_cache_wrapper", minNumOfPositionalArgs = 5, constructsClass = PythonBuiltinClassType.PLruCacheWrapper)
+    @GenerateNodeFactory
+    public abstract static class LruCacheWrapperNode extends PythonBuiltinNode {
+        @Specialization
+        PLruCacheWrapper construct(VirtualFrame frame, LazyPythonClass cls, Object function, Object maxSize, Object typed, Object cacheInfoType,
+                        @Cached("create(__CALL__)") LookupInheritedAttributeNode lookupCall,
+                        @Cached CastToJavaLongNode castToLong,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBoolean) {
+            if (!PGuards.isCallable(function) && lookupCall.execute(function) == PNone.NO_VALUE) {
+                throw raise(TypeError, "the first argument must be callable");
+            }
+            int size;
+            if (maxSize == PNone.NONE) {
+                size = PLruCacheWrapper.UNBOUNDED;
+            } else {
+                long value;
+                try {
+                    value = castToLong.execute(maxSize);
+                } catch (CannotCastException e) {
+                    throw raise(TypeError, "maxsize should be integer or None");
+                }
+                // negative sizes mean no caching at all
+                size = (int) Math.max(0, Math.min(value, Integer.MAX_VALUE));
+            }
+            return factory().createLruCacheWrapper(cls, function, size, castToBoolean.executeBoolean(frame, typed), cacheInfoType);
+        }
     }
 }
@@ -83,7 +83,8 @@ import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
-import com.oracle.graal.python.runtime.ExecutionContext.ForeignCallContext;
+import com.oracle.graal.python.parser.SSTCache;
+import com.oracle.graal.python.runtime.ExecutionContext.NativeCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -163,7 +164,6 @@ public class ImpModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class CreateDynamic extends PythonBuiltinNode {
         protected static final String INITIALIZE_CAPI = "initialize_capi";
-        protected static final String IMPORT_NATIVE_MEMORYVIEW = "import_native_memoryview";
         protected static final String RUN_CAPI_LOADED_HOOKS = "run_capi_loaded_hooks";
         private static final String LLVM_LANGUAGE = "llvm";
 
@@ -176,11 +176,11 @@ public class ImpModuleBuiltins extends PythonBuiltins {
         public Object run(VirtualFrame frame, PythonObject moduleSpec, @SuppressWarnings("unused") Object filename,
                         @CachedLibrary(limit = "1") InteropLibrary interop) {
             PythonContext context = getContextRef().get();
-            Object state = ForeignCallContext.enter(frame, context, this);
+            Object state = NativeCallContext.enter(frame, context, this);
             try {
                 return run(moduleSpec, interop);
             } finally {
-                ForeignCallContext.exit(frame, context, state);
+                NativeCallContext.exit(frame, context, state);
             }
         }
 
@@ -285,10 +285,6 @@ public class ImpModuleBuiltins extends PythonBuiltins {
                 callNode.executeObject(null, readNode.execute(builtinModule, INITIALIZE_CAPI), capi);
                 context.setCapiWasLoaded(capi);
                 callNode.executeObject(null, readNode.execute(builtinModule, RUN_CAPI_LOADED_HOOKS), capi);
-
-                // initialization needs to be finished already but load memoryview implementation
-                // immediately
-                callNode.executeObject(null, readNode.execute(builtinModule, IMPORT_NATIVE_MEMORYVIEW), capi);
             }
         }
 
@@ -409,19 +405,27 @@ public class ImpModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class SourceHashNode extends PythonBinaryBuiltinNode {
         @Specialization
+        PBytes run(long magicNumber, PIBytesLike source,
+                        @Shared("toByteArray") @Cached SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            return factory().createBytes(hash(magicNumber, toByteArrayNode.execute(source.getSequenceStorage())));
+        }
+
+        @Specialization
+        PBytes run(PInt magicNumber, PIBytesLike source,
+                        @Shared("toByteArray") @Cached SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            return run(magicNumber.longValue(), source, toByteArrayNode);
+        }
+
         @TruffleBoundary
-        PBytes run(long magicNumber, PIBytesLike source) {
+        private static byte[] hash(long magicNumber, byte[] source) {
+            // only the hash function is shared with the parser cache, which validates its
+            // entries with a hash of the decoded source text rather than of these bytes
+            long hashCode = SSTCache.hash(magicNumber, source);
             byte[] hash = new byte[Long.BYTES];
-            long hashCode = magicNumber ^ source.hashCode();
             for (int i = 0; i < hash.length; i++) {
-                hash[i] = (byte) (hashCode << (8 * i));
+                hash[i] = (byte) (hashCode >>> (8 * i));
             }
-            return factory().createBytes(hash);
-        }
-
-        @Specialization
-        PBytes run(PInt magicNumber, PIBytesLike source) {
-            return run(magicNumber.longValue(), source);
+            return hash;
         }
     }
 
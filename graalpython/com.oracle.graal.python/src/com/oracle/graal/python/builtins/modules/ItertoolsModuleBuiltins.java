@@ -25,19 +25,47 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INT__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.builtins.TupleNodes.ConstructTupleNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode.CannotCastException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "itertools")
 public final class ItertoolsModuleBuiltins extends PythonBuiltins {
@@ -58,4 +86,190 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    // chain(*iterables)
+    @Builtin(name = "chain", minNumOfPositionalArgs = 1, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PChain)
+    @GenerateNodeFactory
+    public abstract static class ChainNode extends PythonBuiltinNode {
+        @Specialization
+        PChain construct(VirtualFrame frame, LazyPythonClass cls, Object[] args,
+                        @Cached GetIteratorNode getIterator) {
+            return factory().createChain(cls, getIterator.executeWith(frame, factory().createTuple(args)));
+        }
+    }
+
+    // islice(iterable, stop) or islice(iterable, start, stop[, step])
+    @Builtin(name = "islice", minNumOfPositionalArgs = 2, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PIslice)
+    @GenerateNodeFactory
+    public abstract static class IsliceNode extends PythonBuiltinNode {
+        @Specialization
+        PIslice construct(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object[] args,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached CastToJavaLongNode castToLong) {
+            long start = 0;
+            long stop;
+            long step = 1;
+            if (args.length == 1) {
+                stop = castIndex(castToLong, args[0], PIslice.NO_STOP, "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.");
+            } else if (args.length == 2 || args.length == 3) {
+                stop = castIndex(castToLong, args[1], PIslice.NO_STOP, "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.");
+                start = castIndex(castToLong, args[0], 0, "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.");
+                if (args.length == 3) {
+                    step = castIndex(castToLong, args[2], 1, "Step for islice() must be a positive integer or None.");
+                    if (step == 0) {
+                        throw raise(ValueError, "Step for islice() must be a positive integer or None.");
+                    }
+                }
+            } else if (args.length == 0) {
+                throw raise(TypeError, "islice expected at least 2 arguments, got 1");
+            } else {
+                throw raise(TypeError, "islice expected at most 4 arguments, got %d", args.length + 1);
+            }
+            return factory().createIslice(cls, getIterator.executeWith(frame, iterable), start, stop, step);
+        }
+
+        private long castIndex(CastToJavaLongNode castToLong, Object value, long defaultValue, String message) {
+            if (value == PNone.NONE) {
+                return defaultValue;
+            }
+            long result;
+            try {
+                result = castToLong.execute(value);
+            } catch (CannotCastException e) {
+                throw raise(ValueError, message);
+            }
+            if (result < 0) {
+                throw raise(ValueError, message);
+            }
+            return result;
+        }
+    }
+
+    // count(start=0, step=1)
+    @Builtin(name = "count", minNumOfPositionalArgs = 1, parameterNames = {"cls", "start", "step"}, constructsClass = PythonBuiltinClassType.PCount)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends PythonTernaryBuiltinNode {
+        @Child private LookupInheritedAttributeNode lookupInt;
+        @Child private LookupInheritedAttributeNode lookupFloat;
+
+        @Specialization
+        PCount construct(LazyPythonClass cls, Object start, Object step) {
+            Object startValue = start == PNone.NO_VALUE ? 0 : start;
+            Object stepValue = step == PNone.NO_VALUE ? 1 : step;
+            checkNumber(startValue);
+            checkNumber(stepValue);
+            return factory().createCount(cls, startValue, stepValue);
+        }
+
+        private void checkNumber(Object value) {
+            if (MathGuards.isNumber(value) || value instanceof Boolean) {
+                return;
+            }
+            if (lookupInt == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lookupInt = insert(LookupInheritedAttributeNode.create(__INT__));
+                lookupFloat = insert(LookupInheritedAttributeNode.create(__FLOAT__));
+            }
+            if (lookupInt.execute(value) == PNone.NO_VALUE && lookupFloat.execute(value) == PNone.NO_VALUE) {
+                throw raise(TypeError, "a number is required");
+            }
+        }
+    }
+
+    // cycle(iterable)
+    @Builtin(name = "cycle", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PCycle)
+    @GenerateNodeFactory
+    public abstract static class CycleNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PCycle construct(VirtualFrame frame, LazyPythonClass cls, Object iterable,
+                        @Cached GetIteratorNode getIterator) {
+            return factory().createCycle(cls, getIterator.executeWith(frame, iterable));
+        }
+    }
+
+    // accumulate(iterable, func=None)
+    @Builtin(name = "accumulate", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "func"}, constructsClass = PythonBuiltinClassType.PAccumulate)
+    @GenerateNodeFactory
+    public abstract static class AccumulateNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PAccumulate construct(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object func,
+                        @Cached GetIteratorNode getIterator) {
+            Object f = PGuards.isPNone(func) ? null : func;
+            return factory().createAccumulate(cls, getIterator.executeWith(frame, iterable), f);
+        }
+    }
+
+    // zip_longest(*iterables, fillvalue=None)
+    @Builtin(name = "zip_longest", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordOnlyNames = {"fillvalue"}, constructsClass = PythonBuiltinClassType.PZipLongest)
+    @GenerateNodeFactory
+    public abstract static class ZipLongestNode extends PythonBuiltinNode {
+        @Specialization
+        PZipLongest construct(VirtualFrame frame, LazyPythonClass cls, Object[] args, Object fillValue,
+                        @Cached GetIteratorNode getIterator) {
+            Object[] iterators = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                iterators[i] = getIterator.executeWith(frame, args[i]);
+            }
+            return factory().createZipLongest(cls, iterators, fillValue == PNone.NO_VALUE ? PNone.NONE : fillValue);
+        }
+    }
+
+    // permutations(iterable, r=None)
+    @Builtin(name = "permutations", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "r"}, constructsClass = PythonBuiltinClassType.PPermutations)
+    @GenerateNodeFactory
+    public abstract static class PermutationsNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PPermutations construct(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object r,
+                        @Cached ConstructTupleNode constructTuple,
+                        @Cached SequenceStorageNodes.ToArrayNode toArray,
+                        @Cached CastToJavaIntNode castToInt) {
+            Object[] pool = toArray.execute(constructTuple.execute(frame, iterable).getSequenceStorage());
+            int length = pool.length;
+            if (!PGuards.isPNone(r)) {
+                length = castToInt.execute(r);
+                if (length < 0) {
+                    throw raise(ValueError, "r must be non-negative");
+                }
+            }
+            return factory().createPermutations(cls, pool, length);
+        }
+    }
+
+    // product(*iterables, repeat=1)
+    @Builtin(name = "product", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordOnlyNames = {"repeat"}, constructsClass = PythonBuiltinClassType.PProduct)
+    @GenerateNodeFactory
+    public abstract static class ProductNode extends PythonBuiltinNode {
+        @Specialization
+        PProduct construct(VirtualFrame frame, LazyPythonClass cls, Object[] args, Object repeat,
+                        @Cached ConstructTupleNode constructTuple,
+                        @Cached SequenceStorageNodes.ToArrayNode toArray,
+                        @Cached CastToJavaIntNode castToInt) {
+            int repeatCount = 1;
+            if (repeat != PNone.NO_VALUE) {
+                repeatCount = castToInt.execute(repeat);
+                if (repeatCount < 0) {
+                    throw raise(ValueError, "repeat argument cannot be negative");
+                }
+            }
+            Object[][] gears = new Object[args.length * repeatCount][];
+            for (int i = 0; i < args.length; i++) {
+                gears[i] = toArray.execute(constructTuple.execute(frame, args[i]).getSequenceStorage());
+            }
+            for (int i = args.length; i < gears.length; i++) {
+                gears[i] = gears[i - args.length];
+            }
+            return factory().createProduct(cls, gears);
+        }
+    }
+
+    // groupby(iterable, key=None)
+    @Builtin(name = "groupby", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "key"}, constructsClass = PythonBuiltinClassType.PGroupBy)
+    @GenerateNodeFactory
+    public abstract static class GroupByNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PGroupBy construct(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object key,
+                        @Cached GetIteratorNode getIterator) {
+            Object keyFunc = PGuards.isPNone(key) ? null : key;
+            return factory().createGroupBy(cls, getIterator.executeWith(frame, iterable), keyFunc);
+        }
+    }
 }
@@ -40,11 +40,13 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PMMap;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
@@ -62,6 +64,7 @@ import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -89,7 +92,7 @@ public class MMapModuleBuiltins extends PythonBuiltins {
         builtinConstants.put("ACCESS_COPY", ACCESS_COPY);
     }
 
-    @Builtin(name = "mmap", minNumOfPositionalArgs = 3, parameterNames = {"cls", "fd", "length", "tagname", "access", "offset"}, constructsClass = PMMap)
+    @Builtin(name = "mmap", minNumOfPositionalArgs = 3, parameterNames = {"cls", "fd", "length", "tagname", "access", "offset"}, constructsClass = PythonBuiltinClassType.PMMap)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class MMapNode extends PythonBuiltinNode {
@@ -97,26 +100,34 @@ public class MMapModuleBuiltins extends PythonBuiltins {
         private final BranchProfile invalidLengthProfile = BranchProfile.create();
 
         @Specialization(guards = {"isAnonymous(fd)", "isNoValue(access)", "isNoValue(offset)"})
-        PMMap doAnonymous(LazyPythonClass clazz, @SuppressWarnings("unused") long fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") PNone access,
+        PMMap doAnonymous(LazyPythonClass clazz, @SuppressWarnings("unused") long fd, long length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") PNone access,
                         @SuppressWarnings("unused") PNone offset) {
             checkLength(length);
-            return factory().createMMap(clazz, new AnonymousMap(length), length, 0);
+            return factory().createMMap(clazz, null, allocateSegments(length), length, 0, false);
         }
 
         @Specialization(guards = {"fd >= 0", "isNoValue(access)", "isNoValue(offset)"})
-        PMMap doFile(LazyPythonClass clazz, long fd, int length, Object tagname, @SuppressWarnings("unused") PNone access, @SuppressWarnings("unused") PNone offset) {
+        PMMap doFile(LazyPythonClass clazz, long fd, long length, Object tagname, @SuppressWarnings("unused") PNone access, @SuppressWarnings("unused") PNone offset) {
             return doFile(clazz, fd, length, tagname, ACCESS_DEFAULT, 0);
         }
 
         @Specialization(guards = {"fd >= 0", "isNoValue(offset)"})
-        PMMap doFile(LazyPythonClass clazz, long fd, int length, Object tagname, int access, @SuppressWarnings("unused") PNone offset) {
+        PMMap doFile(LazyPythonClass clazz, long fd, long length, Object tagname, int access, @SuppressWarnings("unused") PNone offset) {
             return doFile(clazz, fd, length, tagname, access, 0);
         }
 
         // mmap(fileno, length, tagname=None, access=ACCESS_DEFAULT[, offset])
         @Specialization(guards = "fd >= 0")
-        PMMap doFile(LazyPythonClass clazz, long fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") int access, long offset) {
+        PMMap doFile(LazyPythonClass clazz, long fd, long length, @SuppressWarnings("unused") Object tagname, int access, long offset) {
             checkLength(length);
+            if (offset < 0) {
+                invalidLengthProfile.enter();
+                throw raise(OverflowError, "memory mapped offset must be positive");
+            }
+            if (access < ACCESS_DEFAULT || access > ACCESS_COPY) {
+                invalidLengthProfile.enter();
+                throw raise(ValueError, "mmap invalid access parameter.");
+            }
             int ifd;
             try {
                 ifd = PInt.intValueExact(fd);
@@ -127,17 +138,46 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             String path = getContext().getResources().getFilePath(ifd);
             TruffleFile truffleFile = getContext().getEnv().getPublicTruffleFile(path);
 
-            // TODO(fa) correctly honor access flags
-            Set<StandardOpenOption> options = set(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Set<StandardOpenOption> options = access == ACCESS_READ || access == ACCESS_COPY ? set(StandardOpenOption.READ) : set(StandardOpenOption.READ, StandardOpenOption.WRITE);
 
-            // we create a new channel otherwise we cannot guarantee that the cursor is exclusive
-            SeekableByteChannel fileChannel;
+            // we create a new channel since mapping must not depend on the file's cursor
+            SeekableByteChannel fileChannel = null;
             try {
                 fileChannel = truffleFile.newByteChannel(options);
-                position(fileChannel, offset);
-                return factory().createMMap(clazz, fileChannel, length, offset);
+                long fileSize = size(fileChannel);
+                long mapLength = length;
+                if (length == 0) {
+                    if (fileSize == 0) {
+                        throw raise(ValueError, "cannot mmap an empty file");
+                    }
+                    if (offset >= fileSize) {
+                        throw raise(ValueError, "mmap offset is greater than file size");
+                    }
+                    mapLength = fileSize - offset;
+                } else if (offset > fileSize || fileSize - offset < length) {
+                    throw raise(ValueError, "mmap length is greater than file size");
+                }
+                boolean readonly = access == ACCESS_READ;
+                if (fileChannel instanceof FileChannel) {
+                    ByteBuffer[] segments = map((FileChannel) fileChannel, access, offset, mapLength);
+                    // the mapping stays valid after the channel is closed
+                    close(fileChannel);
+                    return factory().createMMap(clazz, null, segments, mapLength, offset, readonly);
+                }
+                // the file system cannot map files, work on a copy and write it back on flush
+                ByteBuffer[] segments = allocateSegments(mapLength);
+                readSegments(fileChannel, offset, segments);
+                if (access == ACCESS_COPY) {
+                    close(fileChannel);
+                    fileChannel = null;
+                }
+                return factory().createMMap(clazz, fileChannel, segments, mapLength, offset, readonly);
             } catch (IOException e) {
+                closeQuietly(fileChannel);
                 throw raise(ValueError, "cannot mmap file");
+            } catch (PException e) {
+                closeQuietly(fileChannel);
+                throw e;
             }
         }
 
@@ -164,70 +204,74 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             return fd < -1;
         }
 
-        private void checkLength(int length) {
+        private void checkLength(long length) {
             if (length < 0) {
                 invalidLengthProfile.enter();
-                throw raise(PythonBuiltinClassType.OverflowError, "memory mapped length must be positive");
+                throw raise(OverflowError, "memory mapped length must be positive");
             }
         }
 
-        @TruffleBoundary
-        private static void position(SeekableByteChannel ch, long offset) throws IOException {
-            ch.position(offset);
+        private static int segmentCount(long length) {
+            return (int) ((length + PMMap.SEGMENT_SIZE - 1) / PMMap.SEGMENT_SIZE);
         }
-    }
-
-    private static class AnonymousMap implements SeekableByteChannel {
-        private final byte[] data;
 
-        private boolean open = true;
-        private int cur;
-
-        public AnonymousMap(int cap) {
-            this.data = new byte[cap];
-        }
-
-        public boolean isOpen() {
-            return open;
-        }
-
-        public void close() throws IOException {
-            open = false;
-        }
-
-        public int read(ByteBuffer dst) throws IOException {
-            int nread = Math.min(dst.remaining(), data.length - cur);
-            dst.put(data, cur, nread);
-            return nread;
+        @TruffleBoundary
+        private static ByteBuffer[] allocateSegments(long length) {
+            ByteBuffer[] segments = new ByteBuffer[Math.max(segmentCount(length), 1)];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = ByteBuffer.allocate((int) Math.min(PMMap.SEGMENT_SIZE, length - (long) i * PMMap.SEGMENT_SIZE));
+            }
+            return segments;
         }
 
-        public int write(ByteBuffer src) throws IOException {
-            int nwrite = Math.min(src.remaining(), data.length - cur);
-            src.get(data, cur, nwrite);
-            return nwrite;
+        @TruffleBoundary
+        private static ByteBuffer[] map(FileChannel channel, int access, long offset, long length) throws IOException {
+            MapMode mode;
+            if (access == ACCESS_READ) {
+                mode = MapMode.READ_ONLY;
+            } else if (access == ACCESS_COPY) {
+                mode = MapMode.PRIVATE;
+            } else {
+                mode = MapMode.READ_WRITE;
+            }
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+            for (int i = 0; i < segments.length; i++) {
+                long segmentOffset = (long) i * PMMap.SEGMENT_SIZE;
+                segments[i] = channel.map(mode, offset + segmentOffset, Math.min(PMMap.SEGMENT_SIZE, length - segmentOffset));
+            }
+            return segments;
         }
 
-        public long position() throws IOException {
-            return cur;
+        @TruffleBoundary
+        private static void readSegments(SeekableByteChannel channel, long offset, ByteBuffer[] segments) throws IOException {
+            channel.position(offset);
+            for (ByteBuffer segment : segments) {
+                while (segment.hasRemaining() && channel.read(segment) > 0) {
+                    // keep reading
+                }
+                segment.clear();
+            }
         }
 
-        public SeekableByteChannel position(long newPosition) throws IOException {
-            if (newPosition < 0) {
-                throw new IllegalArgumentException();
-            }
-            cur = (int) newPosition;
-            return this;
+        @TruffleBoundary
+        private static long size(SeekableByteChannel channel) throws IOException {
+            return channel.size();
         }
 
-        public long size() throws IOException {
-            return data.length;
+        @TruffleBoundary
+        private static void close(SeekableByteChannel channel) throws IOException {
+            channel.close();
         }
 
-        public SeekableByteChannel truncate(long size) throws IOException {
-            for (int i = 0; i < size; i++) {
-                data[i] = 0;
+        @TruffleBoundary
+        private static void closeQuietly(SeekableByteChannel channel) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // ignore, we are already failing
+                }
             }
-            return this;
         }
     }
 }
@@ -72,6 +72,7 @@ import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -576,6 +577,9 @@ public final class PolyglotModuleBuiltins extends PythonBuiltins {
                         @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
                         @CachedContext(PythonLanguage.class) PythonContext context) {
             SequenceStorage storage = getSequenceStorageNode.execute(seq);
+            if (storage instanceof BoolSequenceStorage) {
+                return context.getEnv().asGuestValue(((BoolSequenceStorage) storage).getInternalBoolArray());
+            }
             return context.getEnv().asGuestValue(storage.getInternalArrayObject());
         }
 
@@ -40,20 +40,42 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.io.PrintStream;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.builtins.ListNodes.ConstructListNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
-import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.runtime.PosixResources;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.BranchProfile;
 
 @CoreFunctions(defineModule = "select")
 public class SelectModuleBuiltins extends PythonBuiltins {
@@ -65,13 +87,207 @@ public class SelectModuleBuiltins extends PythonBuiltins {
     @Builtin(name = "select", minNumOfPositionalArgs = 3, parameterNames = {"rlist", "wlist", "xlist", "timeout"})
     @GenerateNodeFactory
     abstract static class SelectNode extends PythonBuiltinNode {
+
         @Specialization
+        PTuple doWithoutTimeout(VirtualFrame frame, Object rlist, Object wlist, Object xlist, @SuppressWarnings("unused") PNone timeout,
+                        @Cached("createFileno()") LookupAndCallUnaryNode callFileno,
+                        @Cached CastToJavaIntNode castToInt,
+                        @Cached ConstructListNode constructListNode,
+                        @Cached GetObjectArrayNode getObjectArrayNode) {
+            return doGeneric(frame, rlist, wlist, xlist, -1, callFileno, castToInt, constructListNode, getObjectArrayNode);
+        }
+
+        @Specialization(guards = "!isPNone(timeout)")
+        PTuple doWithTimeout(VirtualFrame frame, Object rlist, Object wlist, Object xlist, Object timeout,
+                        @Cached("createFileno()") LookupAndCallUnaryNode callFileno,
+                        @Cached CastToJavaIntNode castToInt,
+                        @Cached ConstructListNode constructListNode,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached CastToDoubleNode castToDouble,
+                        @Cached BranchProfile negativeTimeout) {
+            double seconds = castToDouble.execute(frame, timeout);
+            if (seconds < 0) {
+                negativeTimeout.enter();
+                throw raise(ValueError, "timeout must be non-negative");
+            }
+            // a positive timeout below one millisecond must not turn into an infinite wait
+            long millis = (long) Math.ceil(seconds * 1000.0);
+            return doGeneric(frame, rlist, wlist, xlist, millis, callFileno, castToInt, constructListNode, getObjectArrayNode);
+        }
+
+        private PTuple doGeneric(VirtualFrame frame, Object rlist, Object wlist, Object xlist, long timeoutMillis,
+                        LookupAndCallUnaryNode callFileno, CastToJavaIntNode castToInt, ConstructListNode constructListNode, GetObjectArrayNode getObjectArrayNode) {
+            Object[] readObjs = getObjectArrayNode.execute(constructListNode.execute(rlist));
+            Object[] writeObjs = getObjectArrayNode.execute(constructListNode.execute(wlist));
+            Object[] exceptObjs = getObjectArrayNode.execute(constructListNode.execute(xlist));
+
+            PosixResources resources = getContext().getResources();
+            Channel[] readChannels = toChannels(frame, resources, readObjs, callFileno, castToInt);
+            Channel[] writeChannels = toChannels(frame, resources, writeObjs, callFileno, castToInt);
+            // we cannot observe exceptional conditions through NIO, so the 'xlist' is only
+            // validated but never reported as ready
+            toChannels(frame, resources, exceptObjs, callFileno, castToInt);
+
+            boolean[] readReady = new boolean[readChannels.length];
+            boolean[] writeReady = new boolean[writeChannels.length];
+            try {
+                doSelect(getContext().getSelector(), readChannels, readReady, writeChannels, writeReady, timeoutMillis);
+            } catch (ClosedChannelException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF, e);
+            } catch (IOException e) {
+                throw raiseOSError(frame, OSErrorEnum.EIO, e);
+            }
+
+            PList readResult = factory().createList(filterReady(readObjs, readReady));
+            PList writeResult = factory().createList(filterReady(writeObjs, writeReady));
+            PList exceptResult = factory().createList();
+            return factory().createTuple(new Object[]{readResult, writeResult, exceptResult});
+        }
+
+        private Channel[] toChannels(VirtualFrame frame, PosixResources resources, Object[] objects, LookupAndCallUnaryNode callFileno, CastToJavaIntNode castToInt) {
+            Channel[] channels = new Channel[objects.length];
+            for (int i = 0; i < objects.length; i++) {
+                int fd = toFileDescriptor(frame, objects[i], callFileno, castToInt);
+                Channel channel = resources.getFileChannel(fd);
+                if (channel == null) {
+                    throw raiseOSError(frame, OSErrorEnum.EBADF);
+                }
+                channels[i] = channel;
+            }
+            return channels;
+        }
+
+        private int toFileDescriptor(VirtualFrame frame, Object obj, LookupAndCallUnaryNode callFileno, CastToJavaIntNode castToInt) {
+            Object fdObj = obj;
+            if (!(obj instanceof Integer || obj instanceof Long)) {
+                fdObj = callFileno.executeObject(frame, obj);
+                if (fdObj == PNone.NO_VALUE) {
+                    throw raise(TypeError, "argument must be an int, or have a fileno() method.");
+                }
+            }
+            int fd = castToInt.execute(fdObj);
+            if (fd < 0) {
+                throw raise(ValueError, "file descriptor cannot be a negative integer (%d)", fd);
+            }
+            return fd;
+        }
+
         @TruffleBoundary
-        PTuple select(Object rlist, Object wlist, Object xlist, @SuppressWarnings("unused") Object timeout) {
-            if (PythonOptions.getFlag(getContext(), PythonOptions.VerboseFlag)) {
-                new PrintStream(getContext().getEnv().err()).println("select() will always return immediately, we only support blocking I/O for now");
+        private static Object[] filterReady(Object[] objects, boolean[] ready) {
+            ArrayList<Object> result = new ArrayList<>();
+            for (int i = 0; i < objects.length; i++) {
+                if (ready[i]) {
+                    result.add(objects[i]);
+                }
+            }
+            return result.toArray();
+        }
+
+        protected static LookupAndCallUnaryNode createFileno() {
+            return LookupAndCallUnaryNode.create("fileno");
+        }
+    }
+
+    /**
+     * Waits until at least one of the given channels is ready or the timeout (in milliseconds)
+     * expires. A negative timeout blocks indefinitely, a timeout of {@code 0} only polls. Channels
+     * that cannot be multiplexed by a {@link Selector} (e.g. regular files) are always considered
+     * ready, like {@code select(2)} does for regular files.
+     *
+     * The selector is reused across calls, so all channels are deregistered again before this
+     * returns.
+     */
+    @TruffleBoundary
+    static void doSelect(Selector selector, Channel[] readChannels, boolean[] readReady, Channel[] writeChannels, boolean[] writeReady, long timeoutMillis) throws IOException {
+        IdentityHashMap<SelectableChannel, Boolean> previouslyBlocking = new IdentityHashMap<>();
+        boolean alwaysReady = false;
+        try {
+            alwaysReady |= register(selector, readChannels, readReady, SelectionKey.OP_READ | SelectionKey.OP_ACCEPT, previouslyBlocking);
+            alwaysReady |= register(selector, writeChannels, writeReady, SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT, previouslyBlocking);
+
+            if (alwaysReady || timeoutMillis == 0) {
+                selector.selectNow();
+            } else if (timeoutMillis < 0) {
+                selector.select();
+            } else {
+                selector.select(timeoutMillis);
+            }
+
+            collect(selector, readChannels, readReady, SelectionKey.OP_READ | SelectionKey.OP_ACCEPT);
+            collect(selector, writeChannels, writeReady, SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT);
+        } finally {
+            // a cancelled key is only removed by the next selection operation, and a channel may
+            // only be switched back into blocking mode once it is not registered anymore
+            selector.selectedKeys().clear();
+            for (SelectionKey key : selector.keys()) {
+                key.cancel();
+            }
+            selector.selectNow();
+            for (SelectableChannel channel : previouslyBlocking.keySet()) {
+                if (channel.isOpen()) {
+                    channel.configureBlocking(true);
+                }
+            }
+        }
+    }
+
+    private static boolean register(Selector selector, Channel[] channels, boolean[] ready, int ops, IdentityHashMap<SelectableChannel, Boolean> previouslyBlocking) throws IOException {
+        boolean alwaysReady = false;
+        for (int i = 0; i < channels.length; i++) {
+            SelectableChannel selectable = getSelectableChannel(channels[i]);
+            if (selectable == null) {
+                ready[i] = true;
+                alwaysReady = true;
+                continue;
+            }
+            int validOps = selectable.validOps() & ops;
+            if (validOps == 0) {
+                // e.g. asking a listening socket for writability
+                continue;
+            }
+            if (!selectable.isOpen()) {
+                throw new ClosedChannelException();
+            }
+            if (selectable.isBlocking()) {
+                previouslyBlocking.put(selectable, Boolean.TRUE);
+                selectable.configureBlocking(false);
+            }
+            SelectionKey key = selectable.keyFor(selector);
+            if (key == null) {
+                selectable.register(selector, validOps);
+            } else {
+                key.interestOps(key.interestOps() | validOps);
+            }
+        }
+        return alwaysReady;
+    }
+
+    private static void collect(Selector selector, Channel[] channels, boolean[] ready, int ops) {
+        for (int i = 0; i < channels.length; i++) {
+            SelectableChannel selectable = getSelectableChannel(channels[i]);
+            if (selectable != null) {
+                SelectionKey key = selectable.keyFor(selector);
+                ready[i] = key != null && key.isValid() && (key.readyOps() & ops) != 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link SelectableChannel} backing the given file descriptor channel, or
+     * {@code null} if the channel cannot be multiplexed. Sockets that are neither connected nor
+     * listening yet are reported as not selectable, which makes them immediately ready like an
+     * unconnected socket in {@code select(2)}.
+     */
+    static SelectableChannel getSelectableChannel(Channel channel) {
+        if (channel instanceof PSocket) {
+            PSocket socket = (PSocket) channel;
+            if (socket.getSocket() != null) {
+                return socket.getSocket();
             }
-            return factory().createTuple(new Object[]{rlist, wlist, xlist});
+            return socket.getServerSocket();
+        } else if (channel instanceof SelectableChannel) {
+            return (SelectableChannel) channel;
         }
+        return null;
     }
 }
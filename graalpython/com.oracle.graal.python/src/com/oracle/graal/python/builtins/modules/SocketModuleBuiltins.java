@@ -277,10 +277,15 @@ public class SocketModuleBuiltins extends PythonBuiltins {
                 }
                 PSocket newSocket = factory().createSocket(cls, family == -1 ? oldSocket.getFamily() : family, type == -1 ? oldSocket.getType() : type, proto == -1 ? oldSocket.getProto() : proto,
                                 fileno);
-                if (oldSocket.getSocket() != null) {
-                    newSocket.setSocket(oldSocket.getSocket());
-                } else if (oldSocket.getServerSocket() != null) {
-                    newSocket.setServerSocket(oldSocket.getServerSocket());
+                try {
+                    newSocket.setTimeout(oldSocket.getTimeout());
+                    if (oldSocket.getSocket() != null) {
+                        newSocket.setSocket(oldSocket.getSocket());
+                    } else if (oldSocket.getServerSocket() != null) {
+                        newSocket.setServerSocket(oldSocket.getServerSocket());
+                    }
+                } catch (IOException e) {
+                    throw raiseOSError(frame, OSErrorEnum.EBADF, e);
                 }
                 getContext().getResources().reopenSocket(newSocket, fileno);
                 return newSocket;
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.struct.PStruct;
+import com.oracle.graal.python.builtins.objects.struct.PStructUnpackIterator;
+import com.oracle.graal.python.builtins.objects.struct.StructFormat;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.GetStructFormatNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.IterUnpackNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.PackIntoNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.PackToBytesNode;
+import com.oracle.graal.python.builtins.objects.struct.StructNodes.UnpackBufferNode;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.SpecialAttributeNames;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(defineModule = "_struct")
+public class StructModuleBuiltins extends PythonBuiltins {
+
+    // as defined in '_struct.c'
+    private static final String MODULE_DOC = "Functions to convert between Python values and C structs.\n" +
+                    "Python bytes objects are used to hold the data representing the C struct\n" +
+                    "and also as format strings (explained below) to describe the layout of data\n" +
+                    "in the C struct.\n" +
+                    "\n" +
+                    "The optional first format char indicates byte order, size and alignment:\n" +
+                    "  @: native order, size & alignment (default)\n" +
+                    "  =: native order, std. size & alignment\n" +
+                    "  <: little-endian, std. size & alignment\n" +
+                    "  >: big-endian, std. size & alignment\n" +
+                    "  !: same as >\n" +
+                    "\n" +
+                    "The remaining chars indicate types of args and must match exactly;\n" +
+                    "these can be preceded by a decimal repeat count:\n" +
+                    "  x: pad byte (no data); c:char; b:signed byte; B:unsigned byte;\n" +
+                    "  ?: _Bool (requires C99; if not available, char is used instead)\n" +
+                    "  h:short; H:unsigned short; i:int; I:unsigned int;\n" +
+                    "  l:long; L:unsigned long; f:float; d:double; e:half-float.\n" +
+                    "Special cases (preceding decimal count indicates length):\n" +
+                    "  s:string (array of char); p: pascal string (with count byte).\n" +
+                    "Special cases (only available in native format):\n" +
+                    "  n:ssize_t; N:size_t;\n" +
+                    "  P:an integer type that is wide enough to hold a pointer.\n" +
+                    "Special case (not in native mode unless 'long long' in platform C):\n" +
+                    "  q:long long; Q:unsigned long long\n" +
+                    "Whitespace between formats is ignored.\n" +
+                    "\n" +
+                    "The variable struct.error is an exception raised on errors.\n";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return StructModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        builtinConstants.put(SpecialAttributeNames.__DOC__, MODULE_DOC);
+        super.initialize(core);
+    }
+
+    @Builtin(name = "Struct", minNumOfPositionalArgs = 2, parameterNames = {"cls", "format"}, constructsClass = PythonBuiltinClassType.PStruct)
+    @GenerateNodeFactory
+    abstract static class StructNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PStruct doCreate(LazyPythonClass cls, Object format,
+                        @Cached GetStructFormatNode getStructFormatNode) {
+            return factory().createStruct(cls, getStructFormatNode.execute(format));
+        }
+    }
+
+    @Builtin(name = "pack", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class PackNode extends PythonBuiltinNode {
+        @Specialization
+        static PBytes pack(VirtualFrame frame, Object format, Object[] args,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached PackToBytesNode packToBytesNode) {
+            return packToBytesNode.execute(frame, getStructFormatNode.execute(format), args, 0);
+        }
+    }
+
+    @Builtin(name = "pack_into", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class PackIntoBuiltinNode extends PythonBuiltinNode {
+        @Specialization
+        static PNone packInto(VirtualFrame frame, Object format, Object[] args,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached PackIntoNode packIntoNode) {
+            packIntoNode.execute(frame, getStructFormatNode.execute(format), args, 0);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "unpack", minNumOfPositionalArgs = 2, parameterNames = {"format", "buffer"})
+    @GenerateNodeFactory
+    abstract static class UnpackNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PTuple unpack(Object format, Object buffer,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached UnpackBufferNode unpackBufferNode) {
+            return unpackBufferNode.executeUnpack(getStructFormatNode.execute(format), buffer);
+        }
+    }
+
+    @Builtin(name = "unpack_from", minNumOfPositionalArgs = 2, parameterNames = {"format", "buffer", "offset"})
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @ImportStatic({PGuards.class, PythonOptions.class})
+    abstract static class UnpackFromNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        static PTuple unpackFromDefault(Object format, Object buffer, @SuppressWarnings("unused") PNone offset,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached UnpackBufferNode unpackBufferNode) {
+            return unpackBufferNode.executeUnpackFrom(getStructFormatNode.execute(format), buffer, 0);
+        }
+
+        @Specialization
+        static PTuple unpackFromLong(Object format, Object buffer, long offset,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached UnpackBufferNode unpackBufferNode) {
+            return unpackBufferNode.executeUnpackFrom(getStructFormatNode.execute(format), buffer, offset);
+        }
+
+        @Specialization(guards = "!isPNone(offset)", replaces = "unpackFromLong")
+        static PTuple unpackFromGeneric(VirtualFrame frame, Object format, Object buffer, Object offset,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached UnpackBufferNode unpackBufferNode) {
+            StructFormat structFormat = getStructFormatNode.execute(format);
+            return unpackBufferNode.executeUnpackFrom(structFormat, buffer, lib.asSizeWithState(offset, PArguments.getThreadState(frame)));
+        }
+    }
+
+    @Builtin(name = "iter_unpack", minNumOfPositionalArgs = 2, parameterNames = {"format", "buffer"})
+    @GenerateNodeFactory
+    abstract static class IterUnpackBuiltinNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PStructUnpackIterator iterUnpack(Object format, Object buffer,
+                        @Cached GetStructFormatNode getStructFormatNode,
+                        @Cached IterUnpackNode iterUnpackNode) {
+            return iterUnpackNode.execute(getStructFormatNode.execute(format), buffer);
+        }
+    }
+
+    @Builtin(name = "calcsize", minNumOfPositionalArgs = 1, parameterNames = {"format"})
+    @GenerateNodeFactory
+    abstract static class CalcSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int calcsize(Object format,
+                        @Cached GetStructFormatNode getStructFormatNode) {
+            return getStructFormatNode.execute(format).getSize();
+        }
+    }
+
+    @Builtin(name = "_clearcache")
+    @GenerateNodeFactory
+    abstract static class ClearCacheNode extends PythonBuiltinNode {
+        @Specialization
+        static PNone clearcache() {
+            StructFormat.clearCache();
+            return PNone.NONE;
+        }
+    }
+}
@@ -90,6 +90,15 @@ public class ThreadModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "__truffle_interop_lock_contention__", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GetInteropLockContentionNode extends PythonBuiltinNode {
+        @Specialization
+        long getContention() {
+            return getContext().getInteropLockContentionCount();
+        }
+    }
+
     @Builtin(name = "LockType", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PLock)
     @GenerateNodeFactory
     abstract static class ConstructLockNode extends PythonUnaryBuiltinNode {
@@ -41,9 +41,17 @@
 
 package com.oracle.graal.python.builtins.objects.bytes;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeDecodeError;
+
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -59,19 +67,24 @@ import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.argument.ReadArgumentNode;
-import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.nodes.util.CastToByteNode;
 import com.oracle.graal.python.nodes.util.CastToIntegerFromIndexNode;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.NodeFactory;
@@ -143,6 +156,60 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
         }
     }
 
+    // bytes.decode(encoding="utf-8", errors="strict")
+    // bytearray.decode(encoding="utf-8", errors="strict")
+    @Builtin(name = "decode", minNumOfPositionalArgs = 1, parameterNames = {"self", "encoding", "errors"})
+    @GenerateNodeFactory
+    abstract static class DecodeNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(guards = {"isUTF8(encoding)", "isStrict(errors)"})
+        String decodeUTF8(PIBytesLike self, @SuppressWarnings("unused") Object encoding, @SuppressWarnings("unused") Object errors,
+                        @Cached SequenceStorageNodes.GetInternalByteArrayNode getBytesNode) {
+            SequenceStorage storage = self.getSequenceStorage();
+            if (storage instanceof ByteSequenceStorage) {
+                // decode a slice view in place instead of trimming its array
+                ByteSequenceStorage bytes = (ByteSequenceStorage) storage;
+                return decodeUTF8(bytes.getArrayForReading(), bytes.getArrayOffset(), storage.length());
+            }
+            return decodeUTF8(getBytesNode.execute(storage), 0, storage.length());
+        }
+
+        @Specialization
+        Object decode(VirtualFrame frame, Object self, Object encoding, Object errors,
+                        @Cached ReadAttributeFromObjectNode readDecodeNode,
+                        @Cached CallNode callNode) {
+            // any other codec is looked up in the codec registry
+            Object decode = readDecodeNode.execute(getCore().lookupBuiltinModule("_codecs"), "decode");
+            Object encodingArg = encoding instanceof PNone ? "utf-8" : encoding;
+            Object errorsArg = errors instanceof PNone ? "strict" : errors;
+            return callNode.execute(frame, decode, self, encodingArg, errorsArg);
+        }
+
+        @TruffleBoundary
+        private String decodeUTF8(byte[] bytes, int offset, int len) {
+            try {
+                CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+                return decoder.decode(ByteBuffer.wrap(bytes, offset, len)).toString();
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, e);
+            }
+        }
+
+        static boolean isUTF8(Object encoding) {
+            if (encoding instanceof PNone) {
+                return true;
+            } else if (encoding instanceof String) {
+                String name = (String) encoding;
+                return "utf-8".equals(name) || "utf8".equals(name) || "UTF-8".equals(name);
+            }
+            return false;
+        }
+
+        static boolean isStrict(Object errors) {
+            return errors instanceof PNone || "strict".equals(errors);
+        }
+    }
+
     abstract static class AStripNode extends PythonBinaryBuiltinNode {
         int mod() {
             throw new RuntimeException();
@@ -168,7 +235,7 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
             int i = start(bs);
             int stop = stop(bs);
             for (; i != stop; i += mod()) {
-                if (!isWhitespace(bs[i])) {
+                if (!BytesUtils.isSpace(bs[i])) {
                     break;
                 }
             }
@@ -189,11 +256,6 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
             return newBytesFrom(bs, findIndex(bs));
         }
 
-        @CompilerDirectives.TruffleBoundary
-        private static boolean isWhitespace(byte b) {
-            return Character.isWhitespace(b);
-        }
-
         private int findIndex(byte[] bs, byte[] stripBs) {
             int i = start(bs);
             int stop = stop(bs);
@@ -314,6 +376,158 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
         }
     }
 
+    // bytes.strip([bytes])
+    // bytearray.strip([bytes])
+    @Builtin(name = "strip", minNumOfPositionalArgs = 1, parameterNames = {"self", "bytes"})
+    @GenerateNodeFactory
+    abstract static class StripNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        PBytes strip(VirtualFrame frame, PBytes self, @SuppressWarnings("unused") PNone bytes,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            byte[] bs = toBytesNode.execute(frame, self);
+            int start = skipSpace(bs);
+            return factory().createBytes(getResultBytes(bs, start, skipSpaceBackwards(bs, start), false));
+        }
+
+        @Specialization
+        PByteArray strip(VirtualFrame frame, PByteArray self, @SuppressWarnings("unused") PNone bytes,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            byte[] bs = toBytesNode.execute(frame, self);
+            int start = skipSpace(bs);
+            return factory().createByteArray(getResultBytes(bs, start, skipSpaceBackwards(bs, start), true));
+        }
+
+        @Specialization(guards = "!isPNone(bytes)")
+        PBytes strip(VirtualFrame frame, PBytes self, Object bytes,
+                        @Cached("create()") BytesNodes.ToBytesNode selfToBytesNode,
+                        @Cached("create()") BytesNodes.ToBytesNode otherToBytesNode) {
+            byte[] stripBs = otherToBytesNode.execute(frame, bytes);
+            byte[] bs = selfToBytesNode.execute(frame, self);
+            int start = skip(bs, stripBs);
+            return factory().createBytes(getResultBytes(bs, start, skipBackwards(bs, start, stripBs), false));
+        }
+
+        @Specialization(guards = "!isPNone(bytes)")
+        PByteArray strip(VirtualFrame frame, PByteArray self, Object bytes,
+                        @Cached("create()") BytesNodes.ToBytesNode selfToBytesNode,
+                        @Cached("create()") BytesNodes.ToBytesNode otherToBytesNode) {
+            byte[] stripBs = otherToBytesNode.execute(frame, bytes);
+            byte[] bs = selfToBytesNode.execute(frame, self);
+            int start = skip(bs, stripBs);
+            return factory().createByteArray(getResultBytes(bs, start, skipBackwards(bs, start, stripBs), true));
+        }
+
+        private static int skipSpace(byte[] bs) {
+            int i = 0;
+            while (i < bs.length && BytesUtils.isSpace(bs[i])) {
+                i++;
+            }
+            return i;
+        }
+
+        private static int skipSpaceBackwards(byte[] bs, int start) {
+            int i = bs.length;
+            while (i > start && BytesUtils.isSpace(bs[i - 1])) {
+                i--;
+            }
+            return i;
+        }
+
+        private static int skip(byte[] bs, byte[] stripBs) {
+            int i = 0;
+            while (i < bs.length && contains(stripBs, bs[i])) {
+                i++;
+            }
+            return i;
+        }
+
+        private static int skipBackwards(byte[] bs, int start, byte[] stripBs) {
+            int i = bs.length;
+            while (i > start && contains(stripBs, bs[i - 1])) {
+                i--;
+            }
+            return i;
+        }
+
+        private static boolean contains(byte[] bs, byte b) {
+            for (byte c : bs) {
+                if (b == c) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte[] getResultBytes(byte[] bs, int start, int end, boolean mustCopy) {
+            // the array may be the one of 'self', so it can only be reused for immutable bytes
+            if (!mustCopy && start == 0 && end == bs.length) {
+                return bs;
+            }
+            byte[] out = new byte[end - start];
+            System.arraycopy(bs, start, out, 0, out.length);
+            return out;
+        }
+    }
+
+    // bytes.rfind(sub[, start[, end]])
+    // bytearray.rfind(sub[, start[, end]])
+    @Builtin(name = "rfind", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class RFindNode extends PythonBuiltinNode {
+
+        @Specialization
+        int rfind(VirtualFrame frame, PIBytesLike self, Object sub, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end,
+                        @Shared("findNode") @Cached("createReverse()") BytesNodes.FindNode findNode,
+                        @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode) {
+            return findNode.execute(frame, self, sub, 0, lenNode.execute(self.getSequenceStorage()));
+        }
+
+        @Specialization
+        int rfind(VirtualFrame frame, PIBytesLike self, Object sub, int start, @SuppressWarnings("unused") PNone end,
+                        @Shared("findNode") @Cached("createReverse()") BytesNodes.FindNode findNode,
+                        @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode) {
+            return findNode.execute(frame, self, sub, start, lenNode.execute(self.getSequenceStorage()));
+        }
+
+        @Specialization
+        int rfind(VirtualFrame frame, PIBytesLike self, Object sub, int start, int end,
+                        @Shared("findNode") @Cached("createReverse()") BytesNodes.FindNode findNode) {
+            return findNode.execute(frame, self, sub, start, end);
+        }
+
+        static BytesNodes.FindNode createReverse() {
+            return BytesNodes.FindNode.createReverse();
+        }
+    }
+
+    // bytes.count(sub[, start[, end]])
+    // bytearray.count(sub[, start[, end]])
+    @Builtin(name = "count", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class CountNode extends PythonBuiltinNode {
+
+        @Specialization
+        int count(VirtualFrame frame, PIBytesLike self, Object sub, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end,
+                        @Shared("countNode") @Cached BytesNodes.CountNode countNode,
+                        @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode) {
+            return countNode.execute(frame, self, sub, 0, lenNode.execute(self.getSequenceStorage()));
+        }
+
+        @Specialization
+        int count(VirtualFrame frame, PIBytesLike self, Object sub, int start, @SuppressWarnings("unused") PNone end,
+                        @Shared("countNode") @Cached BytesNodes.CountNode countNode,
+                        @Shared("lenNode") @Cached SequenceStorageNodes.LenNode lenNode) {
+            return countNode.execute(frame, self, sub, start, lenNode.execute(self.getSequenceStorage()));
+        }
+
+        @Specialization
+        int count(VirtualFrame frame, PIBytesLike self, Object sub, int start, int end,
+                        @Shared("countNode") @Cached BytesNodes.CountNode countNode) {
+            return countNode.execute(frame, self, sub, start, end);
+        }
+    }
+
     abstract static class AbstractSplitNode extends PythonBuiltinNode {
 
         abstract PList execute(VirtualFrame frame, Object bytes, Object sep, Object maxsplit);
@@ -337,7 +551,6 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
 
         @Child private BytesNodes.ToBytesNode selfToBytesNode;
         @Child private BytesNodes.ToBytesNode sepToBytesNode;
-        @Child private AppendNode appendNode;
         @Child private CastToIntegerFromIndexNode castIntNode;
         @Child private AbstractSplitNode recursiveNode;
 
@@ -394,14 +607,6 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
             return sepToBytesNode;
         }
 
-        protected AppendNode getAppendNode() {
-            if (appendNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                appendNode = insert(AppendNode.create());
-            }
-            return appendNode;
-        }
-
         private CastToIntegerFromIndexNode getCastIntNode() {
             if (castIntNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -434,19 +639,19 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
         }
 
         private PList getBytesResult(List<byte[]> bytes) {
-            PList result = factory().createList();
-            for (byte[] bs : bytes) {
-                getAppendNode().execute(result, factory().createBytes(bs));
+            Object[] result = new Object[bytes.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = factory().createBytes(bytes.get(i));
             }
-            return result;
+            return factory().createList(result);
         }
 
         private PList getByteArrayResult(List<byte[]> bytes) {
-            PList result = factory().createList();
-            for (byte[] bs : bytes) {
-                getAppendNode().execute(result, factory().createByteArray(bs));
+            Object[] result = new Object[bytes.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = factory().createByteArray(bytes.get(i));
             }
-            return result;
+            return factory().createList(result);
         }
 
         @TruffleBoundary
@@ -646,29 +851,14 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
             }
             int countSplit = maxsplit;
             int begin = 0;
-
-            outer: for (int offset = 0; offset < size - sep.length + 1; offset++) {
-                for (int sepOffset = 0; sepOffset < sep.length; sepOffset++) {
-                    if (bytes[offset + sepOffset] != sep[sepOffset]) {
-                        continue outer;
-                    }
-                }
-
-                if (begin < offset) {
-                    result.add(copyOfRange(bytes, begin, offset));
-                } else {
-                    result.add(new byte[0]);
-                }
+            int offset;
+            while (countSplit-- != 0 && (offset = BytesUtils.indexOf(bytes, begin, size, sep, sep.length)) >= 0) {
+                result.add(copyOfRange(bytes, begin, offset));
                 begin = offset + sep.length;
-                offset = begin - 1;
-                if (--countSplit == 0) {
-                    break;
-                }
             }
 
-            if (begin != size) {
-                result.add(copyOfRange(bytes, begin, size));
-            }
+            // the remaining bytes after the last separator, which may be empty
+            result.add(copyOfRange(bytes, begin, size));
             return result;
         }
 
@@ -721,7 +911,7 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
                     }
                 }
 
-                result.add(0, copyOfRange(bytes, p - offset, q - offset));
+                result.add(copyOfRange(bytes, p - offset, q - offset));
                 // Skip q backwards over the whitespace
                 for (q = p; q > offset; --q) {
                     if (!isSpace(bytes[q - 1])) {
@@ -730,10 +920,12 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
                 }
             }
 
-            // Prepend the remaining unsplit text if any
+            // Add the remaining unsplit text if any
             if (q > offset) {
-                result.add(0, copyOfRange(bytes, 0, q - offset));
+                result.add(copyOfRange(bytes, 0, q - offset));
             }
+            // the words were collected from the end
+            Collections.reverse(result);
             return result;
         }
 
@@ -754,28 +946,16 @@ public class AbstractBytesBuiltins extends PythonBuiltins {
 
             int countSplit = maxsplit;
             int end = size;
-
-            outer: for (int offset = size - 1; offset >= 0; offset--) {
-                for (int sepOffset = 0; sepOffset < sep.length; sepOffset++) {
-                    if (bytes[offset - sepOffset] != sep[sep.length - sepOffset - 1]) {
-                        continue outer;
-                    }
-                }
-
-                if (end > offset) {
-                    result.add(0, copyOfRange(bytes, offset + 1, end));
-                } else {
-                    result.add(0, new byte[0]);
-                }
+            int offset;
+            // collect the parts from the end and reverse them once instead of prepending each
+            while (countSplit-- != 0 && (offset = BytesUtils.lastIndexOf(bytes, 0, end, sep, sep.length)) >= 0) {
+                result.add(copyOfRange(bytes, offset + sep.length, end));
                 end = offset;
-                if (--countSplit == 0) {
-                    break;
-                }
             }
 
-            if (end != 0) {
-                result.add(0, copyOfRange(bytes, 0, end));
-            }
+            // the remaining bytes before the first separator, which may be empty
+            result.add(copyOfRange(bytes, 0, end));
+            Collections.reverse(result);
             return result;
         }
 
@@ -45,6 +45,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.BufferError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
@@ -69,7 +70,6 @@ import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
-import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
@@ -94,16 +94,28 @@ import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.ValueProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PByteArray)
 public class ByteArrayBuiltins extends PythonBuiltins {
 
+    private static final String EXPORTED_RESIZE = "Existing exports of data: object cannot be re-sized";
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return ByteArrayBuiltinsFactory.getFactories();
     }
 
+    /**
+     * Installs {@code modified}, the result of applying an operation to a copy of the storage of
+     * the exported bytearray {@code self}, unless the operation changed the size of the bytearray.
+     */
+    static void setExportedStorage(PythonBuiltinBaseNode node, PByteArray self, SequenceStorage modified) {
+        if (modified.length() != self.getSequenceStorage().length()) {
+            throw node.raise(BufferError, EXPORTED_RESIZE);
+        }
+        self.setSequenceStorage(modified);
+    }
+
     @Builtin(name = __INIT__, takesVarArgs = true, minNumOfPositionalArgs = 1, takesVarKeywordArgs = true)
     @GenerateNodeFactory
     public abstract static class InitNode extends PythonBuiltinNode {
@@ -122,8 +134,15 @@ public class ByteArrayBuiltins extends PythonBuiltins {
     public abstract static class DelItemNode extends PythonBinaryBuiltinNode {
         @Specialization
         protected PNone doGeneric(VirtualFrame frame, PByteArray self, Object key,
+                        @Cached("createBinaryProfile()") ConditionProfile exportedProfile,
                         @Cached("create()") SequenceStorageNodes.DeleteNode deleteNode) {
-            deleteNode.execute(frame, self.getSequenceStorage(), key);
+            if (exportedProfile.profile(self.isExported())) {
+                SequenceStorage copy = self.getSequenceStorage().copy();
+                deleteNode.execute(frame, copy, key);
+                setExportedStorage(this, self, copy);
+            } else {
+                deleteNode.execute(frame, self.getSequenceStorage(), key);
+            }
             return PNone.NONE;
         }
 
@@ -276,7 +295,11 @@ public class ByteArrayBuiltins extends PythonBuiltins {
     public abstract static class IAddNode extends PythonBinaryBuiltinNode {
         @Specialization
         public PByteArray add(PByteArray self, PIBytesLike other,
+                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
                         @Cached("create()") SequenceStorageNodes.ConcatNode concatNode) {
+            if (self.isExported() && lenNode.execute(other.getSequenceStorage()) != 0) {
+                throw raise(BufferError, EXPORTED_RESIZE);
+            }
             SequenceStorage res = concatNode.execute(self.getSequenceStorage(), other.getSequenceStorage());
             updateSequenceStorage(self, res);
             return self;
@@ -287,7 +310,9 @@ public class ByteArrayBuiltins extends PythonBuiltins {
                         @Cached("create(TOBYTES)") LookupAndCallUnaryNode toBytesNode,
                         @Cached("createBinaryProfile()") ConditionProfile isBytesProfile,
                         @Cached("create()") SequenceStorageNodes.ConcatNode concatNode) {
-
+            if (self.isExported() && other.getLength() != 0) {
+                throw raise(BufferError, EXPORTED_RESIZE);
+            }
             Object bytesObj = toBytesNode.executeObject(frame, other);
             if (isBytesProfile.profile(bytesObj instanceof PBytes)) {
                 SequenceStorage res = concatNode.execute(self.getSequenceStorage(), ((PBytes) bytesObj).getSequenceStorage());
@@ -358,6 +383,9 @@ public class ByteArrayBuiltins extends PythonBuiltins {
         @Specialization
         public PByteArray append(PByteArray byteArray, Object arg,
                         @Cached SequenceStorageNodes.AppendNode appendNode) {
+            if (byteArray.isExported()) {
+                throw raise(BufferError, EXPORTED_RESIZE);
+            }
             appendNode.execute(byteArray.getSequenceStorage(), arg, BytesLikeNoGeneralizationNode.SUPPLIER);
             return byteArray;
         }
@@ -370,9 +398,14 @@ public class ByteArrayBuiltins extends PythonBuiltins {
 
         @Specialization
         PNone doGeneric(VirtualFrame frame, PByteArray byteArray, Object source,
+                        @Cached("createBinaryProfile()") ConditionProfile exportedProfile,
                         @Cached("createExtend()") SequenceStorageNodes.ExtendNode extendNode) {
-            SequenceStorage execute = extendNode.execute(frame, byteArray.getSequenceStorage(), source);
-            assert byteArray.getSequenceStorage() == execute;
+            if (exportedProfile.profile(byteArray.isExported())) {
+                setExportedStorage(this, byteArray, extendNode.execute(frame, byteArray.getSequenceStorage().copy(), source));
+            } else {
+                SequenceStorage execute = extendNode.execute(frame, byteArray.getSequenceStorage(), source);
+                assert byteArray.getSequenceStorage() == execute;
+            }
             return PNone.NONE;
         }
 
@@ -419,29 +452,6 @@ public class ByteArrayBuiltins extends PythonBuiltins {
         }
     }
 
-    // bytearray.count(x)
-    @Builtin(name = "count", minNumOfPositionalArgs = 2)
-    @GenerateNodeFactory
-    @ImportStatic(SpecialMethodNames.class)
-    public abstract static class ByteArrayCountNode extends PythonBinaryBuiltinNode {
-
-        @Specialization
-        int count(VirtualFrame frame, PByteArray byteArray, Object arg,
-                        @Cached("createClassProfile()") ValueProfile storeProfile,
-                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode,
-                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
-
-            SequenceStorage profiled = storeProfile.profile(byteArray.getSequenceStorage());
-            int cnt = 0;
-            for (int i = 0; i < profiled.length(); i++) {
-                if (eqNode.executeBool(frame, arg, getItemNode.execute(frame, profiled, i))) {
-                    cnt++;
-                }
-            }
-            return cnt;
-        }
-    }
-
     // bytearray.reverse()
     @Builtin(name = "reverse", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
@@ -462,6 +472,9 @@ public class ByteArrayBuiltins extends PythonBuiltins {
         @Specialization
         public PNone clear(VirtualFrame frame, PByteArray byteArray,
                         @Cached("create()") SequenceStorageNodes.DeleteNode deleteNode) {
+            if (byteArray.isExported() && byteArray.getSequenceStorage().length() != 0) {
+                throw raise(BufferError, EXPORTED_RESIZE);
+            }
             deleteNode.execute(frame, byteArray.getSequenceStorage(), factory().createSlice(MISSING_INDEX, MISSING_INDEX, 1));
             return PNone.NONE;
         }
@@ -705,7 +718,13 @@ public class ByteArrayBuiltins extends PythonBuiltins {
         PNone doSlice(VirtualFrame frame, PByteArray self, PSlice idx, Object value,
                         @Cached("createSetSlice()") SequenceStorageNodes.SetItemNode setItemNode) {
             // this is really just a separate specialization due to the different error message
-            setItemNode.execute(frame, self.getSequenceStorage(), idx, value);
+            if (self.isExported()) {
+                SequenceStorage copy = self.getSequenceStorage().copy();
+                setItemNode.execute(frame, copy, idx, value);
+                setExportedStorage(this, self, copy);
+            } else {
+                setItemNode.execute(frame, self.getSequenceStorage(), idx, value);
+            }
             return PNone.NONE;
         }
 
@@ -523,7 +523,7 @@ public class BytesBuiltins extends PythonBuiltins {
         }
 
         protected static SequenceStorageNodes.GetItemNode createGetItem() {
-            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.create(), (s, f) -> f.createBytes(s));
+            return SequenceStorageNodes.GetItemNode.createForImmutable(NormalizeIndexNode.create(), (s, f) -> f.createBytes(s));
         }
     }
 
@@ -41,16 +41,19 @@
 package com.oracle.graal.python.builtins.objects.bytes;
 
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.ArrayList;
 
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.bytes.AbstractBytesBuiltins.BytesLikeNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.BytesJoinNodeGen;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.CountNodeGen;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.FindNodeGen;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodesFactory.ToBytesNodeGen;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.GetInternalByteArrayNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ToByteArrayNodeGen;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.nodes.PGuards;
@@ -208,67 +211,73 @@ public abstract class BytesNodes {
         }
     }
 
-    public abstract static class FindNode extends PNodeWithContext {
+    /**
+     * Base class for nodes that search for a bytes-like object or a single byte in a range of a
+     * bytes-like object, i.e., {@code find}, {@code rfind} and {@code count}.
+     */
+    abstract static class SearchNode extends PNodeWithContext {
         @Child private PRaiseNode raise = PRaiseNode.create();
         @Child private NormalizeIndexNode normalizeIndexNode;
-        @Child private SequenceStorageNodes.GetItemNode getLeftItemNode;
-        @Child private SequenceStorageNodes.GetItemNode getRightItemNode;
+        @Child private SequenceStorageNodes.GetInternalByteArrayNode getHaystackNode;
+        @Child private SequenceStorageNodes.GetInternalByteArrayNode getNeedleNode;
 
         public abstract int execute(VirtualFrame frame, PIBytesLike bytes, Object sub, Object starting, Object ending);
 
-        @Specialization
-        int find(VirtualFrame frame, PIBytesLike primary, PIBytesLike sub, Object starting, Object ending) {
-            SequenceStorage haystack = primary.getSequenceStorage();
-            int len1 = haystack.length();
+        /**
+         * The result if the start index is beyond the end of the bytes.
+         */
+        protected abstract int notFound();
 
-            SequenceStorage needle = sub.getSequenceStorage();
-            int len2 = needle.length();
+        protected abstract int search(byte[] haystack, int start, int end, byte[] needle, int needleLen);
 
-            int start = getNormalizeIndexNode().execute(starting, len1);
-            int end = getNormalizeIndexNode().execute(ending, len1);
+        protected abstract int search(byte[] haystack, int start, int end, byte b);
 
-            if (start >= len1 || len1 < len2) {
-                return -1;
-            } else if (end > len1) {
-                end = len1;
-            }
+        /**
+         * Converts the result of a {@code search} in the array of a slice view that starts at
+         * {@code offset} to the result for the view.
+         */
+        protected int fromArrayResult(int result, @SuppressWarnings("unused") int offset) {
+            return result;
+        }
 
-            // TODO implement a more efficient algorithm
-            outer: for (int i = start; i < end; i++) {
-                for (int j = 0; j < len2; j++) {
-                    if (i + j >= end) {
-                        continue outer;
-                    }
+        @Specialization
+        int find(PIBytesLike primary, PIBytesLike sub, Object starting, Object ending) {
+            SequenceStorage haystack = primary.getSequenceStorage();
+            int len1 = haystack.length();
 
-                    int hb = getGetLeftItemNode().executeInt(frame, haystack, i + j);
-                    int nb = getGetRightItemNode().executeInt(frame, needle, j);
+            int start = adjustStart(starting, len1);
+            int end = adjustEnd(ending, len1);
+            if (start > len1) {
+                return notFound();
+            }
 
-                    if (nb != hb) {
-                        continue outer;
-                    }
-                }
-                return i;
+            SequenceStorage needle = sub.getSequenceStorage();
+            byte[] needleArray = getGetNeedleNode().execute(needle);
+            if (haystack instanceof ByteSequenceStorage) {
+                // search a slice view in place instead of trimming its array
+                ByteSequenceStorage bytes = (ByteSequenceStorage) haystack;
+                int offset = bytes.getArrayOffset();
+                return fromArrayResult(search(bytes.getArrayForReading(), offset + start, offset + end, needleArray, needle.length()), offset);
             }
-            return -1;
+            return search(getGetHaystackNode().execute(haystack), start, end, needleArray, needle.length());
         }
 
         @Specialization
-        int find(VirtualFrame frame, PIBytesLike primary, int sub, Object starting, @SuppressWarnings("unused") Object ending) {
+        int find(PIBytesLike primary, int sub, Object starting, Object ending) {
+            if (sub < 0 || sub > 255) {
+                throw raise.raise(ValueError, "byte must be in range(0, 256)");
+            }
             SequenceStorage haystack = primary.getSequenceStorage();
             int len1 = haystack.length();
 
-            int start = getNormalizeIndexNode().execute(starting, len1);
-            if (start >= len1) {
-                return -1;
-            }
-
-            for (int i = start; i < len1; i++) {
-                int hb = getGetLeftItemNode().executeInt(frame, haystack, i);
-                if (hb == sub) {
-                    return i;
-                }
+            int start = adjustStart(starting, len1);
+            int end = adjustEnd(ending, len1);
+            if (haystack instanceof ByteSequenceStorage) {
+                ByteSequenceStorage bytes = (ByteSequenceStorage) haystack;
+                int offset = bytes.getArrayOffset();
+                return fromArrayResult(search(bytes.getArrayForReading(), offset + start, offset + end, (byte) sub), offset);
             }
-            return -1;
+            return search(getGetHaystackNode().execute(haystack), start, end, (byte) sub);
         }
 
         @Fallback
@@ -276,6 +285,21 @@ public abstract class BytesNodes {
             throw raise.raise(TypeError, "expected a bytes-like object, %p found", sub);
         }
 
+        /**
+         * Interprets the index like a slice index, i.e., negative indices count from the end and are
+         * clamped to {@code 0}.
+         */
+        private int adjustStart(Object index, int len) {
+            return Math.max(getNormalizeIndexNode().execute(index, len), 0);
+        }
+
+        /**
+         * Like {@link #adjustStart}, but the result is also clamped to {@code len}.
+         */
+        private int adjustEnd(Object index, int len) {
+            return Math.min(adjustStart(index, len), len);
+        }
+
         private NormalizeIndexNode getNormalizeIndexNode() {
             if (normalizeIndexNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -284,24 +308,84 @@ public abstract class BytesNodes {
             return normalizeIndexNode;
         }
 
-        private SequenceStorageNodes.GetItemNode getGetLeftItemNode() {
-            if (getLeftItemNode == null) {
+        private SequenceStorageNodes.GetInternalByteArrayNode getGetHaystackNode() {
+            if (getHaystackNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                getLeftItemNode = insert(SequenceStorageNodes.GetItemNode.create());
+                getHaystackNode = insert(GetInternalByteArrayNodeGen.create());
             }
-            return getLeftItemNode;
+            return getHaystackNode;
         }
 
-        private SequenceStorageNodes.GetItemNode getGetRightItemNode() {
-            if (getRightItemNode == null) {
+        private SequenceStorageNodes.GetInternalByteArrayNode getGetNeedleNode() {
+            if (getNeedleNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                getRightItemNode = insert(SequenceStorageNodes.GetItemNode.create());
+                getNeedleNode = insert(GetInternalByteArrayNodeGen.create());
             }
-            return getRightItemNode;
+            return getNeedleNode;
+        }
+    }
+
+    public abstract static class FindNode extends SearchNode {
+        private final boolean reverse;
+
+        FindNode(boolean reverse) {
+            this.reverse = reverse;
+        }
+
+        @Override
+        protected int notFound() {
+            return -1;
+        }
+
+        @Override
+        protected int search(byte[] haystack, int start, int end, byte[] needle, int needleLen) {
+            if (reverse) {
+                return BytesUtils.lastIndexOf(haystack, start, end, needle, needleLen);
+            }
+            return BytesUtils.indexOf(haystack, start, end, needle, needleLen);
+        }
+
+        @Override
+        protected int search(byte[] haystack, int start, int end, byte b) {
+            if (reverse) {
+                return BytesUtils.lastIndexOf(haystack, start, end, b);
+            }
+            return BytesUtils.indexOf(haystack, start, end, b);
+        }
+
+        @Override
+        protected int fromArrayResult(int result, int offset) {
+            return result < 0 ? result : result - offset;
         }
 
         public static FindNode create() {
-            return FindNodeGen.create();
+            return FindNodeGen.create(false);
+        }
+
+        public static FindNode createReverse() {
+            return FindNodeGen.create(true);
+        }
+    }
+
+    public abstract static class CountNode extends SearchNode {
+
+        @Override
+        protected int notFound() {
+            return 0;
+        }
+
+        @Override
+        protected int search(byte[] haystack, int start, int end, byte[] needle, int needleLen) {
+            return BytesUtils.count(haystack, start, end, needle, needleLen);
+        }
+
+        @Override
+        protected int search(byte[] haystack, int start, int end, byte b) {
+            return BytesUtils.count(haystack, start, end, b);
+        }
+
+        public static CountNode create() {
+            return CountNodeGen.create();
         }
     }
 
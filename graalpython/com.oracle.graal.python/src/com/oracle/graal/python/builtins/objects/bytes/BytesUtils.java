@@ -30,6 +30,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.Overflow
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonParser.ParserErrorCallback;
@@ -227,4 +228,190 @@ public final class BytesUtils {
         }
         return bytes;
     }
+
+    /**
+     * Whether the byte is ASCII whitespace, as defined by {@code bytes.isspace}.
+     */
+    public static boolean isSpace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+    /**
+     * Needles at least this long are searched with a skip table (Horspool) if the searched range is
+     * long enough to amortize building the table.
+     */
+    private static final int SKIP_TABLE_MIN_NEEDLE = 8;
+    private static final int SKIP_TABLE_MIN_RANGE = 256;
+
+    /**
+     * Returns the index of the first occurrence of {@code needle[0:needleLen]} in
+     * {@code haystack[start:end]} or {@code -1}. The range must already be adjusted to the length of
+     * the haystack.
+     */
+    @TruffleBoundary
+    public static int indexOf(byte[] haystack, int start, int end, byte[] needle, int needleLen) {
+        if (end - start < needleLen) {
+            return -1;
+        } else if (needleLen == 0) {
+            return start;
+        } else if (needleLen == 1) {
+            return indexOf(haystack, start, end, needle[0]);
+        } else if (needleLen >= SKIP_TABLE_MIN_NEEDLE && end - start >= SKIP_TABLE_MIN_RANGE) {
+            return indexOfWithSkipTable(haystack, start, end, needle, needleLen, createSkipTable(needle, needleLen));
+        }
+        byte first = needle[0];
+        int last = end - needleLen;
+        for (int i = start; i <= last; i++) {
+            if (haystack[i] == first && regionMatches(haystack, i + 1, needle, 1, needleLen - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @TruffleBoundary
+    public static int indexOf(byte[] haystack, int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (haystack[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The skip table for {@link #indexOfWithSkipTable}: the distance of the last occurrence of each
+     * byte in the needle (without its last byte) to the end of the needle.
+     */
+    private static int[] createSkipTable(byte[] needle, int needleLen) {
+        int[] skip = new int[256];
+        Arrays.fill(skip, needleLen);
+        int lastInNeedle = needleLen - 1;
+        for (int k = 0; k < lastInNeedle; k++) {
+            skip[needle[k] & 0xff] = lastInNeedle - k;
+        }
+        return skip;
+    }
+
+    private static int indexOfWithSkipTable(byte[] haystack, int start, int end, byte[] needle, int needleLen, int[] skip) {
+        int lastInNeedle = needleLen - 1;
+        byte lastByte = needle[lastInNeedle];
+        int last = end - needleLen;
+        int i = start;
+        while (i <= last) {
+            byte b = haystack[i + lastInNeedle];
+            if (b == lastByte && regionMatches(haystack, i, needle, 0, lastInNeedle)) {
+                return i;
+            }
+            i += skip[b & 0xff];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of {@code needle[0:needleLen]} in
+     * {@code haystack[start:end]} or {@code -1}. The range must already be adjusted to the length of
+     * the haystack.
+     */
+    @TruffleBoundary
+    public static int lastIndexOf(byte[] haystack, int start, int end, byte[] needle, int needleLen) {
+        if (end - start < needleLen) {
+            return -1;
+        } else if (needleLen == 0) {
+            return end;
+        } else if (needleLen == 1) {
+            return lastIndexOf(haystack, start, end, needle[0]);
+        } else if (needleLen >= SKIP_TABLE_MIN_NEEDLE && end - start >= SKIP_TABLE_MIN_RANGE) {
+            return lastIndexOfWithSkipTable(haystack, start, end, needle, needleLen);
+        }
+        byte first = needle[0];
+        for (int i = end - needleLen; i >= start; i--) {
+            if (haystack[i] == first && regionMatches(haystack, i + 1, needle, 1, needleLen - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @TruffleBoundary
+    public static int lastIndexOf(byte[] haystack, int start, int end, byte b) {
+        for (int i = end - 1; i >= start; i--) {
+            if (haystack[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOfWithSkipTable(byte[] haystack, int start, int end, byte[] needle, int needleLen) {
+        // the mirror image of 'indexOfWithSkipTable': the window is moved by the distance of its
+        // first byte to the first occurrence of that byte in the rest of the needle
+        int[] skip = new int[256];
+        Arrays.fill(skip, needleLen);
+        for (int k = needleLen - 1; k > 0; k--) {
+            skip[needle[k] & 0xff] = k;
+        }
+        byte firstByte = needle[0];
+        int i = end - needleLen;
+        while (i >= start) {
+            byte b = haystack[i];
+            if (b == firstByte && regionMatches(haystack, i + 1, needle, 1, needleLen - 1)) {
+                return i;
+            }
+            i -= skip[b & 0xff];
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the non-overlapping occurrences of {@code needle[0:needleLen]} in
+     * {@code haystack[start:end]}. The range must already be adjusted to the length of the haystack.
+     */
+    @TruffleBoundary
+    public static int count(byte[] haystack, int start, int end, byte[] needle, int needleLen) {
+        if (end - start < needleLen) {
+            return 0;
+        } else if (needleLen == 0) {
+            return end - start + 1;
+        } else if (needleLen == 1) {
+            return count(haystack, start, end, needle[0]);
+        }
+        int count = 0;
+        if (needleLen >= SKIP_TABLE_MIN_NEEDLE && end - start >= SKIP_TABLE_MIN_RANGE) {
+            // the table only depends on the needle, so it is built once for all matches
+            int[] skip = createSkipTable(needle, needleLen);
+            int i = indexOfWithSkipTable(haystack, start, end, needle, needleLen, skip);
+            while (i >= 0) {
+                count++;
+                i = indexOfWithSkipTable(haystack, i + needleLen, end, needle, needleLen, skip);
+            }
+        } else {
+            int i = indexOf(haystack, start, end, needle, needleLen);
+            while (i >= 0) {
+                count++;
+                i = indexOf(haystack, i + needleLen, end, needle, needleLen);
+            }
+        }
+        return count;
+    }
+
+    @TruffleBoundary
+    public static int count(byte[] haystack, int start, int end, byte b) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (haystack[i] == b) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean regionMatches(byte[] a, int aOffset, byte[] b, int bOffset, int len) {
+        for (int i = 0; i < len; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -45,6 +45,16 @@ public final class PByteArray extends PSequence implements PIBytesLike {
 
     private SequenceStorage store;
 
+    /**
+     * The number of memoryviews exporting this bytearray's buffer that have not been released.
+     * While it is not zero, the bytearray must not change its size, because the views read and
+     * write its storage directly. Unlike CPython, we do not release a view when the last reference
+     * to it goes away, so a view that is dropped without calling {@code release()} (or leaving its
+     * {@code with} block) keeps blocking resizes. Library code that uses temporary views therefore
+     * releases them explicitly (see {@code pyio_patches.py}).
+     */
+    private int exports;
+
     public PByteArray(LazyPythonClass cls, byte[] bytes) {
         super(cls);
         store = new ByteSequenceStorage(bytes);
@@ -94,6 +104,23 @@ public final class PByteArray extends PSequence implements PIBytesLike {
         return Arrays.hashCode(store.getInternalArray());
     }
 
+    public void addExport() {
+        exports++;
+    }
+
+    public void removeExport() {
+        assert exports > 0;
+        exports--;
+    }
+
+    /**
+     * Returns {@code true} if a memoryview that has not been released exports this bytearray's
+     * buffer, i.e., if resizing must raise a {@code BufferError}.
+     */
+    public boolean isExported() {
+        return exports != 0;
+    }
+
     public final void reverse() {
         store.reverse();
     }
@@ -25,8 +25,6 @@
  */
 package com.oracle.graal.python.builtins.objects.bytes;
 
-import java.util.Arrays;
-
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
@@ -76,7 +74,7 @@ public final class PBytes extends PImmutableSequence implements PIBytesLike {
         // TODO(fa) really required ?
         CompilerAsserts.neverPartOfCompilation();
         if (store instanceof ByteSequenceStorage) {
-            return BytesUtils.bytesRepr(((ByteSequenceStorage) store).getInternalByteArray(), store.length());
+            return BytesUtils.bytesRepr((byte[]) ((ByteSequenceStorage) store).getCopyOfInternalArrayObject(), store.length());
         } else {
             return store.toString();
         }
@@ -102,7 +100,15 @@ public final class PBytes extends PImmutableSequence implements PIBytesLike {
     public final int hashCode() {
         // TODO(fa) really required ?
         if (store instanceof ByteSequenceStorage) {
-            return Arrays.hashCode(((ByteSequenceStorage) store).getInternalByteArray());
+            // same as Arrays.hashCode, but it does not trim the array of a slice view
+            ByteSequenceStorage bytes = (ByteSequenceStorage) store;
+            byte[] array = bytes.getArrayForReading();
+            int offset = bytes.getArrayOffset();
+            int result = 1;
+            for (int i = 0; i < bytes.length(); i++) {
+                result = 31 * result + array[offset + i];
+            }
+            return result;
         }
         return store.hashCode();
     }
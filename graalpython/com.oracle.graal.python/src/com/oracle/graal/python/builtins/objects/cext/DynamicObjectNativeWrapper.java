@@ -122,7 +122,6 @@ import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
-import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode.LookupAndCallUnaryDynamicNode;
 import com.oracle.graal.python.nodes.classes.IsSubtypeNode.IsSubtypeWithoutFrameNode;
@@ -825,21 +824,22 @@ public abstract class DynamicObjectNativeWrapper extends PythonNativeWrapper {
             return lenNode.execute(getStorageNode.execute(object));
         }
 
-        @Specialization
-        Object doMemoryview(PMemoryView object, String key,
-                        @Cached PRaiseNode raise,
-                        @Cached ReadAttributeFromObjectNode readAttrNode,
-                        @CachedLibrary(limit = "1") InteropLibrary read,
-                        @Cached("createBinaryProfile()") ConditionProfile isNativeObject) {
-            Object delegateObj = readAttrNode.execute(object, "__c_memoryview");
-            if (isNativeObject.profile(PythonNativeObject.isInstance(delegateObj))) {
-                try {
-                    return read.readMember(PythonNativeObject.cast(delegateObj).getPtr(), key);
-                } catch (UnsupportedMessageException | UnknownIdentifierException e) {
-                    throw raise.raise(PythonBuiltinClassType.TypeError, e);
-                }
+        @Specialization(guards = "eq(BUF_DELEGATE, key)")
+        Object doMemoryviewBufDelegate(PMemoryView object, @SuppressWarnings("unused") String key,
+                        @Cached PythonObjectFactory factory) {
+            Object buffer = object.getBuffer();
+            if (object.getOffset() == 0 && object.isCContiguous() && !(buffer instanceof byte[])) {
+                // the native pointer can directly point to the exporter's storage
+                return new PySequenceArrayWrapper(buffer, 1);
             }
-            throw new IllegalStateException("delegate of memoryview object is not native");
+            return new PySequenceArrayWrapper(factory.createBytes(object.toByteArray()), 1);
+        }
+
+        @Specialization(guards = "eq(BUF_READONLY, key)")
+        int doMemoryviewBufReadonly(PMemoryView object, @SuppressWarnings("unused") String key) {
+            // views that are not backed by the exporter's storage hand out a copy
+            boolean direct = object.getOffset() == 0 && object.isCContiguous() && !(object.getBuffer() instanceof byte[]);
+            return object.isReadOnly() || !direct ? 1 : 0;
         }
 
         @Specialization(guards = "eq(MMAP_DATA, key)")
@@ -999,18 +999,6 @@ public abstract class DynamicObjectNativeWrapper extends PythonNativeWrapper {
             return value;
         }
 
-        @Specialization
-        Object doMemoryview(PMemoryView object, String key, Object value,
-                        @Cached ReadAttributeFromObjectNode readAttrNode,
-                        @Cached("createBinaryProfile()") ConditionProfile isNativeObject,
-                        @CachedLibrary(limit = "1") InteropLibrary interopLib) throws UnsupportedMessageException, UnknownIdentifierException, UnsupportedTypeException {
-            Object delegateObj = readAttrNode.execute(object, "__c_memoryview");
-            if (isNativeObject.profile(PythonNativeObject.isInstance(delegateObj))) {
-                interopLib.writeMember(PythonNativeObject.cast(delegateObj).getPtr(), key, value);
-            }
-            throw new IllegalStateException("delegate of memoryview object is not native");
-        }
-
         @Specialization
         Object doGeneric(Object object, String key, Object value,
                         @Shared("setItemNode") @Cached HashingStorageNodes.DynamicObjectSetItemNode setItemNode) throws UnknownIdentifierException {
@@ -65,6 +65,7 @@ import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode.LookupA
 import com.oracle.graal.python.nodes.truffle.PythonTypes;
 import com.oracle.graal.python.nodes.util.CoerceToJavaLongNode;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.NativeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
@@ -233,37 +234,11 @@ public final class PySequenceArrayWrapper extends PythonNativeWrapper {
         }
 
         @Specialization
-        long doPMmapI64(PMMap mmap, long byteIdx,
-                        @Exclusive @Cached LookupInheritedAttributeNode.Dynamic lookupGetItemNode,
-                        @Exclusive @Cached CallNode callGetItemNode,
-                        @Shared("castToLongNode") @Cached CoerceToJavaLongNode castToJavaLongNode) {
-
+        long doPMmapI64(PMMap mmap, long byteIdx) {
             long len = mmap.getLength();
-            Object attrGetItem = lookupGetItemNode.execute(mmap, SpecialMethodNames.__GETITEM__);
-
-            int i = (int) byteIdx;
             long result = 0;
-            result |= castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx));
-            if (i + 1 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 8L) & 0xFF00L;
-            }
-            if (i + 2 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 16L) & 0xFF0000L;
-            }
-            if (i + 3 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 24L) & 0xFF000000L;
-            }
-            if (i + 4 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 32L) & 0xFF00000000L;
-            }
-            if (i + 5 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 40L) & 0xFF0000000000L;
-            }
-            if (i + 6 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 48L) & 0xFF000000000000L;
-            }
-            if (i + 7 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 56L) & 0xFF00000000000000L;
+            for (int j = 0; j < 8 && byteIdx + j < len; j++) {
+                result |= (mmap.getByte(byteIdx + j) & 0xFFL) << (8 * j);
             }
             return result;
         }
@@ -449,7 +424,14 @@ public final class PySequenceArrayWrapper extends PythonNativeWrapper {
 
         public abstract NativeSequenceStorage execute(SequenceStorage object);
 
-        @Specialization(guards = "!isNative(s)")
+        @Specialization
+        NativeSequenceStorage doBool(BoolSequenceStorage s,
+                        @Shared("storageToNativeNode") @Cached SequenceStorageNodes.StorageToNativeNode storageToNativeNode) {
+            // the elements are packed into bits, so they are passed as boxed objects
+            return storageToNativeNode.execute(s.getInternalArray());
+        }
+
+        @Specialization(guards = {"!isNative(s)", "!isBool(s)"})
         NativeSequenceStorage doManaged(SequenceStorage s,
                         @Shared("storageToNativeNode") @Cached SequenceStorageNodes.StorageToNativeNode storageToNativeNode) {
             return storageToNativeNode.execute(s.getInternalArrayObject());
@@ -471,6 +453,10 @@ public final class PySequenceArrayWrapper extends PythonNativeWrapper {
             return s instanceof NativeSequenceStorage;
         }
 
+        protected static boolean isBool(SequenceStorage s) {
+            return s instanceof BoolSequenceStorage;
+        }
+
         public static ToNativeStorageNode create() {
             return PySequenceArrayWrapperFactory.ToNativeStorageNodeGen.create();
         }
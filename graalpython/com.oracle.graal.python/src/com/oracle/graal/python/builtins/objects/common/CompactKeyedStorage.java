@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Common part of the insertion-ordered storages that keep their keys unboxed in a primitive or
+ * otherwise specialized array ({@link IntKeyedStorage}, {@link StringKeyedStorage}). Subclasses
+ * own the key array and do the lookups of their native key type without calling {@code __hash__}
+ * or {@code __eq__}; this class manages the {@link #values} array and the open addressing table
+ * {@link #indices}, which works like the one of {@link EconomicMapStorage}.
+ *
+ * A removed entry is marked by a {@code null} in {@link #values}. Lookups of keys that are not of
+ * the native key type go through {@link #findForeign}, which compares via the given
+ * {@link Equivalence} so that e.g. {@code 1.0} still finds the key {@code 1}.
+ */
+abstract class CompactKeyedStorage extends HashingStorage {
+
+    protected static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Maximum number of entries allowed in the map.
+     */
+    private static final int MAX_ELEMENT_COUNT = Integer.MAX_VALUE >> 3;
+
+    private static final int MIN_TABLE_SIZE = 16;
+
+    protected static final int PERTURB_SHIFT = 5;
+
+    protected static final int EMPTY = 0;
+    protected static final int DUMMY = -1;
+
+    protected Object[] values;
+
+    /**
+     * Open addressing hash table of entry numbers plus one.
+     */
+    protected int[] indices;
+
+    /**
+     * Total number of entries (actual entries plus deleted entries).
+     */
+    protected int totalEntries;
+
+    /**
+     * Number of deleted entries.
+     */
+    private int deletedEntries;
+
+    /**
+     * Number of slots in {@link #indices} that are not {@link #EMPTY}.
+     */
+    private int usedSlots;
+
+    protected CompactKeyedStorage(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, INITIAL_CAPACITY);
+        values = new Object[capacity];
+        indices = new int[tableSizeFor(capacity)];
+    }
+
+    protected CompactKeyedStorage(CompactKeyedStorage other) {
+        values = other.values.clone();
+        indices = other.indices.clone();
+        totalEntries = other.totalEntries;
+        deletedEntries = other.deletedEntries;
+        usedSlots = other.usedSlots;
+    }
+
+    /**
+     * The hash of the key of the given entry, as {@link Equivalence#hashCode} would compute it.
+     */
+    protected abstract int entryHash(int index);
+
+    /**
+     * The key of the given entry as a Python object.
+     */
+    protected abstract Object entryKey(int index);
+
+    /**
+     * Resizes the key array to the given length, keeping the first {@link #totalEntries} keys.
+     */
+    protected abstract void resizeKeys(int newLength);
+
+    /**
+     * Moves the key of entry {@code from} to entry {@code to} and clears the former.
+     */
+    protected abstract void moveKey(int from, int to);
+
+    protected abstract void clearKeys();
+
+    /**
+     * Drops the reference to the key of a removed entry, if any.
+     */
+    protected void clearKey(@SuppressWarnings("unused") int index) {
+    }
+
+    private static int tableSizeFor(int entryCount) {
+        // smallest 2^n that keeps the table at most one third full
+        int size = MIN_TABLE_SIZE;
+        while (size < entryCount * 3) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    protected static int firstSlot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    protected static int nextSlot(int slot, int perturb, int mask) {
+        return (5 * slot + 1 + perturb) & mask;
+    }
+
+    /**
+     * Returns the slot in the hash table that refers to a key equal to {@code key} or -1. If an
+     * {@code __eq__} call restructures this map during the lookup, the lookup is restarted.
+     */
+    protected final int findForeign(Object key, Equivalence eq) {
+        int hash = eq.hashCode(key);
+        outer: while (true) {
+            int[] currentIndices = indices;
+            int mask = currentIndices.length - 1;
+            int perturb = hash;
+            int slot = firstSlot(hash, mask);
+            while (true) {
+                int entry = currentIndices[slot];
+                if (entry == EMPTY) {
+                    return -1;
+                } else if (entry != DUMMY && entryHash(entry - 1) == hash) {
+                    boolean equal = eq.equals(key, entryKey(entry - 1));
+                    if (currentIndices != indices || currentIndices[slot] != entry) {
+                        // restructured by the comparison
+                        continue outer;
+                    }
+                    if (equal) {
+                        return slot;
+                    }
+                }
+                perturb >>>= PERTURB_SHIFT;
+                slot = nextSlot(slot, perturb, mask);
+            }
+        }
+    }
+
+    /**
+     * Makes room for one more entry and returns its entry number. The caller must store the key
+     * and then call {@link #insertEntry}.
+     */
+    protected final int reserveEntry() {
+        if (totalEntries == values.length) {
+            if (deletedEntries >= (totalEntries >> 2)) {
+                // plenty of deleted entries: reclaim them instead of growing
+                compress(length() + 1);
+            } else {
+                int newSize = values.length + (values.length >> 1);
+                if (newSize > MAX_ELEMENT_COUNT) {
+                    throw new UnsupportedOperationException("map grown too large!");
+                }
+                resizeKeys(newSize);
+                Object[] newValues = new Object[newSize];
+                System.arraycopy(values, 0, newValues, 0, totalEntries);
+                values = newValues;
+            }
+        }
+        return totalEntries;
+    }
+
+    protected final void insertEntry(int index, int hash, Object value) {
+        assert index == totalEntries;
+        values[index] = value;
+        totalEntries++;
+        // Rebuild the table if it would become more than two thirds full.
+        if ((usedSlots + 1) * 3 >= indices.length << 1) {
+            rebuildTable();
+        } else {
+            putHashEntry(indices, index, hash);
+        }
+    }
+
+    protected final void removeSlot(int slot) {
+        int index = indices[slot] - 1;
+        indices[slot] = DUMMY;
+        values[index] = null;
+        clearKey(index);
+        deletedEntries++;
+        if (values.length > INITIAL_CAPACITY && deletedEntries >= (totalEntries >> 1) + (totalEntries >> 2)) {
+            compress(length());
+        }
+    }
+
+    /**
+     * Moves all live entries to the front and rebuilds the hash table.
+     */
+    private void compress(int minCapacity) {
+        int z = 0;
+        for (int i = 0; i < totalEntries; i++) {
+            if (values[i] != null) {
+                if (z != i) {
+                    moveKey(i, z);
+                    values[z] = values[i];
+                    values[i] = null;
+                }
+                z++;
+            }
+        }
+        totalEntries = z;
+        deletedEntries = 0;
+        int size = INITIAL_CAPACITY;
+        while (size <= minCapacity) {
+            size += size >> 1;
+        }
+        if (size < values.length) {
+            resizeKeys(size);
+            Object[] newValues = new Object[size];
+            System.arraycopy(values, 0, newValues, 0, totalEntries);
+            values = newValues;
+        }
+        rebuildTable();
+    }
+
+    private void rebuildTable() {
+        int[] newIndices = new int[tableSizeFor(length() + 1)];
+        usedSlots = 0;
+        for (int i = 0; i < totalEntries; i++) {
+            if (values[i] != null) {
+                putHashEntry(newIndices, i, entryHash(i));
+            }
+        }
+        indices = newIndices;
+    }
+
+    /**
+     * Stores the entry number in the first free slot of its probe sequence. The key must not be in
+     * the table yet, so slots of removed entries can be reused.
+     */
+    private void putHashEntry(int[] table, int index, int hash) {
+        int mask = table.length - 1;
+        int perturb = hash;
+        int slot = firstSlot(hash, mask);
+        while (table[slot] > 0) {
+            perturb >>>= PERTURB_SHIFT;
+            slot = nextSlot(slot, perturb, mask);
+        }
+        if (table[slot] == EMPTY) {
+            usedSlots++;
+        }
+        table[slot] = index + 1;
+    }
+
+    @Override
+    public int length() {
+        return totalEntries - deletedEntries;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        int slot = findForeign(key, eq);
+        return slot == -1 ? null : values[indices[slot] - 1];
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        return findForeign(key, eq) != -1;
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        int slot = findForeign(key, eq);
+        if (slot != -1) {
+            removeSlot(slot);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the value of an existing key that is equal to the given foreign key, like CPython
+     * keeps the original key object in that case. Returns {@code false} if there is no such key.
+     */
+    protected final boolean replaceForeign(Object key, Object value, Equivalence eq) {
+        int slot = findForeign(key, eq);
+        if (slot != -1) {
+            values[indices[slot] - 1] = value;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns an {@link EconomicMapStorage} with the same entries that can additionally hold
+     * {@code key}, like {@code SequenceStorage.generalizeFor} does for sequences. {@code isSet}
+     * tells whether this storage belongs to a set or frozenset.
+     */
+    public EconomicMapStorage generalizeFor(@SuppressWarnings("unused") Object key, boolean isSet, Equivalence eq) {
+        EconomicMapStorage newStorage = EconomicMapStorage.create(length() + 1, isSet);
+        newStorage.addAll(this, eq);
+        return newStorage;
+    }
+
+    @Override
+    public void clear() {
+        clearKeys();
+        values = new Object[INITIAL_CAPACITY];
+        indices = new int[tableSizeFor(INITIAL_CAPACITY)];
+        totalEntries = deletedEntries = usedSlots = 0;
+    }
+
+    private abstract class EntryIterator<T> implements Iterator<T> {
+        private int current = skipDeleted(0);
+
+        private int skipDeleted(int start) {
+            int i = start;
+            while (i < totalEntries && values[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        public boolean hasNext() {
+            return current < totalEntries;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = current;
+            current = skipDeleted(current + 1);
+            return get(index);
+        }
+
+        protected abstract T get(int index);
+    }
+
+    @Override
+    public Iterable<Object> keys() {
+        return () -> new EntryIterator<Object>() {
+            @Override
+            protected Object get(int index) {
+                return entryKey(index);
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        return () -> new EntryIterator<Object>() {
+            @Override
+            protected Object get(int index) {
+                return values[index];
+            }
+        };
+    }
+
+    @Override
+    public Iterable<DictEntry> entries() {
+        return () -> new EntryIterator<DictEntry>() {
+            @Override
+            protected DictEntry get(int index) {
+                return new DictEntry(entryKey(index), values[index]);
+            }
+        };
+    }
+}
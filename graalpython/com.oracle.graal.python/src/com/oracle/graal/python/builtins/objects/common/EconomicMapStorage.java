@@ -50,25 +50,21 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 /**
  * Implementation of a map with a memory-efficient structure that always preserves insertion order
  * when iterating over keys. Particularly efficient when number of entries is 0 or smaller equal
- * {@link #INITIAL_CAPACITY} or smaller 256.
+ * {@link #INITIAL_CAPACITY}.
  *
- * The key/value pairs are kept in an expanding flat object array with keys at even indices and
- * values at odd indices. If the map has smaller or equal to {@link #HASH_THRESHOLD} entries, there
- * is no additional hash data structure and comparisons are done via linear checking of the
- * key/value pairs.
+ * The entries are kept in three parallel arrays in insertion order: {@link #keys},
+ * {@link #values} and {@link #hashes}, the latter caching the hash code of each key. If the map has
+ * smaller or equal to {@link #HASH_THRESHOLD} entries, there is no additional hash data structure
+ * and comparisons are done via linear checking of the entries.
  *
- * When the hash table needs to be constructed, the field {@link #hashArray} becomes a new hash
- * array where an entry of 0 means no hit and otherwise denotes the entry number in the
- * {@link #entriesArr} array. The hash array is interpreted as an actual byte array if the indices
- * fit within 8 bit, or as an array of short values if the indices fit within 16 bit, or as an array
- * of integer values in other cases.
+ * When the hash table needs to be constructed, the field {@link #indices} becomes an open
+ * addressing table (like CPython's compact dict) where an entry of {@link #EMPTY} means no hit,
+ * {@link #DUMMY} marks a removed entry and any other value denotes the entry number plus one.
+ * Collisions are resolved by perturbed probing, so neither lookups nor inserts allocate.
  *
- * Hash collisions are handled by chaining a linked list of {@link CollisionLink} objects that take
- * the place of the values in the {@link #entriesArr} array.
- *
- * Removing entries will put {@code null} into the {@link #entriesArr} array. If the occupation of
- * the map falls below a specific threshold, the map will be compressed via the
- * {@link #maybeCompress(int, Equivalence)} method.
+ * Removing entries will put {@code null} into the {@link #keys} array. If the occupation of the
+ * map falls below a specific threshold, the map will be compressed via the
+ * {@link #maybeCompress()} method.
  */
 public class EconomicMapStorage extends HashingStorage implements Iterable<Object> {
 
@@ -93,19 +89,19 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
     private static final int HASH_THRESHOLD = 4;
 
     /**
-     * Maximum number of entries allowed in the map.
+     * Minimum size of the hash table.
      */
-    private static final int MAX_ELEMENT_COUNT = Integer.MAX_VALUE >> 1;
+    private static final int MIN_TABLE_SIZE = 8;
 
     /**
-     * Number of entries above which more than 1 byte is necessary for the hash index.
+     * Maximum number of entries allowed in the map.
      */
-    private static final int LARGE_HASH_THRESHOLD = ((1 << Byte.SIZE) << 1);
+    private static final int MAX_ELEMENT_COUNT = Integer.MAX_VALUE >> 3;
 
-    /**
-     * Number of entries above which more than 2 bytes are are necessary for the hash index.
-     */
-    private static final int VERY_LARGE_HASH_THRESHOLD = (LARGE_HASH_THRESHOLD << Byte.SIZE);
+    private static final int PERTURB_SHIFT = 5;
+
+    private static final int EMPTY = 0;
+    private static final int DUMMY = -1;
 
     /**
      * Total number of entries (actual entries plus deleted entries).
@@ -117,16 +113,19 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
      */
     private int deletedEntries;
 
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+
     /**
-     * Entries array with even indices storing keys and odd indices storing values.
+     * Open addressing hash table of entry numbers plus one, {@code null} for small maps.
      */
-    private Object[] entriesArr;
+    private int[] indices;
 
     /**
-     * Hash array that is interpreted either as byte or short or int array depending on number of
-     * map entries.
+     * Number of slots in {@link #indices} that are not {@link #EMPTY}.
      */
-    private byte[] hashArray;
+    private int usedSlots;
 
     public static EconomicMapStorage create(boolean isSet) {
         return new EconomicMapStorage(isSet);
@@ -161,15 +160,15 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
     private boolean initFrom(Object o) {
         if (o instanceof EconomicMapStorage) {
             EconomicMapStorage otherMap = (EconomicMapStorage) o;
-            // We are only allowed to directly copy if the strategies of the two maps are the same.
             totalEntries = otherMap.totalEntries;
             deletedEntries = otherMap.deletedEntries;
-            if (otherMap.entriesArr != null) {
-                entriesArr = otherMap.entriesArr.clone();
-            }
-            if (otherMap.hashArray != null) {
-                hashArray = otherMap.hashArray.clone();
+            usedSlots = otherMap.usedSlots;
+            if (otherMap.keys != null) {
+                keys = otherMap.keys.clone();
+                values = otherMap.values.clone();
+                hashes = otherMap.hashes.clone();
             }
+            indices = otherMap.indices != null ? otherMap.indices.clone() : null;
             return true;
         }
         return false;
@@ -177,232 +176,215 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
 
     private void init(int size) {
         if (size > INITIAL_CAPACITY) {
-            entriesArr = new Object[size << 1];
+            allocate(size);
         }
     }
 
-    private static final class DictKey {
-        final Object value;
-        final int hash;
-
-        DictKey(Object value, int hash) {
-            this.value = value;
-            this.hash = hash;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            return obj instanceof DictKey && ((DictKey) obj).hash == hash && ((DictKey) obj).value.equals(value);
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-    }
-
-    /**
-     * Links the collisions. Needs to be immutable class for allowing efficient shallow copy from
-     * other map on construction.
-     */
-    private static final class CollisionLink {
-
-        CollisionLink(Object value, int next) {
-            this.value = value;
-            this.next = next;
-        }
-
-        final Object value;
-
-        /**
-         * Index plus one of the next entry in the collision link chain.
-         */
-        final int next;
+    private void allocate(int size) {
+        keys = new Object[size];
+        values = new Object[size];
+        hashes = new int[size];
     }
 
     @Override
     public Object getItem(Object key, Equivalence eq) {
         Objects.requireNonNull(key);
 
-        int index = find(new DictKey(key, eq.hashCode(key)), eq);
+        int index = find(key, eq.hashCode(key), eq);
         if (index != -1) {
-            return getValue(index);
+            return values[index];
         }
         return null;
     }
 
-    private int find(DictKey key, Equivalence eq) {
-        if (hasHashArray()) {
-            return findHash(key, eq);
-        } else {
-            return findLinear(key, eq);
+    /**
+     * Returned by the lookup helpers if an {@code __eq__} call restructured this map or replaced
+     * the compared entry.
+     */
+    private static final int RESTART = -2;
+
+    /**
+     * Returns the entry number of the key or -1. If an {@code __eq__} call restructures this map
+     * or changes the compared entry during the lookup, the lookup is restarted, like CPython does.
+     */
+    private int find(Object key, int hash, Equivalence eq) {
+        while (true) {
+            int[] currentIndices = indices;
+            if (currentIndices != null) {
+                int slot = findSlot(keys, currentIndices, key, hash, eq);
+                if (slot != RESTART) {
+                    return slot == -1 ? -1 : currentIndices[slot] - 1;
+                }
+            } else {
+                int index = findLinear(keys, key, hash, eq);
+                if (index != RESTART) {
+                    return index;
+                }
+            }
         }
     }
 
-    private int findLinear(DictKey key, Equivalence eq) {
+    /**
+     * Returns the entry number of the key, -1 or {@link #RESTART}.
+     */
+    private int findLinear(Object[] currentKeys, Object key, int hash, Equivalence eq) {
         for (int i = 0; i < totalEntries; i++) {
-            DictKey entryKey = getKey(i);
-            if (entryKey != null && compareKeys(key, entryKey, eq)) {
-                return i;
+            Object entryKey = currentKeys[i];
+            if (entryKey != null) {
+                boolean equal = compareKeys(key, hash, entryKey, hashes[i], eq);
+                if (currentKeys != keys || currentKeys[i] != entryKey) {
+                    return RESTART;
+                } else if (equal) {
+                    return i;
+                }
             }
         }
         return -1;
     }
 
-    private static boolean compareKeys(DictKey key, DictKey entryKey, Equivalence strategy) {
+    /**
+     * Returns the slot in the hash table that refers to the key, -1 or {@link #RESTART}.
+     */
+    private int findSlot(Object[] currentKeys, int[] currentIndices, Object key, int hash, Equivalence eq) {
+        int mask = currentIndices.length - 1;
+        int perturb = hash;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int entry = currentIndices[slot];
+            if (entry == EMPTY) {
+                return -1;
+            } else if (entry != DUMMY) {
+                int index = entry - 1;
+                Object entryKey = currentKeys[index];
+                boolean equal = compareKeys(key, hash, entryKey, hashes[index], eq);
+                if (currentKeys != keys || currentIndices != indices || currentKeys[index] != entryKey) {
+                    return RESTART;
+                } else if (equal) {
+                    return slot;
+                }
+            }
+            perturb >>>= PERTURB_SHIFT;
+            slot = (5 * slot + 1 + perturb) & mask;
+        }
+    }
+
+    private static int firstSlot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean compareKeys(Object key, int hash, Object entryKey, int entryHash, Equivalence strategy) {
         // Comparison as per CPython's dictobject.c#lookdict function. First
         // check if the keys are identical, then check if the hashes are the
         // same, and only if they are, also call the comparison function.
-        if (key.value == entryKey.value) {
+        if (key == entryKey) {
             return true;
-        } else if (key.hash == entryKey.hash) {
+        } else if (hash == entryHash && entryKey != null) {
             if (strategy != null) {
                 // TODO: this may raise and on CPython, that is caught and transformed into a
                 // dictionary exception
-                return strategy.equals(key.value, entryKey.value);
+                return strategy.equals(key, entryKey);
             } else {
-                return key.value.equals(entryKey.value);
+                return key.equals(entryKey);
             }
         } else {
             return false;
         }
     }
 
-    private int findHash(DictKey key, Equivalence eq) {
-        int index = getHashArray(getHashIndex(key)) - 1;
-        if (index != -1) {
-            DictKey entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
-                return index;
-            } else {
-                Object entryValue = getRawValue(index);
-                if (entryValue instanceof CollisionLink) {
-                    return findWithCollision(key, (CollisionLink) entryValue, eq);
-                }
-            }
-        }
-
-        return -1;
-    }
-
-    private int findWithCollision(DictKey key, CollisionLink initialEntryValue, Equivalence eq) {
-        int index;
-        DictKey entryKey;
-        CollisionLink entryValue = initialEntryValue;
-        while (true) {
-            CollisionLink collisionLink = entryValue;
-            index = collisionLink.next;
-            entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
-                return index;
-            } else {
-                Object value = getRawValue(index);
-                if (value instanceof CollisionLink) {
-                    entryValue = (CollisionLink) getRawValue(index);
-                } else {
-                    return -1;
-                }
-            }
-        }
+    /**
+     * Copies all of the mappings from {@code other} to this map.
+     *
+     * @since 1.0
+     */
+    public void putAll(EconomicMapStorage other, Equivalence eq) {
+        putAllWithHashes(other, false, null, eq);
     }
 
-    private int getHashArray(int index) {
-        if (entriesArr.length < LARGE_HASH_THRESHOLD) {
-            return (hashArray[index] & 0xFF);
-        } else if (entriesArr.length < VERY_LARGE_HASH_THRESHOLD) {
-            int adjustedIndex = index << 1;
-            return (hashArray[adjustedIndex] & 0xFF) | ((hashArray[adjustedIndex + 1] & 0xFF) << 8);
+    @Override
+    @TruffleBoundary
+    public void addAll(HashingStorage other, Equivalence eq) {
+        if (other instanceof EconomicMapStorage) {
+            putAll((EconomicMapStorage) other, eq);
         } else {
-            int adjustedIndex = index << 2;
-            return (hashArray[adjustedIndex] & 0xFF) | ((hashArray[adjustedIndex + 1] & 0xFF) << 8) | ((hashArray[adjustedIndex + 2] & 0xFF) << 16) | ((hashArray[adjustedIndex + 3] & 0xFF) << 24);
+            ensureCapacity(other.length());
+            super.addAll(other, eq);
         }
     }
 
-    private void setHashArray(int index, int value) {
-        if (entriesArr.length < LARGE_HASH_THRESHOLD) {
-            hashArray[index] = (byte) value;
-        } else if (entriesArr.length < VERY_LARGE_HASH_THRESHOLD) {
-            int adjustedIndex = index << 1;
-            hashArray[adjustedIndex] = (byte) value;
-            hashArray[adjustedIndex + 1] = (byte) (value >> 8);
+    /**
+     * Adds all keys of {@code other}, each mapped to {@code value}. This is the bulk insertion
+     * used by set algebra, where the values of {@code other} are irrelevant.
+     */
+    @TruffleBoundary
+    public void addAllKeys(HashingStorage other, Object value, Equivalence eq) {
+        if (other instanceof EconomicMapStorage) {
+            putAllWithHashes((EconomicMapStorage) other, true, value, eq);
         } else {
-            int adjustedIndex = index << 2;
-            hashArray[adjustedIndex] = (byte) value;
-            hashArray[adjustedIndex + 1] = (byte) (value >> 8);
-            hashArray[adjustedIndex + 2] = (byte) (value >> 16);
-            hashArray[adjustedIndex + 3] = (byte) (value >> 24);
+            ensureCapacity(other.length());
+            for (Object key : other.keys()) {
+                setItem(key, value, eq);
+            }
         }
     }
 
-    private int findAndRemoveHash(DictKey key, Equivalence eq) {
-        int hashIndex = getHashIndex(key);
-        int index = getHashArray(hashIndex) - 1;
-        if (index != -1) {
-            DictKey entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
-                Object value = getRawValue(index);
-                int nextIndex = -1;
-                if (value instanceof CollisionLink) {
-                    CollisionLink collisionLink = (CollisionLink) value;
-                    nextIndex = collisionLink.next;
-                }
-                setHashArray(hashIndex, nextIndex + 1);
-                return index;
-            } else {
-                Object entryValue = getRawValue(index);
-                if (entryValue instanceof CollisionLink) {
-                    return findAndRemoveWithCollision(key, (CollisionLink) entryValue, index, eq);
-                }
+    /**
+     * Inserts the entries of another map, reusing the hash codes it has already cached. If this
+     * map is still empty, the arrays of {@code other} are simply cloned.
+     */
+    private void putAllWithHashes(EconomicMapStorage other, boolean replaceValues, Object value, Equivalence eq) {
+        if (other == this) {
+            if (replaceValues) {
+                replaceAllValues(value);
             }
+            return;
         }
-
-        return -1;
-    }
-
-    private int findAndRemoveWithCollision(DictKey key, CollisionLink initialEntryValue, int initialIndexValue, Equivalence eq) {
-        int index;
-        DictKey entryKey;
-        CollisionLink entryValue = initialEntryValue;
-        int lastIndex = initialIndexValue;
-        while (true) {
-            CollisionLink collisionLink = entryValue;
-            index = collisionLink.next;
-            entryKey = getKey(index);
-            if (compareKeys(key, entryKey, eq)) {
-                Object value = getRawValue(index);
-                if (value instanceof CollisionLink) {
-                    CollisionLink thisCollisionLink = (CollisionLink) value;
-                    setRawValue(lastIndex, new CollisionLink(collisionLink.value, thisCollisionLink.next));
-                } else {
-                    setRawValue(lastIndex, collisionLink.value);
-                }
-                return index;
-            } else {
-                Object value = getRawValue(index);
-                if (value instanceof CollisionLink) {
-                    entryValue = (CollisionLink) getRawValue(index);
-                    lastIndex = index;
-                } else {
-                    return -1;
-                }
+        if (totalEntries == 0) {
+            initFrom(other);
+            if (replaceValues) {
+                replaceAllValues(value);
+            }
+            return;
+        }
+        ensureCapacity(other.length());
+        // take snapshots, an '__eq__' call may restructure the other map
+        Object[] otherKeys = other.keys;
+        Object[] otherValues = other.values;
+        int[] otherHashes = other.hashes;
+        int otherEntries = other.totalEntries;
+        for (int i = 0; i < otherEntries; i++) {
+            Object key = otherKeys[i];
+            if (key != null) {
+                putWithHash(key, replaceValues ? value : otherValues[i], otherHashes[i], eq);
             }
         }
     }
 
-    private int getHashIndex(DictKey key) {
-        int hash = key.hash;
-        hash = hash ^ (hash >>> 16);
-        return hash & (getHashTableSize() - 1);
+    private void replaceAllValues(Object value) {
+        for (int i = 0; i < totalEntries; i++) {
+            if (keys[i] != null) {
+                values[i] = value;
+            }
+        }
     }
 
     /**
-     * Copies all of the mappings from {@code other} to this map.
-     *
-     * @since 1.0
+     * Makes room for {@code count} additional entries, so that a bulk insertion grows the entry
+     * arrays and rebuilds the hash table at most once.
      */
-    public void putAll(EconomicMapStorage other, Equivalence eq) {
-        for (DictEntry entry : other.entries()) {
-            setItem(entry.getKey(), entry.getValue(), eq);
+    private void ensureCapacity(int count) {
+        int needed = length() + count;
+        if (needed > MAX_ELEMENT_COUNT) {
+            throw new UnsupportedOperationException("map grown too large!");
+        }
+        if (keys == null) {
+            if (needed > INITIAL_CAPACITY) {
+                allocate(needed);
+            }
+        } else if (keys.length - totalEntries < count) {
+            rebuild(needed);
+        }
+        if (indices != null ? (usedSlots + count) * 3 >= indices.length << 1 : needed > getHashThreshold()) {
+            createHash(needed);
         }
     }
 
@@ -411,36 +393,38 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         if (key == null) {
             throw new UnsupportedOperationException("null not supported as key!");
         }
-        DictKey newKey = new DictKey(key, eq.hashCode(key));
-        int index = find(newKey, eq);
+        putWithHash(key, value, eq.hashCode(key), eq);
+    }
+
+    private void putWithHash(Object key, Object value, int hash, Equivalence eq) {
+        int index = find(key, hash, eq);
         if (index != -1) {
-            setValue(index, value);
+            values[index] = value;
             return;
         }
 
-        int nextEntryIndex = totalEntries;
-        if (entriesArr == null) {
-            entriesArr = new Object[INITIAL_CAPACITY << 1];
-        } else if (entriesArr.length == nextEntryIndex << 1) {
-            grow(eq);
-
-            assert entriesArr.length > totalEntries << 1;
-            // Can change if grow is actually compressing.
-            nextEntryIndex = totalEntries;
+        if (keys == null) {
+            allocate(INITIAL_CAPACITY);
+        } else if (keys.length == totalEntries) {
+            grow();
         }
 
-        setKey(nextEntryIndex, newKey);
-        setValue(nextEntryIndex, value);
+        int nextEntryIndex = totalEntries;
+        keys[nextEntryIndex] = key;
+        values[nextEntryIndex] = value;
+        hashes[nextEntryIndex] = hash;
         totalEntries++;
 
-        if (hasHashArray()) {
-            // Rehash on collision if hash table is more than three quarters full.
-            boolean rehashOnCollision = (getHashTableSize() < (length() + (length() >> 1)));
-            putHashEntry(newKey, nextEntryIndex, rehashOnCollision, eq);
+        if (indices != null) {
+            // Rebuild the table if it would become more than two thirds full.
+            if ((usedSlots + 1) * 3 >= indices.length << 1) {
+                createHash();
+            } else {
+                putHashEntry(indices, nextEntryIndex, hash);
+            }
         } else if (totalEntries > getHashThreshold()) {
-            createHash(eq);
+            createHash();
         }
-
     }
 
     /**
@@ -450,135 +434,121 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return HASH_THRESHOLD;
     }
 
-    private void grow(Equivalence eq) {
-        int entriesLength = entriesArr.length;
-        int newSize = (entriesLength >> 1) + Math.max(MIN_CAPACITY_INCREASE, entriesLength >> 2);
+    private void grow() {
+        if (deletedEntries >= (totalEntries >> 2)) {
+            // plenty of deleted entries: reclaim them instead of growing
+            compress();
+            if (totalEntries < keys.length) {
+                return;
+            }
+        }
+        int length = keys.length;
+        int newSize = length + Math.max(MIN_CAPACITY_INCREASE, length >> 1);
         if (newSize > MAX_ELEMENT_COUNT) {
             throw new UnsupportedOperationException("map grown too large!");
         }
-        Object[] newEntries = new Object[newSize << 1];
-        System.arraycopy(entriesArr, 0, newEntries, 0, entriesLength);
-        entriesArr = newEntries;
-        if ((entriesLength < LARGE_HASH_THRESHOLD && newEntries.length >= LARGE_HASH_THRESHOLD) ||
-                        (entriesLength < VERY_LARGE_HASH_THRESHOLD && newEntries.length > VERY_LARGE_HASH_THRESHOLD)) {
-            // Rehash in order to change number of bits reserved for hash indices.
-            createHash(eq);
-        }
+        Object[] newKeys = new Object[newSize];
+        Object[] newValues = new Object[newSize];
+        int[] newHashes = new int[newSize];
+        System.arraycopy(keys, 0, newKeys, 0, totalEntries);
+        System.arraycopy(values, 0, newValues, 0, totalEntries);
+        System.arraycopy(hashes, 0, newHashes, 0, totalEntries);
+        // entry numbers do not change, so the hash table stays valid
+        keys = newKeys;
+        values = newValues;
+        hashes = newHashes;
     }
 
     /**
-     * Compresses the graph if there is a large number of deleted entries and returns the translated
-     * new next index.
+     * Compresses the map if there is a large number of deleted entries.
      */
-    private int maybeCompress(int nextIndex, Equivalence eq) {
-        if (entriesArr.length != INITIAL_CAPACITY << 1 && deletedEntries >= (totalEntries >> 1) + (totalEntries >> 2)) {
-            return compressLarge(nextIndex, eq);
+    private void maybeCompress() {
+        if (keys.length != INITIAL_CAPACITY && deletedEntries >= (totalEntries >> 1) + (totalEntries >> 2)) {
+            compress();
         }
-        return nextIndex;
     }
 
     /**
-     * Compresses the graph and returns the translated new next index.
+     * Moves all live entries to the front of new arrays and rebuilds the hash table.
      */
-    private int compressLarge(int nextIndex, Equivalence eq) {
+    private void compress() {
         int size = INITIAL_CAPACITY;
         int remaining = totalEntries - deletedEntries;
 
         while (size <= remaining) {
             size += Math.max(MIN_CAPACITY_INCREASE, size >> 1);
         }
+        rebuild(size);
+    }
 
-        Object[] newEntries = new Object[size << 1];
+    /**
+     * Moves all live entries to the front of new arrays of the given size.
+     */
+    private void rebuild(int size) {
+        Object[] newKeys = new Object[size];
+        Object[] newValues = new Object[size];
+        int[] newHashes = new int[size];
         int z = 0;
-        int newNextIndex = remaining;
         for (int i = 0; i < totalEntries; ++i) {
-            DictKey key = getKey(i);
-            if (i == nextIndex) {
-                newNextIndex = z;
-            }
+            Object key = keys[i];
             if (key != null) {
-                newEntries[z << 1] = key;
-                newEntries[(z << 1) + 1] = getValue(i);
+                newKeys[z] = key;
+                newValues[z] = values[i];
+                newHashes[z] = hashes[i];
                 z++;
             }
         }
 
-        this.entriesArr = newEntries;
+        keys = newKeys;
+        values = newValues;
+        hashes = newHashes;
         totalEntries = z;
         deletedEntries = 0;
         if (z <= getHashThreshold()) {
-            this.hashArray = null;
+            indices = null;
+            usedSlots = 0;
         } else {
-            createHash(eq);
+            createHash();
         }
-        return newNextIndex;
     }
 
-    private int getHashTableSize() {
-        if (entriesArr.length < LARGE_HASH_THRESHOLD) {
-            return hashArray.length;
-        } else if (entriesArr.length < VERY_LARGE_HASH_THRESHOLD) {
-            return hashArray.length >> 1;
-        } else {
-            return hashArray.length >> 2;
-        }
+    private void createHash() {
+        createHash(length());
     }
 
-    private void createHash(Equivalence eq) {
-        int entryCount = length();
-
-        // Calculate smallest 2^n that is greater number of entries.
-        int size = getHashThreshold();
-        while (size <= entryCount) {
+    private void createHash(int entryCount) {
+        // Calculate smallest 2^n that keeps the table at most one third full.
+        int size = MIN_TABLE_SIZE;
+        while (size < entryCount * 3) {
             size <<= 1;
         }
 
-        // Give extra size to avoid collisions.
-        size <<= 1;
-
-        if (this.entriesArr.length >= VERY_LARGE_HASH_THRESHOLD) {
-            // Every entry has 4 bytes.
-            size <<= 2;
-        } else if (this.entriesArr.length >= LARGE_HASH_THRESHOLD) {
-            // Every entry has 2 bytes.
-            size <<= 1;
-        } else {
-            // Entries are very small => give extra size to further reduce collisions.
-            size <<= 1;
-        }
-
-        hashArray = new byte[size];
+        int[] newIndices = new int[size];
         for (int i = 0; i < totalEntries; i++) {
-            DictKey entryKey = getKey(i);
-            if (entryKey != null) {
-                putHashEntry(entryKey, i, false, eq);
+            if (keys[i] != null) {
+                putHashEntry(newIndices, i, hashes[i]);
             }
         }
+        indices = newIndices;
+        usedSlots = length();
     }
 
-    private void putHashEntry(DictKey key, int entryIndex, boolean rehashOnCollision, Equivalence eq) {
-        int hashIndex = getHashIndex(key);
-        int oldIndex = getHashArray(hashIndex) - 1;
-        if (oldIndex != -1 && rehashOnCollision) {
-            this.createHash(eq);
-            return;
+    /**
+     * Stores the entry number in the first free slot of its probe sequence. The key must not be in
+     * the table yet, so slots of removed entries can be reused.
+     */
+    private void putHashEntry(int[] table, int entryIndex, int hash) {
+        int mask = table.length - 1;
+        int perturb = hash;
+        int slot = firstSlot(hash, mask);
+        while (table[slot] > 0) {
+            perturb >>>= PERTURB_SHIFT;
+            slot = (5 * slot + 1 + perturb) & mask;
         }
-        setHashArray(hashIndex, entryIndex + 1);
-        Object value = getRawValue(entryIndex);
-        if (oldIndex != -1) {
-            assert entryIndex != oldIndex : "this cannot happend and would create an endless collision link cycle";
-            if (value instanceof CollisionLink) {
-                CollisionLink collisionLink = (CollisionLink) value;
-                setRawValue(entryIndex, new CollisionLink(collisionLink.value, oldIndex));
-            } else {
-                setRawValue(entryIndex, new CollisionLink(getRawValue(entryIndex), oldIndex));
-            }
-        } else {
-            if (value instanceof CollisionLink) {
-                CollisionLink collisionLink = (CollisionLink) value;
-                setRawValue(entryIndex, collisionLink.value);
-            }
+        if (table[slot] == EMPTY) {
+            usedSlots++;
         }
+        table[slot] = entryIndex + 1;
     }
 
     @Override
@@ -588,50 +558,42 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
 
     @Override
     public void clear() {
-        entriesArr = null;
-        hashArray = null;
-        totalEntries = deletedEntries = 0;
-    }
-
-    private boolean hasHashArray() {
-        return hashArray != null;
+        keys = null;
+        values = null;
+        hashes = null;
+        indices = null;
+        totalEntries = deletedEntries = usedSlots = 0;
     }
 
     /**
-     * Removes the element at the specific index and returns the index of the next element. This can
-     * be a different value if graph compression was triggered.
+     * Removes the element at the specific index.
      */
-    private int remove(int indexToRemove, Equivalence eq) {
+    private void removeEntry(int indexToRemove) {
         int index = indexToRemove;
         int entriesAfterIndex = totalEntries - index - 1;
-        int result = index + 1;
-
-        // Without hash array, compress immediately.
-        if (entriesAfterIndex <= COMPRESS_IMMEDIATE_CAPACITY && !hasHashArray()) {
-            while (index < totalEntries - 1) {
-                setKey(index, getKey(index + 1));
-                setRawValue(index, getRawValue(index + 1));
-                index++;
-            }
-            result--;
+
+        // Without hash table, compress immediately.
+        if (entriesAfterIndex <= COMPRESS_IMMEDIATE_CAPACITY && indices == null) {
+            System.arraycopy(keys, index + 1, keys, index, entriesAfterIndex);
+            System.arraycopy(values, index + 1, values, index, entriesAfterIndex);
+            System.arraycopy(hashes, index + 1, hashes, index, entriesAfterIndex);
+            index = totalEntries - 1;
         }
 
-        setKey(index, null);
-        setRawValue(index, null);
+        keys[index] = null;
+        values[index] = null;
         if (index == totalEntries - 1) {
             // Make sure last element is always non-null.
             totalEntries--;
-            while (index > 0 && getKey(index - 1) == null) {
+            while (index > 0 && keys[index - 1] == null) {
                 totalEntries--;
                 deletedEntries--;
                 index--;
             }
         } else {
             deletedEntries++;
-            result = maybeCompress(result, eq);
+            maybeCompress();
         }
-
-        return result;
     }
 
     private abstract class SparseMapIterator implements Iterator<Object> {
@@ -643,40 +605,6 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
     }
 
-    private DictKey getKey(int index) {
-        return (DictKey) entriesArr[index << 1];
-    }
-
-    private void setKey(int index, DictKey newValue) {
-        entriesArr[index << 1] = newValue;
-    }
-
-    private void setValue(int index, Object newValue) {
-        Object oldValue = getRawValue(index);
-        if (oldValue instanceof CollisionLink) {
-            CollisionLink collisionLink = (CollisionLink) oldValue;
-            setRawValue(index, new CollisionLink(newValue, collisionLink.next));
-        } else {
-            setRawValue(index, newValue);
-        }
-    }
-
-    private void setRawValue(int index, Object newValue) {
-        entriesArr[(index << 1) + 1] = newValue;
-    }
-
-    private Object getRawValue(int index) {
-        return entriesArr[(index << 1) + 1];
-    }
-
-    private Object getValue(int index) {
-        Object object = getRawValue(index);
-        if (object instanceof CollisionLink) {
-            return ((CollisionLink) object).value;
-        }
-        return object;
-    }
-
     private final boolean isSet;
 
     @Override
@@ -689,9 +617,9 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         while (cursor.advance()) {
             builder.append(sep);
             if (isSet) {
-                builder.append(cursor.getKey().value);
+                builder.append(cursor.getKey());
             } else {
-                builder.append("(").append(cursor.getKey().value).append(",").append(cursor.getValue()).append(")");
+                builder.append("(").append(cursor.getKey()).append(",").append(cursor.getValue()).append(")");
             }
             sep = ",";
         }
@@ -703,18 +631,18 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return new SparseMapIterator() {
             @Override
             public Object next() {
-                DictKey result;
-                while ((result = getKey(current++)) == null) {
+                Object result;
+                while ((result = keys[current++]) == null) {
                     // skip null entries
                 }
-                return result.value;
+                return result;
             }
         };
     }
 
     @Override
     public boolean hasKey(Object key, Equivalence eq) {
-        return find(new DictKey(key, eq.hashCode(key)), eq) != -1;
+        return find(key, eq.hashCode(key), eq) != -1;
     }
 
     @Override
@@ -722,19 +650,31 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         if (key == null) {
             throw new UnsupportedOperationException("null not supported as key!");
         }
+        int hash = eq.hashCode(key);
         int index;
-        DictKey inKey = new DictKey(key, eq.hashCode(key));
-        if (hasHashArray()) {
-            index = this.findAndRemoveHash(inKey, eq);
-        } else {
-            index = this.findLinear(inKey, eq);
-        }
-
-        if (index != -1) {
-            remove(index, eq);
-            return true;
+        while (true) {
+            int[] currentIndices = indices;
+            if (currentIndices != null) {
+                int slot = findSlot(keys, currentIndices, key, hash, eq);
+                if (slot == RESTART) {
+                    continue;
+                } else if (slot == -1) {
+                    return false;
+                }
+                index = currentIndices[slot] - 1;
+                currentIndices[slot] = DUMMY;
+            } else {
+                index = findLinear(keys, key, hash, eq);
+                if (index == RESTART) {
+                    continue;
+                } else if (index == -1) {
+                    return false;
+                }
+            }
+            break;
         }
-        return false;
+        removeEntry(index);
+        return true;
     }
 
     private class MapCursor {
@@ -746,7 +686,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             if (current >= totalEntries) {
                 return false;
             } else {
-                while (EconomicMapStorage.this.getKey(current) == null) {
+                while (keys[current] == null) {
                     // Skip over null entries
                     current++;
                 }
@@ -754,12 +694,12 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
             }
         }
 
-        public DictKey getKey() {
-            return EconomicMapStorage.this.getKey(current);
+        public Object getKey() {
+            return keys[current];
         }
 
         public Object getValue() {
-            return EconomicMapStorage.this.getValue(current);
+            return values[current];
         }
     }
 
@@ -779,7 +719,7 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
                 throw new NoSuchElementException();
             }
             consumed++;
-            return new DictEntry(getKey().value, getValue());
+            return new DictEntry(getKey(), getValue());
         }
     }
 
@@ -799,8 +739,8 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
                     public Object next() {
                         Object result;
                         while (true) {
-                            result = getValue(current);
-                            if (result == null && getKey(current) == null) {
+                            result = values[current];
+                            if (result == null && keys[current] == null) {
                                 // values can be null, double-check if key is also null
                                 current++;
                             } else {
@@ -56,7 +56,9 @@ import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.Fast
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonNativeObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectHybridDictStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.AddAllNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.ContainsKeyNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.ContainsValueNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.CopyNodeGen;
@@ -75,8 +77,8 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactor
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
-import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.str.LazyString;
 import com.oracle.graal.python.builtins.objects.str.PString;
@@ -269,6 +271,13 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        protected static StringKeyedStorage switchToStringKeyedStorage(HashingStorage storage) {
+            // Only string keys so far but too many of them for a dynamic object
+            StringKeyedStorage newStorage = new StringKeyedStorage(storage.length() + 1);
+            newStorage.addAll(storage, DEFAULT_EQIVALENCE);
+            return newStorage;
+        }
+
         protected static PythonObjectHybridDictStorage switchToHybridDictStorage(PythonObjectDictStorage dictStorage) {
             return new PythonObjectHybridDictStorage(dictStorage);
         }
@@ -312,11 +321,12 @@ public abstract class HashingStorageNodes {
             return new KeywordsStorage(kwargs);
         }
 
-        protected static boolean isPDict(PythonObject o) {
-            return o instanceof PHashingCollection;
+        protected static boolean isPDict(Object o) {
+            // the elements of a set are not key/value pairs
+            return o instanceof PHashingCollection && !(o instanceof PBaseSet);
         }
 
-        protected boolean hasKeysAttribute(PythonObject o) {
+        protected boolean hasKeysAttribute(Object o) {
             if (lookupKeysAttributeNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 lookupKeysAttributeNode = insert(LookupInheritedAttributeNode.create(KEYS));
@@ -324,13 +334,13 @@ public abstract class HashingStorageNodes {
             return lookupKeysAttributeNode.execute(o) != PNone.NO_VALUE;
         }
 
-        @Specialization(guards = "isEmpty(kwargs)")
+        @Specialization(guards = {"isEmpty(kwargs)", "!isAnySet(dictLike)"})
         HashingStorage doPDict(PHashingCollection dictLike, @SuppressWarnings("unused") PKeyword[] kwargs,
                         @Cached("create()") HashingCollectionNodes.GetDictStorageNode getDictStorageNode) {
             return getDictStorageNode.execute(dictLike).copy(HashingStorage.DEFAULT_EQIVALENCE);
         }
 
-        @Specialization(guards = "!isEmpty(kwargs)", rewriteOn = HashingStorage.UnmodifiableStorageException.class)
+        @Specialization(guards = {"!isEmpty(kwargs)", "!isAnySet(dictLike)"}, rewriteOn = HashingStorage.UnmodifiableStorageException.class)
         HashingStorage doPDictKwargs(VirtualFrame frame, PHashingCollection dictLike, PKeyword[] kwargs,
                         @Cached("create()") UnionNode unionNode,
                         @Cached("create()") HashingCollectionNodes.GetDictStorageNode getDictStorageNode) {
@@ -346,7 +356,7 @@ public abstract class HashingStorageNodes {
         }
 
         @Specialization(guards = {"!isPDict(mapping)", "hasKeysAttribute(mapping)"})
-        HashingStorage doMapping(VirtualFrame frame, PythonObject mapping, @SuppressWarnings("unused") PKeyword[] kwargs,
+        HashingStorage doMapping(VirtualFrame frame, Object mapping, @SuppressWarnings("unused") PKeyword[] kwargs,
                         @Cached("create(KEYS)") LookupAndCallUnaryNode callKeysNode,
                         @Cached("create(__GETITEM__)") LookupAndCallBinaryNode callGetItemNode,
                         @Cached("create()") GetIteratorNode getIteratorNode,
@@ -389,7 +399,7 @@ public abstract class HashingStorageNodes {
         }
 
         @Specialization(guards = {"!isNoValue(iterable)", "!isPDict(iterable)", "!hasKeysAttribute(iterable)"})
-        HashingStorage doSequence(VirtualFrame frame, PythonObject iterable, PKeyword[] kwargs,
+        HashingStorage doSequence(VirtualFrame frame, Object iterable, PKeyword[] kwargs,
                         @Cached("create()") GetIteratorNode getIterator,
                         @Cached("create()") FastConstructListNode createListNode,
                         @Cached("create(__GETITEM__)") LookupAndCallBinaryNode getItemNode,
@@ -435,8 +445,8 @@ public abstract class HashingStorageNodes {
                 PSequence element = arrayListGet(elements, j);
                 storage = getSetItemNode().execute(frame, storage, getItemNode.executeObject(frame, element, 0), getItemNode.executeObject(frame, element, 1));
             }
-            if (kwargs.length > 0) {
-                storage.addAll(new KeywordsStorage(kwargs));
+            for (int j = 0; j < kwargs.length; j++) {
+                storage = getSetItemNode().execute(frame, storage, kwargs[j].getName(), kwargs[j].getValue());
             }
             return storage;
         }
@@ -605,6 +615,40 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Specialization
+        protected boolean doIntKeyed(IntKeyedStorage storage, int key) {
+            return storage.hasKey(key);
+        }
+
+        @Specialization
+        protected boolean doIntKeyed(IntKeyedStorage storage, long key) {
+            return storage.hasKey(key);
+        }
+
+        @Specialization
+        protected boolean doStringKeyed(StringKeyedStorage storage, String key) {
+            return storage.hasKey(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean doStringKeyed(StringKeyedStorage storage, PString key) {
+            return storage.hasKey(key.getValue());
+        }
+
+        // keys of other types are compared via their '__eq__'
+        @Specialization(guards = "lib.isHashable(key)", limit = "1")
+        @SuppressWarnings("try")
+        protected boolean doCompactKeyed(VirtualFrame frame, CompactKeyedStorage storage, Object key,
+                        @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                return storage.hasKey(key, getEquivalence());
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
         @Specialization(guards = "lib.isHashable(key)", limit = "1")
         protected boolean contains(LocalsStorage storage, PString key,
                         @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
@@ -629,6 +673,12 @@ public abstract class HashingStorageNodes {
             throw unhashable(key);
         }
 
+        @Specialization(guards = "!lib.isHashable(key)", limit = "1")
+        protected boolean doUnhashable(@SuppressWarnings("unused") CompactKeyedStorage storage, Object key,
+                        @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
+            throw unhashable(key);
+        }
+
         public static ContainsKeyNode create() {
             return ContainsKeyNodeGen.create();
         }
@@ -713,6 +763,19 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Specialization(guards = "lib.isHashable(key)", limit = "1")
+        @SuppressWarnings("try")
+        protected boolean contains(VirtualFrame frame, CompactKeyedStorage storage, Object key,
+                        @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                return storage.hasKey(key, getEquivalence());
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
         @Specialization(guards = "lib.isHashable(key)", limit = "1")
         protected boolean contains(LocalsStorage storage, Object key,
                         @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
@@ -793,7 +856,23 @@ public abstract class HashingStorageNodes {
             }
         }
 
-        @Specialization(guards = {"!isJavaString(key)", "lib.isHashable(key)"}, limit = "1")
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, int key, Object value) {
+            // immediately replace storage since empty storage is immutable
+            IntKeyedStorage newStorage = new IntKeyedStorage();
+            newStorage.setItem(key, value);
+            return newStorage;
+        }
+
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, long key, Object value) {
+            // immediately replace storage since empty storage is immutable
+            IntKeyedStorage newStorage = new IntKeyedStorage();
+            newStorage.setItem(key, value);
+            return newStorage;
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "!isInteger(key)", "lib.isHashable(key)"}, limit = "1")
         @SuppressWarnings("try")
         protected HashingStorage doEmptyStorage(VirtualFrame frame, @SuppressWarnings("unused") EmptyStorage storage, Object key, Object value,
                         @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
@@ -923,6 +1002,60 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        @Specialization
+        protected HashingStorage doIntKeyed(IntKeyedStorage storage, int key, Object value) {
+            storage.setItem(key, value);
+            return storage;
+        }
+
+        @Specialization
+        protected HashingStorage doIntKeyed(IntKeyedStorage storage, long key, Object value) {
+            storage.setItem(key, value);
+            return storage;
+        }
+
+        @Specialization
+        protected HashingStorage doStringKeyed(StringKeyedStorage storage, String key, Object value) {
+            storage.setItem(key, value);
+            return storage;
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected HashingStorage doStringKeyed(StringKeyedStorage storage, PString key, Object value) {
+            storage.setItem(cast(key), value);
+            return storage;
+        }
+
+        @Specialization(guards = {"!isInteger(key)", "lib.isHashable(key)"}, limit = "1")
+        @SuppressWarnings("try")
+        protected HashingStorage doIntKeyedGeneralize(VirtualFrame frame, IntKeyedStorage storage, Object key, Object value,
+                        @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                HashingStorage newStorage = storage.generalizeFor(key, isSetElement(value), getEquivalence());
+                newStorage.setItem(key, value, getEquivalence());
+                return newStorage;
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "lib.isHashable(key)"}, limit = "1")
+        @SuppressWarnings("try")
+        protected HashingStorage doStringKeyedGeneralize(VirtualFrame frame, StringKeyedStorage storage, Object key, Object value,
+                        @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                HashingStorage newStorage = storage.generalizeFor(key, isSetElement(value), getEquivalence());
+                newStorage.setItem(key, value, getEquivalence());
+                return newStorage;
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
         @Specialization(guards = "lib.isHashable(key)", limit = "1")
         @SuppressWarnings("try")
         protected HashingStorage doHashMap(VirtualFrame frame, EconomicMapStorage storage, Object key, Object value,
@@ -974,6 +1107,14 @@ public abstract class HashingStorageNodes {
             return dynamicObjectSetItemNode;
         }
 
+        /**
+         * Sets and frozensets store their elements with the value {@link PNone#NO_VALUE}, which
+         * can never be the value of a dict entry.
+         */
+        protected static boolean isSetElement(Object value) {
+            return value == PNone.NO_VALUE;
+        }
+
         public static SetItemNode create() {
             return SetItemNodeGen.create();
         }
@@ -1084,8 +1225,8 @@ public abstract class HashingStorageNodes {
 
             @Specialization(guards = {"storage.getStore().getShape().isValid()", "exceedsLimit(storage)"})
             protected HashingStorage doDynamicObjectGeneralize(FastDictStorage storage, String name, Object value) {
-                HashingStorage newStorage = switchToEconomicMap(storage);
-                newStorage.setItem(name, value, getEquivalence());
+                StringKeyedStorage newStorage = switchToStringKeyedStorage(storage);
+                newStorage.setItem(name, value);
                 return newStorage;
             }
 
@@ -1113,11 +1254,9 @@ public abstract class HashingStorageNodes {
                         store.define(skey, val);
                         InvalidateMroNode.getUncached().execute(s, skey, val);
                     } else {
-                        // switch to economic map
-                        Equivalence slowPathEquivalence = HashingStorage.getSlowPathEquivalence(skey);
-                        EconomicMapStorage newStorage = EconomicMapStorage.create(s.length() + 1, false);
-                        newStorage.addAll(s, slowPathEquivalence);
-                        newStorage.setItem(skey, val, slowPathEquivalence);
+                        // switch to string keyed storage
+                        StringKeyedStorage newStorage = switchToStringKeyedStorage(s);
+                        newStorage.setItem(skey, val);
                         return newStorage;
                     }
                 }
@@ -1273,6 +1412,33 @@ public abstract class HashingStorageNodes {
             return storage.getItem(key, getEquivalence());
         }
 
+        @Specialization
+        static Object doIntKeyed(IntKeyedStorage storage, int key) {
+            return storage.getItem(key);
+        }
+
+        @Specialization
+        static Object doIntKeyed(IntKeyedStorage storage, long key) {
+            return storage.getItem(key);
+        }
+
+        @Specialization
+        static Object doStringKeyed(StringKeyedStorage storage, String key) {
+            return storage.getItem(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        Object doStringKeyed(StringKeyedStorage storage, PString key) {
+            return storage.getItem(key.getValue());
+        }
+
+        // keys of other types are compared via their '__eq__'
+        @Specialization(guards = "lib.isHashable(key)", limit = "1")
+        Object doGeneric(CompactKeyedStorage storage, Object key,
+                        @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
+            return storage.getItem(key, getEquivalence());
+        }
+
         @Specialization(guards = "!lib.isHashable(key)", limit = "1")
         Object doUnhashable(@SuppressWarnings("unused") HashingStorage storage, Object key,
                         @SuppressWarnings("unused") @CachedLibrary("key") PythonObjectLibrary lib) {
@@ -1578,6 +1744,38 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Specialization
+        protected boolean doIntKeyed(@SuppressWarnings("unused") PHashingCollection container, IntKeyedStorage storage, int key) {
+            return storage.remove(key);
+        }
+
+        @Specialization
+        protected boolean doIntKeyed(@SuppressWarnings("unused") PHashingCollection container, IntKeyedStorage storage, long key) {
+            return storage.remove(key);
+        }
+
+        @Specialization
+        protected boolean doStringKeyed(@SuppressWarnings("unused") PHashingCollection container, StringKeyedStorage storage, String key) {
+            return storage.remove(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean doStringKeyed(@SuppressWarnings("unused") PHashingCollection container, StringKeyedStorage storage, PString key) {
+            return storage.remove(key.getValue());
+        }
+
+        @Specialization
+        @SuppressWarnings("try")
+        protected boolean doCompactKeyed(VirtualFrame frame, @SuppressWarnings("unused") PHashingCollection container, CompactKeyedStorage storage, Object key) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                return storage.remove(key, getEquivalence());
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
         public static DelItemNode create() {
             return DelItemNodeGen.create();
         }
@@ -1640,9 +1838,16 @@ public abstract class HashingStorageNodes {
                     setItemNode = insert(SetItemNode.create());
                 }
 
-                for (Object leftKey : left.keys()) {
-                    if (containsKeyNode.execute(frame, right, leftKey)) {
-                        newStorage = setItemNode.execute(frame, newStorage, leftKey, PNone.NO_VALUE);
+                // iterate the smaller operand and probe the larger one
+                HashingStorage smaller = left;
+                HashingStorage larger = right;
+                if (left.length() > right.length()) {
+                    smaller = right;
+                    larger = left;
+                }
+                for (Object key : smaller.keys()) {
+                    if (containsKeyNode.execute(frame, larger, key)) {
+                        newStorage = setItemNode.execute(frame, newStorage, key, PNone.NO_VALUE);
                     }
                 }
             }
@@ -1671,12 +1876,8 @@ public abstract class HashingStorageNodes {
             PythonContext context = getContextRef().get();
             Object state = IndirectCallContext.enter(frame, context, this);
             try {
-                for (Object key : left.keys()) {
-                    newStorage.setItem(key, PNone.NO_VALUE, getEquivalence());
-                }
-                for (Object key : right.keys()) {
-                    newStorage.setItem(key, PNone.NO_VALUE, getEquivalence());
-                }
+                newStorage.addAllKeys(left, PNone.NO_VALUE, getEquivalence());
+                newStorage.addAllKeys(right, PNone.NO_VALUE, getEquivalence());
                 return newStorage;
             } finally {
                 IndirectCallContext.exit(frame, context, state);
@@ -1707,6 +1908,48 @@ public abstract class HashingStorageNodes {
         }
     }
 
+    /**
+     * Adds all entries of {@code right} to {@code left} in place. Returns the resulting storage,
+     * which differs from {@code left} if the storage had to be generalized.
+     */
+    public abstract static class AddAllNode extends DictStorageBaseNode {
+
+        public abstract HashingStorage execute(VirtualFrame frame, HashingStorage left, HashingStorage right);
+
+        @Specialization
+        HashingStorage doEmpty(VirtualFrame frame, @SuppressWarnings("unused") EmptyStorage left, HashingStorage right,
+                        @Cached("create()") CopyNode copyNode) {
+            return copyNode.execute(frame, right);
+        }
+
+        @Specialization
+        @SuppressWarnings("try")
+        HashingStorage doEconomicMap(VirtualFrame frame, EconomicMapStorage left, EconomicMapStorage right) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                left.addAll(right, getEquivalence());
+                return left;
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
+        @Specialization
+        HashingStorage doGeneric(VirtualFrame frame, HashingStorage left, HashingStorage right,
+                        @Cached("create()") SetItemNode setItemNode) {
+            HashingStorage newStorage = left;
+            for (DictEntry entry : right.entries()) {
+                newStorage = setItemNode.execute(frame, newStorage, entry.getKey(), entry.getValue());
+            }
+            return newStorage;
+        }
+
+        public static AddAllNode create() {
+            return AddAllNodeGen.create();
+        }
+    }
+
     public static class ExclusiveOrNode extends Node {
         @Child private ContainsKeyNode containsKeyNode;
         @Child private SetItemNode setItemNode;
@@ -1828,6 +2071,7 @@ public abstract class HashingStorageNodes {
                         @Cached BranchProfile leftEmpty,
                         @Cached BranchProfile rightEmpty,
                         @Cached BranchProfile neitherEmpty,
+                        @Cached("createBinaryProfile()") ConditionProfile removeProfile,
                         @Cached("create()") SetItemNode setItemNode) {
             if (leftClass.cast(left).length() == 0) {
                 leftEmpty.enter();
@@ -1844,6 +2088,9 @@ public abstract class HashingStorageNodes {
                 }
             }
             neitherEmpty.enter();
+            if (removeProfile.profile(removeFromCopy(left, right))) {
+                return copyAndRemove(frame, (EconomicMapStorage) left, right);
+            }
             HashingStorage newStorage = EconomicMapStorage.create(false);
             for (Object leftKey : leftClass.cast(left).keys()) {
                 if (!containsKeyNode.execute(frame, right, leftKey)) {
@@ -1869,8 +2116,11 @@ public abstract class HashingStorageNodes {
         @Specialization(replaces = "doNonEmptyCached")
         public HashingStorage doNonEmpty(VirtualFrame frame, HashingStorage left, HashingStorage right,
                         @Cached("create()") ContainsKeyNode containsKeyNode,
+                        @Cached("createBinaryProfile()") ConditionProfile removeProfile,
                         @Cached("create()") SetItemNode setItemNode) {
-
+            if (removeProfile.profile(removeFromCopy(left, right))) {
+                return copyAndRemove(frame, (EconomicMapStorage) left, right);
+            }
             HashingStorage newStorage = EconomicMapStorage.create(false);
             for (Object leftKey : left.keys()) {
                 if (!containsKeyNode.execute(frame, right, leftKey)) {
@@ -1880,6 +2130,30 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        /**
+         * Like CPython, a much larger left operand is copied (reusing its cached hashes) and the
+         * keys of the right operand are removed from the copy, instead of probing the right operand
+         * for every key on the left.
+         */
+        protected static boolean removeFromCopy(HashingStorage left, HashingStorage right) {
+            return left instanceof EconomicMapStorage && (left.length() >> 2) > right.length();
+        }
+
+        @SuppressWarnings("try")
+        private HashingStorage copyAndRemove(VirtualFrame frame, EconomicMapStorage left, HashingStorage right) {
+            PythonContext context = getContextRef().get();
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                HashingStorage newStorage = left.copy(getEquivalence());
+                for (Object key : right.keys()) {
+                    newStorage.remove(key, getEquivalence());
+                }
+                return newStorage;
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
         public static DiffNode create() {
             return DiffNodeGen.create();
         }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+
+/**
+ * Storage for dicts and sets whose keys are all Python {@code int} values that fit into a Java
+ * {@code long}. The keys are kept unboxed in a {@code long[]}, so setting, getting and removing
+ * such keys neither allocates nor calls {@code __hash__} or {@code __eq__}.
+ *
+ * Setting a key of another type that is not equal to an existing key throws
+ * {@link UnmodifiableStorageException}; the storage nodes then switch to the storage returned by
+ * {@link #generalizeFor}.
+ */
+public final class IntKeyedStorage extends CompactKeyedStorage {
+
+    private long[] keys;
+
+    public IntKeyedStorage() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public IntKeyedStorage(int initialCapacity) {
+        super(initialCapacity);
+        keys = new long[values.length];
+    }
+
+    private IntKeyedStorage(IntKeyedStorage other) {
+        super(other);
+        keys = other.keys.clone();
+    }
+
+    public static boolean isNativeKey(Object key) {
+        return key instanceof Integer || key instanceof Long;
+    }
+
+    private static long asLong(Object key) {
+        return key instanceof Integer ? (int) key : (long) key;
+    }
+
+    /**
+     * Same as {@code Long.hashCode(PythonObjectLibrary.hash(key))}.
+     */
+    private static int hash(long key) {
+        return Long.hashCode(key);
+    }
+
+    @Override
+    protected int entryHash(int index) {
+        return hash(keys[index]);
+    }
+
+    @Override
+    protected Object entryKey(int index) {
+        // ints are represented as Integer wherever they fit, so narrow the key like the
+        // arithmetic nodes narrow their results
+        long key = keys[index];
+        if ((int) key == key) {
+            return (int) key;
+        }
+        return key;
+    }
+
+    @Override
+    protected void resizeKeys(int newLength) {
+        keys = Arrays.copyOf(keys, newLength);
+    }
+
+    @Override
+    protected void moveKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    @Override
+    protected void clearKeys() {
+        keys = new long[INITIAL_CAPACITY];
+    }
+
+    private int findSlot(long key) {
+        int hash = hash(key);
+        int mask = indices.length - 1;
+        int perturb = hash;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int entry = indices[slot];
+            if (entry == EMPTY) {
+                return -1;
+            } else if (entry != DUMMY && keys[entry - 1] == key) {
+                return slot;
+            }
+            perturb >>>= PERTURB_SHIFT;
+            slot = nextSlot(slot, perturb, mask);
+        }
+    }
+
+    public Object getItem(long key) {
+        int slot = findSlot(key);
+        return slot == -1 ? null : values[indices[slot] - 1];
+    }
+
+    public boolean hasKey(long key) {
+        return findSlot(key) != -1;
+    }
+
+    public void setItem(long key, Object value) {
+        int slot = findSlot(key);
+        if (slot != -1) {
+            values[indices[slot] - 1] = value;
+            return;
+        }
+        int index = reserveEntry();
+        keys[index] = key;
+        insertEntry(index, hash(key), value);
+    }
+
+    public boolean remove(long key) {
+        int slot = findSlot(key);
+        if (slot != -1) {
+            removeSlot(slot);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        if (isNativeKey(key)) {
+            return getItem(asLong(key));
+        }
+        return super.getItem(key, eq);
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        if (isNativeKey(key)) {
+            return hasKey(asLong(key));
+        }
+        return super.hasKey(key, eq);
+    }
+
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (isNativeKey(key)) {
+            setItem(asLong(key), value);
+        } else if (!replaceForeign(key, value, eq)) {
+            throw UnmodifiableStorageException.INSTANCE;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        if (isNativeKey(key)) {
+            return remove(asLong(key));
+        }
+        return super.remove(key, eq);
+    }
+
+    @Override
+    public HashingStorage copy(Equivalence eq) {
+        return new IntKeyedStorage(this);
+    }
+}
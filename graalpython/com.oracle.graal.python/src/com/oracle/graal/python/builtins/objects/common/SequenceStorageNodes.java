@@ -315,6 +315,19 @@ public abstract class SequenceStorageNodes {
             return store instanceof NativeSequenceStorage;
         }
 
+        /**
+         * Copies elements between internal arrays of managed storages of the class of
+         * {@code storage}. Bool storages pack their elements into bits, so their arrays cannot be
+         * copied with {@link System#arraycopy}.
+         */
+        protected static void arraycopy(SequenceStorage storage, Object src, int srcPos, Object dest, int destPos, int length) {
+            if (storage instanceof BoolSequenceStorage) {
+                BoolSequenceStorage.copyBits((long[]) src, srcPos, (long[]) dest, destPos, length);
+            } else {
+                System.arraycopy(src, srcPos, dest, destPos, length);
+            }
+        }
+
         protected boolean isEmpty(SequenceStorage left) {
             if (lenNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -530,11 +543,13 @@ public abstract class SequenceStorageNodes {
         @Child private PRaiseNode raiseNode;
         private final String keyTypeErrorMessage;
         private final BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod;
+        private final boolean immutable;
 
-        public GetItemNode(NormalizeIndexNode normalizeIndexNode, String keyTypeErrorMessage, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
+        public GetItemNode(NormalizeIndexNode normalizeIndexNode, String keyTypeErrorMessage, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod, boolean immutable) {
             super(normalizeIndexNode);
             this.keyTypeErrorMessage = keyTypeErrorMessage;
             this.factoryMethod = factoryMethod;
+            this.immutable = immutable;
         }
 
         public abstract Object execute(VirtualFrame frame, SequenceStorage s, Object key);
@@ -570,15 +585,34 @@ public abstract class SequenceStorageNodes {
         @Specialization
         protected Object doSlice(SequenceStorage storage, PSlice slice,
                         @Cached LenNode lenNode,
-                        @Cached PythonObjectFactory factory) {
+                        @Cached PythonObjectFactory factory,
+                        @Cached("createBinaryProfile()") ConditionProfile sliceViewProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile viewProfile) {
             SliceInfo info = slice.computeIndices(lenNode.execute(storage));
             if (factoryMethod != null) {
-                return factoryMethod.apply(getGetItemSliceNode().execute(storage, info.start, info.stop, info.step, info.length), factory);
+                SequenceStorage result;
+                if (sliceViewProfile.profile(immutable && canUseSliceView(storage, info))) {
+                    // the elements of neither storage can change, so we can share the array
+                    result = ((ByteSequenceStorage) storage).getSliceView(info.start, info.length);
+                } else if (viewProfile.profile(immutable && canUsePrefixView(storage, info))) {
+                    result = ((BasicSequenceStorage) storage).getPrefixView(info.length);
+                } else {
+                    result = getGetItemSliceNode().execute(storage, info.start, info.stop, info.step, info.length);
+                }
+                return factoryMethod.apply(result, factory);
             }
             CompilerDirectives.transferToInterpreter();
             throw new IllegalStateException();
         }
 
+        private static boolean canUseSliceView(SequenceStorage storage, SliceInfo info) {
+            return info.step == 1 && storage instanceof ByteSequenceStorage && ((ByteSequenceStorage) storage).isSliceViewProfitable(info.length);
+        }
+
+        private static boolean canUsePrefixView(SequenceStorage storage, SliceInfo info) {
+            return info.start == 0 && info.step == 1 && storage instanceof BasicSequenceStorage && ((BasicSequenceStorage) storage).isPrefixViewProfitable(info.length);
+        }
+
         @Fallback
         protected Object doInvalidKey(@SuppressWarnings("unused") SequenceStorage storage, Object key) {
             throw ensureRaiseNode().raise(TypeError, keyTypeErrorMessage, key);
@@ -609,35 +643,47 @@ public abstract class SequenceStorageNodes {
         }
 
         public static GetItemNode createNotNormalized() {
-            return GetItemNodeGen.create(null, KEY_TYPE_ERROR_MESSAGE, null);
+            return GetItemNodeGen.create(null, KEY_TYPE_ERROR_MESSAGE, null, false);
         }
 
         public static GetItemNode create(NormalizeIndexNode normalizeIndexNode) {
-            return GetItemNodeGen.create(normalizeIndexNode, KEY_TYPE_ERROR_MESSAGE, null);
+            return GetItemNodeGen.create(normalizeIndexNode, KEY_TYPE_ERROR_MESSAGE, null, false);
         }
 
         public static GetItemNode create() {
-            return GetItemNodeGen.create(NormalizeIndexNode.create(), KEY_TYPE_ERROR_MESSAGE, null);
+            return GetItemNodeGen.create(NormalizeIndexNode.create(), KEY_TYPE_ERROR_MESSAGE, null, false);
         }
 
         public static GetItemNode createNotNormalized(String keyTypeErrorMessage) {
-            return GetItemNodeGen.create(null, keyTypeErrorMessage, null);
+            return GetItemNodeGen.create(null, keyTypeErrorMessage, null, false);
         }
 
         public static GetItemNode create(NormalizeIndexNode normalizeIndexNode, String keyTypeErrorMessage) {
-            return GetItemNodeGen.create(normalizeIndexNode, keyTypeErrorMessage, null);
+            return GetItemNodeGen.create(normalizeIndexNode, keyTypeErrorMessage, null, false);
         }
 
         public static GetItemNode create(String keyTypeErrorMessage) {
-            return GetItemNodeGen.create(NormalizeIndexNode.create(), keyTypeErrorMessage, null);
+            return GetItemNodeGen.create(NormalizeIndexNode.create(), keyTypeErrorMessage, null, false);
         }
 
         public static GetItemNode create(NormalizeIndexNode normalizeIndexNode, String keyTypeErrorMessage, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
-            return GetItemNodeGen.create(normalizeIndexNode, keyTypeErrorMessage, factoryMethod);
+            return GetItemNodeGen.create(normalizeIndexNode, keyTypeErrorMessage, factoryMethod, false);
         }
 
         public static GetItemNode create(NormalizeIndexNode normalizeIndexNode, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
-            return GetItemNodeGen.create(normalizeIndexNode, KEY_TYPE_ERROR_MESSAGE, factoryMethod);
+            return GetItemNodeGen.create(normalizeIndexNode, KEY_TYPE_ERROR_MESSAGE, factoryMethod, false);
+        }
+
+        /**
+         * Creates a node for an immutable sequence type like {@code tuple} or {@code bytes}, whose
+         * big prefix slices share the storage of the sliced object.
+         */
+        public static GetItemNode createForImmutable(NormalizeIndexNode normalizeIndexNode, String keyTypeErrorMessage, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
+            return GetItemNodeGen.create(normalizeIndexNode, keyTypeErrorMessage, factoryMethod, true);
+        }
+
+        public static GetItemNode createForImmutable(NormalizeIndexNode normalizeIndexNode, BiFunction<SequenceStorage, PythonObjectFactory, Object> factoryMethod) {
+            return GetItemNodeGen.create(normalizeIndexNode, KEY_TYPE_ERROR_MESSAGE, factoryMethod, true);
         }
 
     }
@@ -2143,7 +2189,7 @@ public abstract class SequenceStorageNodes {
             int len1 = leftProfiled.length();
             Object arr2 = rightProfiled.getInternalArrayObject();
             int len2 = rightProfiled.length();
-            concat(destProfiled.getInternalArrayObject(), arr1, len1, arr2, len2);
+            concat(destProfiled, destProfiled.getInternalArrayObject(), arr1, len1, arr2, len2);
             getSetLenNode().execute(destProfiled, len1 + len2);
             return destProfiled;
         }
@@ -2155,7 +2201,7 @@ public abstract class SequenceStorageNodes {
             SequenceStorage rightProfiled = cachedClass.cast(right);
             Object arr2 = rightProfiled.getInternalArrayObject();
             int len2 = rightProfiled.length();
-            System.arraycopy(arr2, 0, destProfiled.getInternalArrayObject(), 0, len2);
+            arraycopy(destProfiled, arr2, 0, destProfiled.getInternalArrayObject(), 0, len2);
             getSetLenNode().execute(destProfiled, len2);
             return destProfiled;
         }
@@ -2167,7 +2213,7 @@ public abstract class SequenceStorageNodes {
             SequenceStorage leftProfiled = cachedClass.cast(left);
             Object arr1 = leftProfiled.getInternalArrayObject();
             int len1 = leftProfiled.length();
-            System.arraycopy(arr1, 0, destProfiled.getInternalArrayObject(), 0, len1);
+            arraycopy(destProfiled, arr1, 0, destProfiled.getInternalArrayObject(), 0, len1);
             getSetLenNode().execute(destProfiled, len1);
             return destProfiled;
         }
@@ -2222,9 +2268,9 @@ public abstract class SequenceStorageNodes {
             return setLenNode;
         }
 
-        private static void concat(Object dest, Object arr1, int len1, Object arr2, int len2) {
-            System.arraycopy(arr1, 0, dest, 0, len1);
-            System.arraycopy(arr2, 0, dest, len1, len2);
+        private static void concat(SequenceStorage destStorage, Object dest, Object arr1, int len1, Object arr2, int len2) {
+            arraycopy(destStorage, arr1, 0, dest, 0, len1);
+            arraycopy(destStorage, arr2, 0, dest, len1, len2);
         }
 
         public static ConcatBaseNode create() {
@@ -2425,9 +2471,11 @@ public abstract class SequenceStorageNodes {
                         @Shared("raiseNode") @Cached PRaiseNode raiseNode,
                         @Cached BranchProfile outOfMemProfile) {
             try {
-                boolean[] repeated = new boolean[Math.multiplyExact(s.length(), times)];
-                Arrays.fill(repeated, s.getBoolItemNormalized(0));
-                return new BoolSequenceStorage(repeated);
+                int newLength = Math.multiplyExact(s.length(), times);
+                BoolSequenceStorage repeated = new BoolSequenceStorage(newLength);
+                repeated.fillBool(s.getBoolItemNormalized(0));
+                repeated.setNewLength(newLength);
+                return repeated;
             } catch (OutOfMemoryError | ArithmeticException e) {
                 outOfMemProfile.enter();
                 throw raiseNode.raise(MemoryError);
@@ -2536,7 +2584,7 @@ public abstract class SequenceStorageNodes {
                 int newLength = Math.multiplyExact(len, times);
                 SequenceStorage repeated = profiled.createEmpty(newLength);
                 Object destArr = repeated.getInternalArrayObject();
-                repeat(destArr, arr1, len, times);
+                repeat(profiled, destArr, arr1, len, times);
                 repeated.setNewLength(newLength);
                 return repeated;
             } catch (OutOfMemoryError | ArithmeticException e) {
@@ -2595,9 +2643,9 @@ public abstract class SequenceStorageNodes {
             return getItemNode;
         }
 
-        private static void repeat(Object dest, Object src, int len, int times) {
+        private static void repeat(SequenceStorage storage, Object dest, Object src, int len, int times) {
             for (int i = 0; i < times; i++) {
-                System.arraycopy(src, 0, dest, i * len, len);
+                arraycopy(storage, src, 0, dest, i * len, len);
             }
         }
 
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Storage for dicts and sets whose keys are all Java strings, used instead of a
+ * {@link DynamicObjectStorage} once such a dict outgrows {@link DynamicObjectStorage#SIZE_THRESHOLD}.
+ * Keys are compared with {@link String#equals} and hashed with the hash code that
+ * {@link String} caches, so lookups of string keys never call {@code __eq__}.
+ *
+ * Setting a key of another type that is not equal to an existing key throws
+ * {@link UnmodifiableStorageException}; the storage nodes then switch to the storage returned by
+ * {@link #generalizeFor}.
+ */
+public final class StringKeyedStorage extends CompactKeyedStorage {
+
+    private String[] keys;
+
+    public StringKeyedStorage() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public StringKeyedStorage(int initialCapacity) {
+        super(initialCapacity);
+        keys = new String[values.length];
+    }
+
+    private StringKeyedStorage(StringKeyedStorage other) {
+        super(other);
+        keys = other.keys.clone();
+    }
+
+    /**
+     * Same as {@code Long.hashCode(PythonObjectLibrary.hash(key))}.
+     */
+    private static int hash(String key) {
+        return Long.hashCode(key.hashCode());
+    }
+
+    @Override
+    protected int entryHash(int index) {
+        return hash(keys[index]);
+    }
+
+    @Override
+    protected Object entryKey(int index) {
+        return keys[index];
+    }
+
+    @Override
+    protected void resizeKeys(int newLength) {
+        keys = Arrays.copyOf(keys, newLength);
+    }
+
+    @Override
+    protected void moveKey(int from, int to) {
+        keys[to] = keys[from];
+        keys[from] = null;
+    }
+
+    @Override
+    protected void clearKey(int index) {
+        keys[index] = null;
+    }
+
+    @Override
+    protected void clearKeys() {
+        keys = new String[INITIAL_CAPACITY];
+    }
+
+    @TruffleBoundary
+    private static boolean stringEquals(String a, String b) {
+        return a.equals(b);
+    }
+
+    private int findSlot(String key) {
+        int hash = hash(key);
+        int mask = indices.length - 1;
+        int perturb = hash;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int entry = indices[slot];
+            if (entry == EMPTY) {
+                return -1;
+            } else if (entry != DUMMY) {
+                String entryKey = keys[entry - 1];
+                if (entryKey == key || entryKey.hashCode() == key.hashCode() && stringEquals(entryKey, key)) {
+                    return slot;
+                }
+            }
+            perturb >>>= PERTURB_SHIFT;
+            slot = nextSlot(slot, perturb, mask);
+        }
+    }
+
+    public Object getItem(String key) {
+        int slot = findSlot(key);
+        return slot == -1 ? null : values[indices[slot] - 1];
+    }
+
+    public boolean hasKey(String key) {
+        return findSlot(key) != -1;
+    }
+
+    public void setItem(String key, Object value) {
+        int slot = findSlot(key);
+        if (slot != -1) {
+            values[indices[slot] - 1] = value;
+            return;
+        }
+        int index = reserveEntry();
+        keys[index] = key;
+        insertEntry(index, hash(key), value);
+    }
+
+    public boolean remove(String key) {
+        int slot = findSlot(key);
+        if (slot != -1) {
+            removeSlot(slot);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return getItem((String) key);
+        }
+        return super.getItem(key, eq);
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return hasKey((String) key);
+        }
+        return super.hasKey(key, eq);
+    }
+
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (key instanceof String) {
+            setItem((String) key, value);
+        } else if (!replaceForeign(key, value, eq)) {
+            throw UnmodifiableStorageException.INSTANCE;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return remove((String) key);
+        }
+        return super.remove(key, eq);
+    }
+
+    @Override
+    public HashingStorage copy(Equivalence eq) {
+        return new StringKeyedStorage(this);
+    }
+}
@@ -0,0 +1,649 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REVERSED__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.PythonCore;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.DoubleDequeStorage;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.IntDequeStorage;
+import com.oracle.graal.python.builtins.objects.deque.DequeStorage.ObjectDequeStorage;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode.CannotCastException;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDeque)
+public class DequeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DequeBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put(__HASH__, PNone.NONE);
+    }
+
+    /**
+     * Makes room for one more element on the right of a bounded deque by dropping the leftmost
+     * one. Returns {@code false} if nothing can be added at all.
+     */
+    static boolean trimLeft(PDeque self) {
+        int maxLength = self.getMaxLength();
+        if (maxLength == 0) {
+            return false;
+        }
+        if (self.getLength() == maxLength) {
+            self.getStorage().popLeft();
+        }
+        return true;
+    }
+
+    static boolean trimRight(PDeque self) {
+        int maxLength = self.getMaxLength();
+        if (maxLength == 0) {
+            return false;
+        }
+        if (self.getLength() == maxLength) {
+            self.getStorage().pop();
+        }
+        return true;
+    }
+
+    static DequeStorage storageFor(PDeque self, Object value) {
+        DequeStorage storage = self.getStorage();
+        if (!storage.accepts(value)) {
+            storage = storage.generalizeFor(value);
+            self.setStorage(storage);
+        }
+        return storage;
+    }
+
+    /**
+     * Converts a subscript to an index through {@code __index__}, like the subscripts of lists. An
+     * index that does not fit into an {@code int} is out of range anyway.
+     */
+    static int asIndex(VirtualFrame frame, PythonObjectLibrary lib, Object index) {
+        return lib.asSizeWithState(index, PythonBuiltinClassType.IndexError, PArguments.getThreadState(frame));
+    }
+
+    static int normalizeIndex(PythonBuiltinBaseNode node, PDeque self, int index) {
+        int len = self.getLength();
+        int idx = index < 0 ? index + len : index;
+        if (idx < 0 || idx >= len) {
+            throw node.raise(IndexError, "deque index out of range");
+        }
+        return idx;
+    }
+
+    static void checkState(PythonBuiltinBaseNode node, PDeque self, int state) {
+        if (self.getState() != state) {
+            throw node.raise(RuntimeError, "deque mutated during iteration");
+        }
+    }
+
+    // deque([iterable[, maxlen]])
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"self", "iterable", "maxlen"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonTernaryBuiltinNode {
+        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
+        PNone init(VirtualFrame frame, PDeque self, Object iterable, Object maxlen,
+                        @CachedLibrary("maxlen") PythonObjectLibrary lib,
+                        @Cached ExtendNode extendNode) {
+            int maxLength = PDeque.UNBOUNDED;
+            if (!PGuards.isPNone(maxlen)) {
+                maxLength = lib.asSizeWithState(maxlen, PArguments.getThreadState(frame));
+                if (maxLength < 0) {
+                    throw raise(ValueError, "maxlen must be non-negative");
+                }
+            }
+            self.setMaxLength(maxLength);
+            if (self.getLength() > 0) {
+                self.clear();
+            }
+            if (!PGuards.isNoValue(iterable)) {
+                extendNode.execute(frame, self, iterable);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "append", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendNode extends PythonBinaryBuiltinNode {
+        public abstract PNone execute(PDeque self, Object value);
+
+        @Specialization(guards = {"self.hasIntStorage()", "!self.isBounded()"})
+        static PNone appendInt(PDeque self, int value) {
+            ((IntDequeStorage) self.getStorage()).appendInt(value);
+            self.modified();
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"self.hasDoubleStorage()", "!self.isBounded()"})
+        static PNone appendDouble(PDeque self, double value) {
+            ((DoubleDequeStorage) self.getStorage()).appendDouble(value);
+            self.modified();
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"self.hasObjectStorage()", "!self.isBounded()"})
+        static PNone appendObject(PDeque self, Object value) {
+            ((ObjectDequeStorage) self.getStorage()).appendObject(value);
+            self.modified();
+            return PNone.NONE;
+        }
+
+        @Specialization
+        static PNone appendGeneric(PDeque self, Object value) {
+            if (!self.isBounded() || trimLeft(self)) {
+                storageFor(self, value).append(value);
+                self.modified();
+            }
+            return PNone.NONE;
+        }
+
+        public static AppendNode create() {
+            return DequeBuiltinsFactory.AppendNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "appendleft", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendLeftNode extends PythonBinaryBuiltinNode {
+        public abstract PNone execute(PDeque self, Object value);
+
+        @Specialization(guards = {"self.hasIntStorage()", "!self.isBounded()"})
+        static PNone appendInt(PDeque self, int value) {
+            ((IntDequeStorage) self.getStorage()).appendLeftInt(value);
+            self.modified();
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"self.hasDoubleStorage()", "!self.isBounded()"})
+        static PNone appendDouble(PDeque self, double value) {
+            ((DoubleDequeStorage) self.getStorage()).appendLeftDouble(value);
+            self.modified();
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"self.hasObjectStorage()", "!self.isBounded()"})
+        static PNone appendObject(PDeque self, Object value) {
+            ((ObjectDequeStorage) self.getStorage()).appendLeftObject(value);
+            self.modified();
+            return PNone.NONE;
+        }
+
+        @Specialization
+        static PNone appendGeneric(PDeque self, Object value) {
+            if (!self.isBounded() || trimRight(self)) {
+                storageFor(self, value).appendLeft(value);
+                self.modified();
+            }
+            return PNone.NONE;
+        }
+
+        public static AppendLeftNode create() {
+            return DequeBuiltinsFactory.AppendLeftNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "pop", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class PopNode extends PythonUnaryBuiltinNode {
+        @Specialization(guards = "self.hasIntStorage()")
+        int popInt(PDeque self) {
+            checkNotEmpty(this, self);
+            self.modified();
+            return ((IntDequeStorage) self.getStorage()).popInt();
+        }
+
+        @Specialization(guards = "self.hasDoubleStorage()")
+        double popDouble(PDeque self) {
+            checkNotEmpty(this, self);
+            self.modified();
+            return ((DoubleDequeStorage) self.getStorage()).popDouble();
+        }
+
+        @Specialization(guards = "self.hasObjectStorage()")
+        Object popObject(PDeque self) {
+            checkNotEmpty(this, self);
+            self.modified();
+            return self.getStorage().pop();
+        }
+
+        @Specialization(guards = "self.hasEmptyStorage()")
+        Object popEmpty(@SuppressWarnings("unused") PDeque self) {
+            throw raise(IndexError, "pop from an empty deque");
+        }
+
+        static void checkNotEmpty(PythonBuiltinBaseNode node, PDeque self) {
+            if (self.getLength() == 0) {
+                throw node.raise(IndexError, "pop from an empty deque");
+            }
+        }
+    }
+
+    @Builtin(name = "popleft", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class PopLeftNode extends PythonUnaryBuiltinNode {
+        @Specialization(guards = "self.hasIntStorage()")
+        int popInt(PDeque self) {
+            PopNode.checkNotEmpty(this, self);
+            self.modified();
+            return ((IntDequeStorage) self.getStorage()).popLeftInt();
+        }
+
+        @Specialization(guards = "self.hasDoubleStorage()")
+        double popDouble(PDeque self) {
+            PopNode.checkNotEmpty(this, self);
+            self.modified();
+            return ((DoubleDequeStorage) self.getStorage()).popLeftDouble();
+        }
+
+        @Specialization(guards = "self.hasObjectStorage()")
+        Object popObject(PDeque self) {
+            PopNode.checkNotEmpty(this, self);
+            self.modified();
+            return self.getStorage().popLeft();
+        }
+
+        @Specialization(guards = "self.hasEmptyStorage()")
+        Object popEmpty(@SuppressWarnings("unused") PDeque self) {
+            throw raise(IndexError, "pop from an empty deque");
+        }
+    }
+
+    @Builtin(name = "extend", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendNode extends PythonBinaryBuiltinNode {
+        public abstract PNone execute(VirtualFrame frame, PDeque self, Object iterable);
+
+        @Specialization
+        static PNone extendDeque(PDeque self, PDeque other,
+                        @Cached AppendNode appendNode) {
+            // copy first, 'other' may be 'self'
+            for (Object value : other.getStorage().toArray()) {
+                appendNode.execute(self, value);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPDeque(iterable)")
+        static PNone extend(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode next,
+                        @Cached IsBuiltinClassProfile errorProfile,
+                        @Cached AppendNode appendNode) {
+            Object iterator = getIterator.executeWith(frame, iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = next.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return PNone.NONE;
+                }
+                appendNode.execute(self, value);
+            }
+        }
+
+        protected static boolean isPDeque(Object value) {
+            return value instanceof PDeque;
+        }
+
+        public static ExtendNode create() {
+            return DequeBuiltinsFactory.ExtendNodeFactory.create();
+        }
+    }
+
+    @Builtin(name = "extendleft", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendLeftNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PNone extendDeque(PDeque self, PDeque other,
+                        @Cached AppendLeftNode appendNode) {
+            for (Object value : other.getStorage().toArray()) {
+                appendNode.execute(self, value);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPDeque(iterable)")
+        static PNone extend(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached GetIteratorNode getIterator,
+                        @Cached GetNextNode next,
+                        @Cached IsBuiltinClassProfile errorProfile,
+                        @Cached AppendLeftNode appendNode) {
+            Object iterator = getIterator.executeWith(frame, iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = next.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return PNone.NONE;
+                }
+                appendNode.execute(self, value);
+            }
+        }
+
+        protected static boolean isPDeque(Object value) {
+            return value instanceof PDeque;
+        }
+    }
+
+    @Builtin(name = "insert", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class InsertNode extends PythonTernaryBuiltinNode {
+        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
+        PNone insert(VirtualFrame frame, PDeque self, Object index, Object value,
+                        @CachedLibrary("index") PythonObjectLibrary lib) {
+            int idx = lib.asSizeWithState(index, PArguments.getThreadState(frame));
+            int len = self.getLength();
+            if (self.isBounded() && len >= self.getMaxLength()) {
+                throw raise(IndexError, "deque already at its maximum size");
+            }
+            if (idx < 0) {
+                idx = Math.max(0, idx + len);
+            } else if (idx > len) {
+                idx = len;
+            }
+            storageFor(self, value).insert(idx, value);
+            self.modified();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "rotate", minNumOfPositionalArgs = 1, parameterNames = {"self", "n"})
+    @GenerateNodeFactory
+    public abstract static class RotateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PNone rotate(PDeque self, @SuppressWarnings("unused") PNone n) {
+            self.getStorage().rotate(1);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        static PNone rotate(PDeque self, int n) {
+            self.getStorage().rotate(n);
+            return PNone.NONE;
+        }
+
+        @Specialization(replaces = "rotate(PDeque, int)")
+        PNone rotate(PDeque self, Object n,
+                        @Cached CastToJavaLongNode castToLong) {
+            long steps;
+            try {
+                steps = castToLong.execute(n);
+            } catch (CannotCastException e) {
+                throw raise(TypeError, "'%p' object cannot be interpreted as an integer", n);
+            }
+            self.getStorage().rotate(steps);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "clear", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PNone clear(PDeque self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "reverse", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReverseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PNone reverse(PDeque self) {
+            self.getStorage().reverse();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "count", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int count(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int state = self.getState();
+            int count = 0;
+            for (int i = 0; i < self.getLength(); i++) {
+                boolean eq = eqNode.executeBool(frame, self.getStorage().getItem(i), value);
+                checkState(this, self, state);
+                if (eq) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    @Builtin(name = __CONTAINS__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ContainsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean contains(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int state = self.getState();
+            for (int i = 0; i < self.getLength(); i++) {
+                boolean eq = eqNode.executeBool(frame, self.getStorage().getItem(i), value);
+                checkState(this, self, state);
+                if (eq) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // deque.index(x[, start[, stop]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, parameterNames = {"self", "x", "start", "stop"})
+    @GenerateNodeFactory
+    public abstract static class IndexNode extends PythonBuiltinNode {
+        @Specialization
+        int index(VirtualFrame frame, PDeque self, Object value, Object start, Object stop,
+                        @CachedLibrary(limit = "2") PythonObjectLibrary lib,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            int len = self.getLength();
+            int startIdx = PGuards.isNoValue(start) ? 0 : clampIndex(lib.asSizeWithState(start, PArguments.getThreadState(frame)), len);
+            int stopIdx = PGuards.isNoValue(stop) ? len : clampIndex(lib.asSizeWithState(stop, PArguments.getThreadState(frame)), len);
+            int state = self.getState();
+            for (int i = startIdx; i < stopIdx && i < self.getLength(); i++) {
+                boolean eq = eqNode.executeBool(frame, self.getStorage().getItem(i), value);
+                checkState(this, self, state);
+                if (eq) {
+                    return i;
+                }
+            }
+            throw raise(ValueError, "%s is not in deque", reprNode.executeObject(frame, value));
+        }
+
+        private static int clampIndex(int index, int len) {
+            if (index < 0) {
+                return Math.max(0, index + len);
+            }
+            return Math.min(index, len);
+        }
+    }
+
+    @Builtin(name = "remove", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class RemoveNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone remove(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int len = self.getLength();
+            for (int i = 0; i < len; i++) {
+                boolean eq = eqNode.executeBool(frame, self.getStorage().getItem(i), value);
+                if (self.getLength() != len) {
+                    throw raise(IndexError, "deque mutated during remove().");
+                }
+                if (eq) {
+                    self.getStorage().delItem(i);
+                    self.modified();
+                    return PNone.NONE;
+                }
+            }
+            throw raise(ValueError, "deque.remove(x): x not in deque");
+        }
+    }
+
+    @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class LenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int len(PDeque self) {
+            return self.getLength();
+        }
+    }
+
+    @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class GetItemNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object getItem(PDeque self, int index) {
+            return self.getStorage().getItem(normalizeIndex(this, self, index));
+        }
+
+        @Specialization(replaces = "getItem(PDeque, int)", limit = "getCallSiteInlineCacheMaxDepth()")
+        Object getItem(VirtualFrame frame, PDeque self, Object index,
+                        @CachedLibrary("index") PythonObjectLibrary lib) {
+            return self.getStorage().getItem(normalizeIndex(this, self, asIndex(frame, lib, index)));
+        }
+    }
+
+    @Builtin(name = __SETITEM__, minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class SetItemNode extends PythonTernaryBuiltinNode {
+        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
+        PNone setItem(VirtualFrame frame, PDeque self, Object index, Object value,
+                        @CachedLibrary("index") PythonObjectLibrary lib) {
+            int idx = normalizeIndex(this, self, asIndex(frame, lib, index));
+            storageFor(self, value).setItem(idx, value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DelItemNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
+        PNone delItem(VirtualFrame frame, PDeque self, Object index,
+                        @CachedLibrary("index") PythonObjectLibrary lib) {
+            self.getStorage().delItem(normalizeIndex(this, self, asIndex(frame, lib, index)));
+            self.modified();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIter iter(PDeque self) {
+            return factory().createDequeIter(self);
+        }
+    }
+
+    @Builtin(name = __REVERSED__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReversedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIter reversed(PDeque self) {
+            return factory().createDequeRevIter(self);
+        }
+    }
+
+    @Builtin(name = "maxlen", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class MaxLenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object maxlen(PDeque self) {
+            return self.isBounded() ? self.getMaxLength() : PNone.NONE;
+        }
+    }
+}
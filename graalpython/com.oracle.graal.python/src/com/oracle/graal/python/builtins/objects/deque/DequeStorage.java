@@ -0,0 +1,535 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+/**
+ * The elements of a {@link PDeque}, kept in a growable circular array. The array is specialized
+ * for {@code int} and {@code double} elements like the {@code SequenceStorage} of lists and is
+ * generalized to an {@code Object[]} when an element of another type is added.
+ */
+public abstract class DequeStorage {
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Array index of the leftmost element. */
+    protected int head;
+    protected int length;
+
+    public final int length() {
+        return length;
+    }
+
+    public abstract int capacity();
+
+    /** Whether {@code value} can be stored without generalizing the storage. */
+    public abstract boolean accepts(Object value);
+
+    /** Returns a copy with room for at least {@code minCapacity} elements. */
+    public abstract DequeStorage copy(int minCapacity);
+
+    protected abstract Object getAt(int slot);
+
+    protected abstract void setAt(int slot, Object value);
+
+    /** Drops the reference held in {@code slot}, if any. */
+    protected abstract void clearAt(int slot);
+
+    /** Reallocates the array and moves the elements to the start of it. */
+    protected abstract void reallocate(int newCapacity);
+
+    protected final int slot(int index) {
+        int slot = head + index;
+        int capacity = capacity();
+        return slot >= capacity ? slot - capacity : slot;
+    }
+
+    protected final int prev(int slot) {
+        return slot == 0 ? capacity() - 1 : slot - 1;
+    }
+
+    protected final int next(int slot) {
+        return slot + 1 == capacity() ? 0 : slot + 1;
+    }
+
+    protected final void ensureCapacity(int minCapacity) {
+        int capacity = capacity();
+        if (minCapacity > capacity) {
+            int newCapacity = Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+            if (newCapacity < minCapacity || newCapacity < 0) {
+                newCapacity = minCapacity;
+            }
+            reallocate(newCapacity);
+        }
+    }
+
+    /**
+     * Returns a storage that can hold {@code value} in addition to the current elements. An empty
+     * storage is replaced by one specialized for {@code value}.
+     */
+    public final DequeStorage generalizeFor(Object value) {
+        if (length == 0) {
+            return createFor(value, capacity());
+        }
+        ObjectDequeStorage result = new ObjectDequeStorage(Math.max(capacity(), length + 1));
+        for (int i = 0; i < length; i++) {
+            result.values[i] = getAt(slot(i));
+        }
+        result.length = length;
+        return result;
+    }
+
+    public static DequeStorage createFor(Object value, int capacity) {
+        if (value instanceof Integer) {
+            return new IntDequeStorage(capacity);
+        } else if (value instanceof Double) {
+            return new DoubleDequeStorage(capacity);
+        }
+        return new ObjectDequeStorage(capacity);
+    }
+
+    public final Object getItem(int index) {
+        return getAt(slot(index));
+    }
+
+    public final void setItem(int index, Object value) {
+        setAt(slot(index), value);
+    }
+
+    public final void append(Object value) {
+        ensureCapacity(length + 1);
+        setAt(slot(length), value);
+        length++;
+    }
+
+    public final void appendLeft(Object value) {
+        ensureCapacity(length + 1);
+        head = prev(head);
+        setAt(head, value);
+        length++;
+    }
+
+    public final Object pop() {
+        assert length > 0;
+        int slot = slot(length - 1);
+        Object result = getAt(slot);
+        clearAt(slot);
+        length--;
+        return result;
+    }
+
+    public final Object popLeft() {
+        assert length > 0;
+        Object result = getAt(head);
+        clearAt(head);
+        head = next(head);
+        length--;
+        return result;
+    }
+
+    public final void insert(int index, Object value) {
+        assert 0 <= index && index <= length;
+        ensureCapacity(length + 1);
+        if (index < (length >> 1)) {
+            head = prev(head);
+            for (int i = 0; i < index; i++) {
+                setAt(slot(i), getAt(slot(i + 1)));
+            }
+        } else {
+            for (int i = length; i > index; i--) {
+                setAt(slot(i), getAt(slot(i - 1)));
+            }
+        }
+        setAt(slot(index), value);
+        length++;
+    }
+
+    public final void delItem(int index) {
+        assert 0 <= index && index < length;
+        if (index < (length >> 1)) {
+            for (int i = index; i > 0; i--) {
+                setAt(slot(i), getAt(slot(i - 1)));
+            }
+            clearAt(head);
+            head = next(head);
+        } else {
+            for (int i = index; i < length - 1; i++) {
+                setAt(slot(i), getAt(slot(i + 1)));
+            }
+            clearAt(slot(length - 1));
+        }
+        length--;
+    }
+
+    /**
+     * Rotates the elements {@code n} steps to the right, or to the left if {@code n} is negative.
+     * A full array is rotated by moving the head only.
+     */
+    public final void rotate(long n) {
+        if (length <= 1) {
+            return;
+        }
+        int steps = (int) (n % length);
+        if (steps < 0) {
+            steps += length;
+        }
+        if (steps == 0) {
+            return;
+        }
+        if (length == capacity()) {
+            head = slot(length - steps);
+        } else if (steps <= (length >> 1)) {
+            for (int i = 0; i < steps; i++) {
+                int last = slot(length - 1);
+                Object value = getAt(last);
+                clearAt(last);
+                head = prev(head);
+                setAt(head, value);
+            }
+        } else {
+            for (int i = length - steps; i > 0; i--) {
+                Object value = getAt(head);
+                clearAt(head);
+                setAt(slot(length), value);
+                head = next(head);
+            }
+        }
+    }
+
+    public final void reverse() {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int left = slot(i);
+            int right = slot(j);
+            Object tmp = getAt(left);
+            setAt(left, getAt(right));
+            setAt(right, tmp);
+        }
+    }
+
+    public final Object[] toArray() {
+        Object[] result = new Object[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = getAt(slot(i));
+        }
+        return result;
+    }
+
+    protected final int copyTo(Object array) {
+        int first = Math.min(length, capacity() - head);
+        System.arraycopy(getArray(), head, array, 0, first);
+        System.arraycopy(getArray(), 0, array, first, length - first);
+        return length;
+    }
+
+    protected abstract Object getArray();
+
+    /**
+     * The storage of a new or cleared deque. It accepts no values, so that the first element added
+     * picks a specialized storage via {@link #generalizeFor}.
+     */
+    public static final class EmptyDequeStorage extends DequeStorage {
+        private static final Object[] EMPTY_ARRAY = new Object[0];
+
+        @Override
+        public int capacity() {
+            return 0;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return false;
+        }
+
+        @Override
+        public DequeStorage copy(int minCapacity) {
+            return new ObjectDequeStorage(minCapacity);
+        }
+
+        @Override
+        protected Object getArray() {
+            return EMPTY_ARRAY;
+        }
+
+        @Override
+        protected Object getAt(int slot) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        protected void setAt(int slot, Object value) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        protected void clearAt(int slot) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        protected void reallocate(int newCapacity) {
+            throw new IllegalStateException("empty deque storage must be generalized before adding elements");
+        }
+    }
+
+    public static final class IntDequeStorage extends DequeStorage {
+        private int[] values;
+
+        public IntDequeStorage(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        @Override
+        public int capacity() {
+            return values.length;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        public DequeStorage copy(int minCapacity) {
+            IntDequeStorage result = new IntDequeStorage(Math.max(minCapacity, length));
+            result.length = copyTo(result.values);
+            return result;
+        }
+
+        @Override
+        protected Object getArray() {
+            return values;
+        }
+
+        @Override
+        protected Object getAt(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        protected void setAt(int slot, Object value) {
+            values[slot] = (int) value;
+        }
+
+        @Override
+        protected void clearAt(int slot) {
+            // nothing to release
+        }
+
+        @Override
+        protected void reallocate(int newCapacity) {
+            int[] newValues = new int[newCapacity];
+            copyTo(newValues);
+            values = newValues;
+            head = 0;
+        }
+
+        public void appendInt(int value) {
+            ensureCapacity(length + 1);
+            values[slot(length)] = value;
+            length++;
+        }
+
+        public void appendLeftInt(int value) {
+            ensureCapacity(length + 1);
+            head = prev(head);
+            values[head] = value;
+            length++;
+        }
+
+        public int popInt() {
+            assert length > 0;
+            length--;
+            return values[slot(length)];
+        }
+
+        public int popLeftInt() {
+            assert length > 0;
+            int result = values[head];
+            head = next(head);
+            length--;
+            return result;
+        }
+    }
+
+    public static final class DoubleDequeStorage extends DequeStorage {
+        private double[] values;
+
+        public DoubleDequeStorage(int capacity) {
+            this.values = new double[capacity];
+        }
+
+        @Override
+        public int capacity() {
+            return values.length;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        public DequeStorage copy(int minCapacity) {
+            DoubleDequeStorage result = new DoubleDequeStorage(Math.max(minCapacity, length));
+            result.length = copyTo(result.values);
+            return result;
+        }
+
+        @Override
+        protected Object getArray() {
+            return values;
+        }
+
+        @Override
+        protected Object getAt(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        protected void setAt(int slot, Object value) {
+            values[slot] = (double) value;
+        }
+
+        @Override
+        protected void clearAt(int slot) {
+            // nothing to release
+        }
+
+        @Override
+        protected void reallocate(int newCapacity) {
+            double[] newValues = new double[newCapacity];
+            copyTo(newValues);
+            values = newValues;
+            head = 0;
+        }
+
+        public void appendDouble(double value) {
+            ensureCapacity(length + 1);
+            values[slot(length)] = value;
+            length++;
+        }
+
+        public void appendLeftDouble(double value) {
+            ensureCapacity(length + 1);
+            head = prev(head);
+            values[head] = value;
+            length++;
+        }
+
+        public double popDouble() {
+            assert length > 0;
+            length--;
+            return values[slot(length)];
+        }
+
+        public double popLeftDouble() {
+            assert length > 0;
+            double result = values[head];
+            head = next(head);
+            length--;
+            return result;
+        }
+    }
+
+    public static final class ObjectDequeStorage extends DequeStorage {
+        private Object[] values;
+
+        public ObjectDequeStorage(int capacity) {
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        public int capacity() {
+            return values.length;
+        }
+
+        @Override
+        public boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        public DequeStorage copy(int minCapacity) {
+            ObjectDequeStorage result = new ObjectDequeStorage(Math.max(minCapacity, length));
+            result.length = copyTo(result.values);
+            return result;
+        }
+
+        @Override
+        protected Object getArray() {
+            return values;
+        }
+
+        @Override
+        protected Object getAt(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        protected void setAt(int slot, Object value) {
+            values[slot] = value;
+        }
+
+        @Override
+        protected void clearAt(int slot) {
+            values[slot] = null;
+        }
+
+        @Override
+        protected void reallocate(int newCapacity) {
+            Object[] newValues = new Object[newCapacity];
+            copyTo(newValues);
+            values = newValues;
+            head = 0;
+        }
+
+        public void appendObject(Object value) {
+            ensureCapacity(length + 1);
+            values[slot(length)] = value;
+            length++;
+        }
+
+        public void appendLeftObject(Object value) {
+            ensureCapacity(length + 1);
+            head = prev(head);
+            values[head] = value;
+            length++;
+        }
+    }
+}
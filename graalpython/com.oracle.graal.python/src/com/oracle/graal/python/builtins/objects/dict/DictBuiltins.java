@@ -57,18 +57,27 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.ContainsKeyNode;
+import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -410,6 +419,123 @@ public final class DictBuiltins extends PythonBuiltins {
         }
     }
 
+    // update([other, ]**kwargs)
+    @Builtin(name = "update", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class UpdateNode extends PythonBuiltinNode {
+        @Child private HashingStorageNodes.AddAllNode addAllNode;
+
+        private HashingStorage addAll(VirtualFrame frame, HashingStorage left, HashingStorage right) {
+            if (addAllNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                addAllNode = insert(HashingStorageNodes.AddAllNode.create());
+            }
+            return addAllNode.execute(frame, left, right);
+        }
+
+        @Specialization(guards = {"args.length == 1", "isDict(args[0])"})
+        Object doDict(VirtualFrame frame, PDict self, Object[] args, PKeyword[] kwargs) {
+            HashingStorage storage = addAll(frame, self.getDictStorage(), ((PDict) args[0]).getDictStorage());
+            if (kwargs.length > 0) {
+                storage = addAll(frame, storage, new KeywordsStorage(kwargs));
+            }
+            self.setDictStorage(storage);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"args.length == 1", "!isDict(args[0])"})
+        Object doMapping(VirtualFrame frame, PDict self, Object[] args, PKeyword[] kwargs,
+                        @Cached("create()") HashingStorageNodes.InitNode initNode) {
+            // collect the entries exactly like 'dict(other, **kwargs)' does
+            HashingStorage other = initNode.execute(frame, args[0], kwargs);
+            self.setDictStorage(addAll(frame, self.getDictStorage(), other));
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "args.length == 0")
+        Object doKeywords(VirtualFrame frame, PDict self, @SuppressWarnings("unused") Object[] args, PKeyword[] kwargs) {
+            if (kwargs.length > 0) {
+                self.setDictStorage(addAll(frame, self.getDictStorage(), new KeywordsStorage(kwargs)));
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "args.length > 1")
+        Object doGeneric(@SuppressWarnings("unused") PDict self, Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            throw raise(TypeError, "update expected at most 1 arguments, got %d", args.length);
+        }
+    }
+
+    // fromkeys(iterable[, value])
+    @Builtin(name = "fromkeys", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, isClassmethod = true)
+    @GenerateNodeFactory
+    public abstract static class FromKeysNode extends PythonTernaryBuiltinNode {
+        private final IsBuiltinClassProfile isDictProfile = IsBuiltinClassProfile.create();
+
+        protected final boolean isBuiltinDict(LazyPythonClass cls) {
+            return isDictProfile.profileClass(cls, PythonBuiltinClassType.PDict);
+        }
+
+        @Specialization(guards = "isBuiltinDict(cls)")
+        PDict doHashingCollection(VirtualFrame frame, @SuppressWarnings("unused") LazyPythonClass cls, PHashingCollection iterable, Object value,
+                        @Cached("create()") HashingStorageNodes.SetItemNode setItemNode) {
+            Object keyValue = value == PNone.NO_VALUE ? PNone.NONE : value;
+            HashingStorage keys = iterable.getDictStorage();
+            HashingStorage storage = PDict.createNewStorage(false, keys.length());
+            for (Object key : keys.keys()) {
+                storage = setItemNode.execute(frame, storage, key, keyValue);
+            }
+            return factory().createDict(storage);
+        }
+
+        @Specialization(guards = {"isBuiltinDict(cls)", "!isHashingCollection(iterable)"})
+        PDict doIterable(VirtualFrame frame, @SuppressWarnings("unused") LazyPythonClass cls, Object iterable, Object value,
+                        @Cached("create()") GetIteratorNode getIteratorNode,
+                        @Cached("create()") GetNextNode nextNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile,
+                        @Cached("create()") HashingStorageNodes.SetItemNode setItemNode) {
+            Object keyValue = value == PNone.NO_VALUE ? PNone.NONE : value;
+            HashingStorage storage = PDict.createNewStorage(false, 0);
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object key;
+                try {
+                    key = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return factory().createDict(storage);
+                }
+                storage = setItemNode.execute(frame, storage, key, keyValue);
+            }
+        }
+
+        @Specialization(guards = "!isBuiltinDict(cls)")
+        Object doSubclass(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object value,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode callSetItemNode,
+                        @Cached("create()") GetIteratorNode getIteratorNode,
+                        @Cached("create()") GetNextNode nextNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            Object keyValue = value == PNone.NO_VALUE ? PNone.NONE : value;
+            Object dict = callNode.execute(frame, cls);
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object key;
+                try {
+                    key = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return dict;
+                }
+                callSetItemNode.execute(frame, dict, key, keyValue);
+            }
+        }
+
+        protected static boolean isHashingCollection(Object o) {
+            return o instanceof PHashingCollection;
+        }
+    }
+
     // clear()
     @Builtin(name = "clear", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
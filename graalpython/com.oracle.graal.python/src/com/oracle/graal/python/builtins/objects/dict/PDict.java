@@ -25,6 +25,7 @@
  */
 package com.oracle.graal.python.builtins.objects.dict;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.FastDictStorage;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
@@ -34,6 +35,7 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
 import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.StringKeyedStorage;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -68,7 +70,14 @@ public final class PDict extends PHashingCollection {
         try {
             dictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
         } catch (UnmodifiableStorageException e) {
-            HashingStorage newDictStorage = createNewStorage(key instanceof String, size() + 1);
+            HashingStorage newDictStorage;
+            if (size() == 0) {
+                newDictStorage = createNewStorage(key instanceof String, 1);
+            } else {
+                // the current storage cannot hold this key, so carry its entries over
+                newDictStorage = EconomicMapStorage.create(size() + 1, false);
+                newDictStorage.addAll(dictStorage, PythonLanguage.getContext().getSlowPathEquivalence());
+            }
             newDictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
             dictStorage = newDictStorage;
         }
@@ -80,6 +89,8 @@ public final class PDict extends PHashingCollection {
             newDictStorage = new EmptyStorage();
         } else if (isStringKey && expectedSize < DynamicObjectStorage.SIZE_THRESHOLD) {
             newDictStorage = new FastDictStorage();
+        } else if (isStringKey) {
+            newDictStorage = new StringKeyedStorage(expectedSize);
         } else {
             newDictStorage = EconomicMapStorage.create(expectedSize, false);
         }
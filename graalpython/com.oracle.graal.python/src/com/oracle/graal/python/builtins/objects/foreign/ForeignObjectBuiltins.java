@@ -90,10 +90,12 @@ import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.interop.PForeignToPTypeNode;
 import com.oracle.graal.python.nodes.interop.PTypeToForeignNode;
 import com.oracle.graal.python.runtime.ExecutionContext.ForeignCallContext;
+import com.oracle.graal.python.runtime.ExecutionContext.NativeCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -108,6 +110,7 @@ import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.ForeignObject)
 public class ForeignObjectBuiltins extends PythonBuiltins {
@@ -589,21 +592,25 @@ public class ForeignObjectBuiltins extends PythonBuiltins {
 
         /**
          * A foreign function call specializes on the length of the passed arguments. Any
-         * optimization based on the callee has to happen on the other side.
+         * optimization based on the callee has to happen on the other side. Only calls to host
+         * (Java) objects may run concurrently. Any other callee, e.g. a function of a native library
+         * executed by Sulong, may run native code that expects to run exclusively.
          */
         @Specialization(guards = {"isForeignObject(callee)", "!isNoValue(callee)", "keywords.length == 0"}, limit = "3")
         protected Object doInteropCall(VirtualFrame frame, Object callee, Object[] arguments, @SuppressWarnings("unused") PKeyword[] keywords,
                         @CachedLibrary("callee") InteropLibrary lib,
                         @CachedContext(PythonLanguage.class) PythonContext context,
                         @Cached PTypeToForeignNode toForeignNode,
-                        @Cached PForeignToPTypeNode toPTypeNode) {
+                        @Cached PForeignToPTypeNode toPTypeNode,
+                        @Cached("createBinaryProfile()") ConditionProfile hostProfile) {
             try {
                 Object[] convertedArgs = new Object[arguments.length];
                 for (int i = 0; i < arguments.length; i++) {
                     convertedArgs[i] = toForeignNode.executeConvert(arguments[i]);
                 }
                 Object res = null;
-                Object state = ForeignCallContext.enter(frame, context, this);
+                boolean isHostCall = hostProfile.profile(isHostCallee(context, callee));
+                Object state = isHostCall ? ForeignCallContext.enter(frame, context, this) : NativeCallContext.enter(frame, context, this);
                 try {
                     if (lib.isExecutable(callee)) {
                         res = lib.execute(callee, convertedArgs);
@@ -613,13 +620,22 @@ public class ForeignObjectBuiltins extends PythonBuiltins {
                         return toPTypeNode.executeConvert(res);
                     }
                 } finally {
-                    ForeignCallContext.exit(frame, context, state);
+                    if (isHostCall) {
+                        ForeignCallContext.exit(frame, context, state);
+                    } else {
+                        NativeCallContext.exit(frame, context, state);
+                    }
                 }
             } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
                 throw raise(PythonErrorType.TypeError, "invalid invocation of foreign callable");
             }
         }
 
+        private static boolean isHostCallee(PythonContext context, Object callee) {
+            Env env = context.getEnv();
+            return env.isHostObject(callee) || env.isHostFunction(callee);
+        }
+
         @Fallback
         @SuppressWarnings("unused")
         protected Object doGeneric(Object callee, Object arguments, Object keywords) {
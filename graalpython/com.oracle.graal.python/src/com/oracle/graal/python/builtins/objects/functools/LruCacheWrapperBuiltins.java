@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__QUALNAME__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GET__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper.LruNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PLruCacheWrapper)
+public final class LruCacheWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return LruCacheWrapperBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Computes the cache key for a call like {@code functools._make_key}. A single positional
+     * {@code int} or {@code str} argument is its own key, everything else is packed into a tuple.
+     */
+    abstract static class MakeKeyNode extends PNodeWithContext {
+        abstract Object execute(PLruCacheWrapper self, Object[] args, PKeyword[] keywords);
+
+        static boolean isFastKey(Object[] args) {
+            return args.length == 1 && (args[0] instanceof Integer || args[0] instanceof Long || args[0] instanceof String);
+        }
+
+        @Specialization(guards = {"keywords.length == 0", "!self.isTyped()", "isFastKey(args)"})
+        static Object doFast(@SuppressWarnings("unused") PLruCacheWrapper self, Object[] args, @SuppressWarnings("unused") PKeyword[] keywords) {
+            return args[0];
+        }
+
+        @Specialization(guards = {"keywords.length == 0", "!self.isTyped()", "!isFastKey(args)"})
+        static Object doPositional(@SuppressWarnings("unused") PLruCacheWrapper self, Object[] args, @SuppressWarnings("unused") PKeyword[] keywords,
+                        @Cached PythonObjectFactory factory) {
+            return factory.createTuple(args);
+        }
+
+        @Specialization(guards = "keywords.length != 0 || self.isTyped()")
+        static Object doGeneric(PLruCacheWrapper self, Object[] args, PKeyword[] keywords,
+                        @Cached GetClassNode getClass,
+                        @Cached PythonObjectFactory factory) {
+            boolean typed = self.isTyped();
+            int length = args.length;
+            if (keywords.length != 0) {
+                length += 1 + 2 * keywords.length;
+            }
+            if (typed) {
+                length += args.length + keywords.length;
+            }
+            Object[] key = new Object[length];
+            System.arraycopy(args, 0, key, 0, args.length);
+            int i = args.length;
+            if (keywords.length != 0) {
+                key[i++] = self.getKwdMark();
+                for (PKeyword keyword : keywords) {
+                    key[i++] = keyword.getName();
+                    key[i++] = keyword.getValue();
+                }
+            }
+            if (typed) {
+                for (Object arg : args) {
+                    key[i++] = getClass.execute(arg);
+                }
+                for (PKeyword keyword : keywords) {
+                    key[i++] = getClass.execute(keyword.getValue());
+                }
+            }
+            return factory.createTuple(key);
+        }
+
+        static MakeKeyNode create() {
+            return LruCacheWrapperBuiltinsFactory.MakeKeyNodeGen.create();
+        }
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class CallLruCacheWrapperNode extends PythonVarargsBuiltinNode {
+        @Child private CallNode callNode = CallNode.create();
+
+        @Specialization(guards = "self.getMaxSize() == 0")
+        Object callUncached(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords) {
+            self.miss();
+            return callNode.execute(frame, self.getFunction(), arguments, keywords);
+        }
+
+        @Specialization(guards = "self.isUnbounded()")
+        Object callUnbounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached MakeKeyNode makeKey,
+                        @Cached HashingStorageNodes.GetItemNode getItem,
+                        @Cached HashingStorageNodes.SetItemNode setItem) {
+            Object key = makeKey.execute(self, arguments, keywords);
+            PDict cache = self.getCache();
+            Object result = getItem.execute(frame, cache.getDictStorage(), key);
+            if (result != null) {
+                self.hit();
+                return result;
+            }
+            self.miss();
+            result = callNode.execute(frame, self.getFunction(), arguments, keywords);
+            cache.setDictStorage(setItem.execute(frame, cache.getDictStorage(), key, result));
+            return result;
+        }
+
+        @Specialization(guards = "self.getMaxSize() > 0")
+        Object callBounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached MakeKeyNode makeKey,
+                        @Cached HashingStorageNodes.GetItemNode getItem,
+                        @Cached HashingStorageNodes.SetItemNode setItem,
+                        @Cached HashingStorageNodes.DelItemNode delItem,
+                        @Cached HashingStorageNodes.LenNode lenNode) {
+            Object key = makeKey.execute(self, arguments, keywords);
+            PDict cache = self.getCache();
+            Object entry = getItem.execute(frame, cache.getDictStorage(), key);
+            if (entry != null) {
+                LruNode node = (LruNode) entry;
+                self.moveToFront(node);
+                self.hit();
+                return node.getResult();
+            }
+            self.miss();
+            Object result = callNode.execute(frame, self.getFunction(), arguments, keywords);
+            if (getItem.execute(frame, cache.getDictStorage(), key) != null) {
+                // the call already cached the same key, e.g. through recursion
+                return result;
+            }
+            LruNode node;
+            if (lenNode.execute(cache.getDictStorage()) >= self.getMaxSize()) {
+                // the cache is full: evict the least recently used entry and reuse its node
+                node = self.getOldest();
+                delItem.execute(frame, cache, cache.getDictStorage(), node.getKey());
+                self.replace(node, key, result);
+            } else {
+                node = new LruNode(key, result);
+                self.append(node);
+            }
+            cache.setDictStorage(setItem.execute(frame, cache.getDictStorage(), key, node));
+            return result;
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = "cache_info", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CacheInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object cacheInfo(VirtualFrame frame, PLruCacheWrapper self,
+                        @Cached CallNode callNode,
+                        @Cached HashingStorageNodes.LenNode lenNode) {
+            Object maxSize = self.isUnbounded() ? PNone.NONE : self.getMaxSize();
+            int currSize = lenNode.execute(self.getCache().getDictStorage());
+            return callNode.execute(frame, self.getCacheInfoType(), new Object[]{self.getHits(), self.getMisses(), maxSize, currSize}, PKeyword.EMPTY_KEYWORDS);
+        }
+    }
+
+    @Builtin(name = "cache_clear", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CacheClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PNone cacheClear(PLruCacheWrapper self) {
+            self.clear();
+            self.getCache().setDictStorage(EconomicMapStorage.create(false));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __GET__, minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class GetNode extends PythonTernaryBuiltinNode {
+        @Specialization(guards = "isNone(instance)")
+        static Object getFunction(PLruCacheWrapper self, @SuppressWarnings("unused") PNone instance, @SuppressWarnings("unused") Object owner) {
+            return self;
+        }
+
+        @Specialization(guards = "!isNone(instance)")
+        Object getMethod(PLruCacheWrapper self, Object instance, @SuppressWarnings("unused") Object owner) {
+            return factory().createMethod(instance, self);
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object dict(PLruCacheWrapper self,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PHashingCollection dict = lib.getDict(self);
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                try {
+                    lib.setDict(self, dict);
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return dict;
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object reduce(VirtualFrame frame, PLruCacheWrapper self,
+                        @Cached("create(__QUALNAME__)") GetFixedAttributeNode getQualname) {
+            // pickled by its qualified name, like a function
+            return getQualname.executeObject(frame, self);
+        }
+    }
+
+    @Builtin(name = "__copy__", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static PLruCacheWrapper copy(PLruCacheWrapper self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = "__deepcopy__", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DeepCopyNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PLruCacheWrapper deepCopy(PLruCacheWrapper self, @SuppressWarnings("unused") Object memo) {
+            return self;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The object returned by {@code functools.lru_cache}. The cache dictionary maps keys to
+ * {@link LruNode}s which are also linked into a circular list in order of use, so that a hit and
+ * an eviction are constant time operations.
+ */
+public final class PLruCacheWrapper extends PythonBuiltinObject {
+    public static final int UNBOUNDED = -1;
+
+    static final class LruNode {
+        private LruNode prev;
+        private LruNode next;
+        private Object key;
+        private Object result;
+
+        LruNode(Object key, Object result) {
+            this.key = key;
+            this.result = result;
+        }
+
+        Object getKey() {
+            return key;
+        }
+
+        Object getResult() {
+            return result;
+        }
+    }
+
+    private final Object function;
+    private final int maxSize;
+    private final boolean typed;
+    private final Object cacheInfoType;
+    private final Object kwdMark;
+    private final PDict cache;
+    /** The sentinel of the list; {@code root.next} is the least recently used entry. */
+    private final LruNode root = new LruNode(null, null);
+    private long hits;
+    private long misses;
+
+    public PLruCacheWrapper(LazyPythonClass cls, Object function, int maxSize, boolean typed, Object cacheInfoType, Object kwdMark, PDict cache) {
+        super(cls);
+        this.function = function;
+        this.maxSize = maxSize;
+        this.typed = typed;
+        this.cacheInfoType = cacheInfoType;
+        this.kwdMark = kwdMark;
+        this.cache = cache;
+        root.prev = root.next = root;
+    }
+
+    public Object getFunction() {
+        return function;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isUnbounded() {
+        return maxSize == UNBOUNDED;
+    }
+
+    public boolean isTyped() {
+        return typed;
+    }
+
+    public Object getCacheInfoType() {
+        return cacheInfoType;
+    }
+
+    /** The object separating positional from keyword arguments in a cache key. */
+    public Object getKwdMark() {
+        return kwdMark;
+    }
+
+    public PDict getCache() {
+        return cache;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void hit() {
+        hits++;
+    }
+
+    public void miss() {
+        misses++;
+    }
+
+    /** Marks the node as the most recently used one. */
+    void moveToFront(LruNode node) {
+        unlink(node);
+        append(node);
+    }
+
+    void append(LruNode node) {
+        LruNode last = root.prev;
+        last.next = node;
+        node.prev = last;
+        node.next = root;
+        root.prev = node;
+    }
+
+    LruNode getOldest() {
+        assert root.next != root;
+        return root.next;
+    }
+
+    /** Reuses an evicted node for a new entry and marks it as the most recently used one. */
+    void replace(LruNode node, Object key, Object result) {
+        unlink(node);
+        node.key = key;
+        node.result = result;
+        append(node);
+    }
+
+    private static void unlink(LruNode node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    public void clear() {
+        root.prev = root.next = root;
+        hits = misses = 0;
+    }
+}
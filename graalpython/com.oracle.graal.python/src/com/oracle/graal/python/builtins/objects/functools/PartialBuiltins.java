@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPartial)
+public final class PartialBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PartialBuiltinsFactory.getFactories();
+    }
+
+    static Object[] concat(Object[] first, Object[] second) {
+        if (second.length == 0) {
+            return first;
+        } else if (first.length == 0) {
+            return second;
+        }
+        Object[] result = new Object[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Returns the bound keywords updated with the keywords of a call. Keywords given at the call
+     * replace bound keywords with the same name.
+     */
+    @TruffleBoundary
+    static PKeyword[] mergeKeywords(PKeyword[] bound, PKeyword[] keywords) {
+        if (bound.length == 0) {
+            return keywords;
+        }
+        PKeyword[] result = new PKeyword[bound.length + keywords.length];
+        System.arraycopy(bound, 0, result, 0, bound.length);
+        int length = bound.length;
+        outer: for (PKeyword keyword : keywords) {
+            for (int i = 0; i < bound.length; i++) {
+                if (result[i].getName().equals(keyword.getName())) {
+                    result[i] = keyword;
+                    continue outer;
+                }
+            }
+            result[length++] = keyword;
+        }
+        if (length < result.length) {
+            PKeyword[] exact = new PKeyword[length];
+            System.arraycopy(result, 0, exact, 0, length);
+            return exact;
+        }
+        return result;
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class CallPartialNode extends PythonVarargsBuiltinNode {
+        @Child private CallNode callNode = CallNode.create();
+
+        @Specialization(guards = "keywords.length == 0")
+        Object callWithoutKeywords(VirtualFrame frame, PPartial self, Object[] arguments, @SuppressWarnings("unused") PKeyword[] keywords) {
+            // the bound keywords are passed on as they are
+            return callNode.execute(frame, self.getFn(), concat(self.getArgs(), arguments), self.getKeywords());
+        }
+
+        @Specialization(guards = "keywords.length != 0")
+        Object callWithKeywords(VirtualFrame frame, PPartial self, Object[] arguments, PKeyword[] keywords) {
+            return callNode.execute(frame, self.getFn(), concat(self.getArgs(), arguments), mergeKeywords(self.getKeywords(), keywords));
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = "func", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class FuncNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static Object func(PPartial self) {
+            return self.getFn();
+        }
+    }
+
+    @Builtin(name = "args", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple args(PPartial self) {
+            return factory().createTuple(self.getArgs());
+        }
+    }
+
+    @Builtin(name = "keywords", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class KeywordsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDict keywords(PPartial self) {
+            // the keywords storage is immutable, the dict copies it when modified
+            return factory().createDict(self.getKeywords());
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        Object dict(PPartial self,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PHashingCollection dict = lib.getDict(self);
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                try {
+                    lib.setDict(self, dict);
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return dict;
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static String repr(VirtualFrame frame, PPartial self,
+                        @Cached GetLazyClassNode getClass,
+                        @Cached TypeNodes.GetNameNode getName,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            Object[] args = self.getArgs();
+            PKeyword[] keywords = self.getKeywords();
+            Object[] reprs = new Object[1 + args.length + keywords.length];
+            reprs[0] = reprNode.executeObject(frame, self.getFn());
+            for (int i = 0; i < args.length; i++) {
+                reprs[1 + i] = reprNode.executeObject(frame, args[i]);
+            }
+            for (int i = 0; i < keywords.length; i++) {
+                reprs[1 + args.length + i] = reprNode.executeObject(frame, keywords[i].getValue());
+            }
+            Object cls = getClass.execute(self);
+            String name = cls == PythonBuiltinClassType.PPartial ? "functools.partial" : getName.execute(cls);
+            return format(name, reprs, args.length, keywords);
+        }
+
+        @TruffleBoundary
+        private static String format(String name, Object[] reprs, int numArgs, PKeyword[] keywords) {
+            StringBuilder sb = new StringBuilder(name).append('(').append(reprs[0]);
+            for (int i = 1; i <= numArgs; i++) {
+                sb.append(", ").append(reprs[i]);
+            }
+            for (int i = 0; i < keywords.length; i++) {
+                sb.append(", ").append(keywords[i].getName()).append('=').append(reprs[1 + numArgs + i]);
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization(limit = "1")
+        PTuple reduce(PPartial self,
+                        @Cached GetLazyClassNode getClass,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            PKeyword[] keywords = self.getKeywords();
+            Object keywordsDict = keywords.length == 0 ? PNone.NONE : factory().createDict(keywords);
+            PHashingCollection dict = lib.getDict(self);
+            PTuple state = factory().createTuple(new Object[]{self.getFn(), factory().createTuple(self.getArgs()), keywordsDict, dict == null ? PNone.NONE : dict});
+            return factory().createTuple(new Object[]{getClass.execute(self), factory().createTuple(new Object[]{self.getFn()}), state});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization(limit = "1")
+        PNone setState(VirtualFrame frame, PPartial self, PTuple state,
+                        @Cached ExecutePositionalStarargsNode toArray,
+                        @Cached ExpandKeywordStarargsNode expandKeywords,
+                        @CachedLibrary("self") PythonObjectLibrary lib) {
+            Object[] items = toArray.executeWith(frame, state);
+            if (items.length != 4) {
+                throw raise(TypeError, "expected 4 items in state, got %d", items.length);
+            }
+            Object fn = items[0];
+            Object args = items[1];
+            Object keywords = items[2];
+            Object dict = items[3];
+            if (!(args instanceof PTuple) || !(keywords instanceof PDict || keywords == PNone.NONE) || !(dict instanceof PDict || dict == PNone.NONE)) {
+                throw raise(TypeError, "invalid partial state");
+            }
+            PKeyword[] keywordsArray = keywords == PNone.NONE ? PKeyword.EMPTY_KEYWORDS : expandKeywords.executeWith(keywords);
+            self.setState(fn, toArray.executeWith(frame, args), keywordsArray);
+            if (dict instanceof PDict) {
+                try {
+                    lib.setDict(self, (PDict) dict);
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPTuple(state)")
+        PNone setState(@SuppressWarnings("unused") PPartial self, @SuppressWarnings("unused") Object state) {
+            throw raise(TypeError, "argument to __setstate__ must be a tuple");
+        }
+    }
+}
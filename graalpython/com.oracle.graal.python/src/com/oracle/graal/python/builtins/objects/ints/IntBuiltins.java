@@ -67,6 +67,7 @@ import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.StringNodes.ParseFormatSpecNode;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.PGuards;
@@ -86,7 +87,10 @@ import com.oracle.graal.python.nodes.object.GetClassNode;
 import com.oracle.graal.python.nodes.object.GetLazyClassNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.formatting.IntegerFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
@@ -113,6 +117,62 @@ public class IntBuiltins extends PythonBuiltins {
         return IntBuiltinsFactory.getFactories();
     }
 
+    /**
+     * The carry out of the unsigned 64-bit addition that produced {@code sum} from
+     * {@code addend}.
+     */
+    private static long carry(long sum, long addend) {
+        return Long.compareUnsigned(sum, addend) < 0 ? 1 : 0;
+    }
+
+    /**
+     * The borrow out of the unsigned 64-bit subtraction {@code minuend - subtrahend}.
+     */
+    private static long borrow(long minuend, long subtrahend) {
+        return Long.compareUnsigned(minuend, subtrahend) < 0 ? 1 : 0;
+    }
+
+    /**
+     * The upper half of a 128-bit sum, given the upper halves of the operands and the carry out of
+     * the lower halves. Throws an {@link ArithmeticException} if the sum does not fit into 128 bits.
+     */
+    private static long addHighExact(long left, long right, long carry) {
+        long result = left + right + carry;
+        if (((left ^ result) & (right ^ result)) < 0) {
+            throw new ArithmeticException("integer overflow");
+        }
+        return result;
+    }
+
+    /**
+     * The upper half of a 128-bit difference, given the upper halves of the operands and the
+     * borrow out of the lower halves. Throws an {@link ArithmeticException} if the difference does
+     * not fit into 128 bits.
+     */
+    private static long subtractHighExact(long left, long right, long borrow) {
+        long result = left - right - borrow;
+        if (((left ^ right) & (left ^ result)) < 0) {
+            throw new ArithmeticException("integer overflow");
+        }
+        return result;
+    }
+
+    /**
+     * The upper half of the product of the 128-bit value {@code high:low} and {@code right}. The
+     * lower half is simply {@code low * right}. Throws an {@link ArithmeticException} if the product
+     * does not fit into 128 bits.
+     */
+    private static long multiplyHighExact(long high, long low, long right) {
+        // the product of the unsigned lower half and 'right' always fits into 128 bits
+        long lowProductHigh = PInt.multiplyHigh(low, right) + (low < 0 ? right : 0);
+        long result = high * right + lowProductHigh;
+        long overflow = PInt.multiplyHigh(high, right) + (lowProductHigh >> 63) + carry(result, lowProductHigh);
+        if (overflow != result >> 63) {
+            throw new ArithmeticException("integer overflow");
+        }
+        return result;
+    }
+
     private abstract static class IntBinaryBuiltinNode extends PythonBinaryBuiltinNode {
         private final BranchProfile divisionByZeroProfile = BranchProfile.create();
 
@@ -164,17 +224,36 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt addPInt(long left, long right) {
-            return factory().createInt(op(BigInteger.valueOf(left), BigInteger.valueOf(right)));
+            // the sum of two longs always fits into 128 bits
+            long low = left + right;
+            return factory().createInt128((left >> 63) + (right >> 63) + carry(low, left), low);
+        }
+
+        @Specialization(guards = "left.isInt128()", rewriteOn = ArithmeticException.class)
+        PInt addInt128(PInt left, long right) {
+            long low = left.getLow() + right;
+            return factory().createInt128(addHighExact(left.getHigh(), right >> 63, carry(low, right)), low);
+        }
+
+        @Specialization(guards = "right.isInt128()", rewriteOn = ArithmeticException.class)
+        PInt addInt128(long left, PInt right) {
+            return addInt128(right, left);
+        }
+
+        @Specialization(guards = {"left.isInt128()", "right.isInt128()"}, rewriteOn = ArithmeticException.class)
+        PInt addInt128(PInt left, PInt right) {
+            long low = left.getLow() + right.getLow();
+            return factory().createInt128(addHighExact(left.getHigh(), right.getHigh(), carry(low, right.getLow())), low);
         }
 
         @Specialization
         PInt add(PInt left, long right) {
-            return add(left, factory().createInt(right));
+            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization
         PInt add(long left, PInt right) {
-            return add(factory().createInt(left), right);
+            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
         }
 
         @Specialization
@@ -221,17 +300,36 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt doLLOvf(long x, long y) {
-            return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+            // the difference of two longs always fits into 128 bits
+            return factory().createInt128((x >> 63) - (y >> 63) - borrow(x, y), x - y);
+        }
+
+        @Specialization(guards = "left.isInt128()", rewriteOn = ArithmeticException.class)
+        PInt doInt128Long(PInt left, long right) {
+            long high = subtractHighExact(left.getHigh(), right >> 63, borrow(left.getLow(), right));
+            return factory().createInt128(high, left.getLow() - right);
+        }
+
+        @Specialization(guards = "right.isInt128()", rewriteOn = ArithmeticException.class)
+        PInt doLongInt128(long left, PInt right) {
+            long high = subtractHighExact(left >> 63, right.getHigh(), borrow(left, right.getLow()));
+            return factory().createInt128(high, left - right.getLow());
+        }
+
+        @Specialization(guards = {"left.isInt128()", "right.isInt128()"}, rewriteOn = ArithmeticException.class)
+        PInt doInt128Int128(PInt left, PInt right) {
+            long high = subtractHighExact(left.getHigh(), right.getHigh(), borrow(left.getLow(), right.getLow()));
+            return factory().createInt128(high, left.getLow() - right.getLow());
         }
 
         @Specialization
         PInt doPIntLong(PInt left, long right) {
-            return doPIntPInt(left, factory().createInt(right));
+            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization
         PInt doLongPInt(long left, PInt right) {
-            return doPIntPInt(factory().createInt(left), right);
+            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
         }
 
         @Specialization
@@ -273,17 +371,18 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt doLLOvf(long y, long x) {
-            return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+            // the difference of two longs always fits into 128 bits
+            return factory().createInt128((x >> 63) - (y >> 63) - borrow(x, y), x - y);
         }
 
         @Specialization
         PInt doPIntLong(PInt right, long left) {
-            return doPIntPInt(factory().createInt(left), right);
+            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
         }
 
         @Specialization
         PInt doLongPInt(long right, PInt left) {
-            return doPIntPInt(factory().createInt(right), left);
+            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization
@@ -643,16 +742,8 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt doLLOvf(long x, long y) {
-            long r = x * y;
-            long ax = Math.abs(x);
-            long ay = Math.abs(y);
-            if (((ax | ay) >>> 31 != 0)) {
-                int leadingZeros = Long.numberOfLeadingZeros(ax) + Long.numberOfLeadingZeros(ay);
-                if (leadingZeros < 66) {
-                    return factory().createInt(mul(BigInteger.valueOf(x), BigInteger.valueOf(y)));
-                }
-            }
-            return factory().createInt(r);
+            // the product of two longs always fits into 128 bits
+            return factory().createInt128(PInt.multiplyHigh(x, y), x * y);
         }
 
         @Specialization(guards = "right == 0")
@@ -666,6 +757,11 @@ public class IntBuiltins extends PythonBuiltins {
             return factory().createInt(left.getValue());
         }
 
+        @Specialization(guards = {"left.isInt128()", "right != 0", "right != 1"}, rewriteOn = ArithmeticException.class)
+        PInt doInt128Long(PInt left, long right) {
+            return factory().createInt128(multiplyHighExact(left.getHigh(), left.getLow(), right), left.getLow() * right);
+        }
+
         @Specialization(guards = {"right != 0", "right != 1"})
         PInt doPIntLong(PInt left, long right) {
             return factory().createInt(mul(left.getValue(), BigInteger.valueOf(right)));
@@ -1100,6 +1196,10 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return leftShiftExact(left, right);
             } catch (ArithmeticException e) {
+                if (right < Long.SIZE) {
+                    // the shifted value still fits into 128 bits
+                    return factory().createInt128(left >> (Long.SIZE - right), left << right);
+                }
                 int rightI = (int) right;
                 if (rightI == right) {
                     return factory().createInt(op(BigInteger.valueOf(left), rightI));
@@ -1566,7 +1666,7 @@ public class IntBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
-            return left.getValue().compareTo(right.getValue()) < 0;
+            return left.compareTo(right) < 0;
         }
 
         @Specialization(guards = "fromNativeNode.isFloatSubtype(frame, y, getClass, isSubtype, context)", limit = "1")
@@ -1647,7 +1747,7 @@ public class IntBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
-            return left.getValue().compareTo(right.getValue()) <= 0;
+            return left.compareTo(right) <= 0;
         }
 
         @SuppressWarnings("unused")
@@ -1693,7 +1793,7 @@ public class IntBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
-            return left.getValue().compareTo(right.getValue()) > 0;
+            return left.compareTo(right) > 0;
         }
 
         @SuppressWarnings("unused")
@@ -1739,7 +1839,7 @@ public class IntBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         boolean doPP(PInt left, PInt right) {
-            return left.getValue().compareTo(right.getValue()) >= 0;
+            return left.compareTo(right) >= 0;
         }
 
         @SuppressWarnings("unused")
@@ -2273,6 +2373,115 @@ public class IntBuiltins extends PythonBuiltins {
     abstract static class ReprNode extends StrNode {
     }
 
+    @Builtin(name = SpecialMethodNames.__FORMAT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    public abstract static class FormatNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "formatString.isEmpty()")
+        Object formatEmpty(VirtualFrame frame, Object self, @SuppressWarnings("unused") String formatString,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode) {
+            // bools inherit this method and must still be formatted as 'True' and 'False'
+            return strNode.executeObject(frame, self);
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        Object formatLong(VirtualFrame frame, long self, String formatString,
+                        @Shared("floatFormatNode") @Cached("create(__FORMAT__)") LookupAndCallBinaryNode floatFormatNode,
+                        @Shared("parseSpecNode") @Cached ParseFormatSpecNode parseSpecNode) {
+            InternalFormat.Spec spec = parseSpecNode.execute(formatString);
+            if (isFloatType(spec.type)) {
+                return floatFormatNode.executeObject(frame, (double) self, formatString);
+            }
+            return format(getCore(), BigInteger.valueOf(self), spec);
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        Object formatPInt(VirtualFrame frame, PInt self, String formatString,
+                        @Shared("floatFormatNode") @Cached("create(__FORMAT__)") LookupAndCallBinaryNode floatFormatNode,
+                        @Shared("parseSpecNode") @Cached ParseFormatSpecNode parseSpecNode) {
+            InternalFormat.Spec spec = parseSpecNode.execute(formatString);
+            if (isFloatType(spec.type)) {
+                double value = self.doubleValue();
+                if (Double.isInfinite(value)) {
+                    throw raise(PythonErrorType.OverflowError, "int too large to convert to float");
+                }
+                return floatFormatNode.executeObject(frame, value, formatString);
+            }
+            return format(getCore(), self.getValue(), spec);
+        }
+
+        @Fallback
+        Object formatOther(Object self, Object formatString) {
+            if (!PGuards.isString(formatString)) {
+                throw raise(PythonErrorType.TypeError, "format_spec must be a string");
+            }
+            throw raise(PythonErrorType.TypeError, "unsupported format string passed to %p.__format__", self);
+        }
+
+        /**
+         * Whether the int should rather be converted to a float and formatted as such.
+         */
+        public static boolean isFloatType(char type) {
+            switch (type) {
+                case 'e':
+                case 'E':
+                case 'f':
+                case 'F':
+                case 'g':
+                case 'G':
+                case '%':
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @TruffleBoundary
+        private static String format(PythonCore core, BigInteger value, InternalFormat.Spec spec) {
+            StringBuilder result = new StringBuilder();
+            formatInto(core, result, value, spec);
+            return result.toString();
+        }
+
+        /**
+         * Appends the formatted value to {@code result}. The spec must not have a
+         * {@link #isFloatType float type}.
+         */
+        @TruffleBoundary
+        public static void formatInto(PythonCore core, StringBuilder result, BigInteger value, InternalFormat.Spec spec) {
+            switch (spec.type) {
+                case 'c':
+                    if (InternalFormat.Spec.specified(spec.sign)) {
+                        throw InternalFormat.Formatter.signNotAllowed(core, "integer", spec.type);
+                    } else if (spec.alternate) {
+                        throw InternalFormat.Formatter.alternateFormNotAllowed(core, "integer", spec.type);
+                    }
+                    // fall through
+                case 'x':
+                case 'X':
+                case 'o':
+                case 'b':
+                case 'n':
+                    if (spec.grouping) {
+                        throw InternalFormat.Formatter.notAllowed(core, "Grouping", "integer", spec.type);
+                    }
+                    // fall through
+                case InternalFormat.Spec.NONE:
+                case 'd':
+                    if (InternalFormat.Spec.specified(spec.precision)) {
+                        throw InternalFormat.Formatter.precisionNotAllowed(core, "integer");
+                    }
+                    // spec may be incomplete, the defaults are those commonly used for numeric
+                    // formats
+                    new IntegerFormatter(core, result, spec.withDefaults(InternalFormat.Spec.NUMERIC)).format(value).pad();
+                    break;
+                default:
+                    throw InternalFormat.Formatter.unknownFormat(core, spec.type, "int");
+            }
+        }
+    }
+
     @Builtin(name = SpecialMethodNames.__HASH__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -44,23 +44,108 @@ import com.oracle.truffle.api.library.ExportMessage;
 @ExportLibrary(InteropLibrary.class)
 public final class PInt extends PythonBuiltinObject {
 
-    private final BigInteger value;
+    private static final BigInteger TWO_TO_64 = BigInteger.ONE.shiftLeft(64);
+
+    /*
+     * Ints created from (two) longs keep the 128-bit two's complement value in 'high' and 'low' and
+     * only create the BigInteger when an operation needs it. This allows arithmetic that stays
+     * within 128 bits to never allocate a BigInteger.
+     */
+    private BigInteger value;
+    private final boolean isInt128;
+    private final long high;
+    private final long low;
 
     public PInt(LazyPythonClass clazz, BigInteger value) {
         super(clazz);
         assert value != null;
         this.value = value;
+        this.isInt128 = false;
+        this.high = 0;
+        this.low = 0;
+    }
+
+    public PInt(LazyPythonClass clazz, long high, long low) {
+        super(clazz);
+        this.isInt128 = true;
+        this.high = high;
+        this.low = low;
     }
 
     public BigInteger getValue() {
-        return value;
+        BigInteger result = value;
+        if (result == null) {
+            result = toBigInteger(high, low);
+            value = result;
+        }
+        return result;
+    }
+
+    /**
+     * Whether this int was created from a 128-bit value, i.e. {@link #getHigh()} and
+     * {@link #getLow()} may be used instead of {@link #getValue()}.
+     */
+    public boolean isInt128() {
+        return isInt128;
+    }
+
+    public long getHigh() {
+        assert isInt128;
+        return high;
+    }
+
+    public long getLow() {
+        assert isInt128;
+        return low;
+    }
+
+    /**
+     * Whether the 128-bit value {@code high:low} can be represented as a single long.
+     */
+    public static boolean fitsInLong(long high, long low) {
+        return high == (low >> 63);
+    }
+
+    @TruffleBoundary
+    public static BigInteger toBigInteger(long high, long low) {
+        if (fitsInLong(high, low)) {
+            return BigInteger.valueOf(low);
+        }
+        BigInteger unsignedLow = BigInteger.valueOf(low);
+        if (low < 0) {
+            unsignedLow = unsignedLow.add(TWO_TO_64);
+        }
+        return BigInteger.valueOf(high).shiftLeft(64).add(unsignedLow);
+    }
+
+    /**
+     * The upper 64 bits of the signed 128-bit product of {@code x} and {@code y}, like
+     * {@code Math.multiplyHigh} which is not available on Java 8.
+     */
+    public static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
     }
 
     public boolean isOne() {
+        if (isInt128) {
+            return high == 0 && low == 1;
+        }
         return value.equals(BigInteger.ONE);
     }
 
     public boolean isZero() {
+        if (isInt128) {
+            return high == 0 && low == 0;
+        }
         return value.equals(BigInteger.ZERO);
     }
 
@@ -194,14 +279,18 @@ public final class PInt extends PythonBuiltinObject {
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return getValue().hashCode();
     }
 
     @Override
     @TruffleBoundary
     public boolean equals(Object obj) {
         if (obj instanceof PInt) {
-            return value.equals(((PInt) obj).getValue());
+            PInt other = (PInt) obj;
+            if (isInt128 && other.isInt128) {
+                return high == other.high && low == other.low;
+            }
+            return getValue().equals(other.getValue());
         }
         return false;
     }
@@ -216,37 +305,64 @@ public final class PInt extends PythonBuiltinObject {
 
     @TruffleBoundary
     private int compareTo(PInt o) {
-        return value.compareTo(o.value);
+        if (isInt128 && o.isInt128) {
+            return high != o.high ? Long.compare(high, o.high) : Long.compareUnsigned(low, o.low);
+        }
+        return getValue().compareTo(o.getValue());
     }
 
     @Override
     @TruffleBoundary
     public String toString() {
-        return value.toString();
+        return getValue().toString();
     }
 
     @TruffleBoundary
     public double doubleValue() {
-        return value.doubleValue();
+        return getValue().doubleValue();
     }
 
-    @TruffleBoundary
     public int intValue() {
+        if (isInt128) {
+            return (int) low;
+        }
+        return bigIntValue(value);
+    }
+
+    @TruffleBoundary
+    private static int bigIntValue(BigInteger value) {
         return value.intValue();
     }
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public int intValueExact() {
-        return value.intValueExact();
+        return getValue().intValueExact();
     }
 
-    @TruffleBoundary
     public long longValue() {
+        if (isInt128) {
+            return low;
+        }
+        return bigLongValue(value);
+    }
+
+    @TruffleBoundary
+    private static long bigLongValue(BigInteger value) {
         return value.longValue();
     }
 
-    @TruffleBoundary(transferToInterpreterOnException = false)
     public long longValueExact() {
+        if (isInt128) {
+            if (fitsInLong(high, low)) {
+                return low;
+            }
+            throw new ArithmeticException("BigInteger out of long range");
+        }
+        return bigLongValueExact(value);
+    }
+
+    @TruffleBoundary(transferToInterpreterOnException = false)
+    private static long bigLongValueExact(BigInteger value) {
         return value.longValueExact();
     }
 
@@ -260,16 +376,22 @@ public final class PInt extends PythonBuiltinObject {
 
     @TruffleBoundary
     public int bitCount() {
-        return value.bitCount();
+        return getValue().bitCount();
     }
 
     @TruffleBoundary
     public boolean isZeroOrPositive() {
+        if (isInt128) {
+            return high >= 0;
+        }
         return value.compareTo(BigInteger.ZERO) >= 0;
     }
 
     @TruffleBoundary
     public boolean isZeroOrNegative() {
+        if (isInt128) {
+            return high < 0 || (high == 0 && low == 0);
+        }
         return value.compareTo(BigInteger.ZERO) <= 0;
     }
 
@@ -328,7 +450,7 @@ public final class PInt extends PythonBuiltinObject {
 
     @TruffleBoundary(transferToInterpreterOnException = false)
     public byte byteValueExact() {
-        return value.byteValueExact();
+        return getValue().byteValueExact();
     }
 
     public static boolean isIntRange(long val) {
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.BufferError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PBytesIO)
+public class BytesIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BytesIOBuiltinsFactory.getFactories();
+    }
+
+    static void checkClosed(PythonBuiltinBaseNode node, PBytesIO self) {
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed file.");
+        }
+    }
+
+    static void checkExports(PythonBuiltinBaseNode node, PBytesIO self) {
+        if (self.isExported()) {
+            throw node.raise(BufferError, "Existing exports of data: object cannot be re-sized");
+        }
+    }
+
+    static boolean isByteStorage(PIBytesLike bytes) {
+        return bytes.getSequenceStorage() instanceof ByteSequenceStorage;
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"self", "initial_bytes"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isPNone(initialBytes)")
+        PNone init(PBytesIO self, @SuppressWarnings("unused") PNone initialBytes) {
+            checkExports(this, self);
+            self.init(new byte[0]);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPNone(initialBytes)")
+        PNone init(VirtualFrame frame, PBytesIO self, Object initialBytes,
+                        @Cached BytesNodes.ToBytesNode toBytesNode) {
+            checkExports(this, self);
+            self.init(toBytesNode.execute(frame, initialBytes));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "getvalue", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetValueNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes getValue(PBytesIO self) {
+            checkClosed(this, self);
+            return factory().createBytes(self.getValue());
+        }
+    }
+
+    @Builtin(name = "getbuffer", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetBufferNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PMemoryView getBuffer(PBytesIO self) {
+            checkClosed(this, self);
+            // the view shares the stream's storage, so writes through it are visible to the stream
+            PByteArray array = self.getExporter();
+            if (array == null) {
+                array = factory().createByteArray(self.getStorage());
+                self.setExporter(array);
+            }
+            return factory().createMemoryView(PythonBuiltinClassType.PMemoryView, array, array, self.getStorage().length(), false);
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PBytes read(PBytesIO self, Object size,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            return factory().createBytes(self.read(StringIOBuiltins.toSize(size, castToInt)));
+        }
+    }
+
+    @Builtin(name = "read1", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    abstract static class Read1Node extends ReadNode {
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadlineNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PBytes readline(PBytesIO self, Object size,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            return factory().createBytes(self.readline(StringIOBuiltins.toSize(size, castToInt)));
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes next(PBytesIO self) {
+            checkClosed(this, self);
+            byte[] line = self.readline(-1);
+            if (line.length == 0) {
+                throw raise(StopIteration);
+            }
+            return factory().createBytes(line);
+        }
+    }
+
+    @Builtin(name = "readinto", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ReadIntoNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isByteStorage(buffer)")
+        int readInto(PBytesIO self, PByteArray buffer) {
+            checkClosed(this, self);
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            return self.readInto((byte[]) storage.getInternalArrayObject(), storage.length());
+        }
+
+        @Specialization(replaces = "readInto")
+        int readIntoGeneric(VirtualFrame frame, PBytesIO self, Object buffer,
+                        @Cached("create(__LEN__)") LookupAndCallUnaryNode callLenNode,
+                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode callSetItemNode,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            int len = castToInt.execute(callLenNode.executeObject(frame, buffer));
+            byte[] data = self.read(len);
+            callSetItemNode.execute(frame, buffer, factory().createSlice(0, data.length, 1), factory().createBytes(data));
+            return data.length;
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isByteStorage(data)")
+        int write(PBytesIO self, PIBytesLike data) {
+            checkClosed(this, self);
+            checkExports(this, self);
+            ByteSequenceStorage storage = (ByteSequenceStorage) data.getSequenceStorage();
+            int len = storage.length();
+            self.write((byte[]) storage.getInternalArrayObject(), len);
+            return len;
+        }
+
+        @Specialization(replaces = "write")
+        int writeGeneric(VirtualFrame frame, PBytesIO self, Object data,
+                        @Cached BytesNodes.ToBytesNode toBytesNode) {
+            checkClosed(this, self);
+            checkExports(this, self);
+            byte[] bytes = toBytesNode.execute(frame, data);
+            self.write(bytes, bytes.length);
+            return bytes.length;
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"self", "pos", "whence"})
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        int seek(PBytesIO self, Object posObj, Object whenceObj,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            int pos = castToInt.execute(posObj);
+            int whence = PGuards.isNoValue(whenceObj) ? 0 : castToInt.execute(whenceObj);
+            switch (whence) {
+                case 0:
+                    if (pos < 0) {
+                        throw raise(ValueError, "negative seek value %d", pos);
+                    }
+                    break;
+                case 1:
+                    pos = Math.max(0, self.getPos() + pos);
+                    break;
+                case 2:
+                    pos = Math.max(0, self.getLength() + pos);
+                    break;
+                default:
+                    throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", whence);
+            }
+            self.setPos(pos);
+            return pos;
+        }
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int tell(PBytesIO self) {
+            checkClosed(this, self);
+            return self.getPos();
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int truncate(PBytesIO self, Object sizeObj,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            checkExports(this, self);
+            int size = PGuards.isPNone(sizeObj) ? self.getPos() : castToInt.execute(sizeObj);
+            if (size < 0) {
+                throw raise(ValueError, "negative size value %d", size);
+            }
+            self.truncate(size);
+            return size;
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(PBytesIO self) {
+            checkExports(this, self);
+            self.close();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(PBytesIO self) {
+            return self.isClosed();
+        }
+    }
+}
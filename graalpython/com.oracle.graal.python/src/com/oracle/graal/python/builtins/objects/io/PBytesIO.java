@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * An in-memory binary stream. The data lives in a {@link ByteSequenceStorage} whose length is the
+ * size of the stream, so it can be shared with a {@code bytearray} for {@code getbuffer()}. While
+ * a view returned by {@code getbuffer()} is not released, the stream must not be resized.
+ */
+public final class PBytesIO extends PythonBuiltinObject {
+    private ByteSequenceStorage storage = new ByteSequenceStorage(0);
+    private int pos;
+    private boolean closed;
+    /** The bytearray sharing {@link #storage} that exports it to {@code getbuffer()} views. */
+    private PByteArray exporter;
+
+    public PBytesIO(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    public void init(byte[] initialBytes) {
+        storage = new ByteSequenceStorage(initialBytes);
+        exporter = null;
+        pos = 0;
+        closed = false;
+    }
+
+    public ByteSequenceStorage getStorage() {
+        return storage;
+    }
+
+    public PByteArray getExporter() {
+        return exporter;
+    }
+
+    public void setExporter(PByteArray exporter) {
+        this.exporter = exporter;
+    }
+
+    public boolean isExported() {
+        return exporter != null && exporter.isExported();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        closed = true;
+        storage = new ByteSequenceStorage(0);
+        exporter = null;
+    }
+
+    public int getPos() {
+        return pos;
+    }
+
+    public void setPos(int pos) {
+        this.pos = pos;
+    }
+
+    public int getLength() {
+        return storage.length();
+    }
+
+    private byte[] getArray() {
+        return (byte[]) storage.getInternalArrayObject();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public byte[] getValue() {
+        byte[] result = new byte[storage.length()];
+        System.arraycopy(getArray(), 0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Writes {@code len} bytes of {@code data} at the current position, padding with zero bytes if
+     * the position is past the end.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public void write(byte[] data, int len) {
+        int end = pos + len;
+        int size = storage.length();
+        if (end > size) {
+            storage.ensureCapacity(end);
+            byte[] array = getArray();
+            if (pos > size) {
+                // the storage's spare capacity may contain stale data from a truncation
+                Arrays.fill(array, size, pos, (byte) 0);
+            }
+            storage.setNewLength(end);
+        }
+        System.arraycopy(data, 0, getArray(), pos, len);
+        pos = end;
+    }
+
+    /**
+     * Reads up to {@code size} bytes from the current position into a new array, or everything if
+     * {@code size} is negative.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public byte[] read(int size) {
+        int available = Math.max(storage.length() - pos, 0);
+        int n = size < 0 ? available : Math.min(size, available);
+        byte[] result = new byte[n];
+        System.arraycopy(getArray(), pos, result, 0, n);
+        pos += n;
+        return result;
+    }
+
+    /**
+     * Copies up to {@code len} bytes from the current position into {@code target}.
+     *
+     * @return the number of bytes copied
+     */
+    @TruffleBoundary(allowInlining = true)
+    public int readInto(byte[] target, int len) {
+        int n = Math.min(len, Math.max(storage.length() - pos, 0));
+        System.arraycopy(getArray(), pos, target, 0, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * Reads one line, but at most {@code limit} bytes if {@code limit} is not negative.
+     */
+    @TruffleBoundary
+    public byte[] readline(int limit) {
+        int size = storage.length();
+        if (pos >= size) {
+            return new byte[0];
+        }
+        int stop = limit < 0 ? size : (int) Math.min((long) pos + limit, size);
+        byte[] array = getArray();
+        int end = stop;
+        for (int i = pos; i < stop; i++) {
+            if (array[i] == '\n') {
+                end = i + 1;
+                break;
+            }
+        }
+        return read(end - pos);
+    }
+
+    public void truncate(int size) {
+        if (size < storage.length()) {
+            storage.setNewLength(size);
+        }
+    }
+}
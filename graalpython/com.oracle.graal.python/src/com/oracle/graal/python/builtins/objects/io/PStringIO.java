@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * An in-memory text stream. The text is kept in a single {@link StringBuilder} that is modified in
+ * place, so writing and line-wise reading do not re-encode or copy the whole buffer like the
+ * {@code _pyio} implementation on top of {@code BytesIO} does.
+ */
+public final class PStringIO extends PythonBuiltinObject {
+    private StringBuilder buf = new StringBuilder();
+    private int pos;
+    private boolean closed;
+
+    /** Read in universal newlines mode, i.e., any of '\n', '\r' and '\r\n' ends a line. */
+    private boolean readUniversal;
+    /** Translate '\r\n' and '\r' to '\n' on write. */
+    private boolean writeTranslate;
+    /** The line terminator when not in universal newlines mode. */
+    private String readNewline = "\n";
+    /** If not {@code null}, '\n' is translated to this on write. */
+    private String writeNewline;
+    /**
+     * The position after a '\r' that ended the last write and was translated to '\n', or -1. A
+     * '\n' written right there completes the '\r\n' and is dropped.
+     */
+    private int translatedCRPos = -1;
+
+    public PStringIO(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    /**
+     * (Re-)Initializes the stream. {@code newline} must be {@code null} or one of the legal values
+     * '', '\n', '\r' or '\r\n'.
+     */
+    @TruffleBoundary
+    public void init(String initialValue, String newline) {
+        readUniversal = newline == null || newline.isEmpty();
+        writeTranslate = newline == null;
+        readNewline = newline == null || newline.isEmpty() ? "\n" : newline;
+        writeNewline = newline != null && (newline.equals("\r") || newline.equals("\r\n")) ? newline : null;
+        buf = new StringBuilder();
+        pos = 0;
+        translatedCRPos = -1;
+        closed = false;
+        if (initialValue != null && !initialValue.isEmpty()) {
+            write(initialValue);
+            pos = 0;
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        closed = true;
+        buf = null;
+    }
+
+    public int getPos() {
+        return pos;
+    }
+
+    public void setPos(int pos) {
+        this.pos = pos;
+        translatedCRPos = -1;
+    }
+
+    public int getLength() {
+        return buf.length();
+    }
+
+    @TruffleBoundary
+    public String getValue() {
+        return buf.toString();
+    }
+
+    /**
+     * Writes the string at the current position, overwriting existing text and padding with
+     * {@code '\0'} if the position is past the end.
+     */
+    @TruffleBoundary
+    public void write(String s) {
+        String text = s;
+        if (writeTranslate) {
+            if (translatedCRPos == pos && text.startsWith("\n")) {
+                text = text.substring(1);
+            }
+            boolean endsWithCR = text.endsWith("\r");
+            text = text.replace("\r\n", "\n").replace('\r', '\n');
+            translatedCRPos = endsWithCR ? pos + text.length() : -1;
+        } else if (writeNewline != null) {
+            text = text.replace("\n", writeNewline);
+        }
+        int len = buf.length();
+        if (pos > len) {
+            buf.setLength(pos);
+        }
+        buf.replace(pos, Math.min(pos + text.length(), buf.length()), text);
+        pos += text.length();
+    }
+
+    /**
+     * Reads up to {@code size} characters from the current position, or everything if
+     * {@code size} is negative.
+     */
+    @TruffleBoundary
+    public String read(int size) {
+        int len = buf.length();
+        if (pos >= len) {
+            return "";
+        }
+        int end = size < 0 ? len : (int) Math.min((long) pos + size, len);
+        String result = buf.substring(pos, end);
+        pos = end;
+        return result;
+    }
+
+    /**
+     * Reads one line, but at most {@code limit} characters if {@code limit} is not negative.
+     */
+    @TruffleBoundary
+    public String readline(int limit) {
+        int len = buf.length();
+        if (pos >= len) {
+            return "";
+        }
+        int stop = limit < 0 ? len : (int) Math.min((long) pos + limit, len);
+        int end = findLineEnd(pos, stop);
+        String result = buf.substring(pos, end);
+        pos = end;
+        return result;
+    }
+
+    private int findLineEnd(int start, int stop) {
+        if (readUniversal) {
+            for (int i = start; i < stop; i++) {
+                char c = buf.charAt(i);
+                if (c == '\n') {
+                    return i + 1;
+                } else if (c == '\r') {
+                    if (i + 1 < stop && buf.charAt(i + 1) == '\n') {
+                        return i + 2;
+                    }
+                    return i + 1;
+                }
+            }
+            return stop;
+        }
+        int idx = buf.indexOf(readNewline, start);
+        if (idx < 0 || idx + readNewline.length() > stop) {
+            return stop;
+        }
+        return idx + readNewline.length();
+    }
+
+    @TruffleBoundary
+    public void truncate(int size) {
+        if (size < buf.length()) {
+            buf.setLength(size);
+            translatedCRPos = -1;
+        }
+    }
+}
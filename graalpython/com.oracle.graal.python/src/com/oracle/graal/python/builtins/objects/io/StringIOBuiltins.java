@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PStringIO)
+public class StringIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return StringIOBuiltinsFactory.getFactories();
+    }
+
+    static void checkClosed(PythonBuiltinBaseNode node, PStringIO self) {
+        if (self.isClosed()) {
+            throw node.raise(ValueError, "I/O operation on closed file");
+        }
+    }
+
+    static int toSize(Object size, CastToJavaIntNode castToInt) {
+        if (PGuards.isPNone(size)) {
+            return -1;
+        }
+        return castToInt.execute(size);
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"self", "initial_value", "newline"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone init(PStringIO self, Object initialValue, Object newline,
+                        @Cached CastToJavaStringNode castToString) {
+            String newlineStr;
+            if (PGuards.isNoValue(newline)) {
+                newlineStr = "\n";
+            } else if (PGuards.isNone(newline)) {
+                newlineStr = null;
+            } else {
+                newlineStr = castToString.execute(newline);
+                if (newlineStr == null) {
+                    throw raise(TypeError, "newline must be str or None, not %p", newline);
+                }
+                if (!isLegalNewline(newlineStr)) {
+                    throw raise(ValueError, "illegal newline value: %s", newlineStr);
+                }
+            }
+            String initial = null;
+            if (!PGuards.isPNone(initialValue)) {
+                initial = castToString.execute(initialValue);
+                if (initial == null) {
+                    throw raise(TypeError, "initial_value must be str or None, not %p", initialValue);
+                }
+            }
+            self.init(initial, newlineStr);
+            return PNone.NONE;
+        }
+
+        private static boolean isLegalNewline(String newline) {
+            return newline.isEmpty() || newline.equals("\n") || newline.equals("\r") || newline.equals("\r\n");
+        }
+    }
+
+    @Builtin(name = "getvalue", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetValueNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String getValue(PStringIO self) {
+            checkClosed(this, self);
+            return self.getValue();
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        String read(PStringIO self, Object size,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            return self.read(toSize(size, castToInt));
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    abstract static class ReadlineNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        String readline(PStringIO self, Object size,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            return self.readline(toSize(size, castToInt));
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String next(PStringIO self) {
+            checkClosed(this, self);
+            String line = self.readline(-1);
+            if (line.isEmpty()) {
+                throw raise(StopIteration);
+            }
+            return line;
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int write(PStringIO self, Object s,
+                        @Cached CastToJavaStringNode castToString) {
+            checkClosed(this, self);
+            String str = castToString.execute(s);
+            if (str == null) {
+                throw raise(TypeError, "string argument expected, got '%p'", s);
+            }
+            self.write(str);
+            return str.length();
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"self", "pos", "whence"})
+    @GenerateNodeFactory
+    abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        int seek(PStringIO self, Object posObj, Object whenceObj,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            int pos = castToInt.execute(posObj);
+            int whence = PGuards.isNoValue(whenceObj) ? 0 : castToInt.execute(whenceObj);
+            switch (whence) {
+                case 0:
+                    if (pos < 0) {
+                        throw raise(ValueError, "Negative seek position %d", pos);
+                    }
+                    self.setPos(pos);
+                    break;
+                case 1:
+                    if (pos != 0) {
+                        throw raise(OSError, "Can't do nonzero cur-relative seeks");
+                    }
+                    break;
+                case 2:
+                    if (pos != 0) {
+                        throw raise(OSError, "Can't do nonzero end-relative seeks");
+                    }
+                    self.setPos(self.getLength());
+                    break;
+                default:
+                    throw raise(ValueError, "Invalid whence (%d, should be 0, 1 or 2)", whence);
+            }
+            return self.getPos();
+        }
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int tell(PStringIO self) {
+            checkClosed(this, self);
+            return self.getPos();
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"self", "pos"})
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int truncate(PStringIO self, Object posObj,
+                        @Cached CastToJavaIntNode castToInt) {
+            checkClosed(this, self);
+            int size = PGuards.isPNone(posObj) ? self.getPos() : castToInt.execute(posObj);
+            if (size < 0) {
+                throw raise(ValueError, "Negative size value %d", size);
+            }
+            self.truncate(size);
+            return size;
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(PStringIO self) {
+            self.close();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(PStringIO self) {
+            return self.isClosed();
+        }
+    }
+}
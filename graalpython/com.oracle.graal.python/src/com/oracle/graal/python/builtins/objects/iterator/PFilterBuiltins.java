@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.iterator;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PFilter)
+public class PFilterBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PFilterBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Child private CallNode callNode;
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+
+        private final ConditionProfile noFunctionProfile = ConditionProfile.createBinaryProfile();
+
+        @Specialization(guards = "isRangeSource(self)")
+        Object doRange(VirtualFrame frame, PFilter self) {
+            PRangeIterator source = (PRangeIterator) self.getIterator();
+            while (source.index < source.stop) {
+                int value = source.index;
+                source.index += source.step;
+                if (test(frame, self.getFunction(), value)) {
+                    return value;
+                }
+            }
+            throw raise(StopIteration);
+        }
+
+        @Specialization(guards = "isSequenceSource(self)")
+        Object doSequence(VirtualFrame frame, PFilter self,
+                        @Cached("createClassProfile()") ValueProfile sequenceProfile,
+                        @Cached SequenceStorageNodes.LenNode lenNode,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
+            PSequenceIterator source = (PSequenceIterator) self.getIterator();
+            PSequence sequence = sequenceProfile.profile(source.getPSequence());
+            // the predicate may modify the sequence, so the length is read for every item
+            while (!source.isExhausted() && source.index < lenNode.execute(sequence.getSequenceStorage())) {
+                SequenceStorage s = sequence.getSequenceStorage();
+                Object value = getItemNode.execute(frame, s, source.index++);
+                if (test(frame, self.getFunction(), value)) {
+                    return value;
+                }
+            }
+            source.setExhausted();
+            throw raise(StopIteration);
+        }
+
+        @Specialization
+        Object doGeneric(VirtualFrame frame, PFilter self,
+                        @Cached GetNextNode next) {
+            while (true) {
+                Object value = next.execute(frame, self.getIterator());
+                if (test(frame, self.getFunction(), value)) {
+                    return value;
+                }
+            }
+        }
+
+        private boolean test(VirtualFrame frame, Object function, Object value) {
+            if (noFunctionProfile.profile(function == PNone.NONE)) {
+                return castToBooleanNode.executeBoolean(frame, value);
+            }
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            return castToBooleanNode.executeBoolean(frame, callNode.execute(frame, function, new Object[]{value}, PKeyword.EMPTY_KEYWORDS));
+        }
+
+        static boolean isRangeSource(PFilter self) {
+            return self.getIterator() instanceof PRangeIterator;
+        }
+
+        static boolean isSequenceSource(PFilter self) {
+            return self.getIterator() instanceof PSequenceIterator && ((PSequenceIterator) self.getIterator()).isPSequence();
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        public Object __iter__(PFilter self) {
+            return self;
+        }
+    }
+}
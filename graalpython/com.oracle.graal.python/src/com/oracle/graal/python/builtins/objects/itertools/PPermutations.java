@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+public final class PPermutations extends PythonBuiltinObject {
+    private final Object[] pool;
+    private final int r;
+    private final int[] indices;
+    private final int[] cycles;
+    private boolean started;
+    private boolean stopped;
+
+    public PPermutations(LazyPythonClass cls, Object[] pool, int r) {
+        super(cls);
+        this.pool = pool;
+        this.r = r;
+        int n = pool.length;
+        this.indices = new int[n];
+        this.cycles = new int[Math.max(0, Math.min(r, n))];
+        if (r > n) {
+            stopped = true;
+        } else {
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+            }
+            for (int i = 0; i < r; i++) {
+                cycles[i] = n - i;
+            }
+        }
+    }
+
+    public Object[] getPool() {
+        return pool;
+    }
+
+    public int getR() {
+        return r;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public int[] getCycles() {
+        return cycles;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public void setStarted(boolean started) {
+        this.started = started;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void setStopped(boolean stopped) {
+        this.stopped = stopped;
+    }
+
+    /** Returns the items of the next permutation, or {@code null} if there are no more. */
+    public Object[] next() {
+        if (stopped) {
+            return null;
+        }
+        Object[] result = new Object[r];
+        for (int i = 0; i < r; i++) {
+            result[i] = pool[indices[i]];
+        }
+        int n = pool.length;
+        for (int i = r - 1; i >= 0; i--) {
+            int j = cycles[i] - 1;
+            if (j > 0) {
+                cycles[i] = j;
+                int tmp = indices[i];
+                indices[i] = indices[n - j];
+                indices[n - j] = tmp;
+                return result;
+            }
+            cycles[i] = n - i;
+            int num = indices[i];
+            System.arraycopy(indices, i + 1, indices, i, n - 1 - i);
+            indices[n - 1] = num;
+        }
+        stopped = true;
+        if (started) {
+            return null;
+        }
+        started = true;
+        return result;
+    }
+}
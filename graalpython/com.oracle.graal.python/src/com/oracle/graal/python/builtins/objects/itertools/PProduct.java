@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+public final class PProduct extends PythonBuiltinObject {
+    private final Object[][] gears;
+    /** The current index into each gear, {@code null} if any gear is empty. */
+    private final int[] indices;
+    /** The current combination, {@code null} before the first one. */
+    private Object[] lst;
+    private boolean stopped;
+
+    public PProduct(LazyPythonClass cls, Object[][] gears) {
+        super(cls);
+        this.gears = gears;
+        int[] initialIndices = new int[gears.length];
+        for (Object[] gear : gears) {
+            if (gear.length == 0) {
+                initialIndices = null;
+                stopped = true;
+                break;
+            }
+        }
+        this.indices = initialIndices;
+    }
+
+    public Object[][] getGears() {
+        return gears;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public boolean isStarted() {
+        return lst != null;
+    }
+
+    public void stop() {
+        lst = null;
+        stopped = true;
+    }
+
+    public void setLst(Object[] lst) {
+        this.lst = lst;
+    }
+
+    /** Returns the items of the next combination, or {@code null} if there are no more. */
+    public Object[] next() {
+        if (!stopped) {
+            fillNextResult();
+        }
+        if (stopped) {
+            return null;
+        }
+        return lst.clone();
+    }
+
+    private void fillNextResult() {
+        if (lst == null) {
+            lst = new Object[gears.length];
+            for (int i = 0; i < gears.length; i++) {
+                lst[i] = gears[i][0];
+            }
+            return;
+        }
+        int x = gears.length - 1;
+        if (x >= 0) {
+            Object[] gear = gears[x];
+            int index = indices[x] + 1;
+            if (index < gear.length) {
+                // no carry: done
+                lst[x] = gear[index];
+                indices[x] = index;
+            } else {
+                rotatePreviousGears();
+            }
+        } else {
+            stopped = true;
+        }
+    }
+
+    private void rotatePreviousGears() {
+        int x = gears.length - 1;
+        lst[x] = gears[x][0];
+        indices[x] = 0;
+        x--;
+        // the loop runs as long as we have a carry
+        while (x >= 0) {
+            Object[] gear = gears[x];
+            int index = indices[x] + 1;
+            if (index < gear.length) {
+                lst[x] = gear[index];
+                indices[x] = index;
+                return;
+            }
+            lst[x] = gear[0];
+            indices[x] = 0;
+            x--;
+        }
+        stop();
+    }
+}
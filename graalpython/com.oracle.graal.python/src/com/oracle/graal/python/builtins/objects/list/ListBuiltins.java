@@ -48,8 +48,10 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -62,6 +64,7 @@ import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
@@ -77,6 +80,7 @@ import com.oracle.graal.python.nodes.builtins.ListNodes;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.CreateStorageFromIteratorNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.IndexNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
@@ -89,13 +93,18 @@ import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetLazyClassNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.BasicSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -741,6 +750,277 @@ public class ListBuiltins extends PythonBuiltins {
         }
     }
 
+    // list.sort(*, key=None, reverse=False)
+    @Builtin(name = "sort", minNumOfPositionalArgs = 1, parameterNames = {"self"}, varArgsMarker = true, keywordOnlyNames = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class ListSortNode extends PythonTernaryBuiltinNode {
+        private static final int MIN_RUN = 32;
+
+        public abstract PNone execute(VirtualFrame frame, PList list, Object key, Object reverse);
+
+        @Specialization(guards = {"isSimpleFlag(reverse)", "isIntStorage(list)"})
+        static PNone sortInt(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            IntSequenceStorage storage = (IntSequenceStorage) list.getSequenceStorage();
+            sort(storage.getInternalIntArray(), storage.length());
+            if (isTrue(reverse)) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isSimpleFlag(reverse)", "isLongStorage(list)"})
+        static PNone sortLong(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            LongSequenceStorage storage = (LongSequenceStorage) list.getSequenceStorage();
+            sort(storage.getInternalLongArray(), storage.length());
+            if (isTrue(reverse)) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isSimpleFlag(reverse)", "isDoubleStorage(list)", "isTotallyOrdered(list)"})
+        static PNone sortDouble(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) list.getSequenceStorage();
+            sort(storage.getInternalDoubleArray(), storage.length());
+            if (isTrue(reverse)) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isSimpleFlag(reverse)", "isObjectStorage(list)", "isStringStorage(list)"})
+        static PNone sortString(PList list, @SuppressWarnings("unused") PNone key, Object reverse) {
+            ObjectSequenceStorage storage = (ObjectSequenceStorage) list.getSequenceStorage();
+            // strings that compare equal may still differ in identity, so keep the sort stable
+            boolean descending = isTrue(reverse);
+            if (descending) {
+                storage.reverse();
+            }
+            sort(storage.getInternalArray(), storage.length());
+            if (descending) {
+                storage.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone sortGeneric(VirtualFrame frame, PList list, Object key, Object reverse,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castReverse,
+                        @Cached CallNode keyCall,
+                        @Cached("createLessThan()") BinaryComparisonNode ltNode) {
+            boolean descending = !PGuards.isNoValue(reverse) && castReverse.executeBoolean(frame, reverse);
+            SequenceStorage storage = list.getSequenceStorage();
+            Object[] values = storage.getCopyOfInternalArray();
+            if (values.length == 0) {
+                return PNone.NONE;
+            }
+            // like CPython, the list appears empty while it is being sorted
+            list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            try {
+                Object[] keys = values;
+                if (!PGuards.isPNone(key)) {
+                    // compute each key exactly once
+                    keys = new Object[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        keys[i] = keyCall.execute(frame, key, new Object[]{values[i]}, PKeyword.EMPTY_KEYWORDS);
+                    }
+                }
+                // a stable sort of the reversed input, reversed again, is a stable descending sort
+                if (descending) {
+                    reverse(keys, keys == values ? null : values);
+                }
+                mergeSort(frame, ltNode, keys, keys == values ? null : values);
+                if (descending) {
+                    reverse(keys, keys == values ? null : values);
+                }
+            } catch (PException e) {
+                list.setSequenceStorage(storage);
+                throw e;
+            }
+            boolean modified = list.getSequenceStorage() != EmptySequenceStorage.INSTANCE;
+            list.setSequenceStorage(writeBack(storage, values));
+            if (modified) {
+                throw raise(ValueError, "list modified during sort");
+            }
+            return PNone.NONE;
+        }
+
+        /**
+         * Sorts with binary insertion sort on short runs, followed by bottom-up merges which are
+         * skipped for neighbouring runs that are already in order. Uses only {@code <} like
+         * CPython and stays stable for comparison functions that are not consistent.
+         */
+        private static void mergeSort(VirtualFrame frame, BinaryComparisonNode lt, Object[] keys, Object[] values) {
+            int n = keys.length;
+            for (int lo = 0; lo < n; lo += MIN_RUN) {
+                binaryInsertionSort(frame, lt, keys, values, lo, Math.min(lo + MIN_RUN, n));
+            }
+            if (n <= MIN_RUN) {
+                return;
+            }
+            Object[] keyBuffer = new Object[n];
+            Object[] valueBuffer = values == null ? null : new Object[n];
+            for (int width = MIN_RUN; width < n; width *= 2) {
+                for (int lo = 0; lo < n - width; lo += 2 * width) {
+                    int mid = lo + width;
+                    if (lt.executeBool(frame, keys[mid], keys[mid - 1])) {
+                        merge(frame, lt, keys, values, keyBuffer, valueBuffer, lo, mid, Math.min(lo + 2 * width, n));
+                    }
+                }
+            }
+        }
+
+        private static void binaryInsertionSort(VirtualFrame frame, BinaryComparisonNode lt, Object[] keys, Object[] values, int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                Object pivot = keys[i];
+                if (!lt.executeBool(frame, pivot, keys[i - 1])) {
+                    continue;
+                }
+                int left = lo;
+                int right = i - 1;
+                while (left < right) {
+                    int mid = (left + right) >>> 1;
+                    if (lt.executeBool(frame, pivot, keys[mid])) {
+                        right = mid;
+                    } else {
+                        left = mid + 1;
+                    }
+                }
+                System.arraycopy(keys, left, keys, left + 1, i - left);
+                keys[left] = pivot;
+                if (values != null) {
+                    Object value = values[i];
+                    System.arraycopy(values, left, values, left + 1, i - left);
+                    values[left] = value;
+                }
+            }
+        }
+
+        private static void merge(VirtualFrame frame, BinaryComparisonNode lt, Object[] keys, Object[] values, Object[] keyBuffer, Object[] valueBuffer, int lo, int mid, int hi) {
+            System.arraycopy(keys, lo, keyBuffer, lo, mid - lo);
+            if (values != null) {
+                System.arraycopy(values, lo, valueBuffer, lo, mid - lo);
+            }
+            int i = lo;
+            int j = mid;
+            int k = lo;
+            while (i < mid && j < hi) {
+                if (lt.executeBool(frame, keys[j], keyBuffer[i])) {
+                    if (values != null) {
+                        values[k] = values[j];
+                    }
+                    keys[k++] = keys[j++];
+                } else {
+                    if (values != null) {
+                        values[k] = valueBuffer[i];
+                    }
+                    keys[k++] = keyBuffer[i++];
+                }
+            }
+            System.arraycopy(keyBuffer, i, keys, k, mid - i);
+            if (values != null) {
+                System.arraycopy(valueBuffer, i, values, k, mid - i);
+            }
+        }
+
+        private static void reverse(Object[] keys, Object[] values) {
+            for (int i = 0, j = keys.length - 1; i < j; i++, j--) {
+                Object tmp = keys[i];
+                keys[i] = keys[j];
+                keys[j] = tmp;
+                if (values != null) {
+                    tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static SequenceStorage writeBack(SequenceStorage storage, Object[] values) {
+            if (storage instanceof ObjectSequenceStorage) {
+                System.arraycopy(values, 0, storage.getInternalArray(), 0, values.length);
+                return storage;
+            } else if (storage instanceof BasicSequenceStorage) {
+                return SequenceStorageFactory.createStorage(values);
+            }
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    storage.setItemNormalized(i, values[i]);
+                }
+            } catch (SequenceStoreException e) {
+                throw new IllegalStateException();
+            }
+            return storage;
+        }
+
+        @TruffleBoundary
+        private static void sort(int[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        @TruffleBoundary
+        private static void sort(long[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        @TruffleBoundary
+        private static void sort(double[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        @TruffleBoundary
+        private static void sort(Object[] values, int length) {
+            Arrays.sort(values, 0, length);
+        }
+
+        protected static boolean isSimpleFlag(Object reverse) {
+            return reverse instanceof Boolean || reverse instanceof Integer || PGuards.isNoValue(reverse);
+        }
+
+        private static boolean isTrue(Object simpleFlag) {
+            if (simpleFlag instanceof Boolean) {
+                return (boolean) simpleFlag;
+            } else if (simpleFlag instanceof Integer) {
+                return (int) simpleFlag != 0;
+            }
+            return false;
+        }
+
+        /**
+         * {@link Arrays#sort(double[])} orders {@code -0.0} before {@code 0.0} and sorts NaNs,
+         * which {@code <} does not, so such lists take the generic path.
+         */
+        @TruffleBoundary
+        protected static boolean isTotallyOrdered(PList list) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) list.getSequenceStorage();
+            double[] values = storage.getInternalDoubleArray();
+            for (int i = 0; i < storage.length(); i++) {
+                double value = values[i];
+                if (Double.isNaN(value) || (value == 0.0 && Double.doubleToRawLongBits(value) != 0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @TruffleBoundary
+        protected static boolean isStringStorage(PList list) {
+            ObjectSequenceStorage storage = (ObjectSequenceStorage) list.getSequenceStorage();
+            Object[] values = storage.getInternalArray();
+            for (int i = 0; i < storage.length(); i++) {
+                if (!(values[i] instanceof String)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        protected static BinaryComparisonNode createLessThan() {
+            return BinaryComparisonNode.create(__LT__, __GT__, "<");
+        }
+    }
+
     @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.memoryview;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryViewNodesFactory.PackValueNodeGen;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryViewNodesFactory.UnpackValueNodeGen;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+
+public abstract class MemoryViewNodes {
+
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+    private static final BigInteger TWO_POW_64 = BigInteger.ONE.shiftLeft(64);
+
+    /**
+     * Returns the item size of a native single character format with an optional {@code '@'}
+     * prefix, or -1 if the format is not supported.
+     */
+    public static int getItemSize(String format) {
+        switch (getFormatChar(format)) {
+            case 'b':
+            case 'B':
+            case 'c':
+            case '?':
+                return 1;
+            case 'h':
+            case 'H':
+                return 2;
+            case 'i':
+            case 'I':
+            case 'f':
+                return 4;
+            case 'l':
+            case 'L':
+            case 'q':
+            case 'Q':
+            case 'n':
+            case 'N':
+            case 'P':
+            case 'd':
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    static char getFormatChar(String format) {
+        if (format.length() == 1) {
+            return format.charAt(0);
+        } else if (format.length() == 2 && format.charAt(0) == '@') {
+            return format.charAt(1);
+        }
+        return 0;
+    }
+
+    public static boolean isByteFormat(PMemoryView self) {
+        return getFormatChar(self.getFormat()) == 'B';
+    }
+
+    private static long readNative(PMemoryView self, int base, int size) {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            int shift = LITTLE_ENDIAN ? 8 * i : 8 * (size - 1 - i);
+            result |= (self.getByteAt(base + i) & 0xFFL) << shift;
+        }
+        return result;
+    }
+
+    private static void writeNative(PMemoryView self, int base, int size, long value) {
+        for (int i = 0; i < size; i++) {
+            int shift = LITTLE_ENDIAN ? 8 * i : 8 * (size - 1 - i);
+            self.setByteAt(base + i, (byte) (value >>> shift));
+        }
+    }
+
+    /**
+     * Reads the item at byte position {@code base} of the underlying buffer and converts it to a
+     * Python object according to the view's format.
+     */
+    @ImportStatic(MemoryViewNodes.class)
+    public abstract static class UnpackValueNode extends PNodeWithContext {
+
+        public abstract Object execute(PMemoryView self, int base);
+
+        @Specialization(guards = "isByteFormat(self)")
+        static int doUnsignedByte(PMemoryView self, int base) {
+            return self.getByteAt(base) & 0xFF;
+        }
+
+        @Specialization(replaces = "doUnsignedByte")
+        static Object doGeneric(PMemoryView self, int base,
+                        @Cached PythonObjectFactory factory,
+                        @Cached PRaiseNode raiseNode) {
+            switch (getFormatChar(self.getFormat())) {
+                case 'B':
+                    return self.getByteAt(base) & 0xFF;
+                case 'b':
+                    return (int) self.getByteAt(base);
+                case 'c':
+                    return factory.createBytes(new byte[]{self.getByteAt(base)});
+                case '?':
+                    return self.getByteAt(base) != 0;
+                case 'h':
+                    return (int) (short) readNative(self, base, 2);
+                case 'H':
+                    return (int) readNative(self, base, 2);
+                case 'i':
+                    return (int) readNative(self, base, 4);
+                case 'I':
+                    return readNative(self, base, 4);
+                case 'l':
+                case 'q':
+                case 'n':
+                    return readNative(self, base, 8);
+                case 'L':
+                case 'Q':
+                case 'N':
+                case 'P':
+                    long value = readNative(self, base, 8);
+                    if (value >= 0) {
+                        return value;
+                    }
+                    return factory.createInt(toUnsignedBigInteger(value));
+                case 'f':
+                    return (double) Float.intBitsToFloat((int) readNative(self, base, 4));
+                case 'd':
+                    return Double.longBitsToDouble(readNative(self, base, 8));
+                default:
+                    throw raiseNode.raise(NotImplementedError, "memoryview: format %s not supported", self.getFormat());
+            }
+        }
+
+        @TruffleBoundary
+        private static BigInteger toUnsignedBigInteger(long value) {
+            return BigInteger.valueOf(value).add(TWO_POW_64);
+        }
+
+        public static UnpackValueNode create() {
+            return UnpackValueNodeGen.create();
+        }
+    }
+
+    /**
+     * Converts a Python object according to the view's format and writes it to byte position
+     * {@code base} of the underlying buffer.
+     */
+    @ImportStatic(MemoryViewNodes.class)
+    public abstract static class PackValueNode extends PNodeWithContext {
+
+        public abstract void execute(PMemoryView self, int base, Object value);
+
+        @Specialization(guards = "isByteFormat(self)")
+        static void doUnsignedByte(PMemoryView self, int base, int value,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            if (value < 0 || value > 0xFF) {
+                throw raiseNode.raise(ValueError, "memoryview: invalid value for format '%s'", self.getFormat());
+            }
+            self.setByteAt(base, (byte) value);
+        }
+
+        @Specialization(replaces = "doUnsignedByte")
+        static void doGeneric(PMemoryView self, int base, Object value,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            char format = getFormatChar(self.getFormat());
+            switch (format) {
+                case 'c':
+                    if (value instanceof PBytes) {
+                        SequenceStorage storage = ((PBytes) value).getSequenceStorage();
+                        if (storage instanceof ByteSequenceStorage && storage.length() == 1) {
+                            self.setByteAt(base, ((ByteSequenceStorage) storage).getByteItemNormalized(0));
+                            return;
+                        }
+                        throw raiseNode.raise(ValueError, "memoryview: invalid value for format '%s'", self.getFormat());
+                    }
+                    throw raiseNode.raise(TypeError, "memoryview: invalid type for format '%s'", self.getFormat());
+                case 'f':
+                    writeNative(self, base, 4, Float.floatToRawIntBits((float) asDouble(self, value, raiseNode)));
+                    return;
+                case 'd':
+                    writeNative(self, base, 8, Double.doubleToRawLongBits(asDouble(self, value, raiseNode)));
+                    return;
+                case '?':
+                    if (value instanceof Boolean) {
+                        self.setByteAt(base, (byte) ((boolean) value ? 1 : 0));
+                        return;
+                    }
+                    self.setByteAt(base, (byte) (isZero(self, value, raiseNode) ? 0 : 1));
+                    return;
+                default:
+                    packInteger(self, base, format, value, raiseNode);
+            }
+        }
+
+        private static void packInteger(PMemoryView self, int base, char format, Object value, PRaiseNode raiseNode) {
+            long l;
+            if (value instanceof Integer) {
+                l = (int) value;
+            } else if (value instanceof Long) {
+                l = (long) value;
+            } else if (value instanceof Boolean) {
+                l = (boolean) value ? 1 : 0;
+            } else if (value instanceof PInt) {
+                l = unsignedOrSignedLong(self, format, (PInt) value, raiseNode);
+                if (format == 'L' || format == 'Q' || format == 'N' || format == 'P') {
+                    writeNative(self, base, 8, l);
+                    return;
+                }
+            } else {
+                throw raiseNode.raise(TypeError, "memoryview: invalid type for format '%s'", self.getFormat());
+            }
+            long min;
+            long max;
+            int size;
+            switch (format) {
+                case 'b':
+                    min = Byte.MIN_VALUE;
+                    max = Byte.MAX_VALUE;
+                    size = 1;
+                    break;
+                case 'B':
+                    min = 0;
+                    max = 0xFF;
+                    size = 1;
+                    break;
+                case 'h':
+                    min = Short.MIN_VALUE;
+                    max = Short.MAX_VALUE;
+                    size = 2;
+                    break;
+                case 'H':
+                    min = 0;
+                    max = 0xFFFF;
+                    size = 2;
+                    break;
+                case 'i':
+                    min = Integer.MIN_VALUE;
+                    max = Integer.MAX_VALUE;
+                    size = 4;
+                    break;
+                case 'I':
+                    min = 0;
+                    max = 0xFFFFFFFFL;
+                    size = 4;
+                    break;
+                case 'l':
+                case 'q':
+                case 'n':
+                    min = Long.MIN_VALUE;
+                    max = Long.MAX_VALUE;
+                    size = 8;
+                    break;
+                case 'L':
+                case 'Q':
+                case 'N':
+                case 'P':
+                    min = 0;
+                    max = Long.MAX_VALUE;
+                    size = 8;
+                    break;
+                default:
+                    throw raiseNode.raise(NotImplementedError, "memoryview: format %s not supported", self.getFormat());
+            }
+            if (l < min || l > max) {
+                throw raiseNode.raise(ValueError, "memoryview: invalid value for format '%s'", self.getFormat());
+            }
+            writeNative(self, base, size, l);
+        }
+
+        @TruffleBoundary
+        private static long unsignedOrSignedLong(PMemoryView self, char format, PInt value, PRaiseNode raiseNode) {
+            BigInteger bigValue = value.getValue();
+            if (format == 'L' || format == 'Q' || format == 'N' || format == 'P') {
+                if (bigValue.signum() >= 0 && bigValue.bitLength() <= 64) {
+                    return bigValue.longValue();
+                }
+            } else if (bigValue.bitLength() <= 63) {
+                return bigValue.longValue();
+            }
+            throw raiseNode.raise(ValueError, "memoryview: invalid value for format '%s'", self.getFormat());
+        }
+
+        private static double asDouble(PMemoryView self, Object value, PRaiseNode raiseNode) {
+            if (value instanceof Double) {
+                return (double) value;
+            } else if (value instanceof PFloat) {
+                return ((PFloat) value).getValue();
+            } else if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return (boolean) value ? 1.0 : 0.0;
+            } else if (value instanceof PInt) {
+                return ((PInt) value).doubleValue();
+            }
+            throw raiseNode.raise(TypeError, "memoryview: invalid type for format '%s'", self.getFormat());
+        }
+
+        private static boolean isZero(PMemoryView self, Object value, PRaiseNode raiseNode) {
+            if (value instanceof PInt) {
+                return ((PInt) value).isZero();
+            }
+            return asDouble(self, value, raiseNode) == 0.0;
+        }
+
+        public static PackValueNode create() {
+            return PackValueNodeGen.create();
+        }
+    }
+}
@@ -40,48 +40,693 @@
  */
 package com.oracle.graal.python.builtins.objects.memoryview;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PEllipsis;
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
-import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryViewNodes.PackValueNode;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryViewNodes.UnpackValueNode;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PMemoryView)
 public class MemoryviewBuiltins extends PythonBuiltins {
 
     @Override
-    protected List<NodeFactory<SetCMemoryviewNode>> getNodeFactories() {
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return MemoryviewBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = PMemoryView.C_MEMORYVIEW, minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
+    protected interface MemoryViewBaseNode {
+
+        PException raise(PythonBuiltinClassType type, String format, Object... arguments);
+
+        default void checkReleased(PMemoryView self) {
+            if (self.isReleased()) {
+                throw raise(PythonBuiltinClassType.ValueError, "operation forbidden on released memoryview object");
+            }
+        }
+
+        default int checkIndex(PMemoryView self, int index) {
+            int len = self.getShape()[0];
+            int idx = index < 0 ? index + len : index;
+            if (idx < 0 || idx >= len) {
+                throw raise(PythonBuiltinClassType.IndexError, "index out of bounds on dimension 1");
+            }
+            return idx;
+        }
+
+        /**
+         * Computes the byte position of the item at the given indices, one per dimension.
+         */
+        default int getItemPosition(PMemoryView self, Object[] indices, PythonObjectLibrary lib, VirtualFrame frame) {
+            int[] shape = self.getShape();
+            int[] strides = self.getStrides();
+            if (indices.length < shape.length) {
+                throw raise(PythonBuiltinClassType.NotImplementedError, "sub-views are not implemented");
+            } else if (indices.length > shape.length) {
+                throw raise(PythonBuiltinClassType.TypeError, "cannot index %d-dimension view with %d-element tuple", shape.length, indices.length);
+            }
+            int pos = self.getOffset();
+            for (int dim = 0; dim < indices.length; dim++) {
+                int index = lib.asSizeWithState(indices[dim], PythonBuiltinClassType.IndexError, PArguments.getThreadState(frame));
+                int idx = index < 0 ? index + shape[dim] : index;
+                if (idx < 0 || idx >= shape[dim]) {
+                    throw raise(PythonBuiltinClassType.IndexError, "index out of bounds on dimension %d", dim + 1);
+                }
+                pos += idx * strides[dim];
+            }
+            return pos;
+        }
+
+        default void checkOneDimensional(PMemoryView self) {
+            if (self.getDimensions() == 0) {
+                throw raise(PythonBuiltinClassType.TypeError, "invalid indexing of 0-dim memory");
+            } else if (self.getDimensions() > 1) {
+                throw raise(PythonBuiltinClassType.NotImplementedError, "multi-dimensional sub-views are not implemented");
+            }
+        }
+    }
+
+    @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetItemNode extends PythonBinaryBuiltinNode implements MemoryViewBaseNode {
+
+        @Specialization(guards = {"!isPSlice(index)", "!isPTuple(index)", "!isEllipsis(index)"}, limit = "getCallSiteInlineCacheMaxDepth()")
+        Object doIndex(VirtualFrame frame, PMemoryView self, Object index,
+                        @CachedLibrary("index") PythonObjectLibrary lib,
+                        @Shared("unpackNode") @Cached UnpackValueNode unpackNode) {
+            checkReleased(self);
+            checkOneDimensional(self);
+            int idx = checkIndex(self, lib.asSizeWithState(index, PythonBuiltinClassType.IndexError, PArguments.getThreadState(frame)));
+            return unpackNode.execute(self, self.getOffset() + idx * self.getStrides()[0]);
+        }
+
+        @Specialization
+        Object doSlice(PMemoryView self, PSlice slice) {
+            checkReleased(self);
+            checkOneDimensional(self);
+            SliceInfo info = slice.computeIndices(self.getShape()[0]);
+            int stride = self.getStrides()[0];
+            // the new view shares the buffer; no bytes are copied
+            return factory().createMemoryView(PythonBuiltinClassType.PMemoryView, self.getOwner(), self.getBuffer(), self.getOffset() + info.start * stride, self.isReadOnly(), self.getFormat(),
+                            self.getItemSize(), new int[]{info.length}, new int[]{stride * info.step});
+        }
+
+        @Specialization
+        Object doTuple(VirtualFrame frame, PMemoryView self, PTuple indices,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Shared("unpackNode") @Cached UnpackValueNode unpackNode) {
+            checkReleased(self);
+            return unpackNode.execute(self, getItemPosition(self, getObjectArrayNode.execute(indices), lib, frame));
+        }
+
+        @Specialization
+        Object doEllipsis(PMemoryView self, @SuppressWarnings("unused") PEllipsis ellipsis) {
+            checkReleased(self);
+            return self;
+        }
+
+        protected static boolean isEllipsis(Object obj) {
+            return obj == PEllipsis.INSTANCE;
+        }
+    }
+
+    @Builtin(name = __SETITEM__, minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SetItemNode extends PythonTernaryBuiltinNode implements MemoryViewBaseNode {
+
+        @Specialization(guards = {"!isPSlice(index)", "!isPTuple(index)"}, limit = "getCallSiteInlineCacheMaxDepth()")
+        PNone doIndex(VirtualFrame frame, PMemoryView self, Object index, Object value,
+                        @CachedLibrary("index") PythonObjectLibrary lib,
+                        @Shared("packNode") @Cached PackValueNode packNode) {
+            checkWritable(self);
+            checkOneDimensional(self);
+            int idx = checkIndex(self, lib.asSizeWithState(index, PythonBuiltinClassType.IndexError, PArguments.getThreadState(frame)));
+            packNode.execute(self, self.getOffset() + idx * self.getStrides()[0], value);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone doTuple(VirtualFrame frame, PMemoryView self, PTuple indices, Object value,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Shared("packNode") @Cached PackValueNode packNode) {
+            checkWritable(self);
+            packNode.execute(self, getItemPosition(self, getObjectArrayNode.execute(indices), lib, frame), value);
+            return PNone.NONE;
+        }
+
+        @Specialization(limit = "getCallSiteInlineCacheMaxDepth()")
+        PNone doSlice(PMemoryView self, PSlice slice, Object value,
+                        @CachedLibrary("value") PythonObjectLibrary lib,
+                        @Cached("createBinaryProfile()") ConditionProfile isMemoryViewProfile) {
+            checkWritable(self);
+            checkOneDimensional(self);
+            SliceInfo info = slice.computeIndices(self.getShape()[0]);
+            int itemsize = self.getItemSize();
+            byte[] data;
+            if (isMemoryViewProfile.profile(value instanceof PMemoryView)) {
+                PMemoryView other = (PMemoryView) value;
+                checkReleased(other);
+                if (MemoryViewNodes.getFormatChar(other.getFormat()) != MemoryViewNodes.getFormatChar(self.getFormat()) || other.getDimensions() != 1) {
+                    throw raise(PythonBuiltinClassType.ValueError, "memoryview assignment: lvalue and rvalue have different structures");
+                }
+                data = other.toByteArray();
+            } else if (lib.isBuffer(value)) {
+                try {
+                    data = lib.getBufferBytes(value);
+                } catch (UnsupportedMessageException e) {
+                    throw raise(PythonBuiltinClassType.TypeError, "a bytes-like object is required, not '%p'", value);
+                }
+            } else {
+                throw raise(PythonBuiltinClassType.TypeError, "a bytes-like object is required, not '%p'", value);
+            }
+            if (data.length != info.length * itemsize) {
+                throw raise(PythonBuiltinClassType.ValueError, "memoryview assignment: lvalue and rvalue have different structures");
+            }
+            int stride = self.getStrides()[0];
+            int pos = self.getOffset() + info.start * stride;
+            for (int i = 0; i < info.length; i++, pos += info.step * stride) {
+                for (int k = 0; k < itemsize; k++) {
+                    self.setByteAt(pos + k, data[i * itemsize + k]);
+                }
+            }
+            return PNone.NONE;
+        }
+
+        private void checkWritable(PMemoryView self) {
+            checkReleased(self);
+            if (self.isReadOnly()) {
+                throw raise(PythonBuiltinClassType.TypeError, "cannot modify read-only memory");
+            }
+        }
+    }
+
+    @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class LenNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        int len(PMemoryView self) {
+            checkReleased(self);
+            if (self.getDimensions() == 0) {
+                throw raise(PythonBuiltinClassType.TypeError, "0-dim memory has no length");
+            }
+            return self.getShape()[0];
+        }
+    }
+
+    @Builtin(name = __EQ__, minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
-    abstract static class SetCMemoryviewNode extends PythonBinaryBuiltinNode {
+    abstract static class EqNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        boolean eq(PMemoryView self, PMemoryView other,
+                        @Cached UnpackValueNode unpackSelfNode,
+                        @Cached UnpackValueNode unpackOtherNode) {
+            if (self == other) {
+                return true;
+            }
+            if (self.isReleased() || other.isReleased() || !sameShape(self.getShape(), other.getShape())) {
+                return false;
+            }
+            if (self.getFormat().equals(other.getFormat()) && MemoryViewNodes.getItemSize(self.getFormat()) == 1) {
+                return equalBytes(self.toByteArray(), other.toByteArray());
+            }
+            int n = self.getLength() / self.getItemSize();
+            for (int i = 0; i < n; i++) {
+                Object a = unpackSelfNode.execute(self, itemPosition(self, i));
+                Object b = unpackOtherNode.execute(other, itemPosition(other, i));
+                if (!equalItems(a, b)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Specialization(guards = "!isMemoryView(other)", limit = "getCallSiteInlineCacheMaxDepth()")
+        Object eq(PMemoryView self, Object other,
+                        @CachedLibrary("other") PythonObjectLibrary lib) {
+            if (!lib.isBuffer(other)) {
+                return PNotImplemented.NOT_IMPLEMENTED;
+            }
+            if (self.isReleased() || self.getDimensions() != 1 || MemoryViewNodes.getItemSize(self.getFormat()) != 1 || MemoryViewNodes.getFormatChar(self.getFormat()) == '?') {
+                return false;
+            }
+            try {
+                // the other buffer is viewed with format 'B'
+                byte[] otherBytes = lib.getBufferBytes(other);
+                if (MemoryViewNodes.getFormatChar(self.getFormat()) == 'b') {
+                    for (byte b : otherBytes) {
+                        if (b < 0) {
+                            return false;
+                        }
+                    }
+                }
+                return equalBytes(self.toByteArray(), otherBytes);
+            } catch (UnsupportedMessageException e) {
+                return PNotImplemented.NOT_IMPLEMENTED;
+            }
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object eq(Object self, Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+
+        protected static boolean isMemoryView(Object obj) {
+            return obj instanceof PMemoryView;
+        }
 
-        /*
-         * NOTE: DO NOT CHANGE THE NAME OF PROPERTY '__c_memoryview' it is also referenced in native
-         * code and Java code
+        /**
+         * Returns the byte position of the {@code i}-th item in C order.
          */
-        @Specialization(guards = "isNoValue(value)")
-        Object set(Object self, @SuppressWarnings("unused") PNone value,
-                        @Cached("create()") ReadAttributeFromObjectNode readNode) {
-            return readNode.execute(self, PMemoryView.C_MEMORYVIEW);
+        private static int itemPosition(PMemoryView view, int i) {
+            int[] shape = view.getShape();
+            int[] strides = view.getStrides();
+            int pos = view.getOffset();
+            int rest = i;
+            for (int dim = shape.length - 1; dim >= 0; dim--) {
+                pos += (rest % shape[dim]) * strides[dim];
+                rest /= shape[dim];
+            }
+            return pos;
         }
 
-        @Specialization(guards = "!isNoValue(cmemoryview)")
-        PNone set(Object self, Object cmemoryview,
-                        @Cached("create()") WriteAttributeToObjectNode writeNode) {
-            writeNode.execute(self, PMemoryView.C_MEMORYVIEW, cmemoryview);
+        private static boolean sameShape(int[] a, int[] b) {
+            if (a.length != b.length) {
+                return false;
+            }
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean equalBytes(byte[] a, byte[] b) {
+            if (a.length != b.length) {
+                return false;
+            }
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @TruffleBoundary
+        private static boolean equalItems(Object a, Object b) {
+            if (a instanceof Double || b instanceof Double) {
+                return a instanceof Number && b instanceof Number && ((Number) a).doubleValue() == ((Number) b).doubleValue();
+            } else if (a instanceof Number && b instanceof Number) {
+                return ((Number) a).longValue() == ((Number) b).longValue();
+            }
+            return a.equals(b);
+        }
+    }
+
+    @Builtin(name = __HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        Object hash(VirtualFrame frame, PMemoryView self,
+                        @Cached("create(__HASH__)") LookupAndCallUnaryNode callHashNode) {
+            checkReleased(self);
+            if (!self.isReadOnly()) {
+                throw raise(PythonBuiltinClassType.ValueError, "cannot hash writable memoryview object");
+            }
+            char format = MemoryViewNodes.getFormatChar(self.getFormat());
+            if (format != 'B' && format != 'b' && format != 'c') {
+                throw raise(PythonBuiltinClassType.ValueError, "memoryview: hashing is restricted to formats 'B', 'b' or 'c'");
+            }
+            return callHashNode.executeObject(frame, factory().createBytes(self.toByteArray()));
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String repr(PMemoryView self) {
+            if (self.isReleased()) {
+                return String.format("<released memory at 0x%x>", self.hashCode());
+            }
+            return String.format("<memory at 0x%x>", self.hashCode());
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        Object enter(PMemoryView self) {
+            checkReleased(self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        Object exit(PMemoryView self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback) {
+            self.setReleased();
             return PNone.NONE;
         }
     }
+
+    @Builtin(name = "release", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReleaseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object release(PMemoryView self) {
+            self.setReleased();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "tobytes", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ToBytesNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        Object tobytes(PMemoryView self) {
+            checkReleased(self);
+            return factory().createBytes(self.toByteArray());
+        }
+    }
+
+    @Builtin(name = "hex", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HexNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+        @Specialization
+        String hex(PMemoryView self) {
+            checkReleased(self);
+            return toHex(self.toByteArray());
+        }
+
+        @TruffleBoundary
+        private static String toHex(byte[] data) {
+            char[] result = new char[data.length * 2];
+            for (int i = 0; i < data.length; i++) {
+                result[2 * i] = HEX_DIGITS[(data[i] >> 4) & 0xF];
+                result[2 * i + 1] = HEX_DIGITS[data[i] & 0xF];
+            }
+            return new String(result);
+        }
+    }
+
+    @Builtin(name = "tolist", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ToListNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        Object tolist(PMemoryView self,
+                        @Cached UnpackValueNode unpackNode) {
+            checkReleased(self);
+            if (self.getDimensions() == 0) {
+                return unpackNode.execute(self, self.getOffset());
+            }
+            if (self.getDimensions() == 1) {
+                int n = self.getShape()[0];
+                int stride = self.getStrides()[0];
+                Object[] items = new Object[n];
+                for (int i = 0; i < n; i++) {
+                    items[i] = unpackNode.execute(self, self.getOffset() + i * stride);
+                }
+                return factory().createList(items);
+            }
+            return toList(self, unpackNode, 0, self.getOffset());
+        }
+
+        @TruffleBoundary
+        private Object toList(PMemoryView self, UnpackValueNode unpackNode, int dim, int base) {
+            int n = self.getShape()[dim];
+            int stride = self.getStrides()[dim];
+            Object[] items = new Object[n];
+            boolean last = dim == self.getDimensions() - 1;
+            for (int i = 0; i < n; i++) {
+                int pos = base + i * stride;
+                items[i] = last ? unpackNode.execute(self, pos) : toList(self, unpackNode, dim + 1, pos);
+            }
+            return factory().createList(items);
+        }
+    }
+
+    @Builtin(name = "cast", minNumOfPositionalArgs = 2, parameterNames = {"self", "format", "shape"})
+    @GenerateNodeFactory
+    abstract static class CastNode extends PythonTernaryBuiltinNode implements MemoryViewBaseNode {
+
+        @Specialization
+        Object cast(PMemoryView self, String format, @SuppressWarnings("unused") PNone shape) {
+            checkCast(self, format);
+            int itemsize = MemoryViewNodes.getItemSize(format);
+            if (self.getLength() % itemsize != 0) {
+                throw raise(PythonBuiltinClassType.TypeError, "memoryview: length is not a multiple of itemsize");
+            }
+            return create(self, format, itemsize, new int[]{self.getLength() / itemsize});
+        }
+
+        @Specialization
+        Object cast(PMemoryView self, PString format, PNone shape) {
+            return cast(self, format.getValue(), shape);
+        }
+
+        @Specialization(guards = "isPTuple(shape) || isList(shape)")
+        Object cast(PMemoryView self, String format, Object shape,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            checkCast(self, format);
+            int itemsize = MemoryViewNodes.getItemSize(format);
+            Object[] dims = getObjectArrayNode.execute(shape);
+            int[] newShape = new int[dims.length];
+            long product = itemsize;
+            for (int i = 0; i < dims.length; i++) {
+                newShape[i] = lib.asSize(dims[i], PythonBuiltinClassType.ValueError);
+                if (newShape[i] <= 0) {
+                    throw raise(PythonBuiltinClassType.ValueError, "memoryview.cast(): elements of shape must be integers > 0");
+                }
+                product *= newShape[i];
+            }
+            if (product != self.getLength()) {
+                throw raise(PythonBuiltinClassType.TypeError, "memoryview: product(shape) * itemsize != buffer size");
+            }
+            return create(self, format, itemsize, newShape);
+        }
+
+        @Specialization(guards = "isPTuple(shape) || isList(shape)")
+        Object cast(PMemoryView self, PString format, Object shape,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib) {
+            return cast(self, format.getValue(), shape, getObjectArrayNode, lib);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        Object cast(Object self, Object format, Object shape) {
+            if (!(format instanceof String || format instanceof PString)) {
+                throw raise(PythonBuiltinClassType.TypeError, "memoryview: format argument must be a string");
+            }
+            throw raise(PythonBuiltinClassType.TypeError, "shape must be a list or a tuple");
+        }
+
+        private void checkCast(PMemoryView self, String format) {
+            checkReleased(self);
+            if (!self.isCContiguous()) {
+                throw raise(PythonBuiltinClassType.TypeError, "memoryview: casts are restricted to C-contiguous views");
+            }
+            if (MemoryViewNodes.getItemSize(format) < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "memoryview: destination format must be a native single character format prefixed with an optional '@'");
+            }
+            if (!isByteFormat(format) && !isByteFormat(self.getFormat())) {
+                throw raise(PythonBuiltinClassType.TypeError, "memoryview: cannot cast between two non-byte formats");
+            }
+        }
+
+        private static boolean isByteFormat(String format) {
+            char c = MemoryViewNodes.getFormatChar(format);
+            return c == 'B' || c == 'b' || c == 'c';
+        }
+
+        private PMemoryView create(PMemoryView self, String format, int itemsize, int[] shape) {
+            int[] strides = new int[shape.length];
+            int stride = itemsize;
+            for (int i = shape.length - 1; i >= 0; i--) {
+                strides[i] = stride;
+                stride *= shape[i];
+            }
+            return factory().createMemoryView(PythonBuiltinClassType.PMemoryView, self.getOwner(), self.getBuffer(), self.getOffset(), self.isReadOnly(), format, itemsize, shape, strides);
+        }
+    }
+
+    @Builtin(name = "obj", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ObjNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        Object obj(PMemoryView self) {
+            checkReleased(self);
+            return self.getOwner();
+        }
+    }
+
+    @Builtin(name = "nbytes", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NBytesNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        int nbytes(PMemoryView self) {
+            checkReleased(self);
+            return self.getLength();
+        }
+    }
+
+    @Builtin(name = "readonly", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ReadonlyNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        boolean readonly(PMemoryView self) {
+            checkReleased(self);
+            return self.isReadOnly();
+        }
+    }
+
+    @Builtin(name = "itemsize", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ItemSizeNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        int itemsize(PMemoryView self) {
+            checkReleased(self);
+            return self.getItemSize();
+        }
+    }
+
+    @Builtin(name = "format", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        String format(PMemoryView self) {
+            checkReleased(self);
+            return self.getFormat();
+        }
+    }
+
+    @Builtin(name = "ndim", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NDimNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        int ndim(PMemoryView self) {
+            checkReleased(self);
+            return self.getDimensions();
+        }
+    }
+
+    @Builtin(name = "shape", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ShapeNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        PTuple shape(PMemoryView self) {
+            checkReleased(self);
+            return factory().createTuple(toObjectArray(self.getShape()));
+        }
+    }
+
+    @Builtin(name = "strides", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class StridesNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        PTuple strides(PMemoryView self) {
+            checkReleased(self);
+            return factory().createTuple(toObjectArray(self.getStrides()));
+        }
+    }
+
+    @Builtin(name = "suboffsets", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SubOffsetsNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        PTuple suboffsets(PMemoryView self) {
+            checkReleased(self);
+            return factory().createTuple(new Object[0]);
+        }
+    }
+
+    @Builtin(name = "c_contiguous", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class CContiguousNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        boolean cContiguous(PMemoryView self) {
+            checkReleased(self);
+            return self.isCContiguous();
+        }
+    }
+
+    @Builtin(name = "f_contiguous", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FContiguousNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        boolean fContiguous(PMemoryView self) {
+            checkReleased(self);
+            return self.isFContiguous();
+        }
+    }
+
+    @Builtin(name = "contiguous", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ContiguousNode extends PythonUnaryBuiltinNode implements MemoryViewBaseNode {
+        @Specialization
+        boolean contiguous(PMemoryView self) {
+            checkReleased(self);
+            return self.isCContiguous() || self.isFContiguous();
+        }
+    }
+
+    private static Object[] toObjectArray(int[] values) {
+        Object[] result = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
 }
@@ -40,55 +40,294 @@
  */
 package com.oracle.graal.python.builtins.objects.memoryview;
 
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
-import com.oracle.graal.python.nodes.SpecialMethodNames;
-import com.oracle.graal.python.nodes.attributes.ReadAttributeFromDynamicObjectNode;
-import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode.LookupAndCallUnaryDynamicNode;
-import com.oracle.graal.python.nodes.util.CastToByteNode;
-import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
-import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 
+/**
+ * A managed memoryview. The view does not copy the exporter's data; it reads and writes the
+ * {@link #buffer} directly, which is either a {@link PIBytesLike} backed by a
+ * {@link ByteSequenceStorage}, a {@link PMMap} or a {@code byte[]} snapshot of any other buffer
+ * exporter. Slicing and casting create new views on the same buffer with a different
+ * {@link #offset}, {@link #shape} and {@link #strides}. Every view over a {@link PByteArray}
+ * registers itself as an export of the bytearray until it is released, which prevents resizing it.
+ */
 @ExportLibrary(PythonObjectLibrary.class)
-public class PMemoryView extends PythonBuiltinObject {
+public final class PMemoryView extends PythonBuiltinObject {
+
+    public static final String DEFAULT_FORMAT = "B";
+
+    /** The object that exported the buffer, i.e., {@code memoryview.obj}. */
+    private final Object owner;
+    private final Object buffer;
+    /** Byte offset of the first element in {@link #buffer}. */
+    private final int offset;
+    private final int length;
+    private final boolean readonly;
+    private final String format;
+    private final int itemsize;
+    @CompilationFinal(dimensions = 1) private final int[] shape;
+    @CompilationFinal(dimensions = 1) private final int[] strides;
 
-    static final String C_MEMORYVIEW = "__c_memoryview";
+    private boolean released;
 
-    public PMemoryView(LazyPythonClass cls, @SuppressWarnings("unused") Object obj) {
+    public PMemoryView(LazyPythonClass cls, Object owner, Object buffer, int offset, boolean readonly, String format, int itemsize, int[] shape, int[] strides) {
         super(cls);
+        assert buffer instanceof PIBytesLike || buffer instanceof PMMap || buffer instanceof byte[];
+        assert shape.length == strides.length;
+        this.owner = owner;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.readonly = readonly;
+        this.format = format;
+        this.itemsize = itemsize;
+        this.shape = shape;
+        this.strides = strides;
+        int len = itemsize;
+        for (int dim : shape) {
+            len *= dim;
+        }
+        this.length = len;
+        if (buffer instanceof PByteArray) {
+            ((PByteArray) buffer).addExport();
+        }
+    }
+
+    public Object getOwner() {
+        return owner;
+    }
+
+    public Object getBuffer() {
+        return buffer;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * The number of bytes the view represents, i.e., {@code memoryview.nbytes}.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isReadOnly() {
+        return readonly;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public int getItemSize() {
+        return itemsize;
+    }
+
+    public int getDimensions() {
+        return shape.length;
+    }
+
+    public int[] getShape() {
+        return shape;
+    }
+
+    public int[] getStrides() {
+        return strides;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    public void setReleased() {
+        if (!released) {
+            released = true;
+            if (buffer instanceof PByteArray) {
+                ((PByteArray) buffer).removeExport();
+            }
+        }
+    }
+
+    public boolean isCContiguous() {
+        int expected = itemsize;
+        for (int i = shape.length - 1; i >= 0; i--) {
+            if (shape[i] > 1 && strides[i] != expected) {
+                return false;
+            }
+            expected *= shape[i];
+        }
+        return true;
+    }
+
+    public boolean isFContiguous() {
+        int expected = itemsize;
+        for (int i = 0; i < shape.length; i++) {
+            if (shape[i] > 1 && strides[i] != expected) {
+                return false;
+            }
+            expected *= shape[i];
+        }
+        return true;
+    }
+
+    /**
+     * Reads the byte at absolute position {@code index} of the underlying buffer.
+     */
+    public byte getByteAt(int index) {
+        if (buffer instanceof byte[]) {
+            return ((byte[]) buffer)[index];
+        } else if (buffer instanceof PMMap) {
+            return ((PMMap) buffer).getByte(index);
+        }
+        return getByteStorage().getByteItemNormalized(index);
+    }
+
+    /**
+     * Writes the byte at absolute position {@code index} of the underlying buffer.
+     */
+    public void setByteAt(int index, byte value) {
+        assert !readonly;
+        if (buffer instanceof byte[]) {
+            ((byte[]) buffer)[index] = value;
+        } else if (buffer instanceof PMMap) {
+            ((PMMap) buffer).putByte(index, value);
+        } else {
+            getByteStorage().setByteItemNormalized(index, value);
+        }
+    }
+
+    /**
+     * Returns the managed byte array holding the elements of a C-contiguous view, starting at
+     * {@link #getOffset()}, or {@code null} if the view is not contiguous or its exporter does not
+     * keep the bytes in a managed array. The array is the exporter's backing array and may be
+     * longer than the exported bytes.
+     */
+    public byte[] getContiguousByteArray() {
+        if (!isCContiguous()) {
+            return null;
+        }
+        if (buffer instanceof byte[]) {
+            return (byte[]) buffer;
+        } else if (buffer instanceof PIBytesLike) {
+            SequenceStorage storage = ((PIBytesLike) buffer).getSequenceStorage();
+            if (storage instanceof ByteSequenceStorage) {
+                return (byte[]) storage.getInternalArrayObject();
+            }
+        }
+        return null;
+    }
+
+    private ByteSequenceStorage getByteStorage() {
+        SequenceStorage storage = ((PIBytesLike) buffer).getSequenceStorage();
+        if (storage instanceof ByteSequenceStorage) {
+            return (ByteSequenceStorage) storage;
+        }
+        // the exporter's storage was moved to native memory after the view was created
+        CompilerDirectives.transferToInterpreter();
+        throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.BufferError, "memoryview: underlying buffer is no longer accessible");
+    }
+
+    /**
+     * Copies the elements of the view in C order, i.e., the result of {@code tobytes()}.
+     */
+    @TruffleBoundary
+    public byte[] toByteArray() {
+        byte[] result = new byte[length];
+        if (isCContiguous()) {
+            if (buffer instanceof byte[]) {
+                System.arraycopy(buffer, offset, result, 0, length);
+            } else if (buffer instanceof PMMap) {
+                ((PMMap) buffer).getBytes(offset, result, 0, length);
+            } else {
+                System.arraycopy(getByteStorage().getInternalArrayObject(), offset, result, 0, length);
+            }
+        } else {
+            copyTo(result, 0, 0, offset);
+        }
+        return result;
+    }
+
+    private int copyTo(byte[] dst, int dstPos, int dim, int base) {
+        if (dim == shape.length) {
+            for (int k = 0; k < itemsize; k++) {
+                dst[dstPos + k] = getByteAt(base + k);
+            }
+            return dstPos + itemsize;
+        }
+        int pos = dstPos;
+        for (int i = 0; i < shape[dim]; i++) {
+            pos = copyTo(dst, pos, dim + 1, base + i * strides[dim]);
+        }
+        return pos;
+    }
+
+    /**
+     * Overwrites the elements of the view in C order with {@code src}, which must have
+     * {@link #getLength()} bytes.
+     */
+    public void fromByteArray(byte[] src) {
+        assert src.length == length;
+        fromByteArray(src, length);
+    }
+
+    /**
+     * Overwrites the first {@code len} bytes of the view in C order with the first {@code len}
+     * bytes of {@code src}.
+     */
+    @TruffleBoundary
+    public void fromByteArray(byte[] src, int len) {
+        assert len <= length;
+        if (isCContiguous() && buffer instanceof PMMap) {
+            ((PMMap) buffer).putBytes(offset, src, 0, len);
+        } else if (isCContiguous() && buffer instanceof byte[]) {
+            System.arraycopy(src, 0, buffer, offset, len);
+        } else if (isCContiguous()) {
+            System.arraycopy(src, 0, getByteStorage().getInternalArrayObject(), offset, len);
+        } else {
+            copyFrom(src, len, 0, 0, offset);
+        }
+    }
+
+    private int copyFrom(byte[] src, int len, int srcPos, int dim, int base) {
+        if (dim == shape.length) {
+            for (int k = 0; k < itemsize && srcPos + k < len; k++) {
+                setByteAt(base + k, src[srcPos + k]);
+            }
+            return srcPos + itemsize;
+        }
+        int pos = srcPos;
+        for (int i = 0; i < shape[dim] && pos < len; i++) {
+            pos = copyFrom(src, len, pos, dim + 1, base + i * strides[dim]);
+        }
+        return pos;
     }
 
     @ExportMessage
+    @SuppressWarnings("static-method")
     boolean isBuffer() {
         return true;
     }
 
     @ExportMessage
-    int getBufferLength(
-                    @Shared("readNativeMemoryViewNode") @Cached ReadAttributeFromDynamicObjectNode readNativeMemoryViewNode,
-                    @Shared("lenNode") @Cached LookupAndCallUnaryDynamicNode lenNode,
-                    @Shared("castToIntNode") @Cached CastToJavaIntNode castToIntNode) {
-        Object nativeMemoryViewObject = readNativeMemoryViewNode.execute(getStorage(), C_MEMORYVIEW);
-        return castToIntNode.execute(lenNode.executeObject(nativeMemoryViewObject, SpecialMethodNames.__LEN__));
+    int getBufferLength() {
+        return length;
     }
 
     @ExportMessage
-    byte[] getBufferBytes(
-                    @Shared("readNativeMemoryViewNode") @Cached ReadAttributeFromDynamicObjectNode readNativeMemoryViewNode,
-                    @Shared("lenNode") @Cached LookupAndCallUnaryDynamicNode lenNode,
-                    @Shared("castToIntNode") @Cached CastToJavaIntNode castToIntNode,
-                    @Cached PInteropSubscriptNode subscriptNode,
-                    @Cached CastToByteNode castToByteNode) {
-        Object nativeMemoryViewObject = readNativeMemoryViewNode.execute(getStorage(), C_MEMORYVIEW);
-        int len = castToIntNode.execute(lenNode.executeObject(nativeMemoryViewObject, SpecialMethodNames.__LEN__));
-        byte[] data = new byte[len];
-        for (int i = 0; i < data.length; i++) {
-            data[i] = castToByteNode.execute(null, subscriptNode.execute(nativeMemoryViewObject, i));
-        }
-        return data;
+    byte[] getBufferBytes() {
+        return toByteArray();
     }
 }
@@ -41,37 +41,58 @@
 package com.oracle.graal.python.builtins.objects.mmap;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 
-import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltins.InternalLenNode;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
-import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.ReadFromChannelNode;
-import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 
+/**
+ * A memory map. The mapped region is split into {@link ByteBuffer} segments of
+ * {@link #SEGMENT_SIZE} bytes (a single buffer cannot exceed 2 GB). For files these are
+ * {@link MappedByteBuffer}s, so indexing, slicing and searching are plain memory accesses. If the
+ * file system does not provide a {@link java.nio.channels.FileChannel}, the segments are heap
+ * copies that are written back to the channel on {@link #flush()} and {@link #close()}. Closing
+ * the map drops the segments, so later accesses (e.g. through a memoryview) raise a
+ * {@code ValueError}. The mapping itself is released by the garbage collector.
+ */
 @ExportLibrary(PythonObjectLibrary.class)
 public final class PMMap extends PythonObject {
 
-    private final SeekableByteChannel mappedByteBuffer;
+    private static final int SEGMENT_SHIFT = 30;
+    public static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /** The number of bytes that {@link #indexOf} and {@link #lastIndexOf} copy at a time. */
+    private static final int SEARCH_CHUNK_SIZE = 1 << 16;
+
+    /** The channel to write heap segments back to, or {@code null}. */
+    private final SeekableByteChannel channel;
+    private ByteBuffer[] segments;
     private final long length;
     private final long offset;
+    private final boolean readonly;
+
+    private long pos;
+    private boolean closed;
 
-    public PMMap(LazyPythonClass pythonClass, SeekableByteChannel mappedByteBuffer, long length, long offset) {
+    public PMMap(LazyPythonClass pythonClass, SeekableByteChannel channel, ByteBuffer[] segments, long length, long offset, boolean readonly) {
         super(pythonClass);
-        this.mappedByteBuffer = mappedByteBuffer;
+        this.channel = channel;
+        this.segments = segments;
         this.length = length;
         this.offset = offset;
-    }
-
-    public SeekableByteChannel getChannel() {
-        return mappedByteBuffer;
+        this.readonly = readonly;
     }
 
     public long getLength() {
@@ -82,55 +103,224 @@ public final class PMMap extends PythonObject {
         return offset;
     }
 
-    @ExportMessage
-    @SuppressWarnings("static-method")
-    boolean isBuffer() {
-        return true;
+    public boolean isReadonly() {
+        return readonly;
     }
 
-    @ExportMessage
-    int getBufferLength(
-                    @Shared("lenNode") @Cached InternalLenNode lenNode,
-                    @Shared("castToIntNode") @Cached CastToJavaIntNode castToIntNode) {
-        return castToIntNode.execute(lenNode.execute(this));
+    public boolean isClosed() {
+        return closed;
     }
 
-    @ExportMessage
-    byte[] getBufferBytes(
-                    @Shared("lenNode") @Cached InternalLenNode lenNode,
-                    @Shared("castToIntNode") @Cached CastToJavaIntNode castToIntNode,
-                    @Cached ReadFromChannelNode readNode) {
-
-        try {
-            int len = getBufferLength(lenNode, castToIntNode);
-
-            // save current position
-            // TODO: restore in case of failure
-            @SuppressWarnings("unused")
-            long oldPos = PMMap.position(mappedByteBuffer);
-
-            PMMap.position(mappedByteBuffer, 0);
-            ByteSequenceStorage s = readNode.execute(mappedByteBuffer, len);
-            return s.getInternalByteArray();
-        } catch (IOException e) {
-            // TODO(fa) how to handle?
-            return null;
+    public long getPos() {
+        return pos;
+    }
+
+    public void setPos(long pos) {
+        assert 0 <= pos && pos <= length;
+        this.pos = pos;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public byte getByte(long index) {
+        return getSegment(index).get((int) (index & SEGMENT_MASK));
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public void putByte(long index, byte b) {
+        getSegment(index).put((int) (index & SEGMENT_MASK), b);
+    }
+
+    private ByteBuffer getSegment(long index) {
+        ByteBuffer[] currentSegments = segments;
+        if (currentSegments == null) {
+            CompilerDirectives.transferToInterpreter();
+            throw PRaiseNode.getUncached().raise(PythonBuiltinClassType.ValueError, "mmap closed or invalid");
+        }
+        return currentSegments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Copies {@code len} bytes starting at {@code index} into {@code dst}.
+     */
+    @TruffleBoundary
+    public void getBytes(long index, byte[] dst, int dstOffset, int len) {
+        long cur = index;
+        int done = 0;
+        while (done < len) {
+            ByteBuffer segment = getSegment(cur).duplicate();
+            int segmentOffset = (int) (cur & SEGMENT_MASK);
+            int n = Math.min(len - done, segment.limit() - segmentOffset);
+            segment.position(segmentOffset);
+            segment.get(dst, dstOffset + done, n);
+            done += n;
+            cur += n;
+        }
+    }
+
+    public byte[] getBytes(long index, int len) {
+        byte[] result = new byte[len];
+        getBytes(index, result, 0, len);
+        return result;
+    }
+
+    /**
+     * Copies {@code len} bytes of {@code src} to the map, starting at {@code index}.
+     */
+    @TruffleBoundary
+    public void putBytes(long index, byte[] src, int srcOffset, int len) {
+        long cur = index;
+        int done = 0;
+        while (done < len) {
+            ByteBuffer segment = getSegment(cur).duplicate();
+            int segmentOffset = (int) (cur & SEGMENT_MASK);
+            int n = Math.min(len - done, segment.limit() - segmentOffset);
+            segment.position(segmentOffset);
+            segment.put(src, srcOffset + done, n);
+            done += n;
+            cur += n;
+        }
+    }
+
+    /**
+     * Returns the first index in {@code [start, end)} where the byte {@code b} occurs, or -1.
+     */
+    @TruffleBoundary
+    public long indexOf(byte b, long start, long end) {
+        // scans the segments in place, so e.g. 'readline' does not copy anything
+        long cur = start;
+        while (cur < end) {
+            ByteBuffer segment = getSegment(cur);
+            int from = (int) (cur & SEGMENT_MASK);
+            int to = (int) Math.min(segment.limit(), from + end - cur);
+            for (int i = from; i < to; i++) {
+                if (segment.get(i) == b) {
+                    return cur + i - from;
+                }
+            }
+            cur += to - from;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first index in {@code [start, end)} where {@code needle} occurs completely, or
+     * -1. The map is copied to a window of at most {@link #SEARCH_CHUNK_SIZE} bytes at a time
+     * (overlapping by the needle length) and searched with {@link BytesUtils#indexOf}.
+     */
+    @TruffleBoundary
+    public long indexOf(byte[] needle, long start, long end) {
+        int n = needle.length;
+        if (end - start < n) {
+            return -1;
+        } else if (n == 0) {
+            return start;
+        }
+        byte[] window = new byte[(int) Math.min(end - start, SEARCH_CHUNK_SIZE + n - 1)];
+        long cur = start;
+        while (end - cur >= n) {
+            int len = (int) Math.min(window.length, end - cur);
+            getBytes(cur, window, 0, len);
+            int i = BytesUtils.indexOf(window, 0, len, needle, n);
+            if (i >= 0) {
+                return cur + i;
+            }
+            cur += len - n + 1;
         }
+        return -1;
     }
 
+    /**
+     * Returns the last index in {@code [start, end)} where {@code needle} occurs completely, or
+     * -1. Like {@link #indexOf(byte[], long, long)}, but the window moves backwards from
+     * {@code end}.
+     */
     @TruffleBoundary
-    static long position(SeekableByteChannel ch) throws IOException {
-        return ch.position();
+    public long lastIndexOf(byte[] needle, long start, long end) {
+        int n = needle.length;
+        if (end - start < n) {
+            return -1;
+        } else if (n == 0) {
+            return end;
+        }
+        byte[] window = new byte[(int) Math.min(end - start, SEARCH_CHUNK_SIZE + n - 1)];
+        long cur = end;
+        while (cur - start >= n) {
+            int len = (int) Math.min(window.length, cur - start);
+            long windowStart = cur - len;
+            getBytes(windowStart, window, 0, len);
+            int i = BytesUtils.lastIndexOf(window, 0, len, needle, n);
+            if (i >= 0) {
+                return windowStart + i;
+            }
+            cur = windowStart + n - 1;
+        }
+        return -1;
     }
 
+    /**
+     * Writes the changes back to the file, i.e., {@link MappedByteBuffer#force()} for mapped
+     * segments.
+     */
     @TruffleBoundary
-    static void position(SeekableByteChannel ch, long offset) throws IOException {
-        ch.position(offset);
+    public void flush() throws IOException {
+        ByteBuffer[] currentSegments = segments;
+        if (closed || readonly || currentSegments == null) {
+            return;
+        }
+        if (channel != null) {
+            channel.position(offset);
+            for (ByteBuffer segment : currentSegments) {
+                ByteBuffer src = segment.duplicate();
+                src.clear();
+                while (src.hasRemaining()) {
+                    channel.write(src);
+                }
+            }
+        } else {
+            for (ByteBuffer segment : currentSegments) {
+                if (segment instanceof MappedByteBuffer) {
+                    ((MappedByteBuffer) segment).force();
+                }
+            }
+        }
     }
 
     @TruffleBoundary
-    static long size(SeekableByteChannel ch) throws IOException {
-        return ch.size();
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                flush();
+            } finally {
+                closed = true;
+                // the mapping is released when the buffers are collected; unmapping it eagerly
+                // would crash the VM if another thread still accesses a segment
+                segments = null;
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    boolean isBuffer() {
+        return true;
     }
 
+    /**
+     * Buffers are exposed as Java arrays, so maps of 2 GB and more cannot be used as buffers.
+     */
+    @ExportMessage
+    int getBufferLength(@Cached PRaiseNode raiseNode) {
+        if (length > Integer.MAX_VALUE) {
+            throw raiseNode.raise(PythonBuiltinClassType.OverflowError, "mmap of %d bytes is too large to be used as a buffer", length);
+        }
+        return (int) length;
+    }
+
+    @ExportMessage
+    byte[] getBufferBytes(@Cached PRaiseNode raiseNode) {
+        return getBytes(0, getBufferLength(raiseNode));
+    }
 }
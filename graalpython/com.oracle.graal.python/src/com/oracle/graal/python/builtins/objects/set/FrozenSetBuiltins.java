@@ -49,6 +49,7 @@ import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
@@ -390,6 +391,68 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "intersection", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class IntersectionNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "args.length == 0")
+        PBaseSet doCopy(VirtualFrame frame, PBaseSet self, @SuppressWarnings("unused") Object[] args,
+                        @Cached("create()") HashingStorageNodes.CopyNode copyNode,
+                        @Cached("createClassProfile()") ValueProfile setTypeProfile) {
+            return createResult(setTypeProfile.profile(self), copyNode.execute(frame, self.getDictStorage()));
+        }
+
+        @Specialization(guards = "args.length > 0")
+        PBaseSet doGeneric(VirtualFrame frame, PBaseSet self, Object[] args,
+                        @Cached("create()") SetNodes.GetSetStorageNode getSetStorageNode,
+                        @Cached("create()") HashingStorageNodes.IntersectNode intersectNode,
+                        @Cached("createClassProfile()") ValueProfile setTypeProfile) {
+            HashingStorage result = self.getDictStorage();
+            for (int i = 0; i < args.length; i++) {
+                result = intersectNode.execute(frame, result, getSetStorageNode.execute(frame, args[i]));
+            }
+            return createResult(setTypeProfile.profile(self), result);
+        }
+
+        private PBaseSet createResult(PBaseSet self, HashingStorage storage) {
+            if (self instanceof PFrozenSet) {
+                return factory().createFrozenSet(storage);
+            }
+            return factory().createSet(storage);
+        }
+    }
+
+    @Builtin(name = "difference", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class DifferenceNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "args.length == 0")
+        PBaseSet doCopy(VirtualFrame frame, PBaseSet self, @SuppressWarnings("unused") Object[] args,
+                        @Cached("create()") HashingStorageNodes.CopyNode copyNode,
+                        @Cached("createClassProfile()") ValueProfile setTypeProfile) {
+            return createResult(setTypeProfile.profile(self), copyNode.execute(frame, self.getDictStorage()));
+        }
+
+        @Specialization(guards = "args.length > 0")
+        PBaseSet doGeneric(VirtualFrame frame, PBaseSet self, Object[] args,
+                        @Cached("create()") SetNodes.GetSetStorageNode getSetStorageNode,
+                        @Cached("create()") HashingStorageNodes.DiffNode diffNode,
+                        @Cached("createClassProfile()") ValueProfile setTypeProfile) {
+            HashingStorage result = self.getDictStorage();
+            for (int i = 0; i < args.length; i++) {
+                result = diffNode.execute(frame, result, getSetStorageNode.execute(frame, args[i]));
+            }
+            return createResult(setTypeProfile.profile(self), result);
+        }
+
+        private PBaseSet createResult(PBaseSet self, HashingStorage storage) {
+            if (self instanceof PFrozenSet) {
+                return factory().createFrozenSet(storage);
+            }
+            return factory().createSet(storage);
+        }
+    }
+
     abstract static class BinaryUnionNode extends PNodeWithContext implements IndirectCallNode {
         @Child private Equivalence equivalenceNode;
         private final Assumption dontNeedExceptionState = Truffle.getRuntime().createAssumption();
@@ -421,12 +484,24 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
 
             Object state = IndirectCallContext.enter(frame, context, this);
             try {
-                for (Object key : other.getDictStorage().keys()) {
-                    selfStorage.setItem(key, PNone.NO_VALUE, getEquivalence());
-                }
+                selfStorage.addAllKeys(other.getDictStorage(), PNone.NO_VALUE, getEquivalence());
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+            return container;
+        }
+
+        @Specialization
+        PBaseSet doEmptyHashingCollection(VirtualFrame frame, PBaseSet container, @SuppressWarnings("unused") EmptyStorage selfStorage, PHashingCollection other,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            EconomicMapStorage newStorage = EconomicMapStorage.create(true);
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                newStorage.addAllKeys(other.getDictStorage(), PNone.NO_VALUE, getEquivalence());
             } finally {
                 IndirectCallContext.exit(frame, context, state);
             }
+            container.setDictStorage(newStorage);
             return container;
         }
 
@@ -37,9 +37,11 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.PythonCore;
@@ -49,6 +51,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PSet)
@@ -89,6 +92,53 @@ public final class SetBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "update", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    public abstract static class UpdateNode extends PythonBuiltinNode {
+
+        @Specialization
+        public Object update(VirtualFrame frame, PSet self, Object[] args,
+                        @Cached("create()") FrozenSetBuiltins.BinaryUnionNode binaryUnionNode) {
+            for (int i = 0; i < args.length; i++) {
+                binaryUnionNode.execute(frame, self, self.getDictStorage(), args[i]);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "difference_update", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    public abstract static class DifferenceUpdateNode extends PythonBuiltinNode {
+
+        @Specialization
+        public Object differenceUpdate(VirtualFrame frame, PSet self, Object[] args,
+                        @Cached("create()") SetNodes.GetSetStorageNode getSetStorageNode,
+                        @Cached("create()") HashingStorageNodes.ContainsKeyNode containsKeyNode,
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached("createBinaryProfile()") ConditionProfile sameProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile smallerProfile) {
+            for (int i = 0; i < args.length; i++) {
+                HashingStorage other = getSetStorageNode.execute(frame, args[i]);
+                HashingStorage storage = self.getDictStorage();
+                if (sameProfile.profile(other == storage)) {
+                    storage.clear();
+                } else if (smallerProfile.profile(storage.length() < other.length())) {
+                    // iterate the smaller operand; take a snapshot since we remove from it
+                    for (Object key : storage.keysAsArray()) {
+                        if (containsKeyNode.execute(frame, other, key)) {
+                            delItemNode.execute(frame, self, self.getDictStorage(), key);
+                        }
+                    }
+                } else {
+                    for (Object key : other.keys()) {
+                        delItemNode.execute(frame, self, self.getDictStorage(), key);
+                    }
+                }
+            }
+            return PNone.NONE;
+        }
+    }
+
     @Builtin(name = __OR__, minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     public abstract static class OrNode extends PythonBinaryBuiltinNode {
@@ -45,6 +45,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes.SetItemNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.PGuards;
@@ -136,4 +137,29 @@ public abstract class SetNodes {
             return SetNodesFactory.ConstructSetNodeGen.create();
         }
     }
+
+    /**
+     * Returns the storage of an operand of a set operation. A temporary set is only built if the
+     * operand is not a set or frozenset already.
+     */
+    @ImportStatic(PGuards.class)
+    public abstract static class GetSetStorageNode extends PNodeWithContext {
+
+        public abstract HashingStorage execute(VirtualFrame frame, Object other);
+
+        @Specialization
+        static HashingStorage doSet(PBaseSet other) {
+            return other.getDictStorage();
+        }
+
+        @Specialization(guards = "!isAnySet(other)")
+        static HashingStorage doIterable(VirtualFrame frame, Object other,
+                        @Cached ConstructSetNode constructSetNode) {
+            return constructSetNode.executeWith(frame, other).getDictStorage();
+        }
+
+        public static GetSetStorageNode create() {
+            return SetNodesFactory.GetSetStorageNodeGen.create();
+        }
+    }
 }
@@ -43,6 +43,9 @@ package com.oracle.graal.python.builtins.objects.socket;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.Channel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
@@ -102,14 +105,22 @@ public class PSocket extends PythonBuiltinObject implements Channel {
     public int serverPort;
     public String serverHost;
 
-    private double timeout;
+    /**
+     * The socket timeout in seconds. A negative value means blocking mode without a timeout,
+     * {@code 0} means non-blocking mode. For any other value the underlying channel is in
+     * non-blocking mode and blocking operations wait on {@link #selector} until the timeout
+     * expires.
+     */
+    private double timeout = -1.0;
 
     private InetSocketAddress address = getEphemeralAddress();
 
     private SocketChannel socket;
 
     private ServerSocketChannel serverSocket;
-    private boolean blocking;
+
+    /** Lazily opened to wait for readiness when the socket has a timeout. */
+    private Selector selector;
 
     private HashMap<Object, Object> options;
 
@@ -153,8 +164,26 @@ public class PSocket extends PythonBuiltinObject implements Channel {
         return timeout;
     }
 
-    public void setTimeout(double timeout) {
+    /**
+     * Sets the timeout in seconds (see {@link #timeout}) and switches the underlying channel into
+     * the matching blocking mode.
+     */
+    @TruffleBoundary
+    public void setTimeout(double timeout) throws IOException {
         this.timeout = timeout;
+        if (getSocket() != null) {
+            configureBlocking(getSocket());
+        } else if (getServerSocket() != null) {
+            configureBlocking(getServerSocket());
+        }
+    }
+
+    public boolean hasTimeout() {
+        return timeout > 0.0;
+    }
+
+    public long getTimeoutNanos() {
+        return (long) (timeout * 1000000000.0);
     }
 
     public InetSocketAddress getAddress() {
@@ -169,26 +198,75 @@ public class PSocket extends PythonBuiltinObject implements Channel {
         return socket;
     }
 
-    public void setServerSocket(ServerSocketChannel serverSocket) {
+    @TruffleBoundary
+    public void setServerSocket(ServerSocketChannel serverSocket) throws IOException {
         if (this.getSocket() != null) {
             throw new Error();
         }
         this.serverSocket = serverSocket;
+        configureBlocking(serverSocket);
     }
 
-    public void setSocket(SocketChannel socket) {
+    @TruffleBoundary
+    public void setSocket(SocketChannel socket) throws IOException {
         if (this.getServerSocket() != null) {
             throw new Error();
         }
         this.socket = socket;
+        configureBlocking(socket);
     }
 
     public boolean isBlocking() {
-        return blocking;
+        return timeout != 0.0;
     }
 
-    public void setBlocking(boolean blocking) {
-        this.blocking = blocking;
+    public void setBlocking(boolean blocking) throws IOException {
+        setTimeout(blocking ? -1.0 : 0.0);
+    }
+
+    @TruffleBoundary
+    public void configureBlocking(SelectableChannel channel) throws IOException {
+        boolean blocking = timeout < 0.0;
+        if (blocking && selector != null) {
+            // a channel registered with a selector cannot go back into blocking mode
+            selector.close();
+            selector = null;
+        }
+        channel.configureBlocking(blocking);
+    }
+
+    /**
+     * Waits until the given channel of this socket is ready for one of the given operations.
+     *
+     * @param deadline the {@link System#nanoTime()} at which to give up
+     * @return {@code false} if the deadline passed before the channel became ready
+     */
+    @TruffleBoundary
+    public boolean waitReady(SelectableChannel channel, int ops, long deadline) throws IOException {
+        if (deadline - System.nanoTime() <= 0) {
+            return false;
+        }
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        SelectionKey key = channel.keyFor(selector);
+        if (key == null) {
+            key = channel.register(selector, ops);
+        } else {
+            key.interestOps(ops);
+        }
+        while (true) {
+            long remainingMillis = (deadline - System.nanoTime() + 999999L) / 1000000L;
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            int readyKeys = selector.select(remainingMillis);
+            selector.selectedKeys().clear();
+            if (readyKeys > 0) {
+                return true;
+            }
+            // woken up early (e.g. spuriously), wait for the rest of the time
+        }
     }
 
     @TruffleBoundary
@@ -198,6 +276,10 @@ public class PSocket extends PythonBuiltinObject implements Channel {
 
     @TruffleBoundary
     public void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+            selector = null;
+        }
         if (getSocket() != null) {
             getSocket().close();
         } else if (getServerSocket() != null) {
@@ -44,9 +44,11 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Arrays;
@@ -64,32 +66,35 @@ import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
-import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
-import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
-import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
-import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PSocket)
 @SuppressWarnings("unused")
 public class SocketBuiltins extends PythonBuiltins {
 
+    private static final int RECV_BUFFER_SIZE = 64 * 1024;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return SocketBuiltinsFactory.getFactories();
@@ -100,13 +105,42 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class AcceptNode extends PythonUnaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object accept(PSocket socket) {
+        Object accept(VirtualFrame frame, PSocket socket) {
+            if (socket.getServerSocket() == null) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
             try {
-                SocketChannel acceptSocket = socket.getServerSocket().accept();
+                SocketChannel acceptSocket = doAccept(socket);
                 if (acceptSocket == null) {
-                    throw raise(PythonBuiltinClassType.OSError);
+                    throw raiseOSError(frame, OSErrorEnum.EAGAIN);
+                }
+                return createAcceptedSocket(socket, acceptSocket);
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, "timed out");
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+        }
+
+        @TruffleBoundary
+        private static SocketChannel doAccept(PSocket socket) throws IOException {
+            ServerSocketChannel serverSocket = socket.getServerSocket();
+            SocketChannel acceptSocket = serverSocket.accept();
+            if (acceptSocket == null && socket.hasTimeout()) {
+                long deadline = System.nanoTime() + socket.getTimeoutNanos();
+                while (acceptSocket == null) {
+                    if (!socket.waitReady(serverSocket, SelectionKey.OP_ACCEPT, deadline)) {
+                        throw new SocketTimeoutException();
+                    }
+                    acceptSocket = serverSocket.accept();
                 }
+            }
+            return acceptSocket;
+        }
+
+        @TruffleBoundary
+        private Object createAcceptedSocket(PSocket socket, SocketChannel acceptSocket) {
+            try {
                 SocketAddress addr = acceptSocket.getLocalAddress();
                 if (!acceptSocket.socket().isBound() || addr == null) {
                     throw raise(PythonBuiltinClassType.OSError);
@@ -156,21 +190,15 @@ public class SocketBuiltins extends PythonBuiltins {
                     throw raise(PythonBuiltinClassType.OSError, "Bad file descriptor");
                 }
 
-                try {
-                    socket.getSocket().close();
-                } catch (IOException e) {
-                    throw raise(PythonBuiltinClassType.OSError, "Bad file descriptor");
-                }
             } else if (socket.getServerSocket() != null) {
                 if (!socket.getServerSocket().isOpen()) {
                     throw raise(PythonBuiltinClassType.OSError, "Bad file descriptor");
                 }
-
-                try {
-                    socket.getServerSocket().close();
-                } catch (IOException e) {
-                    throw raise(PythonBuiltinClassType.OSError, "Bad file descriptor");
-                }
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError, "Bad file descriptor");
             }
             getContext().getResources().close(socket.getFileno());
             return PNone.NONE;
@@ -182,23 +210,41 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ConnectNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object connect(PSocket socket, PTuple address,
+        Object connect(VirtualFrame frame, PSocket socket, PTuple address,
                         @Cached GetObjectArrayNode getObjectArrayNode) {
             Object[] hostAndPort = getObjectArrayNode.execute(address);
             try {
-                doConnect(socket, hostAndPort);
+                if (!doConnect(socket, hostAndPort)) {
+                    throw raiseOSError(frame, OSErrorEnum.EINPROGRESS);
+                }
                 return PNone.NONE;
+            } catch (SocketTimeoutException e) {
+                throw raise(PythonBuiltinClassType.SocketTimeout, "timed out");
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
         }
 
+        /**
+         * Returns {@code false} if the socket is in non-blocking mode and the connection could not
+         * be established immediately.
+         */
         @TruffleBoundary
-        private static void doConnect(PSocket socket, Object[] hostAndPort) throws IOException {
+        private static boolean doConnect(PSocket socket, Object[] hostAndPort) throws IOException {
             InetSocketAddress socketAddress = new InetSocketAddress((String) hostAndPort[0], (Integer) hostAndPort[1]);
             SocketChannel channel = SocketChannel.open();
-            channel.connect(socketAddress);
             socket.setSocket(channel);
+            boolean connected = channel.connect(socketAddress);
+            if (!connected && socket.hasTimeout()) {
+                long deadline = System.nanoTime() + socket.getTimeoutNanos();
+                while (!connected) {
+                    if (!socket.waitReady(channel, SelectionKey.OP_CONNECT, deadline)) {
+                        throw new SocketTimeoutException();
+                    }
+                    connected = channel.finishConnect();
+                }
+            }
+            return connected;
         }
     }
 
@@ -269,30 +315,13 @@ public class SocketBuiltins extends PythonBuiltins {
     @Builtin(name = "gettimeout", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class GetTimeoutNode extends PythonUnaryBuiltinNode {
-        @TruffleBoundary
-        private static int getSoTimeout(SocketChannel channel) throws SocketException {
-            return channel.socket().getSoTimeout();
-        }
-
-        @TruffleBoundary
-        private static int getSoTimeout(ServerSocketChannel channel) throws IOException {
-            return channel.socket().getSoTimeout();
-        }
-
         @Specialization
         Object get(PSocket socket) {
-            try {
-                if (socket.getSocket() != null) {
-                    return getSoTimeout(socket.getSocket());
-                }
-
-                if (socket.getServerSocket() != null) {
-                    return getSoTimeout(socket.getServerSocket());
-                }
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError);
+            double timeout = socket.getTimeout();
+            if (timeout < 0.0) {
+                return PNone.NONE;
             }
-            return PNone.NONE;
+            return timeout;
         }
     }
 
@@ -312,7 +341,6 @@ public class SocketBuiltins extends PythonBuiltins {
                 // for some reason this only works on the ServerSocket not on the
                 // ServerSocketChannel
                 serverSocketChannel.socket().bind(socketAddress, backlog);
-                serverSocketChannel.configureBlocking(socket.isBlocking());
 
                 socket.setServerSocket(serverSocketChannel);
                 return PNone.NONE;
@@ -333,21 +361,15 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class RecvNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recv(PSocket socket, int bufsize, int flags) {
-            return recv(socket, bufsize, PNone.NONE);
-        }
-
-        @Specialization
-        @TruffleBoundary
-        PBytes recv(PSocket socket, int bufsize, PNone flags) {
-            SocketChannel nativeSocket = socket.getSocket();
-            ByteBuffer readBytes = ByteBuffer.allocate(bufsize);
-            try {
-                int length = nativeSocket.read(readBytes);
-                return factory().createBytes(Arrays.copyOfRange(readBytes.array(), 0, length));
-            } catch (IOException | NullPointerException e) {
-                throw raise(PythonBuiltinClassType.OSError);
+        PBytes recv(VirtualFrame frame, PSocket socket, int bufsize, Object flags,
+                        @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile reuseProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile shrinkProfile) {
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "negative buffersize in recv");
             }
+            checkFlags(frame, this, flags, castToInt);
+            return factory().createBytes(recv(frame, this, socket, bufsize, reuseProfile, shrinkProfile));
         }
     }
 
@@ -356,78 +378,79 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class RecvFromNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recvFrom(PSocket socket, int bufsize, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        PTuple recvFrom(VirtualFrame frame, PSocket socket, int bufsize, Object flags,
+                        @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile reuseProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile shrinkProfile) {
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "negative buffersize in recvfrom");
+            }
+            checkFlags(frame, this, flags, castToInt);
+            PBytes bytes = factory().createBytes(recv(frame, this, socket, bufsize, reuseProfile, shrinkProfile));
+            return factory().createTuple(new Object[]{bytes, getRemoteAddress(socket)});
         }
 
-        @Specialization
-        Object recvFrom(PSocket socket, int bufsize, PNone flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        @TruffleBoundary
+        private Object getRemoteAddress(PSocket socket) {
+            try {
+                InetSocketAddress addr = (InetSocketAddress) socket.getSocket().getRemoteAddress();
+                if (addr != null) {
+                    return factory().createTuple(new Object[]{addr.getAddress().getHostAddress(), addr.getPort()});
+                }
+            } catch (IOException e) {
+                // fall through
+            }
+            return PNone.NONE;
         }
     }
 
-    // recv_into(bufsize[, flags])
-    @Builtin(name = "recv_into", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 3)
+    // recv_into(buffer[, nbytes[, flags]])
+    @Builtin(name = "recv_into", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
     @GenerateNodeFactory
-    abstract static class RecvIntoNode extends PythonTernaryBuiltinNode {
+    abstract static class RecvIntoNode extends PythonQuaternaryBuiltinNode {
         protected static SequenceStorageNodes.SetItemNode createSetItem() {
             return SequenceStorageNodes.SetItemNode.create("cannot happen: non-byte store in socket.recv_into");
         }
 
         @Specialization
-        Object recvInto(VirtualFrame frame, PSocket socket, PMemoryView buffer, Object flags,
-                        @Cached("createBinaryProfile()") ConditionProfile byteStorage,
-                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
-                        @Cached("create(__LEN__)") LookupAndCallUnaryNode callLen,
-                        @Cached("create(__SETITEM__)") LookupAndCallTernaryNode setItem) {
-            int bufferLen = lib.asSizeWithState(callLen.executeObject(frame, buffer), PArguments.getThreadState(frame));
-            byte[] targetBuffer = new byte[bufferLen];
-            ByteBuffer byteBuffer = ByteBuffer.wrap(targetBuffer);
-            int length;
-            try {
-                length = fillBuffer(socket, byteBuffer);
-            } catch (NotYetConnectedException e) {
-                throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
-            } catch (IOException e) {
-                throw raiseOSError(frame, OSErrorEnum.EBADF, e);
+        Object recvInto(VirtualFrame frame, PSocket socket, PMemoryView buffer, Object nbytes, Object flags,
+                        @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile directProfile) {
+            if (buffer.isReleased()) {
+                throw raise(PythonBuiltinClassType.ValueError, "operation forbidden on released memoryview object");
+            } else if (buffer.isReadOnly()) {
+                throw raise(PythonBuiltinClassType.TypeError, "recv_into() argument 1 must be read-write bytes-like object, not memoryview");
             }
-            for (int i = 0; i < length; i++) {
-                int b = targetBuffer[i];
-                if (b < 0) {
-                    b += 256;
-                }
-                setItem.execute(frame, buffer, i, (Object) b);
+            checkFlags(frame, this, flags, castToInt);
+            int readLen = getReadLength(nbytes, buffer.getLength(), castToInt);
+            byte[] array = buffer.getContiguousByteArray();
+            if (directProfile.profile(array != null)) {
+                // read directly into the exporter's backing array
+                return recvInto(frame, this, socket, wrap(array, buffer.getOffset(), readLen));
             }
+            byte[] targetBuffer = new byte[readLen];
+            int length = recvInto(frame, this, socket, wrap(targetBuffer, readLen));
+            buffer.fromByteArray(targetBuffer, length);
             return length;
         }
 
         @Specialization
-        Object recvInto(VirtualFrame frame, PSocket socket, PByteArray buffer, Object flags,
+        Object recvInto(VirtualFrame frame, PSocket socket, PByteArray buffer, Object nbytes, Object flags,
+                        @Cached CastToJavaIntNode castToInt,
                         @Cached("createBinaryProfile()") ConditionProfile byteStorage,
                         @Cached SequenceStorageNodes.LenNode lenNode,
                         @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItem) {
+            checkFlags(frame, this, flags, castToInt);
             SequenceStorage storage = buffer.getSequenceStorage();
-            int bufferLen = lenNode.execute(storage);
+            int readLen = getReadLength(nbytes, lenNode.execute(storage), castToInt);
             if (byteStorage.profile(storage instanceof ByteSequenceStorage)) {
+                // read directly into the bytearray's backing array
                 ByteBuffer byteBuffer = ((ByteSequenceStorage) storage).getBufferView();
-                try {
-                    return fillBuffer(socket, byteBuffer);
-                } catch (NotYetConnectedException e) {
-                    throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
-                } catch (IOException e) {
-                    throw raiseOSError(frame, OSErrorEnum.EBADF, e);
-                }
+                limit(byteBuffer, readLen);
+                return recvInto(frame, this, socket, byteBuffer);
             } else {
-                byte[] targetBuffer = new byte[bufferLen];
-                ByteBuffer byteBuffer = ByteBuffer.wrap(targetBuffer);
-                int length;
-                try {
-                    length = fillBuffer(socket, byteBuffer);
-                } catch (NotYetConnectedException e) {
-                    throw raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
-                } catch (IOException e) {
-                    throw raiseOSError(frame, OSErrorEnum.EBADF, e);
-                }
+                byte[] targetBuffer = new byte[readLen];
+                int length = recvInto(frame, this, socket, wrap(targetBuffer, readLen));
                 for (int i = 0; i < length; i++) {
                     // we don't allow generalization
                     setItem.execute(frame, storage, i, targetBuffer[i]);
@@ -436,10 +459,17 @@ public class SocketBuiltins extends PythonBuiltins {
             }
         }
 
-        @TruffleBoundary
-        private static int fillBuffer(PSocket socket, ByteBuffer byteBuffer) throws IOException {
-            SocketChannel nativeSocket = socket.getSocket();
-            return nativeSocket.read(byteBuffer);
+        private int getReadLength(Object nbytes, int bufferLen, CastToJavaIntNode castToInt) {
+            if (PGuards.isPNone(nbytes)) {
+                return bufferLen;
+            }
+            int n = castToInt.execute(nbytes);
+            if (n < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "negative buffersize in recv_into");
+            } else if (n > bufferLen) {
+                throw raise(PythonBuiltinClassType.ValueError, "buffer too small for requested bytes");
+            }
+            return n == 0 ? bufferLen : n;
         }
     }
 
@@ -468,31 +498,23 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SendNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object send(VirtualFrame frame, PSocket socket, PBytes bytes, Object flags,
+        int send(VirtualFrame frame, PSocket socket, PIBytesLike bytes, Object flags,
+                        @Shared("castToInt") @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile byteStorage,
                         @Cached SequenceStorageNodes.ToByteArrayNode toBytes) {
-            // TODO: do not ignore flags
-            if (socket.getSocket() == null) {
-                throw raise(PythonBuiltinClassType.OSError);
-            }
-
-            if (!socket.isOpen()) {
-                throw raise(PythonBuiltinClassType.OSError);
-            }
-
-            try {
-                byte[] storageArray = toBytes.execute(bytes.getSequenceStorage());
-                ByteBuffer buffer = ByteBuffer.wrap(storageArray);
-                doWrite(socket, buffer);
-                return PNone.NONE;
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError);
-            }
+            checkFlags(frame, this, flags, castToInt);
+            ByteBuffer buffer = getSendBuffer(bytes.getSequenceStorage(), byteStorage, toBytes);
+            return send(frame, this, socket, buffer, false);
         }
-    }
 
-    @TruffleBoundary
-    private static void doWrite(PSocket socket, ByteBuffer buffer) throws IOException {
-        socket.getSocket().write(buffer);
+        @Specialization
+        int send(VirtualFrame frame, PSocket socket, PMemoryView bytes, Object flags,
+                        @Shared("castToInt") @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile directProfile) {
+            checkFlags(frame, this, flags, castToInt);
+            ByteBuffer buffer = getSendBuffer(this, bytes, directProfile);
+            return send(frame, this, socket, buffer, false);
+        }
     }
 
     // sendall(bytes[, flags])
@@ -501,15 +523,23 @@ public class SocketBuiltins extends PythonBuiltins {
     abstract static class SendAllNode extends PythonTernaryBuiltinNode {
         @Specialization
         Object sendAll(VirtualFrame frame, PSocket socket, PIBytesLike bytes, Object flags,
+                        @Shared("castToInt") @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile byteStorage,
                         @Cached SequenceStorageNodes.ToByteArrayNode toBytes) {
-            // TODO: do not ignore flags
-            try {
-                ByteBuffer buffer = ByteBuffer.wrap(toBytes.execute(bytes.getSequenceStorage()));
-                doWrite(socket, buffer);
-                return PNone.NONE;
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError);
-            }
+            checkFlags(frame, this, flags, castToInt);
+            ByteBuffer buffer = getSendBuffer(bytes.getSequenceStorage(), byteStorage, toBytes);
+            send(frame, this, socket, buffer, true);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        Object sendAll(VirtualFrame frame, PSocket socket, PMemoryView bytes, Object flags,
+                        @Shared("castToInt") @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile directProfile) {
+            checkFlags(frame, this, flags, castToInt);
+            ByteBuffer buffer = getSendBuffer(this, bytes, directProfile);
+            send(frame, this, socket, buffer, true);
+            return PNone.NONE;
         }
     }
 
@@ -517,15 +547,32 @@ public class SocketBuiltins extends PythonBuiltins {
     // sendto(bytes, flags, address)
     @Builtin(name = "sendto", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
     @GenerateNodeFactory
-    abstract static class SendToNode extends PythonBuiltinNode {
+    abstract static class SendToNode extends PythonQuaternaryBuiltinNode {
         @Specialization
-        Object sendTo(PSocket socket, Object bytes, int flags, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        int sendTo(VirtualFrame frame, PSocket socket, PIBytesLike bytes, Object flagsOrAddress, Object address,
+                        @Shared("castToInt") @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile byteStorage,
+                        @Cached SequenceStorageNodes.ToByteArrayNode toBytes) {
+            checkSendToFlags(frame, flagsOrAddress, address, castToInt);
+            // we only have stream sockets, for which the address of a connected socket is ignored
+            ByteBuffer buffer = getSendBuffer(bytes.getSequenceStorage(), byteStorage, toBytes);
+            return send(frame, this, socket, buffer, false);
         }
 
         @Specialization
-        Object sendTo(PSocket socket, Object bytes, PNone flags, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        int sendTo(VirtualFrame frame, PSocket socket, PMemoryView bytes, Object flagsOrAddress, Object address,
+                        @Shared("castToInt") @Cached CastToJavaIntNode castToInt,
+                        @Cached("createBinaryProfile()") ConditionProfile directProfile) {
+            checkSendToFlags(frame, flagsOrAddress, address, castToInt);
+            ByteBuffer buffer = getSendBuffer(this, bytes, directProfile);
+            return send(frame, this, socket, buffer, false);
+        }
+
+        private void checkSendToFlags(VirtualFrame frame, Object flagsOrAddress, Object address, CastToJavaIntNode castToInt) {
+            if (!PGuards.isPNone(address)) {
+                // sendto(bytes, flags, address)
+                checkFlags(frame, this, flagsOrAddress, castToInt);
+            }
         }
     }
 
@@ -543,22 +590,12 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SetBlockingNode extends PythonBinaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
         Object setBlocking(PSocket socket, boolean blocking) {
-            socket.setBlocking(blocking);
-
             try {
-                if (socket.getSocket() != null) {
-                    socket.getSocket().configureBlocking(socket.isBlocking());
-                }
-
-                if (socket.getServerSocket() != null) {
-                    socket.getServerSocket().configureBlocking(socket.isBlocking());
-                }
+                socket.setBlocking(blocking);
             } catch (IOException e) {
                 throw raise(PythonBuiltinClassType.OSError);
             }
-
             return PNone.NONE;
         }
     }
@@ -568,28 +605,254 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SetTimeoutNode extends PythonBinaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object setTimeout(PSocket socket, Integer value) {
+        Object setTimeout(PSocket socket, @SuppressWarnings("unused") PNone none) {
+            return doSetTimeout(socket, -1.0);
+        }
+
+        @Specialization(guards = "!isPNone(value)")
+        Object setTimeout(VirtualFrame frame, PSocket socket, Object value,
+                        @Cached CastToDoubleNode castToDouble) {
+            double timeout = castToDouble.execute(frame, value);
+            if (timeout < 0.0) {
+                throw raise(PythonBuiltinClassType.ValueError, "Timeout value out of range");
+            }
+            return doSetTimeout(socket, timeout);
+        }
+
+        private Object doSetTimeout(PSocket socket, double timeout) {
             try {
-                if (socket.getSocket() != null) {
-                    socket.getSocket().socket().setSoTimeout(value);
+                socket.setTimeout(timeout);
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    private static ByteBuffer getSendBuffer(SequenceStorage storage, ConditionProfile byteStorage, SequenceStorageNodes.ToByteArrayNode toBytes) {
+        if (byteStorage.profile(storage instanceof ByteSequenceStorage)) {
+            // send directly from the backing array without copying or trimming it
+            ByteSequenceStorage bytes = (ByteSequenceStorage) storage;
+            return wrap(bytes.getArrayForReading(), bytes.getArrayOffset(), bytes.length());
+        }
+        byte[] bytes = toBytes.execute(storage);
+        return wrap(bytes, bytes.length);
+    }
+
+    private static ByteBuffer getSendBuffer(PythonBuiltinBaseNode node, PMemoryView view, ConditionProfile directProfile) {
+        if (view.isReleased()) {
+            throw node.raise(PythonBuiltinClassType.ValueError, "operation forbidden on released memoryview object");
+        }
+        byte[] array = view.getContiguousByteArray();
+        if (directProfile.profile(array != null)) {
+            // send directly from the exporter's backing array
+            return wrap(array, view.getOffset(), view.getLength());
+        }
+        byte[] bytes = view.toByteArray();
+        return wrap(bytes, bytes.length);
+    }
+
+    /**
+     * None of the {@code MSG_*} flags are supported. They must not be ignored silently, e.g.,
+     * {@code MSG_PEEK} would consume the data.
+     */
+    private static void checkFlags(VirtualFrame frame, PythonBuiltinBaseNode node, Object flags, CastToJavaIntNode castToInt) {
+        if (!PGuards.isPNone(flags) && castToInt.execute(flags) != 0) {
+            throw node.raiseOSError(frame, OSErrorEnum.EOPNOTSUPP);
+        }
+    }
+
+    /**
+     * Receives up to {@code bufsize} bytes. Small reads go through the scratch buffer of the
+     * current thread state, so that only the received bytes are allocated; larger ones are read
+     * into a fresh array that is shared with the result.
+     */
+    private static ByteSequenceStorage recv(VirtualFrame frame, PythonBuiltinBaseNode node, PSocket socket, int bufsize, ConditionProfile reuseProfile, ConditionProfile shrinkProfile) {
+        if (reuseProfile.profile(bufsize <= RECV_BUFFER_SIZE)) {
+            return new ByteSequenceStorage(recvCopy(frame, node, socket, bufsize));
+        }
+        byte[] targetBuffer = new byte[bufsize];
+        int length = recvInto(frame, node, socket, wrap(targetBuffer, bufsize));
+        return shareOrShrink(targetBuffer, length, shrinkProfile);
+    }
+
+    /**
+     * Like {@link #recvInto}, but reads into the scratch buffer and returns a copy of the received
+     * bytes.
+     */
+    private static byte[] recvCopy(VirtualFrame frame, PythonBuiltinBaseNode node, PSocket socket, int bufsize) {
+        try {
+            byte[] received = doReadCopy(node.getContext(), socket, bufsize);
+            if (received == null) {
+                if (!socket.isBlocking()) {
+                    throw node.raiseOSError(frame, OSErrorEnum.EAGAIN);
                 }
+                return new byte[0];
+            }
+            return received;
+        } catch (SocketTimeoutException e) {
+            throw node.raise(PythonBuiltinClassType.SocketTimeout, "timed out");
+        } catch (NotYetConnectedException e) {
+            throw node.raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+        } catch (ClosedChannelException e) {
+            throw node.raiseOSError(frame, OSErrorEnum.EBADF, e);
+        } catch (IOException e) {
+            throw node.raise(PythonBuiltinClassType.OSError, e);
+        }
+    }
+
+    private static ByteSequenceStorage shareOrShrink(byte[] buffer, int length, ConditionProfile shrinkProfile) {
+        // share the receive buffer with the resulting bytes object unless that would waste more
+        // than half of it
+        if (shrinkProfile.profile(length < buffer.length / 2)) {
+            return new ByteSequenceStorage(copyOf(buffer, length));
+        }
+        return new ByteSequenceStorage(buffer, length);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static byte[] copyOf(byte[] buffer, int length) {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static ByteBuffer wrap(byte[] buffer, int length) {
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static ByteBuffer wrap(byte[] buffer, int offset, int length) {
+        return ByteBuffer.wrap(buffer, offset, length);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void limit(ByteBuffer buffer, int length) {
+        buffer.limit(length);
+    }
+
+    /**
+     * Reads from the socket into the remaining space of the buffer, honoring the blocking mode and
+     * timeout of the socket. Returns the number of bytes read, which is {@code 0} at the end of
+     * the stream.
+     */
+    private static int recvInto(VirtualFrame frame, PythonBuiltinBaseNode node, PSocket socket, ByteBuffer buffer) {
+        try {
+            int length = doRead(socket, buffer);
+            if (length < 0) {
+                // end of stream
+                return 0;
+            } else if (length == 0 && !socket.isBlocking() && hasRemaining(buffer)) {
+                throw node.raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return length;
+        } catch (SocketTimeoutException e) {
+            throw node.raise(PythonBuiltinClassType.SocketTimeout, "timed out");
+        } catch (NotYetConnectedException e) {
+            throw node.raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+        } catch (ClosedChannelException e) {
+            throw node.raiseOSError(frame, OSErrorEnum.EBADF, e);
+        } catch (IOException e) {
+            throw node.raise(PythonBuiltinClassType.OSError, e);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to the socket, honoring the blocking mode and
+     * timeout of the socket. If {@code all} is {@code false}, returns after the first successful
+     * write. Otherwise, a non-blocking socket raises {@code EAGAIN} if not all bytes could be
+     * written without blocking.
+     */
+    private static int send(VirtualFrame frame, PythonBuiltinBaseNode node, PSocket socket, ByteBuffer buffer, boolean all) {
+        try {
+            int length = doWrite(socket, buffer, all);
+            if ((length == 0 || all) && !socket.isBlocking() && hasRemaining(buffer)) {
+                throw node.raiseOSError(frame, OSErrorEnum.EAGAIN);
+            }
+            return length;
+        } catch (SocketTimeoutException e) {
+            throw node.raise(PythonBuiltinClassType.SocketTimeout, "timed out");
+        } catch (NotYetConnectedException e) {
+            throw node.raiseOSError(frame, OSErrorEnum.ENOTCONN, e);
+        } catch (ClosedChannelException e) {
+            throw node.raiseOSError(frame, OSErrorEnum.EPIPE, e);
+        } catch (IOException e) {
+            throw node.raise(PythonBuiltinClassType.OSError, e);
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static boolean hasRemaining(ByteBuffer buffer) {
+        return buffer.hasRemaining();
+    }
 
-                if (socket.getServerSocket() != null) {
-                    socket.getServerSocket().socket().setSoTimeout(value);
+    @TruffleBoundary
+    private static int doRead(PSocket socket, ByteBuffer buffer) throws IOException {
+        SocketChannel channel = getConnectedChannel(socket);
+        int length = channel.read(buffer);
+        if (length == 0 && socket.hasTimeout() && buffer.hasRemaining()) {
+            long deadline = System.nanoTime() + socket.getTimeoutNanos();
+            while (length == 0) {
+                if (!socket.waitReady(channel, SelectionKey.OP_READ, deadline)) {
+                    throw new SocketTimeoutException();
                 }
-            } catch (SocketException e) {
-                throw raise(PythonBuiltinClassType.OSError);
+                length = channel.read(buffer);
             }
+        }
+        return length;
+    }
 
-            return PNone.NONE;
+    /**
+     * Reads into the scratch buffer of the current thread and copies the received bytes within the
+     * same boundary. Returns an empty array at the end of the stream and {@code null} if nothing
+     * could be read without blocking.
+     */
+    @TruffleBoundary
+    private static byte[] doReadCopy(PythonContext context, PSocket socket, int bufsize) throws IOException {
+        byte[] scratch = context.getScratchBuffer(RECV_BUFFER_SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(scratch, 0, bufsize);
+        int length = doRead(socket, buffer);
+        if (length < 0) {
+            return new byte[0];
+        } else if (length == 0 && buffer.hasRemaining()) {
+            return null;
+        }
+        return Arrays.copyOf(scratch, length);
+    }
+
+    @TruffleBoundary
+    private static int doWrite(PSocket socket, ByteBuffer buffer, boolean all) throws IOException {
+        SocketChannel channel = getConnectedChannel(socket);
+        int total = channel.write(buffer);
+        if (socket.hasTimeout() && buffer.hasRemaining() && (all || total == 0)) {
+            // sendall uses the timeout for the whole operation, not per chunk
+            long deadline = System.nanoTime() + socket.getTimeoutNanos();
+            do {
+                if (!socket.waitReady(channel, SelectionKey.OP_WRITE, deadline)) {
+                    throw new SocketTimeoutException();
+                }
+                total += channel.write(buffer);
+            } while (buffer.hasRemaining() && (all || total == 0));
+        } else if (all && socket.isBlocking()) {
+            while (buffer.hasRemaining()) {
+                total += channel.write(buffer);
+            }
+        } else if (all) {
+            // a non-blocking channel accepts bytes until the socket's send buffer is full
+            int written = total;
+            while (written > 0 && buffer.hasRemaining()) {
+                written = channel.write(buffer);
+                total += written;
+            }
         }
+        return total;
+    }
 
-        @Specialization
-        Object setTimeout(PSocket socket, double value) {
-            Integer intValue = (int) value;
-            return setTimeout(socket, intValue);
+    private static SocketChannel getConnectedChannel(PSocket socket) {
+        SocketChannel channel = socket.getSocket();
+        if (channel == null) {
+            throw new NotYetConnectedException();
         }
+        return channel;
     }
 
     // shutdown(how)
@@ -40,6 +40,10 @@
  */
 package com.oracle.graal.python.builtins.objects.str;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.graalvm.nativeimage.ImageInfo;
 
 import com.oracle.graal.python.nodes.PGuards;
@@ -48,20 +52,46 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
+/**
+ * A string concatenation that is only copied into a flat {@link String} when needed. Reading
+ * single characters, slices, prefixes and suffixes walks the tree instead of flattening it. Since
+ * repeated appending builds a degenerate tree, such reads first rebalance the tree if it is much
+ * deeper than a balanced one, so that they take logarithmic time.
+ */
 public class LazyString implements PCharSequence {
 
     protected static final int MinLazyStringLength;
     protected static final boolean UseLazyStrings;
+    protected static final boolean CollectStatistics;
     static {
         if (ImageInfo.inImageBuildtimeCode()) {
             MinLazyStringLength = PythonOptions.MinLazyStringLength.getDefaultValue();
             UseLazyStrings = PythonOptions.LazyStrings.getDefaultValue();
+            CollectStatistics = PythonOptions.LazyStringStatistics.getDefaultValue();
         } else {
             MinLazyStringLength = PythonOptions.getMinLazyStringLength();
             UseLazyStrings = PythonOptions.useLazyString();
+            CollectStatistics = PythonOptions.collectLazyStringStatistics();
         }
     }
 
+    private static final AtomicLong createdCount = new AtomicLong();
+    private static final AtomicLong flattenedCount = new AtomicLong();
+    private static final AtomicLong flattenedChars = new AtomicLong();
+    private static final AtomicLong copiedRangeCount = new AtomicLong();
+    private static final AtomicLong copiedRangeChars = new AtomicLong();
+    private static final AtomicLong rebalancedCount = new AtomicLong();
+
+    public static boolean collectsStatistics() {
+        return CollectStatistics;
+    }
+
+    @TruffleBoundary
+    public static String getStatistics() {
+        return String.format("lazy strings: %d created, %d flattened (%d chars), %d ranges copied (%d chars), %d rebalanced", createdCount.get(), flattenedCount.get(), flattenedChars.get(),
+                        copiedRangeCount.get(), copiedRangeChars.get(), rebalancedCount.get());
+    }
+
     public static int length(CharSequence cs, ConditionProfile profile1, ConditionProfile profile2) {
         if (profile1.profile(cs instanceof String)) {
             return ((String) cs).length();
@@ -142,12 +172,21 @@ public class LazyString implements PCharSequence {
     private CharSequence left;
     private CharSequence right;
     private final int len;
+    private int depth;
 
     private LazyString(CharSequence left, CharSequence right, int length) {
         assert left.length() > 0 && right.length() > 0 && length == left.length() + right.length();
         this.left = left;
         this.right = right;
         this.len = length;
+        this.depth = 1 + Math.max(depth(left), depth(right));
+        if (CollectStatistics) {
+            createdCount.incrementAndGet();
+        }
+    }
+
+    private static int depth(CharSequence cs) {
+        return cs instanceof LazyString ? ((LazyString) cs).depth : 0;
     }
 
     @Override
@@ -171,11 +210,19 @@ public class LazyString implements PCharSequence {
     @Override
     @TruffleBoundary
     public String materialize() {
+        if (isMaterialized()) {
+            return (String) left;
+        }
         char[] dst = new char[len];
         LazyString.flatten(this, 0, len, dst, 0);
         String flattened = new String(dst);
         left = flattened;
         right = null;
+        depth = 0;
+        if (CollectStatistics) {
+            flattenedCount.incrementAndGet();
+            flattenedChars.addAndGet(len);
+        }
         return flattened;
     }
 
@@ -227,14 +274,173 @@ public class LazyString implements PCharSequence {
         }
     }
 
+    /**
+     * Rebalances the tree if it is more than twice as deep as a balanced tree with the same number
+     * of characters. Strings built by appending in a loop are lists rather than trees, and every
+     * lookup would otherwise walk the whole list.
+     */
+    private void balanceIfDeep() {
+        if (depth > 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(len))) {
+            rebalance();
+        }
+    }
+
+    private void rebalance() {
+        CompilerAsserts.neverPartOfCompilation();
+        ArrayList<String> leaves = new ArrayList<>();
+        ArrayDeque<CharSequence> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            CharSequence cs = stack.pop();
+            if (cs instanceof LazyString && !((LazyString) cs).isMaterialized()) {
+                stack.push(((LazyString) cs).right);
+                stack.push(((LazyString) cs).left);
+            } else {
+                leaves.add(cs.toString());
+            }
+        }
+        int mid = leaves.size() / 2;
+        CharSequence newLeft = build(leaves, 0, mid);
+        CharSequence newRight = build(leaves, mid, leaves.size());
+        left = newLeft;
+        right = newRight;
+        depth = 1 + Math.max(depth(newLeft), depth(newRight));
+        if (CollectStatistics) {
+            rebalancedCount.incrementAndGet();
+        }
+    }
+
+    private static CharSequence build(ArrayList<String> leaves, int from, int to) {
+        if (to - from == 1) {
+            return leaves.get(from);
+        }
+        int mid = (from + to) >>> 1;
+        CharSequence l = build(leaves, from, mid);
+        CharSequence r = build(leaves, mid, to);
+        return new LazyString(l, r, l.length() + r.length());
+    }
+
     @Override
     public char charAt(int index) {
-        return toString().charAt(index);
+        if (isMaterialized()) {
+            return ((String) left).charAt(index);
+        }
+        return charAtInTree(index);
     }
 
+    @TruffleBoundary
+    private char charAtInTree(int index) {
+        if (index < 0 || index >= len) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        balanceIfDeep();
+        CharSequence cs = this;
+        int i = index;
+        while (cs instanceof LazyString) {
+            LazyString node = (LazyString) cs;
+            if (node.isMaterialized()) {
+                cs = node.left;
+            } else if (i < node.left.length()) {
+                cs = node.left;
+            } else {
+                i -= node.left.length();
+                cs = node.right;
+            }
+        }
+        return ((String) cs).charAt(i);
+    }
+
+    /**
+     * Copies the characters in the given range into a new string without flattening the whole
+     * tree.
+     */
+    @TruffleBoundary
+    public String substring(int start, int end) {
+        if (isMaterialized()) {
+            return ((String) left).substring(start, end);
+        }
+        if (start < 0 || start > end || end > len) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + len);
+        }
+        char[] dst = new char[end - start];
+        flatten(this, start, end, dst, 0);
+        if (CollectStatistics) {
+            copiedRangeCount.incrementAndGet();
+            copiedRangeChars.addAndGet(end - start);
+        }
+        return new String(dst);
+    }
+
+    /**
+     * Returns the given range, sharing the subtrees of this string if the range is long enough to
+     * be a lazy string itself.
+     */
     @Override
+    @TruffleBoundary
     public CharSequence subSequence(int start, int end) {
-        return toString().subSequence(start, end);
+        if (isMaterialized() || end - start < MinLazyStringLength) {
+            return substring(start, end);
+        }
+        if (start < 0 || end > len) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + len);
+        }
+        balanceIfDeep();
+        return slice(this, start, end);
+    }
+
+    private static CharSequence slice(CharSequence cs, int start, int end) {
+        if (start == 0 && end == cs.length()) {
+            return cs;
+        } else if (cs instanceof String) {
+            return ((String) cs).substring(start, end);
+        }
+        LazyString node = (LazyString) cs;
+        if (node.isMaterialized()) {
+            return ((String) node.left).substring(start, end);
+        }
+        int mid = node.left.length();
+        if (end <= mid) {
+            return slice(node.left, start, end);
+        } else if (start >= mid) {
+            return slice(node.right, start - mid, end - mid);
+        }
+        CharSequence l = slice(node.left, start, mid);
+        CharSequence r = slice(node.right, 0, end - mid);
+        return new LazyString(l, r, end - start);
+    }
+
+    /**
+     * Like {@link String#startsWith(String, int)}, but compares the characters in place.
+     */
+    @TruffleBoundary
+    public boolean startsWith(String prefix, int offset) {
+        if (offset < 0 || offset > len - prefix.length()) {
+            return false;
+        } else if (isMaterialized()) {
+            return ((String) left).startsWith(prefix, offset);
+        }
+        balanceIfDeep();
+        return regionMatches(this, offset, prefix, 0, prefix.length());
+    }
+
+    private static boolean regionMatches(CharSequence cs, int offset, String other, int otherOffset, int length) {
+        if (length == 0) {
+            return true;
+        } else if (cs instanceof String) {
+            return ((String) cs).regionMatches(offset, other, otherOffset, length);
+        }
+        LazyString node = (LazyString) cs;
+        if (node.isMaterialized()) {
+            return ((String) node.left).regionMatches(offset, other, otherOffset, length);
+        }
+        int mid = node.left.length();
+        if (offset + length <= mid) {
+            return regionMatches(node.left, offset, other, otherOffset, length);
+        } else if (offset >= mid) {
+            return regionMatches(node.right, offset - mid, other, otherOffset, length);
+        }
+        int leftLength = mid - offset;
+        return regionMatches(node.left, offset, other, otherOffset, leftLength) && regionMatches(node.right, 0, other, otherOffset + leftLength, length - leftLength);
     }
 
     public boolean isEmpty() {
@@ -244,13 +450,13 @@ public class LazyString implements PCharSequence {
     // accessed via Java Interop, JDK-8062624.js
     @TruffleBoundary
     public boolean startsWith(String prefix) {
-        return toString().startsWith(prefix);
+        return startsWith(prefix, 0);
     }
 
     // accessed via Java Interop, JDK-8062624.js
     @TruffleBoundary
-    public boolean endsWith(String prefix) {
-        return toString().endsWith(prefix);
+    public boolean endsWith(String suffix) {
+        return startsWith(suffix, len - suffix.length());
     }
 
     // accessed via Java Interop, JDK-8062624.js
@@ -45,6 +45,12 @@ public final class PString extends PImmutableSequence {
     }
 
     public String getValue() {
+        if (value instanceof LazyString) {
+            // keep the flat string, so that later operations do not go through the lazy string
+            String materialized = ((LazyString) value).materialize();
+            value = materialized;
+            return materialized;
+        }
         return PString.getValue(value);
     }
 
@@ -28,6 +28,7 @@ package com.oracle.graal.python.builtins.objects.str;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
@@ -41,12 +42,14 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.LookupError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeEncodeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
@@ -71,6 +74,8 @@ import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectAr
 import com.oracle.graal.python.builtins.objects.common.SequenceNodesFactory.GetObjectArrayNodeGen;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListReverseNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
@@ -79,16 +84,20 @@ import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
 import com.oracle.graal.python.builtins.objects.str.StringNodes.CastToJavaStringCheckedNode;
 import com.oracle.graal.python.builtins.objects.str.StringNodes.JoinInternalNode;
+import com.oracle.graal.python.builtins.objects.str.StringNodes.ParseFormatSpecNode;
 import com.oracle.graal.python.builtins.objects.str.StringNodes.SpliceNode;
 import com.oracle.graal.python.builtins.objects.str.StringNodes.StringLenNode;
+import com.oracle.graal.python.builtins.objects.str.StringNodesFactory.ParseFormatSpecNodeGen;
 import com.oracle.graal.python.builtins.objects.str.StringUtils.StripKind;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetAnyAttributeNode;
 import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.classes.IsSubtypeNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
@@ -96,6 +105,7 @@ import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetLazyClassNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.nodes.subscript.GetItemNode;
@@ -106,9 +116,13 @@ import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNodeGen;
 import com.oracle.graal.python.runtime.ExecutionContext.IndirectCallContext;
 import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.formatting.FormatTemplate;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
 import com.oracle.graal.python.runtime.formatting.StringFormatter;
+import com.oracle.graal.python.runtime.formatting.TextFormatter;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -117,6 +131,7 @@ import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -442,6 +457,7 @@ public final class StringBuiltins extends PythonBuiltins {
         }
     }
 
+    @ImportStatic(StringNodes.class)
     abstract static class PrefixSuffixBaseNode extends PythonQuaternaryBuiltinNode {
 
         @Child private CastToSliceComponentNode castSliceComponentNode;
@@ -450,6 +466,11 @@ public final class StringBuiltins extends PythonBuiltins {
 
         // common and specialized cases --------------------
 
+        @Specialization(guards = "isLazyCharSequence(self)")
+        boolean doLazyStringPrefix(PString self, String substr, @SuppressWarnings("unused") PNone start, @SuppressWarnings("unused") PNone end) {
+            return doIt((LazyString) self.getCharSequence(), substr);
+        }
+
         @Specialization
         boolean doStringPrefixStartEnd(String self, String substr, int start, int end) {
             int len = self.length();
@@ -514,6 +535,12 @@ public final class StringBuiltins extends PythonBuiltins {
             throw new IllegalStateException("should not reach");
         }
 
+        // the operation on a whole lazy string, which must not flatten it
+        protected boolean doIt(LazyString text, String substr) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException("should not reach");
+        }
+
         private boolean doIt(String self, PTuple substrs, int start, int stop) {
             for (Object element : ensureGetObjectArrayNode().execute(substrs)) {
                 String elementStr = castPrefix(element);
@@ -598,6 +625,11 @@ public final class StringBuiltins extends PythonBuiltins {
             return text.startsWith(prefix, start);
         }
 
+        @Override
+        protected boolean doIt(LazyString text, String prefix) {
+            return text.startsWith(prefix);
+        }
+
         @Override
         protected String getErrorMessage() {
             return INVALID_ELEMENT_TYPE;
@@ -624,6 +656,11 @@ public final class StringBuiltins extends PythonBuiltins {
             return text.startsWith(suffix, end - suffixLen);
         }
 
+        @Override
+        protected boolean doIt(LazyString text, String suffix) {
+            return text.endsWith(suffix);
+        }
+
         @Override
         protected String getErrorMessage() {
             return INVALID_ELEMENT_TYPE;
@@ -1597,6 +1634,294 @@ public final class StringBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = __FORMAT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class FormatNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "formatString.isEmpty()")
+        static String formatEmpty(String self, @SuppressWarnings("unused") String formatString) {
+            return self;
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        String format(String self, String formatString,
+                        @Shared("parseSpecNode") @Cached ParseFormatSpecNode parseSpecNode) {
+            return format(getCore(), self, parseSpecNode.execute(formatString));
+        }
+
+        @Specialization(replaces = {"formatEmpty", "format"})
+        String doGeneric(Object self, Object formatString,
+                        @Cached CastToJavaStringCheckedNode castSelfNode,
+                        @Cached CastToJavaStringNode castFormatStringNode,
+                        @Shared("parseSpecNode") @Cached ParseFormatSpecNode parseSpecNode) {
+            String selfStr = castSelfNode.cast(self, INVALID_RECEIVER, __FORMAT__, self);
+            String formatStr = castFormatStringNode.execute(formatString);
+            if (formatStr == null) {
+                throw raise(TypeError, "format() argument 2 must be str, not %p", formatString);
+            }
+            if (formatStr.isEmpty()) {
+                return selfStr;
+            }
+            return format(selfStr, formatStr, parseSpecNode);
+        }
+
+        @TruffleBoundary
+        private static String format(PythonCore core, String self, InternalFormat.Spec spec) {
+            StringBuilder result = new StringBuilder();
+            formatInto(core, result, self, spec);
+            return result.toString();
+        }
+
+        /**
+         * Appends the formatted string to {@code result}.
+         */
+        @TruffleBoundary
+        public static void formatInto(PythonCore core, StringBuilder result, String self, InternalFormat.Spec spec) {
+            if (spec.type != InternalFormat.Spec.NONE && spec.type != 's') {
+                throw InternalFormat.Formatter.unknownFormat(core, spec.type, "str");
+            } else if (spec.alternate) {
+                throw InternalFormat.Formatter.alternateFormNotAllowed(core, "string");
+            } else if (InternalFormat.Spec.specified(spec.sign)) {
+                throw InternalFormat.Formatter.signNotAllowed(core, "string", '\0');
+            } else if (spec.align == '=') {
+                throw InternalFormat.Formatter.alignmentNotAllowed(core, '=', "string");
+            }
+            new TextFormatter(core, result, spec.withDefaults(InternalFormat.Spec.STRING)).format(self).pad();
+        }
+    }
+
+    // str.format(*args, **kwargs)
+    @Builtin(name = "format", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class StrFormatNode extends PythonVarargsBuiltinNode {
+        @Child private LookupAndCallBinaryNode formatNode = LookupAndCallBinaryNode.create(__FORMAT__);
+        @Child private CastToJavaStringNode castToJavaStringNode = CastToJavaStringNode.create();
+        @Child private ParseFormatSpecNode parseSpecNode = ParseFormatSpecNodeGen.create();
+        @Child private GetAnyAttributeNode getAttributeNode;
+        @Child private GetItemNode getItemNode;
+        @Child private LookupAndCallUnaryNode reprNode;
+        @Child private LookupAndCallUnaryNode strNode;
+
+        /*
+         * Format strings are usually constants, so the parsed template is cached by identity. Since
+         * calls of builtin methods get their own copy of this node, this is a per call site cache.
+         */
+        @Specialization(guards = "self == cachedSelf", limit = "3")
+        String doCached(VirtualFrame frame, @SuppressWarnings("unused") String self, Object[] args, PKeyword[] kwargs,
+                        @SuppressWarnings("unused") @Cached("self") String cachedSelf,
+                        @Cached("parse(self)") FormatTemplate template) {
+            return render(frame, template, args, kwargs);
+        }
+
+        @Specialization(replaces = "doCached")
+        String doString(VirtualFrame frame, String self, Object[] args, PKeyword[] kwargs) {
+            return render(frame, parse(self), args, kwargs);
+        }
+
+        @Specialization(replaces = {"doCached", "doString"})
+        String doGeneric(VirtualFrame frame, Object self, Object[] args, PKeyword[] kwargs,
+                        @Cached CastToJavaStringCheckedNode castSelfNode) {
+            return doString(frame, castSelfNode.cast(self, INVALID_RECEIVER, "format", self), args, kwargs);
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, @SuppressWarnings("unused") Object self, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+
+        protected FormatTemplate parse(String self) {
+            return FormatTemplate.parse(getCore(), self);
+        }
+
+        private String render(VirtualFrame frame, FormatTemplate template, Object[] args, PKeyword[] kwargs) {
+            String literal = template.getLiteral();
+            if (literal != null) {
+                return literal;
+            }
+            StringBuilder result = newStringBuilder();
+            Object[] parts = template.getParts();
+            for (int i = 0; i < parts.length; i++) {
+                Object part = parts[i];
+                if (part instanceof String) {
+                    append(result, (String) part);
+                } else {
+                    FormatTemplate.Field field = (FormatTemplate.Field) part;
+                    String spec = field.getSpec();
+                    if (spec == null) {
+                        spec = renderSpec(frame, field.getSpecTemplate(), args, kwargs);
+                    }
+                    formatField(frame, result, field, spec, args, kwargs);
+                }
+            }
+            return getText(result);
+        }
+
+        /**
+         * Renders a spec with nested fields. Nesting is limited to one level, so the nested fields
+         * have constant specs.
+         */
+        private String renderSpec(VirtualFrame frame, FormatTemplate template, Object[] args, PKeyword[] kwargs) {
+            StringBuilder result = newStringBuilder();
+            Object[] parts = template.getParts();
+            for (int i = 0; i < parts.length; i++) {
+                Object part = parts[i];
+                if (part instanceof String) {
+                    append(result, (String) part);
+                } else {
+                    FormatTemplate.Field field = (FormatTemplate.Field) part;
+                    assert field.getSpec() != null;
+                    formatField(frame, result, field, field.getSpec(), args, kwargs);
+                }
+            }
+            return getText(result);
+        }
+
+        private void formatField(VirtualFrame frame, StringBuilder result, FormatTemplate.Field field, String spec, Object[] args, PKeyword[] kwargs) {
+            Object value = getArgument(field, args, kwargs);
+            Object[] lookups = field.getLookups();
+            for (int i = 0; i < lookups.length; i++) {
+                Object lookup = lookups[i];
+                if (lookup instanceof String) {
+                    value = ensureGetAttributeNode().executeObject(frame, value, lookup);
+                } else {
+                    value = ensureGetItemNode().execute(frame, value, ((FormatTemplate.ItemLookup) lookup).getKey());
+                }
+            }
+            switch (field.getConversion()) {
+                case 'r':
+                    value = ensureReprNode().executeObject(frame, value);
+                    break;
+                case 's':
+                    value = ensureStrNode().executeObject(frame, value);
+                    break;
+                case 'a':
+                    value = toAscii(castToJavaStringNode.execute(ensureReprNode().executeObject(frame, value)));
+                    break;
+            }
+            // str and int are formatted directly into the result
+            if (value instanceof String) {
+                if (spec.isEmpty()) {
+                    append(result, (String) value);
+                } else {
+                    FormatNode.formatInto(getCore(), result, (String) value, parseSpecNode.execute(spec));
+                }
+            } else if (value instanceof Integer || value instanceof Long) {
+                long longValue = ((Number) value).longValue();
+                if (spec.isEmpty()) {
+                    append(result, longValue);
+                } else {
+                    InternalFormat.Spec parsedSpec = parseSpecNode.execute(spec);
+                    if (IntBuiltins.FormatNode.isFloatType(parsedSpec.type)) {
+                        appendFormatted(frame, result, value, spec);
+                    } else {
+                        IntBuiltins.FormatNode.formatInto(getCore(), result, BigInteger.valueOf(longValue), parsedSpec);
+                    }
+                }
+            } else {
+                appendFormatted(frame, result, value, spec);
+            }
+        }
+
+        private void appendFormatted(VirtualFrame frame, StringBuilder result, Object value, String spec) {
+            Object formatted = formatNode.executeObject(frame, value, spec);
+            String formattedStr = castToJavaStringNode.execute(formatted);
+            if (formattedStr == null) {
+                throw raise(TypeError, "__format__ must return a str, not %p", formatted);
+            }
+            append(result, formattedStr);
+        }
+
+        private Object getArgument(FormatTemplate.Field field, Object[] args, PKeyword[] kwargs) {
+            int index = field.getArgIndex();
+            if (index >= 0) {
+                if (index >= args.length) {
+                    throw raise(IndexError, "Replacement index %d out of range for positional args tuple", index);
+                }
+                return args[index];
+            }
+            String keyword = field.getKeyword();
+            for (int i = 0; i < kwargs.length; i++) {
+                if (keyword.equals(kwargs[i].getName())) {
+                    return kwargs[i].getValue();
+                }
+            }
+            throw raise(KeyError, "%s", keyword);
+        }
+
+        @TruffleBoundary
+        private static String toAscii(String repr) {
+            StringBuilder sb = new StringBuilder(repr.length());
+            for (int i = 0; i < repr.length();) {
+                int cp = repr.codePointAt(i);
+                i += Character.charCount(cp);
+                if (cp < 0x80) {
+                    sb.append((char) cp);
+                } else if (cp < 0x100) {
+                    sb.append(String.format("\\x%02x", cp));
+                } else if (cp < 0x10000) {
+                    sb.append(String.format("\\u%04x", cp));
+                } else {
+                    sb.append(String.format("\\U%08x", cp));
+                }
+            }
+            return sb.toString();
+        }
+
+        @TruffleBoundary
+        private static StringBuilder newStringBuilder() {
+            return new StringBuilder();
+        }
+
+        @TruffleBoundary
+        private static void append(StringBuilder result, String s) {
+            result.append(s);
+        }
+
+        @TruffleBoundary
+        private static void append(StringBuilder result, long value) {
+            result.append(value);
+        }
+
+        @TruffleBoundary
+        private static String getText(StringBuilder result) {
+            return result.toString();
+        }
+
+        private GetAnyAttributeNode ensureGetAttributeNode() {
+            if (getAttributeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getAttributeNode = insert(GetAnyAttributeNode.create());
+            }
+            return getAttributeNode;
+        }
+
+        private GetItemNode ensureGetItemNode() {
+            if (getItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getItemNode = insert(GetItemNode.create());
+            }
+            return getItemNode;
+        }
+
+        private LookupAndCallUnaryNode ensureReprNode() {
+            if (reprNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                reprNode = insert(LookupAndCallUnaryNode.create(__REPR__));
+            }
+            return reprNode;
+        }
+
+        private LookupAndCallUnaryNode ensureStrNode() {
+            if (strNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                strNode = insert(LookupAndCallUnaryNode.create(__STR__));
+            }
+            return strNode;
+        }
+    }
+
     @Builtin(name = "isascii", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class IsAsciiNode extends PythonUnaryBuiltinNode {
@@ -2085,8 +2410,35 @@ public final class StringBuiltins extends PythonBuiltins {
     @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
+    @ImportStatic(StringNodes.class)
     public abstract static class StrGetItemNode extends PythonBinaryBuiltinNode {
 
+        // lazy strings are indexed and sliced without being flattened
+
+        @Specialization(guards = "isLazyCharSequence(primary)")
+        String doLazyString(PString primary, int idx) {
+            LazyString lazyString = (LazyString) primary.getCharSequence();
+            int index = idx < 0 ? idx + lazyString.length() : idx;
+            if (index < 0 || index >= lazyString.length()) {
+                throw raise(IndexError, "IndexError: string index out of range");
+            }
+            return PString.valueOf(lazyString.charAt(index));
+        }
+
+        @Specialization(guards = "isLazyCharSequence(primary)")
+        Object doLazyString(PString primary, PSlice slice) {
+            LazyString lazyString = (LazyString) primary.getCharSequence();
+            SliceInfo info = slice.computeIndices(lazyString.length());
+            if (info.step == 1) {
+                CharSequence result = lazyString.subSequence(info.start, Math.max(info.start, info.stop));
+                if (result instanceof String) {
+                    return result;
+                }
+                return factory().createString(result);
+            }
+            return doString(lazyString.toString(), slice);
+        }
+
         @Specialization
         public String doString(String primary, PSlice slice) {
             SliceInfo info = slice.computeIndices(primary.length());
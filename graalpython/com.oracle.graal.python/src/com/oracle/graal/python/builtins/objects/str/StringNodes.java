@@ -40,11 +40,13 @@
  */
 package com.oracle.graal.python.builtins.objects.str;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.Arrays;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.cext.CExtNodes.PCallCapiFunction;
@@ -64,12 +66,15 @@ import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.object.GetLazyClassNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -191,6 +196,33 @@ public abstract class StringNodes {
         }
     }
 
+    /**
+     * Parses a format spec. Specs are usually constants, so the parsed spec is cached by identity
+     * of the spec string.
+     */
+    public abstract static class ParseFormatSpecNode extends Node {
+
+        public abstract InternalFormat.Spec execute(String spec);
+
+        @Specialization(guards = "spec == cachedSpec", limit = "3")
+        static InternalFormat.Spec doCached(@SuppressWarnings("unused") String spec,
+                        @SuppressWarnings("unused") @CachedContext(PythonLanguage.class) PythonContext context,
+                        @SuppressWarnings("unused") @Cached("spec") String cachedSpec,
+                        @Cached("parse(context, spec)") InternalFormat.Spec parsedSpec) {
+            return parsedSpec;
+        }
+
+        @Specialization(replaces = "doCached")
+        static InternalFormat.Spec doGeneric(String spec,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            return parse(context, spec);
+        }
+
+        static InternalFormat.Spec parse(PythonContext context, String spec) {
+            return InternalFormat.fromText(context.getCore(), spec, __FORMAT__);
+        }
+    }
+
     @ImportStatic(PGuards.class)
     public abstract static class JoinInternalNode extends PNodeWithContext {
 
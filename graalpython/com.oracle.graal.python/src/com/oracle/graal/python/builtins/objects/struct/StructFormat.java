@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StructError;
+
+import java.nio.ByteOrder;
+import java.util.HashMap;
+
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A compiled struct format string. The format is parsed once into a sequence of codes; each code
+ * describes {@code repeat} consecutive values of the same kind, starting at {@code offset} in the
+ * packed data. Pad bytes are not part of the codes and strings ({@code 's'} and {@code 'p'}) are a
+ * single value of {@code itemSize} bytes. Instances are immutable and shared through a global cache,
+ * so call sites can cache them by identity.
+ */
+public final class StructFormat {
+
+    // same as 'MAXCACHE' in '_struct.c'
+    private static final int MAX_CACHE = 100;
+    private static final HashMap<String, StructFormat> CACHE = new HashMap<>();
+
+    private static final boolean NATIVE_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private final String format;
+    private final boolean bigEndian;
+    private final boolean nativeSizes;
+    private final int size;
+    private final int length;
+    @CompilationFinal(dimensions = 1) private final char[] codes;
+    @CompilationFinal(dimensions = 1) private final int[] offsets;
+    @CompilationFinal(dimensions = 1) private final int[] itemSizes;
+    @CompilationFinal(dimensions = 1) private final int[] repeats;
+
+    private StructFormat(String format, boolean bigEndian, boolean nativeSizes, int size, int length, char[] codes, int[] offsets, int[] itemSizes, int[] repeats) {
+        this.format = format;
+        this.bigEndian = bigEndian;
+        this.nativeSizes = nativeSizes;
+        this.size = size;
+        this.length = length;
+        this.codes = codes;
+        this.offsets = offsets;
+        this.itemSizes = itemSizes;
+        this.repeats = repeats;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+
+    /**
+     * Whether the format uses native sizes and alignment, i.e., it has no or the {@code '@'}
+     * prefix.
+     */
+    public boolean isNativeSizes() {
+        return nativeSizes;
+    }
+
+    /**
+     * The number of bytes of the packed data, i.e., {@code calcsize(format)}.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * The number of values to pack or unpack.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int getCodeCount() {
+        return codes.length;
+    }
+
+    public char getCode(int i) {
+        return codes[i];
+    }
+
+    public int getOffset(int i) {
+        return offsets[i];
+    }
+
+    public int getItemSize(int i) {
+        return itemSizes[i];
+    }
+
+    public int getRepeat(int i) {
+        return repeats[i];
+    }
+
+    /**
+     * Returns the compiled format for {@code format}, compiling and caching it if necessary.
+     */
+    @TruffleBoundary
+    public static StructFormat lookup(String format) {
+        synchronized (CACHE) {
+            StructFormat result = CACHE.get(format);
+            if (result == null) {
+                result = compile(format);
+                if (CACHE.size() >= MAX_CACHE) {
+                    CACHE.clear();
+                }
+                CACHE.put(format, result);
+            }
+            return result;
+        }
+    }
+
+    @TruffleBoundary
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private static StructFormat compile(String format) {
+        boolean bigEndian = NATIVE_BIG_ENDIAN;
+        boolean nativeSizes = false;
+        int start = 1;
+        switch (format.isEmpty() ? 0 : format.charAt(0)) {
+            case '@':
+                nativeSizes = true;
+                break;
+            case '=':
+                break;
+            case '<':
+                bigEndian = false;
+                break;
+            case '>':
+            case '!':
+                bigEndian = true;
+                break;
+            default:
+                nativeSizes = true;
+                start = 0;
+        }
+
+        // first pass: validate and count the codes
+        int codeCount = 0;
+        int length = 0;
+        long size = 0;
+        int i = start;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (isSpace(c)) {
+                continue;
+            }
+            long num = 1;
+            if (c >= '0' && c <= '9') {
+                num = c - '0';
+                while (i < format.length() && (c = format.charAt(i)) >= '0' && c <= '9') {
+                    num = num * 10 + (c - '0');
+                    if (num > Integer.MAX_VALUE) {
+                        throw raise("total struct size too long");
+                    }
+                    i++;
+                }
+                if (i == format.length()) {
+                    throw raise("repeat count given without format specifier");
+                }
+                c = format.charAt(i++);
+            }
+            int itemSize = getItemSize(c, nativeSizes);
+            size = align(size, itemSize, nativeSizes) + num * itemSize;
+            if (size > Integer.MAX_VALUE) {
+                throw raise("total struct size too long");
+            }
+            if (c == 's' || c == 'p') {
+                codeCount++;
+                length++;
+            } else if (c != 'x' && num > 0) {
+                codeCount++;
+                length += (int) num;
+            }
+        }
+
+        // second pass: fill in the codes
+        char[] codes = new char[codeCount];
+        int[] offsets = new int[codeCount];
+        int[] itemSizes = new int[codeCount];
+        int[] repeats = new int[codeCount];
+        int offset = 0;
+        int code = 0;
+        i = start;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (isSpace(c)) {
+                continue;
+            }
+            int num = 1;
+            if (c >= '0' && c <= '9') {
+                num = c - '0';
+                while ((c = format.charAt(i++)) >= '0' && c <= '9') {
+                    num = num * 10 + (c - '0');
+                }
+            }
+            int itemSize = getItemSize(c, nativeSizes);
+            offset = (int) align(offset, itemSize, nativeSizes);
+            if (c == 's' || c == 'p') {
+                codes[code] = c;
+                offsets[code] = offset;
+                itemSizes[code] = num;
+                repeats[code] = 1;
+                code++;
+            } else if (c != 'x' && num > 0) {
+                codes[code] = c;
+                offsets[code] = offset;
+                itemSizes[code] = itemSize;
+                repeats[code] = num;
+                code++;
+            }
+            offset += num * itemSize;
+        }
+        return new StructFormat(format, bigEndian, nativeSizes, (int) size, length, codes, offsets, itemSizes, repeats);
+    }
+
+    private static long align(long size, int itemSize, boolean nativeSizes) {
+        // in native mode, the alignment of all supported codes is their size
+        if (nativeSizes && itemSize > 1 && size % itemSize != 0) {
+            return size + itemSize - size % itemSize;
+        }
+        return size;
+    }
+
+    private static int getItemSize(char c, boolean nativeSizes) {
+        switch (c) {
+            case 'x':
+            case 'c':
+            case 'b':
+            case 'B':
+            case '?':
+            case 's':
+            case 'p':
+                return 1;
+            case 'h':
+            case 'H':
+            case 'e':
+                return 2;
+            case 'i':
+            case 'I':
+            case 'f':
+                return 4;
+            case 'l':
+            case 'L':
+                return nativeSizes ? 8 : 4;
+            case 'q':
+            case 'Q':
+            case 'd':
+                return 8;
+            case 'n':
+            case 'N':
+            case 'P':
+                if (nativeSizes) {
+                    return 8;
+                }
+                break;
+        }
+        throw raise("bad char in struct format");
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\u000b' || c == '\f';
+    }
+
+    private static PException raise(String message) {
+        return PRaiseNode.getUncached().raise(StructError, message);
+    }
+
+    public static boolean isIntegerCode(char code) {
+        switch (code) {
+            case 'b':
+            case 'B':
+            case 'h':
+            case 'H':
+            case 'i':
+            case 'I':
+            case 'l':
+            case 'L':
+            case 'q':
+            case 'Q':
+            case 'n':
+            case 'N':
+            case 'P':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isFloatCode(char code) {
+        return code == 'e' || code == 'f' || code == 'd';
+    }
+
+    public static boolean isBytesCode(char code) {
+        return code == 'c' || code == 's' || code == 'p';
+    }
+}
@@ -0,0 +1,972 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.struct;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StructError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.mmap.PMMap;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.GetStructFormatNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.IterUnpackNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.PackIntoBufferNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.PackIntoNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.PackNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.PackToBytesNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.PackValueNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.UnpackBufferNodeGen;
+import com.oracle.graal.python.builtins.objects.struct.StructNodesFactory.UnpackNodeGen;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIntegerFromIndexNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+public abstract class StructNodes {
+
+    /**
+     * Call sites that always see the same format pack and unpack formats of up to this many values
+     * with fully unrolled loops.
+     */
+    static final int MAX_EXPLODED_LENGTH = 32;
+
+    static long readLong(byte[] bytes, int offset, int size, boolean bigEndian) {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            int shift = bigEndian ? 8 * (size - 1 - i) : 8 * i;
+            result |= (bytes[offset + i] & 0xFFL) << shift;
+        }
+        return result;
+    }
+
+    static void writeLong(byte[] bytes, int offset, long value, int size, boolean bigEndian) {
+        for (int i = 0; i < size; i++) {
+            int shift = bigEndian ? 8 * (size - 1 - i) : 8 * i;
+            bytes[offset + i] = (byte) (value >>> shift);
+        }
+    }
+
+    static long signExtend(long value, int size) {
+        int shift = 64 - 8 * size;
+        return (value << shift) >> shift;
+    }
+
+    /**
+     * Converts IEEE 754 binary16 bits to a double, like {@code _PyFloat_Unpack2}.
+     */
+    static double unpackHalfFloat(int bits) {
+        boolean negative = (bits & 0x8000) != 0;
+        int e = (bits >> 10) & 0x1F;
+        int f = bits & 0x3FF;
+        double x;
+        if (e == 0x1F) {
+            x = f == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        } else if (e == 0) {
+            x = Math.scalb(f / 1024.0, -14);
+        } else {
+            x = Math.scalb(1.0 + f / 1024.0, e - 15);
+        }
+        return negative ? -x : x;
+    }
+
+    /**
+     * Converts a double to IEEE 754 binary16 bits rounding half to even, like
+     * {@code _PyFloat_Pack2}.
+     */
+    static int packHalfFloat(double value, PRaiseNode raiseNode) {
+        int sign = (Double.doubleToRawLongBits(value) < 0) ? 1 : 0;
+        int e;
+        int bits;
+        if (value == 0.0) {
+            e = 0;
+            bits = 0;
+        } else if (Double.isInfinite(value)) {
+            e = 0x1F;
+            bits = 0;
+        } else if (Double.isNaN(value)) {
+            e = 0x1F;
+            bits = 512;
+        } else {
+            double x = Math.abs(value);
+            e = Math.getExponent(x);
+            // normalized to [1.0, 2.0)
+            double f = Math.scalb(x, -e);
+            if (e >= 16) {
+                throw raiseNode.raise(OverflowError, "float too large to pack with e format");
+            } else if (e < -25) {
+                // underflow to zero
+                f = 0.0;
+                e = 0;
+            } else if (e < -14) {
+                // gradual underflow
+                f = Math.scalb(f, 14 + e);
+                e = 0;
+            } else {
+                e += 15;
+                f -= 1.0;
+            }
+            f *= 1024.0;
+            bits = (int) f;
+            if (f - bits > 0.5 || (f - bits == 0.5 && (bits & 1) == 1)) {
+                bits++;
+                if (bits == 1024) {
+                    // the carry propagated out of a string of 10 one bits
+                    bits = 0;
+                    e++;
+                    if (e == 31) {
+                        throw raiseNode.raise(OverflowError, "float too large to pack with e format");
+                    }
+                }
+            }
+        }
+        return bits | (e << 10) | (sign << 15);
+    }
+
+    private static byte[] copyBytes(byte[] bytes, int offset, int len) {
+        byte[] result = new byte[len];
+        System.arraycopy(bytes, offset, result, 0, len);
+        return result;
+    }
+
+    /**
+     * Compiles the format argument of the {@code _struct} functions and of {@code Struct()}, which
+     * may be a {@code str} or a {@code bytes} object. Format strings that are constant at the call
+     * site are only looked up once.
+     */
+    @ImportStatic(PythonOptions.class)
+    public abstract static class GetStructFormatNode extends PNodeWithContext {
+
+        public abstract StructFormat execute(Object format);
+
+        @Specialization(guards = "format == cachedFormat", limit = "getCallSiteInlineCacheMaxDepth()")
+        static StructFormat doCached(@SuppressWarnings("unused") String format,
+                        @SuppressWarnings("unused") @Cached("format") String cachedFormat,
+                        @Cached("lookup(format)") StructFormat structFormat) {
+            return structFormat;
+        }
+
+        @Specialization(replaces = "doCached")
+        static StructFormat doString(String format) {
+            return StructFormat.lookup(format);
+        }
+
+        @Specialization
+        static StructFormat doPString(PString format,
+                        @Cached CastToJavaStringNode castToJavaStringNode) {
+            return StructFormat.lookup(castToJavaStringNode.execute(format));
+        }
+
+        @Specialization
+        static StructFormat doBytes(PBytes format,
+                        @Cached SequenceStorageNodes.ToByteArrayNode toByteArrayNode) {
+            return StructFormat.lookup(decodeAscii(toByteArrayNode.execute(format.getSequenceStorage())));
+        }
+
+        @Specialization(guards = {"!isString(format)", "!isPBytes(format)"})
+        static StructFormat doOther(Object format,
+                        @Cached PRaiseNode raiseNode) {
+            throw raiseNode.raise(TypeError, "Struct() argument 1 must be a str or bytes object, not %p", format);
+        }
+
+        static StructFormat lookup(String format) {
+            return StructFormat.lookup(format);
+        }
+
+        static boolean isString(Object format) {
+            return PGuards.isString(format);
+        }
+
+        static boolean isPBytes(Object format) {
+            return format instanceof PBytes;
+        }
+
+        @TruffleBoundary
+        private static String decodeAscii(byte[] bytes) {
+            // non-ASCII characters are rejected as bad format characters
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        public static GetStructFormatNode create() {
+            return GetStructFormatNodeGen.create();
+        }
+    }
+
+    /**
+     * Unpacks the values of a struct from {@code bytes}, starting at {@code offset}. The caller
+     * must ensure that {@code bytes} holds {@link StructFormat#getSize()} bytes from there.
+     */
+    @ImportStatic({PythonOptions.class, StructNodes.class})
+    public abstract static class UnpackNode extends PNodeWithContext {
+
+        public abstract PTuple execute(StructFormat format, byte[] bytes, int offset);
+
+        @Specialization(guards = {"format == cachedFormat", "cachedFormat.getLength() <= MAX_EXPLODED_LENGTH"}, limit = "getCallSiteInlineCacheMaxDepth()")
+        @ExplodeLoop
+        static PTuple doCached(@SuppressWarnings("unused") StructFormat format, byte[] bytes, int offset,
+                        @Cached("format") StructFormat cachedFormat,
+                        @Shared("factory") @Cached PythonObjectFactory factory) {
+            Object[] values = new Object[cachedFormat.getLength()];
+            int index = 0;
+            for (int i = 0; i < cachedFormat.getCodeCount(); i++) {
+                int itemOffset = offset + cachedFormat.getOffset(i);
+                for (int j = 0; j < cachedFormat.getRepeat(i); j++) {
+                    values[index++] = unpackValue(factory, cachedFormat, i, bytes, itemOffset);
+                    itemOffset += cachedFormat.getItemSize(i);
+                }
+            }
+            return factory.createTuple(values);
+        }
+
+        @Specialization(replaces = "doCached")
+        static PTuple doGeneric(StructFormat format, byte[] bytes, int offset,
+                        @Shared("factory") @Cached PythonObjectFactory factory) {
+            Object[] values = new Object[format.getLength()];
+            int index = 0;
+            for (int i = 0; i < format.getCodeCount(); i++) {
+                int itemOffset = offset + format.getOffset(i);
+                for (int j = 0; j < format.getRepeat(i); j++) {
+                    values[index++] = unpackValue(factory, format, i, bytes, itemOffset);
+                    itemOffset += format.getItemSize(i);
+                }
+            }
+            return factory.createTuple(values);
+        }
+
+        private static Object unpackValue(PythonObjectFactory factory, StructFormat format, int i, byte[] bytes, int offset) {
+            int size = format.getItemSize(i);
+            boolean bigEndian = format.isBigEndian();
+            switch (format.getCode(i)) {
+                case 'c':
+                    return factory.createBytes(new byte[]{bytes[offset]});
+                case 'b':
+                    return (int) bytes[offset];
+                case 'B':
+                    return bytes[offset] & 0xFF;
+                case '?':
+                    return bytes[offset] != 0;
+                case 'h':
+                case 'i':
+                case 'l':
+                case 'q':
+                case 'n':
+                    return signExtend(readLong(bytes, offset, size, bigEndian), size);
+                case 'H':
+                case 'I':
+                case 'L':
+                case 'Q':
+                case 'N':
+                case 'P':
+                    long value = readLong(bytes, offset, size, bigEndian);
+                    if (value < 0) {
+                        // an unsigned 64-bit value that does not fit into a long
+                        return factory.createInt128(0, value);
+                    }
+                    return value;
+                case 'e':
+                    return unpackHalfFloat((int) readLong(bytes, offset, 2, bigEndian));
+                case 'f':
+                    return (double) Float.intBitsToFloat((int) readLong(bytes, offset, 4, bigEndian));
+                case 'd':
+                    return Double.longBitsToDouble(readLong(bytes, offset, 8, bigEndian));
+                case 's':
+                    return factory.createBytes(copyBytes(bytes, offset, size));
+                case 'p':
+                    int n = size == 0 ? 0 : Math.min(bytes[offset] & 0xFF, size - 1);
+                    return factory.createBytes(copyBytes(bytes, offset + 1, n));
+                default:
+                    CompilerDirectives.transferToInterpreter();
+                    throw new IllegalStateException("unexpected struct format code " + format.getCode(i));
+            }
+        }
+
+        public static UnpackNode create() {
+            return UnpackNodeGen.create();
+        }
+    }
+
+    /**
+     * Packs {@link StructFormat#getLength()} values from {@code args}, starting at
+     * {@code argsOffset}, into {@code bytes} at {@code offset}. Pad bytes are not written, so the
+     * caller must provide a zeroed destination.
+     */
+    @ImportStatic({PythonOptions.class, StructNodes.class})
+    public abstract static class PackNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset, byte[] bytes, int offset);
+
+        @Specialization(guards = {"format == cachedFormat", "cachedFormat.getLength() <= MAX_EXPLODED_LENGTH"}, limit = "getCallSiteInlineCacheMaxDepth()")
+        @ExplodeLoop
+        static void doCached(VirtualFrame frame, @SuppressWarnings("unused") StructFormat format, Object[] args, int argsOffset, byte[] bytes, int offset,
+                        @Cached("format") StructFormat cachedFormat,
+                        @Cached("createPackValueNodes(cachedFormat)") PackValueNode[] packValueNodes) {
+            int index = argsOffset;
+            for (int i = 0; i < packValueNodes.length; i++) {
+                int itemOffset = offset + cachedFormat.getOffset(i);
+                for (int j = 0; j < cachedFormat.getRepeat(i); j++) {
+                    packValueNodes[i].execute(frame, cachedFormat, i, args[index++], bytes, itemOffset);
+                    itemOffset += cachedFormat.getItemSize(i);
+                }
+            }
+        }
+
+        @Specialization(replaces = "doCached")
+        static void doGeneric(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset, byte[] bytes, int offset,
+                        @Cached PackValueNode packValueNode) {
+            int index = argsOffset;
+            for (int i = 0; i < format.getCodeCount(); i++) {
+                int itemOffset = offset + format.getOffset(i);
+                for (int j = 0; j < format.getRepeat(i); j++) {
+                    packValueNode.execute(frame, format, i, args[index++], bytes, itemOffset);
+                    itemOffset += format.getItemSize(i);
+                }
+            }
+        }
+
+        static PackValueNode[] createPackValueNodes(StructFormat format) {
+            PackValueNode[] nodes = new PackValueNode[format.getCodeCount()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = PackValueNode.create();
+            }
+            return nodes;
+        }
+
+        public static PackNode create() {
+            return PackNodeGen.create();
+        }
+    }
+
+    /**
+     * Converts a value according to code {@code i} of the format and writes it to {@code bytes} at
+     * {@code offset}. The error messages follow {@code _struct.c}.
+     */
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @ImportStatic({PythonOptions.class, StructFormat.class})
+    public abstract static class PackValueNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, StructFormat format, int i, Object value, byte[] bytes, int offset);
+
+        @Specialization
+        static void doLong(StructFormat format, int i, long value, byte[] bytes, int offset,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            char code = format.getCode(i);
+            if (isIntegerCode(code)) {
+                packLong(format, i, value, bytes, offset, raiseNode);
+            } else if (isFloatCode(code)) {
+                packDouble(format, i, value, bytes, offset, raiseNode);
+            } else if (code == '?') {
+                bytes[offset] = (byte) (value != 0 ? 1 : 0);
+            } else {
+                throw raiseBytesRequired(code, raiseNode);
+            }
+        }
+
+        @Specialization
+        static void doPInt(StructFormat format, int i, PInt value, byte[] bytes, int offset,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            char code = format.getCode(i);
+            if (isIntegerCode(code)) {
+                packPInt(format, i, value, bytes, offset, raiseNode);
+            } else if (isFloatCode(code)) {
+                packDouble(format, i, value.doubleValue(), bytes, offset, raiseNode);
+            } else if (code == '?') {
+                bytes[offset] = (byte) (value.isZero() ? 0 : 1);
+            } else {
+                throw raiseBytesRequired(code, raiseNode);
+            }
+        }
+
+        @Specialization
+        static void doDouble(StructFormat format, int i, double value, byte[] bytes, int offset,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            char code = format.getCode(i);
+            if (isIntegerCode(code)) {
+                throw raiseNode.raise(StructError, "required argument is not an integer");
+            } else if (isFloatCode(code)) {
+                packDouble(format, i, value, bytes, offset, raiseNode);
+            } else if (code == '?') {
+                bytes[offset] = (byte) (value != 0.0 ? 1 : 0);
+            } else {
+                throw raiseBytesRequired(code, raiseNode);
+            }
+        }
+
+        @Specialization(guards = "isBytesCode(format.getCode(i))")
+        static void doBytes(StructFormat format, int i, PIBytesLike value, byte[] bytes, int offset,
+                        @Cached SequenceStorageNodes.GetInternalByteArrayNode getInternalByteArrayNode,
+                        @Cached SequenceStorageNodes.LenNode lenNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            SequenceStorage storage = value.getSequenceStorage();
+            byte[] src = getInternalByteArrayNode.execute(storage);
+            int len = lenNode.execute(storage);
+            int size = format.getItemSize(i);
+            switch (format.getCode(i)) {
+                case 'c':
+                    if (!(value instanceof PBytes) || len != 1) {
+                        throw raiseBytesRequired('c', raiseNode);
+                    }
+                    bytes[offset] = src[0];
+                    break;
+                case 's':
+                    System.arraycopy(src, 0, bytes, offset, Math.min(len, size));
+                    break;
+                default:
+                    // 'p': the first byte holds the (truncated) length
+                    if (size > 0) {
+                        int n = Math.min(len, size - 1);
+                        System.arraycopy(src, 0, bytes, offset + 1, n);
+                        bytes[offset] = (byte) Math.min(n, 255);
+                    }
+            }
+        }
+
+        @Specialization(guards = {"!isPInt(value)", "!isPBytesLike(value) || !isBytesCode(format.getCode(i))"})
+        static void doGeneric(VirtualFrame frame, StructFormat format, int i, Object value, byte[] bytes, int offset,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached CastToIntegerFromIndexNode castToIntegerNode,
+                        @Cached CastToDoubleNode castToDoubleNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode,
+                        @Cached IsBuiltinClassProfile errorProfile,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            char code = format.getCode(i);
+            if (isIntegerCode(code)) {
+                if (!lib.canBeIndex(value)) {
+                    throw raiseNode.raise(StructError, "required argument is not an integer");
+                }
+                Object index = castToIntegerNode.execute(frame, value);
+                if (index instanceof PInt) {
+                    packPInt(format, i, (PInt) index, bytes, offset, raiseNode);
+                } else if (index instanceof Boolean) {
+                    packLong(format, i, (boolean) index ? 1 : 0, bytes, offset, raiseNode);
+                } else {
+                    packLong(format, i, ((Number) index).longValue(), bytes, offset, raiseNode);
+                }
+            } else if (isFloatCode(code)) {
+                double d;
+                try {
+                    d = castToDoubleNode.execute(frame, value);
+                } catch (PException e) {
+                    e.expect(TypeError, errorProfile);
+                    throw raiseNode.raise(StructError, "required argument is not a float");
+                }
+                packDouble(format, i, d, bytes, offset, raiseNode);
+            } else if (code == '?') {
+                bytes[offset] = (byte) (castToBooleanNode.executeBoolean(frame, value) ? 1 : 0);
+            } else {
+                throw raiseBytesRequired(code, raiseNode);
+            }
+        }
+
+        static boolean isPInt(Object value) {
+            return value instanceof PInt;
+        }
+
+        static boolean isPBytesLike(Object value) {
+            return value instanceof PIBytesLike;
+        }
+
+        private static PException raiseBytesRequired(char code, PRaiseNode raiseNode) {
+            if (code == 'c') {
+                return raiseNode.raise(StructError, "char format requires a bytes object of length 1");
+            }
+            return raiseNode.raise(StructError, "argument for '%c' must be a bytes object", code);
+        }
+
+        private static PException raiseRangeError(char code, int size, boolean unsigned, PRaiseNode raiseNode) {
+            if (unsigned) {
+                return raiseNode.raise(StructError, "'%c' format requires 0 <= number <= %d", code, (1L << (8 * size)) - 1);
+            }
+            long largest = (1L << (8 * size - 1)) - 1;
+            return raiseNode.raise(StructError, "'%c' format requires %d <= number <= %d", code, -largest - 1, largest);
+        }
+
+        private static void packLong(StructFormat format, int i, long value, byte[] bytes, int offset, PRaiseNode raiseNode) {
+            char code = format.getCode(i);
+            int size = format.getItemSize(i);
+            boolean nativeSizes = format.isNativeSizes();
+            switch (code) {
+                case 'b':
+                    if (value < -128 || value > 127) {
+                        throw raiseNode.raise(StructError, "byte format requires -128 <= number <= 127");
+                    }
+                    break;
+                case 'B':
+                    if (value < 0 || value > 255) {
+                        throw raiseNode.raise(StructError, "ubyte format requires 0 <= number <= 255");
+                    }
+                    break;
+                case 'h':
+                    if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                        if (nativeSizes) {
+                            throw raiseNode.raise(StructError, "short format requires -32768 <= number <= 32767");
+                        }
+                        throw raiseRangeError(code, size, false, raiseNode);
+                    }
+                    break;
+                case 'H':
+                    if (nativeSizes && (value < 0 || value > 0xFFFF)) {
+                        throw raiseNode.raise(StructError, "ushort format requires 0 <= number <= 65535");
+                    } else if (value < 0) {
+                        throw raiseNode.raise(StructError, "argument out of range");
+                    } else if (value > 0xFFFF) {
+                        throw raiseRangeError(code, size, true, raiseNode);
+                    }
+                    break;
+                case 'i':
+                case 'l':
+                    if (size == 4 && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+                        throw raiseRangeError(code, size, false, raiseNode);
+                    }
+                    break;
+                case 'I':
+                case 'L':
+                    if (value < 0) {
+                        throw raiseNode.raise(StructError, "argument out of range");
+                    } else if (size == 4 && value > 0xFFFFFFFFL) {
+                        throw raiseRangeError(code, size, true, raiseNode);
+                    }
+                    break;
+                case 'Q':
+                case 'N':
+                    if (value < 0) {
+                        throw raiseNode.raise(StructError, nativeSizes ? "argument out of range" : "int too large to convert");
+                    }
+                    break;
+                default:
+                    // 'q', 'n' and 'P' accept any long
+                    break;
+            }
+            writeLong(bytes, offset, value, size, format.isBigEndian());
+        }
+
+        @TruffleBoundary
+        private static void packPInt(StructFormat format, int i, PInt value, byte[] bytes, int offset, PRaiseNode raiseNode) {
+            BigInteger bigValue = value.getValue();
+            if (bigValue.bitLength() <= 63) {
+                packLong(format, i, bigValue.longValue(), bytes, offset, raiseNode);
+                return;
+            }
+            char code = format.getCode(i);
+            int size = format.getItemSize(i);
+            if (bigValue.signum() > 0 && bigValue.bitLength() <= 64 && isUnsignedConversion(code, format.isNativeSizes())) {
+                if (size < 8) {
+                    throw raiseRangeError(code, size, true, raiseNode);
+                }
+                writeLong(bytes, offset, bigValue.longValue(), size, format.isBigEndian());
+                return;
+            }
+            if (code == 'P' || !format.isNativeSizes() && (code == 'q' || code == 'Q')) {
+                throw raiseNode.raise(StructError, "int too large to convert");
+            }
+            throw raiseNode.raise(StructError, "argument out of range");
+        }
+
+        /**
+         * Whether {@code _struct.c} converts arguments for this code with
+         * {@code PyLong_AsUnsignedLong} (or an equivalent), i.e., accepts values up to 2**64-1
+         * before checking the range of the code.
+         */
+        private static boolean isUnsignedConversion(char code, boolean nativeSizes) {
+            switch (code) {
+                case 'I':
+                case 'L':
+                case 'Q':
+                    return true;
+                case 'H':
+                    return !nativeSizes;
+                case 'N':
+                case 'P':
+                    return nativeSizes;
+                default:
+                    return false;
+            }
+        }
+
+        private static void packDouble(StructFormat format, int i, double value, byte[] bytes, int offset, PRaiseNode raiseNode) {
+            boolean bigEndian = format.isBigEndian();
+            switch (format.getCode(i)) {
+                case 'e':
+                    writeLong(bytes, offset, packHalfFloat(value, raiseNode), 2, bigEndian);
+                    break;
+                case 'f':
+                    float f = (float) value;
+                    if (!format.isNativeSizes() && Float.isInfinite(f) && !Double.isInfinite(value)) {
+                        throw raiseNode.raise(OverflowError, "float too large to pack with f format");
+                    }
+                    writeLong(bytes, offset, Float.floatToRawIntBits(f), 4, bigEndian);
+                    break;
+                default:
+                    writeLong(bytes, offset, Double.doubleToRawLongBits(value), 8, bigEndian);
+            }
+        }
+
+        public static PackValueNode create() {
+            return PackValueNodeGen.create();
+        }
+    }
+
+    /**
+     * Unpacks a struct from a buffer object. Bytes, bytearrays and contiguous memoryviews of those
+     * are read in place; only the packed bytes are copied out of an mmap.
+     */
+    @ImportStatic(PythonOptions.class)
+    public abstract static class UnpackBufferNode extends PNodeWithContext {
+
+        public final PTuple executeUnpack(StructFormat format, Object buffer) {
+            return execute(format, buffer, 0, false);
+        }
+
+        public final PTuple executeUnpackFrom(StructFormat format, Object buffer, long offset) {
+            return execute(format, buffer, offset, true);
+        }
+
+        abstract PTuple execute(StructFormat format, Object buffer, long offset, boolean from);
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        static PTuple doBytes(StructFormat format, PIBytesLike buffer, long offset, boolean from,
+                        @Shared("unpackNode") @Cached UnpackNode unpackNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            int start = (int) checkBounds(format, storage.length(), offset, from, raiseNode);
+            return unpackNode.execute(format, (byte[]) storage.getInternalArrayObject(), start);
+        }
+
+        @Specialization(guards = {"!buffer.isReleased()", "buffer.getContiguousByteArray() != null"})
+        static PTuple doMemoryView(StructFormat format, PMemoryView buffer, long offset, boolean from,
+                        @Shared("unpackNode") @Cached UnpackNode unpackNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            int start = (int) checkBounds(format, buffer.getLength(), offset, from, raiseNode);
+            return unpackNode.execute(format, buffer.getContiguousByteArray(), buffer.getOffset() + start);
+        }
+
+        @Specialization(guards = "!buffer.isClosed()")
+        static PTuple doMMap(StructFormat format, PMMap buffer, long offset, boolean from,
+                        @Shared("unpackNode") @Cached UnpackNode unpackNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            long start = checkBounds(format, buffer.getLength(), offset, from, raiseNode);
+            return unpackNode.execute(format, buffer.getBytes(start, format.getSize()), 0);
+        }
+
+        @Specialization(replaces = {"doBytes", "doMemoryView", "doMMap"})
+        static PTuple doGeneric(StructFormat format, Object buffer, long offset, boolean from,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Shared("unpackNode") @Cached UnpackNode unpackNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            byte[] bytes = getBufferBytes(buffer, lib, raiseNode);
+            int start = (int) checkBounds(format, bytes.length, offset, from, raiseNode);
+            return unpackNode.execute(format, bytes, start);
+        }
+
+        static boolean isByteStorage(PIBytesLike buffer) {
+            return buffer.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        private static long checkBounds(StructFormat format, long length, long offset, boolean from, PRaiseNode raiseNode) {
+            int size = format.getSize();
+            if (!from) {
+                if (length != size) {
+                    throw raiseNode.raise(StructError, "unpack requires a buffer of %d bytes", size);
+                }
+                return 0;
+            }
+            long start = offset < 0 ? offset + length : offset;
+            if (start < 0 || length - start < size) {
+                throw raiseNode.raise(StructError, "unpack_from requires a buffer of at least %d bytes", size);
+            }
+            return start;
+        }
+
+        public static UnpackBufferNode create() {
+            return UnpackBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Returns a copy of the bytes of a buffer object that is not handled in place.
+     */
+    static byte[] getBufferBytes(Object buffer, PythonObjectLibrary lib, PRaiseNode raiseNode) {
+        if (buffer instanceof PMemoryView && ((PMemoryView) buffer).isReleased()) {
+            throw raiseNode.raise(ValueError, "operation forbidden on released memoryview object");
+        } else if (buffer instanceof PMMap && ((PMMap) buffer).isClosed()) {
+            throw raiseNode.raise(ValueError, "mmap closed or invalid");
+        } else if (buffer instanceof PMemoryView) {
+            return ((PMemoryView) buffer).toByteArray();
+        } else if (!PGuards.isString(buffer) && lib.isBuffer(buffer)) {
+            try {
+                return lib.getBufferBytes(buffer);
+            } catch (UnsupportedMessageException e) {
+                // fall through
+            }
+        }
+        throw raiseNode.raise(TypeError, "a bytes-like object is required, not '%p'", buffer);
+    }
+
+    /**
+     * Packs a struct into a writable buffer object at {@code offset}, which may be negative.
+     * Bytearrays and contiguous memoryviews of those are written in place.
+     */
+    @ImportStatic(PythonOptions.class)
+    public abstract static class PackIntoBufferNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, StructFormat format, Object buffer, long offset, Object[] args, int argsOffset);
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        static void doByteArray(VirtualFrame frame, StructFormat format, PByteArray buffer, long offset, Object[] args, int argsOffset,
+                        @Shared("packNode") @Cached PackNode packNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            int start = (int) checkBounds(format, storage.length(), offset, raiseNode);
+            packInPlace(frame, packNode, format, args, argsOffset, (byte[]) storage.getInternalArrayObject(), start);
+        }
+
+        @Specialization(guards = {"!buffer.isReleased()", "!buffer.isReadOnly()", "buffer.getContiguousByteArray() != null"})
+        static void doMemoryView(VirtualFrame frame, StructFormat format, PMemoryView buffer, long offset, Object[] args, int argsOffset,
+                        @Shared("packNode") @Cached PackNode packNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            int start = (int) checkBounds(format, buffer.getLength(), offset, raiseNode);
+            packInPlace(frame, packNode, format, args, argsOffset, buffer.getContiguousByteArray(), buffer.getOffset() + start);
+        }
+
+        @Specialization(guards = {"!buffer.isClosed()", "!buffer.isReadonly()"})
+        static void doMMap(VirtualFrame frame, StructFormat format, PMMap buffer, long offset, Object[] args, int argsOffset,
+                        @Shared("packNode") @Cached PackNode packNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            long start = checkBounds(format, buffer.getLength(), offset, raiseNode);
+            byte[] bytes = new byte[format.getSize()];
+            packNode.execute(frame, format, args, argsOffset, bytes, 0);
+            buffer.putBytes(start, bytes, 0, bytes.length);
+        }
+
+        @Specialization(replaces = {"doByteArray", "doMemoryView", "doMMap"})
+        static void doGeneric(VirtualFrame frame, StructFormat format, Object buffer, long offset, Object[] args, int argsOffset,
+                        @Shared("packNode") @Cached PackNode packNode,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode) {
+            if (buffer instanceof PMemoryView && ((PMemoryView) buffer).isReleased()) {
+                throw raiseNode.raise(ValueError, "operation forbidden on released memoryview object");
+            } else if (buffer instanceof PMMap && ((PMMap) buffer).isClosed()) {
+                throw raiseNode.raise(ValueError, "mmap closed or invalid");
+            } else if (buffer instanceof PByteArray && isByteStorage((PByteArray) buffer)) {
+                doByteArray(frame, format, (PByteArray) buffer, offset, args, argsOffset, packNode, raiseNode);
+                return;
+            } else if (buffer instanceof PMMap && !((PMMap) buffer).isReadonly()) {
+                doMMap(frame, format, (PMMap) buffer, offset, args, argsOffset, packNode, raiseNode);
+                return;
+            } else if (buffer instanceof PMemoryView && !((PMemoryView) buffer).isReadOnly()) {
+                // a view of an mmap or a non-contiguous view
+                PMemoryView view = (PMemoryView) buffer;
+                byte[] bytes = view.toByteArray();
+                int start = (int) checkBounds(format, bytes.length, offset, raiseNode);
+                packInPlace(frame, packNode, format, args, argsOffset, bytes, start);
+                view.fromByteArray(bytes);
+                return;
+            }
+            throw raiseNode.raise(TypeError, "argument must be read-write bytes-like object, not %p", buffer);
+        }
+
+        static boolean isByteStorage(PByteArray buffer) {
+            return buffer.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        private static void packInPlace(VirtualFrame frame, PackNode packNode, StructFormat format, Object[] args, int argsOffset, byte[] bytes, int start) {
+            Arrays.fill(bytes, start, start + format.getSize(), (byte) 0);
+            packNode.execute(frame, format, args, argsOffset, bytes, start);
+        }
+
+        private static long checkBounds(StructFormat format, long length, long offset, PRaiseNode raiseNode) {
+            int size = format.getSize();
+            long start = offset;
+            if (start < 0) {
+                if (start + size > 0) {
+                    throw raiseNode.raise(StructError, "no space to pack %d bytes at offset %d", size, start);
+                }
+                if (start + length < 0) {
+                    throw raiseNode.raise(StructError, "offset %d out of range for %d-byte buffer", start, length);
+                }
+                start += length;
+            }
+            if (length - start < size) {
+                throw raiseNode.raise(StructError, "pack_into requires a buffer of at least %d bytes for packing %d bytes at offset %d (actual buffer size is %d)", size + start, size,
+                                start, length);
+            }
+            return start;
+        }
+
+        public static PackIntoBufferNode create() {
+            return PackIntoBufferNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code pack(v1, v2, ...)} for the values in {@code args}, starting at
+     * {@code argsOffset}.
+     */
+    public abstract static class PackToBytesNode extends PNodeWithContext {
+
+        public abstract PBytes execute(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset);
+
+        @Specialization
+        static PBytes doPack(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset,
+                        @Cached PackNode packNode,
+                        @Cached PythonObjectFactory factory,
+                        @Cached PRaiseNode raiseNode) {
+            if (args.length - argsOffset != format.getLength()) {
+                throw raiseNode.raise(StructError, "pack expected %d items for packing (got %d)", format.getLength(), args.length - argsOffset);
+            }
+            byte[] bytes = new byte[format.getSize()];
+            packNode.execute(frame, format, args, argsOffset, bytes, 0);
+            return factory.createBytes(bytes);
+        }
+
+        public static PackToBytesNode create() {
+            return PackToBytesNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code pack_into(buffer, offset, v1, v2, ...)} for the arguments in {@code args},
+     * starting at {@code argsOffset}.
+     */
+    @ImportStatic(PythonOptions.class)
+    public abstract static class PackIntoNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset);
+
+        @Specialization
+        static void doPackInto(VirtualFrame frame, StructFormat format, Object[] args, int argsOffset,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached PackIntoBufferNode packIntoBufferNode,
+                        @Cached PRaiseNode raiseNode) {
+            int nargs = args.length - argsOffset;
+            if (nargs != format.getLength() + 2) {
+                if (nargs == 0) {
+                    throw raiseNode.raise(StructError, "pack_into expected buffer argument");
+                } else if (nargs == 1) {
+                    throw raiseNode.raise(StructError, "pack_into expected offset argument");
+                }
+                throw raiseNode.raise(StructError, "pack_into expected %d items for packing (got %d)", format.getLength(), nargs - 2);
+            }
+            long offset = lib.asSizeWithState(args[argsOffset + 1], IndexError, PArguments.getThreadState(frame));
+            packIntoBufferNode.execute(frame, format, args[argsOffset], offset, args, argsOffset + 2);
+        }
+
+        public static PackIntoNode create() {
+            return PackIntoNodeGen.create();
+        }
+    }
+
+    /**
+     * Implements {@code iter_unpack(buffer)}. The iterator keeps bytes, bytearrays, memoryviews and
+     * mmaps and unpacks from them lazily; other buffer objects are copied once.
+     */
+    @ImportStatic(PythonOptions.class)
+    public abstract static class IterUnpackNode extends PNodeWithContext {
+
+        public abstract PStructUnpackIterator execute(StructFormat format, Object buffer);
+
+        @Specialization
+        static PStructUnpackIterator doIterUnpack(StructFormat format, Object buffer,
+                        @CachedLibrary(limit = "getCallSiteInlineCacheMaxDepth()") PythonObjectLibrary lib,
+                        @Cached SequenceStorageNodes.LenNode lenNode,
+                        @Cached PythonObjectFactory factory,
+                        @Cached PRaiseNode raiseNode) {
+            int size = format.getSize();
+            if (size == 0) {
+                throw raiseNode.raise(StructError, "cannot iteratively unpack with a struct of length 0");
+            }
+            Object iterBuffer = buffer;
+            long length;
+            if (buffer instanceof PIBytesLike) {
+                length = lenNode.execute(((PIBytesLike) buffer).getSequenceStorage());
+            } else if (buffer instanceof PMemoryView && !((PMemoryView) buffer).isReleased()) {
+                length = ((PMemoryView) buffer).getLength();
+            } else if (buffer instanceof PMMap && !((PMMap) buffer).isClosed()) {
+                length = ((PMMap) buffer).getLength();
+            } else {
+                byte[] bytes = getBufferBytes(buffer, lib, raiseNode);
+                iterBuffer = factory.createBytes(bytes);
+                length = bytes.length;
+            }
+            if (length % size != 0) {
+                throw raiseNode.raise(StructError, "iterative unpacking requires a buffer of a multiple of %d bytes", size);
+            }
+            return factory.createStructUnpackIterator(format, iterBuffer, length);
+        }
+
+        public static IterUnpackNode create() {
+            return IterUnpackNodeGen.create();
+        }
+    }
+}
@@ -393,7 +393,7 @@ public class TupleBuiltins extends PythonBuiltins {
         }
 
         protected static SequenceStorageNodes.GetItemNode createGetItemNode() {
-            return SequenceStorageNodes.GetItemNode.create(NormalizeIndexNode.forTuple(), TYPE_ERROR_MESSAGE, (s, f) -> f.createTuple(s));
+            return SequenceStorageNodes.GetItemNode.createForImmutable(NormalizeIndexNode.forTuple(), TYPE_ERROR_MESSAGE, (s, f) -> f.createTuple(s));
         }
 
         protected boolean isPSlice(Object object) {
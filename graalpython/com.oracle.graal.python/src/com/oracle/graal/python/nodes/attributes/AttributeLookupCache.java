@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.attributes;
+
+import java.lang.ref.WeakReference;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroStorageNode;
+import com.oracle.graal.python.runtime.sequence.storage.MroSequenceStorage;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A context-wide cache of attribute lookups in the MRO of managed classes, keyed by class identity
+ * and attribute name. It is similar to CPython's type attribute cache and is used by lookups that
+ * see too many classes to cache them in the AST, so that megamorphic call sites do not walk the MRO
+ * on every access.
+ *
+ * An entry stays valid as long as the attribute-in-MRO final assumption it was created with, which
+ * is invalidated when the attribute is written in any class of the MRO up to the one defining it,
+ * or when the MRO changes. Classes are referenced weakly, so the cache does not keep classes alive.
+ */
+public final class AttributeLookupCache {
+
+    private static final int SIZE = 4096;
+
+    private static final class Entry {
+        private final WeakReference<PythonManagedClass> klass;
+        private final String name;
+        private final Assumption assumption;
+        private final Object value;
+
+        Entry(PythonManagedClass klass, String name, Assumption assumption, Object value) {
+            this.klass = new WeakReference<>(klass);
+            this.name = name;
+            this.assumption = assumption;
+            this.value = value;
+        }
+    }
+
+    private final Entry[] entries = new Entry[SIZE];
+
+    private static int index(PythonManagedClass klass, String name) {
+        return (System.identityHashCode(klass) ^ name.hashCode()) & (SIZE - 1);
+    }
+
+    /**
+     * Looks up {@code name} in the MRO of {@code klass}.
+     *
+     * @return The lookup result, or {@link PNone#NO_VALUE} if the name isn't defined on any class
+     *         in the MRO.
+     */
+    public Object lookup(PythonManagedClass klass, String name) {
+        int index = index(klass, name);
+        Entry entry = entries[index];
+        if (entry != null && entry.klass.get() == klass && name.equals(entry.name) && entry.assumption.isValid()) {
+            return entry.value;
+        }
+        return lookupAndCache(index, klass, name);
+    }
+
+    @TruffleBoundary
+    private Object lookupAndCache(int index, PythonManagedClass klass, String name) {
+        MroSequenceStorage mro = klass.getMethodResolutionOrder();
+        Assumption assumption = mro.getSharedAttributeInMROFinalAssumption(name);
+        // only a new assumption needs to be registered with the classes in the MRO
+        boolean register = assumption == null;
+        if (register) {
+            assumption = mro.createSharedAttributeInMROFinalAssumption(name);
+        }
+        Object value = PNone.NO_VALUE;
+        for (int i = 0; i < mro.length(); i++) {
+            PythonAbstractClass cls = mro.getItemNormalized(i);
+            if (register && i > 0) {
+                GetMroStorageNode.getUncached().execute(cls).addAttributeInMROFinalAssumption(name, assumption);
+            }
+            value = ReadAttributeFromObjectNode.getUncachedForceType().execute(cls, name);
+            if (value != PNone.NO_VALUE) {
+                break;
+            }
+        }
+        entries[index] = new Entry(klass, name, assumption, value);
+        return value;
+    }
+}
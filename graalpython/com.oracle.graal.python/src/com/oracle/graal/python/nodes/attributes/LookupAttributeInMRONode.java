@@ -45,6 +45,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroStorageNode;
 import com.oracle.graal.python.builtins.objects.type.TypeNodesFactory.IsSameTypeNodeGen;
@@ -96,18 +97,22 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
 
         @Specialization(replaces = "lookupConstantMRO")
         protected Object lookup(PythonBuiltinClassType klass, Object key) {
-            if (contextRef == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                contextRef = lookupContextReference(PythonLanguage.class);
-            }
-            return findAttr(contextRef.get().getCore(), klass, key);
+            return findAttr(getContext().getCore(), klass, key);
         }
 
         @Specialization(replaces = "lookupConstantMRO")
         protected Object lookup(PythonAbstractClass klass, Object key,
                         @Cached("create()") GetMroStorageNode getMroNode,
                         @Cached("createForceType()") ReadAttributeFromObjectNode readAttrNode) {
-            return lookupSlow(klass, key, getMroNode, readAttrNode);
+            return lookupSlow(getContext(), klass, key, getMroNode, readAttrNode);
+        }
+
+        private PythonContext getContext() {
+            if (contextRef == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                contextRef = lookupContextReference(PythonLanguage.class);
+            }
+            return contextRef.get();
         }
     }
 
@@ -120,7 +125,7 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
             if (klass instanceof PythonBuiltinClassType) {
                 return findAttr(PythonLanguage.getCore(), (PythonBuiltinClassType) klass, key);
             } else if (klass instanceof PythonAbstractClass) {
-                return lookupSlow((PythonAbstractClass) klass, key, getMroNode, readAttrNode);
+                return lookupSlow(PythonLanguage.getContext(), (PythonAbstractClass) klass, key, getMroNode, readAttrNode);
             } else {
                 CompilerDirectives.transferToInterpreter();
                 throw new RuntimeException("not implemented: lookup inherited attribute from non-PythonClass");
@@ -134,11 +139,15 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
     @Child private GetMroStorageNode getMroNode;
 
     protected PythonCore getCore() {
+        return getContext().getCore();
+    }
+
+    private PythonContext getContext() {
         if (contextRef == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             contextRef = lookupContextReference(PythonLanguage.class);
         }
-        return contextRef.get().getCore();
+        return contextRef.get();
     }
 
     public LookupAttributeInMRONode(String key) {
@@ -251,7 +260,7 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
     @Specialization(replaces = {"lookupConstantMROCached", "lookupConstantMRO"})
     protected Object lookup(PythonAbstractClass klass,
                     @Cached("createForceType()") ReadAttributeFromObjectNode readAttrNode) {
-        return lookupSlow(klass, key, getMroNode, readAttrNode);
+        return lookupSlow(getContext(), klass, key, ensureGetMroNode(), readAttrNode);
     }
 
     protected GetMroStorageNode ensureGetMroNode() {
@@ -266,7 +275,11 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         return ensureGetMroNode().execute(clazz);
     }
 
-    private static Object lookupSlow(PythonAbstractClass klass, Object key, GetMroStorageNode getMroNode, ReadAttributeFromObjectNode readAttrNode) {
+    private static Object lookupSlow(PythonContext context, PythonAbstractClass klass, Object key, GetMroStorageNode getMroNode, ReadAttributeFromObjectNode readAttrNode) {
+        if (klass instanceof PythonManagedClass && key instanceof String) {
+            // megamorphic lookups of managed classes go through the context-wide cache
+            return context.getAttributeLookupCache().lookup((PythonManagedClass) klass, (String) key);
+        }
         MroSequenceStorage mro = getMroNode.execute(klass);
         for (int i = 0; i < mro.length(); i++) {
             PythonAbstractClass kls = mro.getItemNormalized(i);
@@ -44,6 +44,8 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.iterator.PBuiltinIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
@@ -95,6 +97,16 @@ public abstract class GetIteratorExpressionNode extends UnaryOpNode {
             return GetIteratorNode.doPZip(value);
         }
 
+        @Specialization
+        static PythonObject doPMap(PMap value) {
+            return GetIteratorNode.doPMap(value);
+        }
+
+        @Specialization
+        static PythonObject doPFilter(PFilter value) {
+            return GetIteratorNode.doPFilter(value);
+        }
+
         @Specialization(guards = {"!isNoValue(value)"})
         static Object doGeneric(Object value,
                         @Cached("createIdentityProfile()") ValueProfile getattributeProfile,
@@ -135,6 +147,16 @@ public abstract class GetIteratorExpressionNode extends UnaryOpNode {
             return value;
         }
 
+        @Specialization
+        static PythonObject doPMap(PMap value) {
+            return value;
+        }
+
+        @Specialization
+        static PythonObject doPFilter(PFilter value) {
+            return value;
+        }
+
         @Specialization(guards = {"!isNoValue(value)"})
         static Object doGeneric(VirtualFrame frame, Object value,
                         @Cached("createIdentityProfile()") ValueProfile getattributeProfile,
@@ -45,6 +45,7 @@ import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OSError;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -143,6 +144,13 @@ public abstract class ChannelNodes {
     public abstract static class ReadFromChannelNode extends ReadFromChannelBaseNode {
         public static final int MAX_READ = Integer.MAX_VALUE / 2;
 
+        /**
+         * Reads of more than this many bytes from a {@link FileChannel} are split into reads of
+         * this size. A single read into a heap buffer goes through a temporary direct buffer of the
+         * same size, which would double the memory footprint of large reads.
+         */
+        static final int READ_CHUNK_SIZE = 1024 * 1024;
+
         public abstract ByteSequenceStorage execute(Channel channel, int size);
 
         @Specialization
@@ -160,6 +168,14 @@ public abstract class ChannelNodes {
                 availableSize = MAX_READ;
             }
             int sz = (int) Math.min(availableSize, size);
+            if (sz > READ_CHUNK_SIZE && channel instanceof FileChannel) {
+                try {
+                    return readChunked((FileChannel) channel, sz);
+                } catch (IOException e) {
+                    gotException.enter();
+                    throw raiseNode.raise(OSError, e);
+                }
+            }
             return readReadable(channel, sz, gotException, raiseNode);
         }
 
@@ -200,6 +216,21 @@ public abstract class ChannelNodes {
             return ByteBuffer.allocate(sz);
         }
 
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private static ByteSequenceStorage readChunked(FileChannel channel, int size) throws IOException {
+            byte[] array = new byte[size];
+            ByteBuffer dst = ByteBuffer.wrap(array);
+            while (dst.hasRemaining()) {
+                dst.limit(Math.min(dst.position() + READ_CHUNK_SIZE, size));
+                if (channel.read(dst) < 0) {
+                    break;
+                }
+            }
+            ByteSequenceStorage storage = new ByteSequenceStorage(array);
+            storage.setNewLength(dst.position());
+            return storage;
+        }
+
         public static ReadFromChannelNode create() {
             return ReadFromChannelNodeGen.create();
         }
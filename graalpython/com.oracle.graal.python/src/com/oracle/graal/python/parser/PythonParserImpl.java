@@ -25,6 +25,7 @@
  */
 package com.oracle.graal.python.parser;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
 import org.antlr.v4.runtime.CharStreams;
@@ -41,6 +42,7 @@ import com.oracle.graal.python.runtime.PythonParser;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleException;
+import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.FrameDescriptor;
@@ -53,6 +55,8 @@ public final class PythonParserImpl implements PythonParser {
 
     private final boolean logFiles;
     private final int timeStatistics;
+    private final boolean useCache;
+    private final boolean lazyFunctionBodies;
     private long timeInParser = 0;
     private long numberOfFiles = 0;
 
@@ -61,6 +65,8 @@ public final class PythonParserImpl implements PythonParser {
     public PythonParserImpl(Env env) {
         this.logFiles = env.getOptions().get(PythonOptions.ParserLogFiles);
         this.timeStatistics = env.getOptions().get(PythonOptions.ParserStatistics);
+        this.useCache = env.getOptions().get(PythonOptions.ParserCache);
+        this.lazyFunctionBodies = env.getOptions().get(PythonOptions.LazyFunctionBodies);
     }
 
     private static Python3Parser getPython3Parser(Source source, ParserErrorCallback errors) {
@@ -120,9 +126,29 @@ public final class PythonParserImpl implements PythonParser {
     @TruffleBoundary
     public Node parseN(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame) {
         FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
+        TruffleFile cacheFile = null;
+        long sourceHash = 0;
+        if (useCache && mode == ParserMode.File) {
+            cacheFile = SSTCache.getCacheFile(PythonLanguage.getContext().getEnv(), source);
+            if (cacheFile != null) {
+                sourceHash = SSTCache.hash(source.getCharacters());
+                PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source);
+                sstFactory.setLazyFunctionBodies(useLazyFunctionBodies(mode, source));
+                SSTNode cachedResult = SSTCache.load(cacheFile, sourceHash, source.getLength(), sstFactory.getScopeEnvironment());
+                if (cachedResult != null) {
+                    lastGlobalScope = sstFactory.getScopeEnvironment().getGlobalScope();
+                    try {
+                        return sstFactory.createParserResult(cachedResult, mode, currentFrame);
+                    } catch (Exception e) {
+                        throw handleParserError(errors, source, e, true);
+                    }
+                }
+            }
+        }
         // ANTLR parsing
         Python3Parser parser = getPython3Parser(source, errors);
         PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source);
+        sstFactory.setLazyFunctionBodies(useLazyFunctionBodies(mode, source));
         parser.setFactory(sstFactory);
         SSTNode parserSSTResult = null;
 
@@ -160,6 +186,10 @@ public final class PythonParserImpl implements PythonParser {
         }
 
         lastGlobalScope = sstFactory.getScopeEnvironment().getGlobalScope();
+        if (cacheFile != null) {
+            // must happen before the scopes are modified by creating the Truffle nodes
+            SSTCache.store(cacheFile, sourceHash, source.getLength(), lastGlobalScope, parserSSTResult);
+        }
         try {
             return sstFactory.createParserResult(parserSSTResult, mode, currentFrame);
         } catch (Exception e) {
@@ -167,6 +197,15 @@ public final class PythonParserImpl implements PythonParser {
         }
     }
 
+    /**
+     * Function bodies are only translated lazily for modules loaded from files. Code compiled
+     * from strings (e.g. by {@code compile} or {@code exec}) is translated eagerly, so that errors
+     * reported during the translation are raised right away.
+     */
+    private boolean useLazyFunctionBodies(ParserMode mode, Source source) {
+        return lazyFunctionBodies && mode == ParserMode.File && source.getPath() != null;
+    }
+
     @Override
     @TruffleBoundary
     public boolean isIdentifier(PythonCore core, String snippet) {
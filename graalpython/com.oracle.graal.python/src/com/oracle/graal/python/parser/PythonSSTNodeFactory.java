@@ -85,6 +85,7 @@ public final class PythonSSTNodeFactory {
     private final ScopeEnvironment scopeEnvironment;
     private final Source source;
     private final PythonParser.ParserErrorCallback errors;
+    private boolean lazyFunctionBodies;
 
     public PythonSSTNodeFactory(PythonParser.ParserErrorCallback errors, Source source) {
         this.errors = errors;
@@ -97,6 +98,10 @@ public final class PythonSSTNodeFactory {
         return scopeEnvironment;
     }
 
+    public void setLazyFunctionBodies(boolean lazyFunctionBodies) {
+        this.lazyFunctionBodies = lazyFunctionBodies;
+    }
+
     public SSTNode createImport(String name, String asName, int startOffset, int endOffset) {
         scopeEnvironment.createLocal(asName == null ? name : asName);
         return new ImportSSTNode(scopeEnvironment.getCurrentScope(), name, asName, startOffset, endOffset);
@@ -257,6 +262,7 @@ public final class PythonSSTNodeFactory {
         }
         scopeEnvironment.setFreeVarsInRootScope(useFrame);
         FactorySSTVisitor factoryVisitor = new FactorySSTVisitor(errors, getScopeEnvironment(), errors.getLanguage().getNodeFactory(), source);
+        factoryVisitor.setLazyFunctionBodies(lazyFunctionBodies);
         if (isGen) {
             factoryVisitor = new GeneratorFactorySSTVisitor(errors, getScopeEnvironment(), errors.getLanguage().getNodeFactory(), source, factoryVisitor);
         }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.sst.SSTDeserializer;
+import com.oracle.graal.python.parser.sst.SSTNode;
+import com.oracle.graal.python.parser.sst.SSTSerializer;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * A persistent cache of parser results. The simple syntax tree and the scope tree of a source file
+ * are stored in the {@code __pycache__} directory next to the file, keyed by the hash of the
+ * source text. A later parse of the same unchanged source reads them back instead of running the
+ * ANTLR parser. Any problem with reading or writing a cache file is ignored and the source is
+ * parsed normally.
+ */
+public final class SSTCache {
+    private static final int MAGIC = 0x47505354; // 'GPST'
+    private static final String CACHE_DIR = "__pycache__";
+    private static final String CACHE_SUFFIX = ".graalpython.sst";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SSTCache() {
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of {@code data}, mixed with {@code key}, as returned by
+     * {@code _imp.source_hash}. Cache entries are not validated with this value; the parser only
+     * sees the decoded source text and uses {@link #hash(CharSequence)}.
+     */
+    public static long hash(long key, byte[] data) {
+        long h = FNV_OFFSET_BASIS ^ key;
+        for (int i = 0; i < data.length; i++) {
+            h ^= data[i] & 0xFF;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    static long hash(CharSequence text) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            h ^= c & 0xFF;
+            h *= FNV_PRIME;
+            h ^= c >>> 8;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Returns the cache file for the given source or {@code null} if the source is not backed by
+     * a file.
+     */
+    static TruffleFile getCacheFile(Env env, Source source) {
+        String path = source.getPath();
+        if (path == null) {
+            return null;
+        }
+        try {
+            TruffleFile file = env.getPublicTruffleFile(path);
+            TruffleFile dir = file.getParent();
+            String name = file.getName();
+            if (dir == null || name == null) {
+                return null;
+            }
+            int dot = name.lastIndexOf('.');
+            String stem = dot > 0 ? name.substring(0, dot) : name;
+            return dir.resolve(CACHE_DIR).resolve(stem + CACHE_SUFFIX);
+        } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the cached syntax tree for a source with the given hash and length. The scope tree is
+     * installed into {@code scopeEnvironment}.
+     *
+     * @return the root of the syntax tree or {@code null} if there is no valid cache entry
+     */
+    static SSTNode load(TruffleFile cacheFile, long sourceHash, int sourceLength, ScopeEnvironment scopeEnvironment) {
+        try {
+            if (!cacheFile.isRegularFile()) {
+                return null;
+            }
+            byte[] data = cacheFile.readAllBytes();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC || in.readInt() != SSTSerializer.FORMAT_VERSION || !PythonLanguage.VERSION.equals(in.readUTF()) || in.readLong() != sourceHash ||
+                            in.readInt() != sourceLength) {
+                return null;
+            }
+            return SSTDeserializer.deserialize(data, data.length - in.available(), scopeEnvironment);
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the syntax tree and scope tree of a freshly parsed source. The data is written to a
+     * temporary file first and then moved into place, so concurrent readers never see a partial
+     * entry.
+     */
+    static void store(TruffleFile cacheFile, long sourceHash, int sourceLength, ScopeInfo globalScope, SSTNode root) {
+        TruffleFile tmpFile = null;
+        try {
+            byte[] payload = SSTSerializer.serialize(globalScope, root);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(SSTSerializer.FORMAT_VERSION);
+            out.writeUTF(PythonLanguage.VERSION);
+            out.writeLong(sourceHash);
+            out.writeInt(sourceLength);
+            out.write(payload);
+            out.flush();
+
+            TruffleFile dir = cacheFile.getParent();
+            if (!dir.exists()) {
+                dir.createDirectories();
+            }
+            tmpFile = dir.resolve(cacheFile.getName() + "." + Long.toHexString(Thread.currentThread().getId()) + Long.toHexString(System.nanoTime()) + ".tmp");
+            try (OutputStream os = tmpFile.newOutputStream()) {
+                bytes.writeTo(os);
+            }
+            tmpFile.move(cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmpFile = null;
+        } catch (IOException | RuntimeException e) {
+            // the cache is only an optimization; unwritable directories etc. are fine
+        } finally {
+            if (tmpFile != null) {
+                try {
+                    tmpFile.delete();
+                } catch (IOException | RuntimeException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
@@ -229,6 +229,16 @@ public class ScopeEnvironment implements CellFrameSlotSupplier {
         return globalScope;
     }
 
+    /**
+     * Sets the module scope of a scope tree that was not built by the parser, e.g., a tree read
+     * from the parser cache.
+     */
+    public void setGlobalScope(ScopeInfo globalScope) {
+        assert globalScope.getParent() == null;
+        this.globalScope = globalScope;
+        this.currentScope = globalScope;
+    }
+
     public boolean isNonlocal(String name) {
         assert name != null : "name is null!";
         return currentScope.isExplicitNonlocalVariable(name);
@@ -182,6 +182,30 @@ public final class ScopeInfo {
         return seenVars;
     }
 
+    /**
+     * The identifiers of all frame slots created in this scope in order of their creation,
+     * including those that have been removed from the frame descriptor since.
+     */
+    public List<String> getCreatedIdentifiers() {
+        return identifierToIndex;
+    }
+
+    public Set<String> getExplicitGlobalVariables() {
+        return explicitGlobalVariables;
+    }
+
+    public Set<String> getExplicitNonlocalVariables() {
+        return explicitNonlocalVariables;
+    }
+
+    public Set<String> getCellVars() {
+        return cellVars;
+    }
+
+    public Set<String> getFreeVars() {
+        return freeVars;
+    }
+
     public void addExplicitGlobalVariable(String identifier) {
         if (explicitGlobalVariables == null) {
             explicitGlobalVariables = new HashSet<>();
@@ -46,6 +46,7 @@ import com.oracle.graal.python.nodes.function.FunctionDefinitionNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.parser.ScopeEnvironment;
 import com.oracle.graal.python.parser.ScopeInfo;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -277,6 +278,20 @@ public final class ArgDefListBuilder {
         return nodes;
     }
 
+    /** Visits the SST of the default values without translating them. */
+    void acceptDefaultValues(SSTreeVisitor<?> visitor) {
+        acceptDefaultValues(argsWithDefValue, visitor);
+        acceptDefaultValues(kwargsWithDefValue, visitor);
+    }
+
+    private static void acceptDefaultValues(List<ParameterWithDefValue> params, SSTreeVisitor<?> visitor) {
+        if (params != null) {
+            for (ParameterWithDefValue param : params) {
+                param.value.accept(visitor);
+            }
+        }
+    }
+
     public Signature getSignature() {
         if (args == null && kwargs == null) {
             return Signature.EMPTY;
@@ -310,4 +325,70 @@ public final class ArgDefListBuilder {
         return new Signature(positionalOnlyIndex, kwarIndex > -1, splatMarker ? -1 : splatIndex, splatMarker, ids, kwids);
     }
 
+    void serialize(SSTSerializer out) {
+        writeParameters(out, args);
+        writeParameters(out, kwargs);
+        out.writeInt(splatIndex);
+        out.writeInt(kwarIndex);
+        out.writeInt(positionalOnlyIndex);
+        out.writeInt(countOfTypedParams);
+    }
+
+    private static void writeParameters(SSTSerializer out, List<? extends Parameter> parameters) {
+        if (parameters == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(parameters.size());
+        for (Parameter param : parameters) {
+            out.writeString(param.name);
+            out.writeNode(param.type);
+            out.writeNode(param instanceof ParameterWithDefValue ? ((ParameterWithDefValue) param).value : null);
+        }
+    }
+
+    static ArgDefListBuilder deserialize(SSTDeserializer in) throws IOException {
+        ArgDefListBuilder builder = new ArgDefListBuilder(in.getScopeEnvironment());
+        builder.args = builder.readParameters(in, false);
+        builder.kwargs = builder.readParameters(in, true);
+        builder.splatIndex = in.readInt();
+        builder.kwarIndex = in.readInt();
+        builder.positionalOnlyIndex = in.readInt();
+        builder.countOfTypedParams = in.readInt();
+        return builder;
+    }
+
+    private List<Parameter> readParameters(SSTDeserializer in, boolean keywordOnly) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<Parameter> parameters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = in.readString();
+            SSTNode type = in.readNode();
+            SSTNode value = in.readNode();
+            if (name != null) {
+                paramNames.add(name);
+            }
+            if (value == null) {
+                parameters.add(new Parameter(name, type));
+            } else {
+                ParameterWithDefValue param = new ParameterWithDefValue(name, type, value);
+                if (keywordOnly) {
+                    if (kwargsWithDefValue == null) {
+                        kwargsWithDefValue = new ArrayList<>(4);
+                    }
+                    kwargsWithDefValue.add(param);
+                } else {
+                    if (argsWithDefValue == null) {
+                        argsWithDefValue = new ArrayList<>(5);
+                    }
+                    argsWithDefValue.add(param);
+                }
+                parameters.add(param);
+            }
+        }
+        return parameters;
+    }
 }
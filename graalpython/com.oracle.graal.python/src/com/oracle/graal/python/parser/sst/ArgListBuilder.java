@@ -46,6 +46,7 @@ import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.generator.DictConcatNode;
 import com.oracle.graal.python.nodes.literal.KeywordLiteralNode;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -158,4 +159,37 @@ public final class ArgListBuilder {
         return result;
     }
 
+    /** Visits the SST of all arguments without translating them. */
+    void acceptAll(SSTreeVisitor<?> visitor) {
+        acceptAll(args, visitor);
+        acceptAll(nameArgNodes, visitor);
+        acceptAll(starArg, visitor);
+        acceptAll(kwArg, visitor);
+    }
+
+    private static void acceptAll(List<SSTNode> nodes, SSTreeVisitor<?> visitor) {
+        if (nodes != null) {
+            for (SSTNode node : nodes) {
+                node.accept(visitor);
+            }
+        }
+    }
+
+    void serialize(SSTSerializer out) {
+        out.writeNodeList(args);
+        out.writeNodeList(nameArgNodes);
+        out.writeStrings(nameArgNames);
+        out.writeNodeList(starArg);
+        out.writeNodeList(kwArg);
+    }
+
+    static ArgListBuilder deserialize(SSTDeserializer in) throws IOException {
+        ArgListBuilder builder = new ArgListBuilder();
+        builder.args = in.readNodeList();
+        builder.nameArgNodes = in.readNodeList();
+        builder.nameArgNames = in.readStringList();
+        builder.starArg = in.readNodeList();
+        builder.kwArg = in.readNodeList();
+        return builder;
+    }
 }
@@ -80,6 +80,7 @@ import com.oracle.graal.python.nodes.function.ClassBodyRootNode;
 import com.oracle.graal.python.nodes.function.FunctionDefinitionNode;
 import com.oracle.graal.python.nodes.function.FunctionRootNode;
 import com.oracle.graal.python.nodes.function.GeneratorFunctionDefinitionNode;
+import com.oracle.graal.python.nodes.function.LazyFunctionBodyNode;
 import com.oracle.graal.python.nodes.generator.GeneratorBlockNode;
 import com.oracle.graal.python.nodes.generator.GeneratorReturnTargetNode;
 import com.oracle.graal.python.nodes.generator.ReadGeneratorFrameVariableNode;
@@ -107,6 +108,7 @@ import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import java.math.BigInteger;
@@ -115,6 +117,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
 
@@ -124,17 +127,28 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
     protected final Source source;
     protected final NodeFactory nodeFactory;
     protected final PythonParser.ParserErrorCallback errors;
+    final SyntaxChecks checks;
 
     protected int comprLevel;
+    protected boolean lazyFunctionBodies;
 
     public FactorySSTVisitor(PythonParser.ParserErrorCallback errors, ScopeEnvironment scopeEnvironment, NodeFactory nodeFactory, Source source) {
         this.scopeEnvironment = scopeEnvironment;
         this.source = source;
         this.nodeFactory = nodeFactory;
         this.errors = errors;
+        this.checks = new SyntaxChecks(errors, source);
         this.comprLevel = 0;
     }
 
+    /**
+     * If set, the bodies of (non-generator) functions are translated to Truffle nodes only when
+     * the function is called for the first time.
+     */
+    public void setLazyFunctionBodies(boolean lazyFunctionBodies) {
+        this.lazyFunctionBodies = lazyFunctionBodies;
+    }
+
     public ExpressionNode asExpression(BlockSSTNode block) {
         if (block.statements.length == 0) {
             EmptyNode empty = EmptyNode.create();
@@ -232,15 +246,10 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
 
     @Override
     public PNode visit(AssignmentSSTNode node) {
+        checks.checkAssignment(node);
         ExpressionNode[] lhs = new ExpressionNode[node.lhs.length];
         for (int i = 0; i < node.lhs.length; i++) {
-            SSTNode sstLhs = node.lhs[i];
-            if (sstLhs instanceof StringLiteralSSTNode || sstLhs instanceof NumberLiteralSSTNode || sstLhs instanceof FloatLiteralSSTNode) {
-                errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "can't assign to literal");
-            } else if (sstLhs instanceof BooleanLiteralSSTNode) {
-                errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "can't assign to keyword");
-            }
-            lhs[i] = (ExpressionNode) sstLhs.accept(this);
+            lhs[i] = (ExpressionNode) node.lhs[i].accept(this);
         }
         ExpressionNode rhs = (ExpressionNode) node.rhs.accept(this);
 
@@ -265,9 +274,7 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
     @Override
     public PNode visit(AugAssignmentSSTNode node) {
         ExpressionNode lhs = (ExpressionNode) node.lhs.accept(this);
-        if (!(lhs instanceof ReadNode)) {
-            throw errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "illegal expression for augmented assignment");
-        }
+        checks.checkAugAssignment(node);
         ExpressionNode rhs = (ExpressionNode) node.rhs.accept(this);
         ExpressionNode binOp = nodeFactory.createInplaceOperation(node.operation, lhs, rhs);
         PNode duplicate = nodeFactory.duplicate(lhs, PNode.class);
@@ -577,7 +584,9 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
     public PNode visit(DelSSTNode node) {
         List<StatementNode> blockList = new ArrayList<>();
         for (int i = 0; i < node.expressions.length; i++) {
-            delTarget(blockList, node.expressions[i].accept(this));
+            PNode target = node.expressions[i].accept(this);
+            checks.checkDelTarget(node.expressions[i]);
+            delTarget(blockList, target);
         }
         PNode result = nodeFactory.createBlock(blockList);
         result.assignSourceSection(createSourceSection(node.startOffset, node.endOffset));
@@ -606,7 +615,8 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
                 delTarget(blockList, targetValue);
             }
         } else {
-            throw errors.raiseInvalidSyntax(target.getSourceSection().getSource(), target.getSourceSection(), "can't delete '%s'", target.getSourceSection().getCharacters());
+            // SyntaxChecks#checkDelTarget only lets through targets that are read by the nodes above
+            throw new IllegalStateException("unexpected del target " + target);
         }
     }
 
@@ -651,22 +661,10 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
         for (int i = 0; i < targets.length; i++) {
             targets[i] = (ExpressionNode) node.targets[i].accept(this);
         }
+        checks.checkForTargets(node);
         PNode target;
         if (targets.length == 1) {
             target = targets[0];
-            if (!(target instanceof ReadNode || target instanceof TupleLiteralNode || target instanceof ListLiteralNode)) {
-                if (target instanceof StarredExpressionNode) {
-                    throw errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "starred assignment target must be in a list or tuple");
-                } else {
-                    // TODO handle this???
-                    // String text = ctx.getText();
-                    // if (environment.isNonlocal(text)) {
-                    // throw errors.raise(SyntaxError, "no binding for nonlocal variable \"%s\"
-                    // found", text);
-                    // }
-                    throw errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "Cannot assign to %s", target);
-                }
-            }
         } else {
             target = nodeFactory.createObjectLiteral(targets);
         }
@@ -703,17 +701,27 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
         StatementNode argumentNodes = nodeFactory.createBlock(node.argBuilder.getArgumentNodes());
 
         StatementNode body;
+        ExpressionNode doc;
         GeneratorFactorySSTVisitor generatorFactory = null;
-        if (scopeEnvironment.isInGeneratorScope()) {
+        FactorySSTVisitor bodyVisitor = this instanceof GeneratorFactorySSTVisitor
+                        ? ((GeneratorFactorySSTVisitor) this).parentVisitor
+                        : this;
+        if (bodyVisitor.lazyFunctionBodies && !scopeEnvironment.isInGeneratorScope() && node.body instanceof BlockSSTNode) {
+            // the Truffle nodes of the body are created on the first call of the function, but
+            // its syntax errors are raised now
+            BlockSSTNode block = (BlockSSTNode) node.body;
+            new SyntaxCheckSSTVisitor(checks, node.functionScope).check(block.statements);
+            doc = bodyVisitor.extractDoc(block);
+            body = new LazyFunctionBodyNode(new FunctionBodyTranslator(bodyVisitor, node.functionScope, block, doc == null ? 0 : 1));
+        } else if (scopeEnvironment.isInGeneratorScope()) {
             generatorFactory = new GeneratorFactorySSTVisitor(errors, scopeEnvironment, nodeFactory, source, this);
             body = (StatementNode) node.body.accept(generatorFactory);
+            doc = StringUtils.extractDoc(body);
         } else {
-            body = (StatementNode) node.body.accept(this instanceof GeneratorFactorySSTVisitor
-                            ? ((GeneratorFactorySSTVisitor) this).parentVisitor
-                            : this);
+            body = (StatementNode) node.body.accept(bodyVisitor);
+            doc = StringUtils.extractDoc(body);
         }
-        ExpressionNode doc = StringUtils.extractDoc(body);
-        if (doc != null) {
+        if (doc != null && !(body instanceof LazyFunctionBodyNode)) {
             if (body instanceof BaseBlockNode) {
                 StatementNode[] st = ((BaseBlockNode) body).getStatements();
                 if (st.length == 1) {
@@ -792,6 +800,58 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
         return writeNode;
     }
 
+    private ExpressionNode extractDoc(BlockSSTNode block) {
+        if (block.statements.length > 0 && block.statements[0] instanceof ExpressionStatementSSTNode &&
+                        ((ExpressionStatementSSTNode) block.statements[0]).expression instanceof StringLiteralSSTNode) {
+            return StringUtils.extractDoc((StatementNode) block.statements[0].accept(this));
+        }
+        return null;
+    }
+
+    /**
+     * Creates the Truffle nodes of a function body from its SST when the function is called for
+     * the first time. The result is kept as a template, so that copies of the function root
+     * (e.g. after splitting) do not need to translate the body again.
+     */
+    private static final class FunctionBodyTranslator implements Supplier<StatementNode> {
+        private final FactorySSTVisitor visitor;
+        private final ScopeInfo functionScope;
+        private final int firstStatement;
+        private BlockSSTNode block;
+        private StatementNode template;
+
+        FunctionBodyTranslator(FactorySSTVisitor visitor, ScopeInfo functionScope, BlockSSTNode block, int firstStatement) {
+            this.visitor = visitor;
+            this.functionScope = functionScope;
+            this.block = block;
+            this.firstStatement = firstStatement;
+        }
+
+        @Override
+        public StatementNode get() {
+            ScopeEnvironment scopeEnvironment = visitor.scopeEnvironment;
+            synchronized (scopeEnvironment) {
+                if (template == null) {
+                    ScopeInfo oldScope = scopeEnvironment.getCurrentScope();
+                    scopeEnvironment.setCurrentScope(functionScope);
+                    try {
+                        StatementNode[] statements = new StatementNode[block.statements.length - firstStatement];
+                        for (int i = 0; i < statements.length; i++) {
+                            statements[i] = (StatementNode) block.statements[i + firstStatement].accept(visitor);
+                        }
+                        // the docstring is not part of the body, see the eager translation
+                        template = firstStatement > 0 && statements.length == 1 ? statements[0] : BlockNode.create(statements);
+                    } finally {
+                        scopeEnvironment.setCurrentScope(oldScope);
+                    }
+                    // the SST is not needed anymore
+                    block = null;
+                }
+                return NodeUtil.cloneNode(template);
+            }
+        }
+    }
+
     @Override
     public PNode visit(GetAttributeSSTNode node) {
         ExpressionNode receiver = (ExpressionNode) node.receiver.accept(this);
@@ -830,9 +890,7 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
         PNode result;
         if (node.asNames == null) {
             // star import
-            if (!scopeEnvironment.atModuleLevel()) {
-                throw errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "import * only allowed at module level");
-            }
+            checks.checkImportFrom(node);
             result = nodeFactory.createImportStar(from, level);
         } else {
             String[] fromList = new String[node.asNames.length];
@@ -1022,9 +1080,7 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
 
     @Override
     public PNode visit(ReturnSSTNode node) {
-        if (!scopeEnvironment.isInFunctionScope()) {
-            errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "'return' outside function");
-        }
+        checks.checkReturn(node, scopeEnvironment.getCurrentScope());
         StatementNode result;
         if (node.value != null) {
             result = new ReturnNode.FrameReturnNode(createWriteLocal((ExpressionNode) node.value.accept(this), scopeEnvironment.getReturnSlot()));
@@ -1156,11 +1212,9 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
     @Override
     public PNode visit(VarLookupSSTNode node) {
         // ScopeInfo oldScope = scopeEnvironment.setCurrentScope(node.scope);
+        checks.checkVarLookup(node, scopeEnvironment.getCurrentScope());
         PNode result = (PNode) scopeEnvironment.findVariable(node.name);
         if (result == null) {
-            if (scopeEnvironment.isNonlocal(node.name)) {
-                throw errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "no binding for nonlocal variable \"%s\" found", node.name);
-            }
             throw errors.raiseInvalidSyntax(source, createSourceSection(node.startOffset, node.endOffset), "Cannot assign to %s", node.name);
         }
         result.assignSourceSection(createSourceSection(node.startOffset, node.endOffset));
@@ -1195,6 +1249,9 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
     @Override
     public PNode visit(WithSSTNode node) {
         StatementNode body = (StatementNode) node.body.accept(this);
+        if (node.target != null) {
+            checks.checkDestructuring(node.target);
+        }
         WriteNode asName = node.target == null ? null : (WriteNode) makeWriteNode((ExpressionNode) node.target.accept(this));
         ExpressionNode expression = (ExpressionNode) node.expression.accept(this);
         PNode result = nodeFactory.createWithNode(expression, asName, body);
@@ -1270,13 +1327,7 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
             ReadNode tempRead = makeTempLocalVariable();
             temps[i] = tempRead;
             if (leftHandSides[i] instanceof StarredExpressionNode) {
-                if (starredIndex != -1) {
-                    SourceSection section = leftHandSides[0].getSourceSection();
-                    if (section == null) {
-                        section = ((StarredExpressionNode) leftHandSides[i]).getValue().getSourceSection();
-                    }
-                    throw errors.raiseInvalidSyntax(source, section, "two starred expressions in assignment");
-                }
+                assert starredIndex == -1 : "two starred targets are rejected by SyntaxChecks#checkTargets";
                 starredIndex = i;
                 statements[i] = createAssignment(((StarredExpressionNode) leftHandSides[i]).getValue(), (ExpressionNode) tempRead);
             } else {
@@ -41,7 +41,6 @@
 
 package com.oracle.graal.python.parser.sst;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.SyntaxError;
 
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.function.Signature;
@@ -55,7 +54,6 @@ import com.oracle.graal.python.nodes.control.ForNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode;
 import com.oracle.graal.python.nodes.control.ReturnTargetNode;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
-import com.oracle.graal.python.nodes.frame.ReadNode;
 import com.oracle.graal.python.nodes.frame.WriteNode;
 import com.oracle.graal.python.nodes.function.FunctionRootNode;
 import com.oracle.graal.python.nodes.function.GeneratorExpressionNode;
@@ -71,9 +69,6 @@ import com.oracle.graal.python.nodes.generator.ReadGeneratorFrameVariableNode;
 import com.oracle.graal.python.nodes.generator.WriteGeneratorFrameVariableNode;
 import com.oracle.graal.python.nodes.generator.YieldFromNode;
 import com.oracle.graal.python.nodes.generator.YieldNode;
-import com.oracle.graal.python.nodes.literal.ListLiteralNode;
-import com.oracle.graal.python.nodes.literal.StarredExpressionNode;
-import com.oracle.graal.python.nodes.literal.TupleLiteralNode;
 import com.oracle.graal.python.nodes.statement.ExceptNode;
 import com.oracle.graal.python.nodes.statement.StatementNode;
 import com.oracle.graal.python.parser.ScopeEnvironment;
@@ -269,6 +264,7 @@ public class GeneratorFactorySSTVisitor extends FactorySSTVisitor {
             body = GeneratorIfNode.create(nodeFactory.createYesNode(condition), body, nodeFactory.createBlock(), numOfActiveFlags++, numOfActiveFlags++);
         }
 
+        checks.checkTargets(node.variables);
         StatementNode variable;
         if (node.variables.length == 1) {
             // if (node.variables[0] instanceof VarLookupSSTNode) {
@@ -299,22 +295,10 @@ public class GeneratorFactorySSTVisitor extends FactorySSTVisitor {
         for (int i = 0; i < targets.length; i++) {
             targets[i] = (ExpressionNode) node.targets[i].accept(this);
         }
+        checks.checkForTargets(node);
         PNode target;
         if (targets.length == 1) {
             target = targets[0];
-            if (!(target instanceof ReadNode || target instanceof TupleLiteralNode || target instanceof ListLiteralNode)) {
-                if (target instanceof StarredExpressionNode) {
-                    throw errors.raise(SyntaxError, "starred assignment target must be in a list or tuple");
-                } else {
-                    // TODO handle this???
-                    // String text = ctx.getText();
-                    // if (environment.isNonlocal(text)) {
-                    // throw errors.raise(SyntaxError, "no binding for nonlocal variable \"%s\"
-                    // found", text);
-                    // }
-                    throw errors.raise(SyntaxError, "Cannot assign to %s", target);
-                }
-            }
         } else {
             target = nodeFactory.createObjectLiteral(targets);
         }
@@ -392,6 +376,9 @@ public class GeneratorFactorySSTVisitor extends FactorySSTVisitor {
     public PNode visit(WithSSTNode node) {
         int oldNumOfActiveFlags = numOfActiveFlags;
         StatementNode body = (StatementNode) node.body.accept(this);
+        if (node.target != null) {
+            checks.checkDestructuring(node.target);
+        }
         WriteNode asName = node.target == null ? null : (WriteNode) makeWriteNode((ExpressionNode) node.target.accept(this));
         ExpressionNode expression = (ExpressionNode) node.expression.accept(this);
         PNode result = oldNumOfActiveFlags != numOfActiveFlags
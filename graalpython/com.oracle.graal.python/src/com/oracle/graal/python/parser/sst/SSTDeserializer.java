@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser.sst;
+
+import static com.oracle.graal.python.parser.sst.SSTSerializer.AND;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.ANN_ASSIGNMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.ASSERT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.ASSIGNMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.AUG_ASSIGNMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.BINARY_ARITHMETIC;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.BLOCK;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.BOOLEAN_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.CALL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.CLASS;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.COLLECTION;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.COMPARISON;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.DECORATED;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.DECORATOR;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.DEL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.EXCEPT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.EXPRESSION_STATEMENT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.FLOAT_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.FOR;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.FOR_COMPREHENSION;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.FUNCTION_DEF;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.GET_ATTRIBUTE;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.IF;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.IMPORT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.IMPORT_FROM;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.LAMBDA;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.NOT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.NULL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.NUMBER_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.OR;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.RAISE;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.RETURN;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.SIMPLE;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.SLICE;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.STAR;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.STRING_LITERAL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.STRING_NEW;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.STRING_NULL;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.SUBSCRIPT;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.TERNARY_ARITHMETIC;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.TERNARY_IF;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.TRY;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.UNARY;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.VAR_LOOKUP;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.WHILE;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.WITH;
+import static com.oracle.graal.python.parser.sst.SSTSerializer.YIELD_EXPRESSION;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
+import com.oracle.graal.python.nodes.expression.UnaryArithmetic;
+import com.oracle.graal.python.parser.ScopeEnvironment;
+import com.oracle.graal.python.parser.ScopeInfo;
+import com.oracle.graal.python.parser.ScopeInfo.ScopeKind;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+
+/**
+ * Reads the data written by {@link SSTSerializer}. Malformed input results in an
+ * {@link IOException}.
+ */
+public final class SSTDeserializer {
+
+    private static final ScopeKind[] SCOPE_KINDS = ScopeKind.values();
+
+    private final DataInputStream in;
+    private final ScopeEnvironment scopeEnvironment;
+    private final List<String> strings = new ArrayList<>();
+    private final List<ScopeInfo> scopes = new ArrayList<>();
+
+    private SSTDeserializer(byte[] data, int offset, ScopeEnvironment scopeEnvironment) {
+        this.in = new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset));
+        this.scopeEnvironment = scopeEnvironment;
+    }
+
+    /**
+     * Reads the scope tree and the syntax tree from {@code data}, starting at {@code offset}. The
+     * scope tree is installed as the global scope of {@code scopeEnvironment}.
+     */
+    public static SSTNode deserialize(byte[] data, int offset, ScopeEnvironment scopeEnvironment) throws IOException {
+        try {
+            SSTDeserializer deserializer = new SSTDeserializer(data, offset, scopeEnvironment);
+            scopeEnvironment.setGlobalScope(deserializer.readScope(null));
+            return deserializer.readNode();
+        } catch (RuntimeException e) {
+            // out of range indices, unknown enum constants, etc.
+            throw new IOException("malformed syntax tree data", e);
+        }
+    }
+
+    private ScopeInfo readScope(ScopeInfo parent) throws IOException {
+        String scopeId = readString();
+        ScopeKind kind = SCOPE_KINDS[in.readByte()];
+        ScopeInfo scope = new ScopeInfo(scopeId, kind, null, parent);
+        scopes.add(scope);
+        scope.setHasAnnotations(readBoolean());
+        List<String> createdIdentifiers = readStringList();
+        List<String> frameIdentifiers = readStringList();
+        if (createdIdentifiers != null) {
+            for (String identifier : createdIdentifiers) {
+                scope.createSlotIfNotPresent(identifier);
+            }
+        }
+        if (frameIdentifiers != null && frameIdentifiers.size() != scope.getFrameDescriptor().getSize()) {
+            // some slots were removed after they had been created (see ScopeEnvironment#popScope)
+            FrameDescriptor frameDescriptor = scope.getFrameDescriptor();
+            for (Object identifier : frameDescriptor.getIdentifiers().toArray()) {
+                if (!frameIdentifiers.contains(identifier)) {
+                    frameDescriptor.removeFrameSlot(identifier);
+                }
+            }
+            scope.setFrameDescriptor(frameDescriptor.copy());
+        }
+        checkFrameIdentifiers(scope, frameIdentifiers);
+        List<String> names = readStringList();
+        if (names != null) {
+            for (String name : names) {
+                scope.addExplicitGlobalVariable(name);
+            }
+        }
+        names = readStringList();
+        if (names != null) {
+            for (String name : names) {
+                scope.addExplicitNonlocalVariable(name);
+            }
+        }
+        names = readStringList();
+        if (names != null) {
+            for (String name : names) {
+                scope.addCellVar(name);
+            }
+        }
+        names = readStringList();
+        if (names != null) {
+            for (String name : names) {
+                scope.addFreeVar(name);
+            }
+        }
+        names = readStringList();
+        if (names != null) {
+            for (String name : names) {
+                scope.addSeenVar(name);
+            }
+        }
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            readScope(scope);
+        }
+        return scope;
+    }
+
+    private static void checkFrameIdentifiers(ScopeInfo scope, List<String> expected) throws IOException {
+        Iterator<Object> actual = scope.getFrameDescriptor().getIdentifiers().iterator();
+        if (expected != null) {
+            for (String identifier : expected) {
+                if (!actual.hasNext() || !identifier.equals(actual.next())) {
+                    throw new IOException("frame slots of scope " + scope + " cannot be restored");
+                }
+            }
+        }
+        if (actual.hasNext()) {
+            throw new IOException("frame slots of scope " + scope + " cannot be restored");
+        }
+    }
+
+    ScopeEnvironment getScopeEnvironment() {
+        return scopeEnvironment;
+    }
+
+    private ScopeInfo readScopeReference() throws IOException {
+        int index = in.readInt();
+        return index < 0 ? null : scopes.get(index);
+    }
+
+    SSTNode readNode() throws IOException {
+        byte tag = in.readByte();
+        if (tag == NULL) {
+            return null;
+        }
+        int startOffset = in.readInt();
+        int endOffset = in.readInt();
+        SSTNode node = readNode(tag, startOffset, endOffset);
+        // some nodes get their offsets adjusted after construction
+        node.setStartOffset(startOffset);
+        node.setEndOffset(endOffset);
+        return node;
+    }
+
+    private SSTNode readNode(byte tag, int start, int end) throws IOException {
+        switch (tag) {
+            case AND:
+                return new AndSSTNode(readNodes(), start, end);
+            case ANN_ASSIGNMENT: {
+                SSTNode lhs = readNode();
+                SSTNode type = readNode();
+                return new AnnAssignmentSSTNode(lhs, type, readNode(), start, end);
+            }
+            case ASSERT: {
+                SSTNode test = readNode();
+                return new AssertSSTNode(test, readNode(), start, end);
+            }
+            case ASSIGNMENT: {
+                SSTNode[] lhs = readNodes();
+                return new AssignmentSSTNode(lhs, readNode(), start, end);
+            }
+            case AUG_ASSIGNMENT: {
+                SSTNode lhs = readNode();
+                String operation = readString();
+                return new AugAssignmentSSTNode(lhs, operation, readNode(), start, end);
+            }
+            case BINARY_ARITHMETIC: {
+                BinaryArithmetic operation = BinaryArithmetic.valueOf(readString());
+                SSTNode left = readNode();
+                return new BinaryArithmeticSSTNode(operation, left, readNode(), start, end);
+            }
+            case BLOCK:
+                return new BlockSSTNode(readNodes(), start, end);
+            case BOOLEAN_LITERAL:
+                return new BooleanLiteralSSTNode(readBoolean(), start, end);
+            case CALL: {
+                SSTNode target = readNode();
+                return new CallSSTNode(target, readArgs(), start, end);
+            }
+            case CLASS: {
+                ScopeInfo scope = readScopeReference();
+                String name = readString();
+                ArgListBuilder baseClasses = readArgs();
+                return new ClassSSTNode(scope, name, baseClasses, readNode(), start, end);
+            }
+            case COLLECTION: {
+                SSTNode[] values = readNodes();
+                return new CollectionSSTNode(values, PythonBuiltinClassType.valueOf(readString()), start, end);
+            }
+            case COMPARISON: {
+                SSTNode firstValue = readNode();
+                String[] operations = readStrings();
+                return new ComparisonSSTNode(firstValue, operations, readNodes(), start, end);
+            }
+            case DECORATED: {
+                SSTNode[] decorators = readNodes();
+                DecoratorSSTNode[] typedDecorators = null;
+                if (decorators != null) {
+                    typedDecorators = new DecoratorSSTNode[decorators.length];
+                    System.arraycopy(decorators, 0, typedDecorators, 0, decorators.length);
+                }
+                return new DecoratedSSTNode(typedDecorators, readNode(), start, end);
+            }
+            case DECORATOR: {
+                String name = readString();
+                return new DecoratorSSTNode(name, readArgs(), start, end);
+            }
+            case DEL:
+                return new DelSSTNode(readNodes(), start, end);
+            case EXCEPT: {
+                SSTNode test = readNode();
+                String asName = readString();
+                return new ExceptSSTNode(test, asName, readNode(), start, end);
+            }
+            case EXPRESSION_STATEMENT:
+                return new ExpressionStatementSSTNode(readNode());
+            case FLOAT_LITERAL: {
+                String value = readString();
+                return new FloatLiteralSSTNode(value, readBoolean(), start, end);
+            }
+            case FOR_COMPREHENSION: {
+                ScopeInfo scope = readScopeReference();
+                boolean async = readBoolean();
+                SSTNode target = readNode();
+                SSTNode name = readNode();
+                SSTNode[] variables = readNodes();
+                SSTNode iterator = readNode();
+                SSTNode[] conditions = readNodes();
+                PythonBuiltinClassType resultType = PythonBuiltinClassType.valueOf(readString());
+                int line = in.readInt();
+                int level = in.readInt();
+                return new ForComprehensionSSTNode(scope, async, target, name, variables, iterator, conditions, resultType, line, level, start, end);
+            }
+            case FOR: {
+                SSTNode[] targets = readNodes();
+                SSTNode iterator = readNode();
+                SSTNode body = readNode();
+                SSTNode elseStatement = readNode();
+                ForSSTNode node = new ForSSTNode(targets, iterator, body, readBoolean(), start, end);
+                node.setElse(elseStatement);
+                node.setContainsBreak(readBoolean());
+                return node;
+            }
+            case FUNCTION_DEF: {
+                ScopeInfo scope = readScopeReference();
+                String name = readString();
+                String enclosingClassName = readString();
+                ArgDefListBuilder argBuilder = readArgDefs();
+                return new FunctionDefSSTNode(scope, name, enclosingClassName, argBuilder, readNode(), start, end);
+            }
+            case GET_ATTRIBUTE: {
+                SSTNode receiver = readNode();
+                return new GetAttributeSSTNode(receiver, readString(), start, end);
+            }
+            case IF: {
+                SSTNode test = readNode();
+                SSTNode thenStatement = readNode();
+                return new IfSSTNode(test, thenStatement, readNode(), start, end);
+            }
+            case IMPORT_FROM: {
+                ScopeInfo scope = readScopeReference();
+                String from = readString();
+                int length = in.readInt();
+                String[][] asNames = null;
+                if (length >= 0) {
+                    asNames = new String[length][];
+                    for (int i = 0; i < length; i++) {
+                        asNames[i] = readStrings();
+                    }
+                }
+                return new ImportFromSSTNode(scope, from, asNames, start, end);
+            }
+            case IMPORT: {
+                ScopeInfo scope = readScopeReference();
+                String name = readString();
+                return new ImportSSTNode(scope, name, readString(), start, end);
+            }
+            case LAMBDA: {
+                ScopeInfo scope = readScopeReference();
+                ArgDefListBuilder args = readArgDefs();
+                return new LambdaSSTNode(scope, args, readNode(), start, end);
+            }
+            case NOT:
+                return new NotSSTNode(readNode(), start, end);
+            case NUMBER_LITERAL: {
+                String value = readString();
+                int valueStart = in.readInt();
+                int base = in.readInt();
+                NumberLiteralSSTNode node = new NumberLiteralSSTNode(value, valueStart, base, start, end);
+                node.setIsNegative(readBoolean());
+                return node;
+            }
+            case OR:
+                return new OrSSTNode(readNodes(), start, end);
+            case RAISE: {
+                SSTNode value = readNode();
+                return new RaiseSSTNode(value, readNode(), start, end);
+            }
+            case RETURN:
+                return new ReturnSSTNode(readNode(), start, end);
+            case SIMPLE:
+                return new SimpleSSTNode(SimpleSSTNode.Type.valueOf(readString()), start, end);
+            case SLICE: {
+                SSTNode sliceStart = readNode();
+                SSTNode sliceStop = readNode();
+                return new SliceSSTNode(sliceStart, sliceStop, readNode(), start, end);
+            }
+            case STAR:
+                return new StarSSTNode(readNode(), start, end);
+            case STRING_LITERAL:
+                return new StringLiteralSSTNode(readStrings(), start, end);
+            case SUBSCRIPT: {
+                SSTNode receiver = readNode();
+                return new SubscriptSSTNode(receiver, readNode(), start, end);
+            }
+            case TERNARY_ARITHMETIC: {
+                SSTNode left = readNode();
+                return new TernaryArithmeticSSTNode(left, readNode(), start, end);
+            }
+            case TERNARY_IF: {
+                SSTNode test = readNode();
+                SSTNode thenStatement = readNode();
+                return new TernaryIfSSTNode(test, thenStatement, readNode(), start, end);
+            }
+            case TRY: {
+                SSTNode body = readNode();
+                SSTNode[] exceptNodes = readNodes();
+                ExceptSSTNode[] typedExceptNodes = null;
+                if (exceptNodes != null) {
+                    typedExceptNodes = new ExceptSSTNode[exceptNodes.length];
+                    System.arraycopy(exceptNodes, 0, typedExceptNodes, 0, exceptNodes.length);
+                }
+                SSTNode elseStatement = readNode();
+                return new TrySSTNode(body, typedExceptNodes, elseStatement, readNode(), start, end);
+            }
+            case UNARY: {
+                UnaryArithmetic arithmetic = UnaryArithmetic.valueOf(readString());
+                return new UnarySSTNode(arithmetic, readNode(), start, end);
+            }
+            case VAR_LOOKUP:
+                return new VarLookupSSTNode(readString(), start, end);
+            case WHILE: {
+                SSTNode test = readNode();
+                SSTNode body = readNode();
+                SSTNode elseStatement = readNode();
+                boolean containsContinue = readBoolean();
+                WhileSSTNode node = new WhileSSTNode(test, body, containsContinue, readBoolean(), start, end);
+                node.setElse(elseStatement);
+                return node;
+            }
+            case WITH: {
+                SSTNode expression = readNode();
+                SSTNode target = readNode();
+                return new WithSSTNode(expression, target, readNode(), start, end);
+            }
+            case YIELD_EXPRESSION: {
+                SSTNode value = readNode();
+                return new YieldExpressionSSTNode(value, readBoolean(), start, end);
+            }
+            default:
+                throw new IOException("unknown syntax tree node tag " + tag);
+        }
+    }
+
+    SSTNode[] readNodes() throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        SSTNode[] nodes = new SSTNode[length];
+        for (int i = 0; i < length; i++) {
+            nodes[i] = readNode();
+        }
+        return nodes;
+    }
+
+    List<SSTNode> readNodeList() throws IOException {
+        SSTNode[] nodes = readNodes();
+        if (nodes == null) {
+            return null;
+        }
+        List<SSTNode> list = new ArrayList<>(nodes.length);
+        for (SSTNode node : nodes) {
+            list.add(node);
+        }
+        return list;
+    }
+
+    private ArgListBuilder readArgs() throws IOException {
+        return readBoolean() ? ArgListBuilder.deserialize(this) : null;
+    }
+
+    private ArgDefListBuilder readArgDefs() throws IOException {
+        return readBoolean() ? ArgDefListBuilder.deserialize(this) : null;
+    }
+
+    String readString() throws IOException {
+        int index = in.readInt();
+        if (index == STRING_NULL) {
+            return null;
+        } else if (index == STRING_NEW) {
+            int length = in.readInt();
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = in.readChar();
+            }
+            String s = new String(chars);
+            strings.add(s);
+            return s;
+        }
+        return strings.get(index);
+    }
+
+    String[] readStrings() throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readString();
+        }
+        return values;
+    }
+
+    List<String> readStringList() throws IOException {
+        String[] values = readStrings();
+        if (values == null) {
+            return null;
+        }
+        List<String> list = new ArrayList<>(values.length);
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    int readInt() throws IOException {
+        return in.readInt();
+    }
+
+    boolean readBoolean() throws IOException {
+        return in.readByte() != 0;
+    }
+}
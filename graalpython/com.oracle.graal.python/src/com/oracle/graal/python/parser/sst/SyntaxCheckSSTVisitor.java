@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser.sst;
+
+import com.oracle.graal.python.parser.ScopeInfo;
+import com.oracle.graal.python.parser.ScopeInfo.ScopeKind;
+
+/**
+ * Raises the syntax errors that {@link FactorySSTVisitor} detects while translating a function
+ * body, without creating any Truffle nodes. It is run on the bodies that are translated lazily, so
+ * that these errors are still raised when the function is defined and not on its first call. The
+ * checks themselves are shared with the factory visitor through {@link SyntaxChecks}.
+ */
+final class SyntaxCheckSSTVisitor implements SSTreeVisitor<Void> {
+    private final SyntaxChecks checks;
+    private ScopeInfo scope;
+
+    SyntaxCheckSSTVisitor(SyntaxChecks checks, ScopeInfo scope) {
+        this.checks = checks;
+        this.scope = scope;
+    }
+
+    void check(SSTNode[] statements) {
+        visitAll(statements);
+    }
+
+    private void visitAll(SSTNode[] nodes) {
+        if (nodes != null) {
+            for (SSTNode node : nodes) {
+                visitNode(node);
+            }
+        }
+    }
+
+    private void visitNode(SSTNode node) {
+        if (node != null) {
+            node.accept(this);
+        }
+    }
+
+    private void visitInScope(ScopeInfo nestedScope, SSTNode node) {
+        ScopeInfo oldScope = scope;
+        scope = nestedScope;
+        try {
+            visitNode(node);
+        } finally {
+            scope = oldScope;
+        }
+    }
+
+    @Override
+    public Void visit(AndSSTNode node) {
+        visitAll(node.values);
+        return null;
+    }
+
+    @Override
+    public Void visit(AnnAssignmentSSTNode node) {
+        visit((AssignmentSSTNode) node);
+        if (scope.getScopeKind() != ScopeKind.Function) {
+            // annotations of local variables are not evaluated
+            visitNode(node.type);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AssertSSTNode node) {
+        visitNode(node.test);
+        visitNode(node.message);
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentSSTNode node) {
+        checks.checkAssignment(node);
+        visitAll(node.lhs);
+        visitNode(node.rhs);
+        return null;
+    }
+
+    @Override
+    public Void visit(AugAssignmentSSTNode node) {
+        visitNode(node.lhs);
+        checks.checkAugAssignment(node);
+        visitNode(node.rhs);
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryArithmeticSSTNode node) {
+        visitNode(node.left);
+        visitNode(node.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockSSTNode node) {
+        visitAll(node.statements);
+        return null;
+    }
+
+    @Override
+    public Void visit(BooleanLiteralSSTNode node) {
+        return null;
+    }
+
+    @Override
+    public Void visit(CallSSTNode node) {
+        visitNode(node.target);
+        if (node.parameters != null) {
+            node.parameters.acceptAll(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ClassSSTNode node) {
+        if (node.baseClasses != null) {
+            node.baseClasses.acceptAll(this);
+        }
+        visitInScope(node.classScope, node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(CollectionSSTNode node) {
+        // the values of a dict literal contain null for each '**' entry
+        visitAll(node.values);
+        return null;
+    }
+
+    @Override
+    public Void visit(ComparisonSSTNode node) {
+        visitNode(node.firstValue);
+        visitAll(node.otherValues);
+        return null;
+    }
+
+    @Override
+    public Void visit(DecoratedSSTNode node) {
+        visitAll(node.decorators);
+        visitNode(node.decorated);
+        return null;
+    }
+
+    @Override
+    public Void visit(DecoratorSSTNode node) {
+        if (node.arg != null) {
+            node.arg.acceptAll(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(DelSSTNode node) {
+        for (SSTNode expression : node.expressions) {
+            visitNode(expression);
+            checks.checkDelTarget(expression);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ExceptSSTNode node) {
+        visitNode(node.test);
+        visitNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(ExpressionStatementSSTNode node) {
+        visitNode(node.expression);
+        return null;
+    }
+
+    @Override
+    public Void visit(FloatLiteralSSTNode node) {
+        return null;
+    }
+
+    @Override
+    public Void visit(ForComprehensionSSTNode node) {
+        visitNode(node.target);
+        visitNode(node.name);
+        visitAll(node.variables);
+        checks.checkTargets(node.variables);
+        visitNode(node.iterator);
+        visitAll(node.conditions);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForSSTNode node) {
+        visitAll(node.targets);
+        checks.checkForTargets(node);
+        visitNode(node.iterator);
+        visitNode(node.body);
+        visitNode(node.elseStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(FunctionDefSSTNode node) {
+        if (node.argBuilder != null) {
+            node.argBuilder.acceptDefaultValues(this);
+        }
+        visitInScope(node.functionScope, node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(GetAttributeSSTNode node) {
+        visitNode(node.receiver);
+        return null;
+    }
+
+    @Override
+    public Void visit(IfSSTNode node) {
+        visitNode(node.test);
+        visitNode(node.thenStatement);
+        visitNode(node.elseStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(ImportFromSSTNode node) {
+        checks.checkImportFrom(node);
+        return null;
+    }
+
+    @Override
+    public Void visit(ImportSSTNode node) {
+        return null;
+    }
+
+    @Override
+    public Void visit(LambdaSSTNode node) {
+        if (node.args != null) {
+            node.args.acceptDefaultValues(this);
+        }
+        visitInScope(node.functionScope, node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(NotSSTNode node) {
+        visitNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(NumberLiteralSSTNode node) {
+        return null;
+    }
+
+    @Override
+    public Void visit(OrSSTNode node) {
+        visitAll(node.values);
+        return null;
+    }
+
+    @Override
+    public Void visit(RaiseSSTNode node) {
+        visitNode(node.value);
+        visitNode(node.from);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnSSTNode node) {
+        checks.checkReturn(node, scope);
+        visitNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(SimpleSSTNode node) {
+        return null;
+    }
+
+    @Override
+    public Void visit(SliceSSTNode node) {
+        visitNode(node.start);
+        visitNode(node.stop);
+        visitNode(node.step);
+        return null;
+    }
+
+    @Override
+    public Void visit(StarSSTNode node) {
+        visitNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(StringLiteralSSTNode node) {
+        return null;
+    }
+
+    @Override
+    public Void visit(SubscriptSSTNode node) {
+        visitNode(node.receiver);
+        visitNode(node.subscript);
+        return null;
+    }
+
+    @Override
+    public Void visit(TernaryArithmeticSSTNode node) {
+        visitNode(node.left);
+        visitNode(node.right);
+        return null;
+    }
+
+    @Override
+    public Void visit(TernaryIfSSTNode node) {
+        visitNode(node.test);
+        visitNode(node.thenStatement);
+        visitNode(node.elseStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(TrySSTNode node) {
+        visitNode(node.body);
+        visitAll(node.exceptNodes);
+        visitNode(node.elseStatement);
+        visitNode(node.finallyStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnarySSTNode node) {
+        visitNode(node.value);
+        return null;
+    }
+
+    @Override
+    public Void visit(VarLookupSSTNode node) {
+        checks.checkVarLookup(node, scope);
+        return null;
+    }
+
+    @Override
+    public Void visit(WhileSSTNode node) {
+        visitNode(node.test);
+        visitNode(node.body);
+        visitNode(node.elseStatement);
+        return null;
+    }
+
+    @Override
+    public Void visit(WithSSTNode node) {
+        visitNode(node.expression);
+        visitNode(node.target);
+        if (node.target != null) {
+            checks.checkDestructuring(node.target);
+        }
+        visitNode(node.body);
+        return null;
+    }
+
+    @Override
+    public Void visit(YieldExpressionSSTNode node) {
+        visitNode(node.value);
+        return null;
+    }
+}
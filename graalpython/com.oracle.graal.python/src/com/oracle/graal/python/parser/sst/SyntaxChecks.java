@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser.sst;
+
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.parser.ScopeInfo;
+import com.oracle.graal.python.parser.ScopeInfo.ScopeKind;
+import com.oracle.graal.python.runtime.PythonParser;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * The syntax errors that are found when the SST is translated and not already by the parser. Both
+ * {@link FactorySSTVisitor} and {@link SyntaxCheckSSTVisitor}, which checks the function bodies
+ * that are translated lazily, raise them only through these methods. New checks of this kind have
+ * to be added here and called from both visitors, otherwise they are deferred to the first call of
+ * a function.
+ */
+final class SyntaxChecks {
+    private final PythonParser.ParserErrorCallback errors;
+    private final Source source;
+
+    SyntaxChecks(PythonParser.ParserErrorCallback errors, Source source) {
+        this.errors = errors;
+        this.source = source;
+    }
+
+    private RuntimeException raise(SSTNode node, String message, Object... args) {
+        return errors.raiseInvalidSyntax(source, createSourceSection(node), message, args);
+    }
+
+    private SourceSection createSourceSection(SSTNode node) {
+        if (node.startOffset < node.endOffset && source.getLength() > node.startOffset && source.getLength() >= node.endOffset) {
+            return source.createSection(node.startOffset, node.endOffset - node.startOffset);
+        } else {
+            return source.createUnavailableSection();
+        }
+    }
+
+    private String getText(SSTNode node) {
+        SourceSection section = createSourceSection(node);
+        return section.isAvailable() ? section.getCharacters().toString() : "";
+    }
+
+    private static boolean isReadTarget(SSTNode node) {
+        return node instanceof VarLookupSSTNode || node instanceof GetAttributeSSTNode || node instanceof SubscriptSSTNode;
+    }
+
+    private static boolean isCollection(SSTNode node, PythonBuiltinClassType type) {
+        return node instanceof CollectionSSTNode && ((CollectionSSTNode) node).type == type;
+    }
+
+    void checkAssignment(AssignmentSSTNode node) {
+        for (SSTNode lhs : node.lhs) {
+            if (lhs instanceof StringLiteralSSTNode || lhs instanceof NumberLiteralSSTNode || lhs instanceof FloatLiteralSSTNode) {
+                throw raise(node, "can't assign to literal");
+            } else if (lhs instanceof BooleanLiteralSSTNode) {
+                throw raise(node, "can't assign to keyword");
+            }
+            checkDestructuring(lhs);
+        }
+    }
+
+    void checkAugAssignment(AugAssignmentSSTNode node) {
+        if (!isReadTarget(node.lhs)) {
+            throw raise(node, "illegal expression for augmented assignment");
+        }
+    }
+
+    void checkForTargets(ForSSTNode node) {
+        if (node.targets.length == 1) {
+            SSTNode target = node.targets[0];
+            if (target instanceof StarSSTNode) {
+                throw raise(node, "starred assignment target must be in a list or tuple");
+            } else if (!(isReadTarget(target) || isCollection(target, PythonBuiltinClassType.PTuple) || isCollection(target, PythonBuiltinClassType.PList))) {
+                throw raise(node, "Cannot assign to %s", getText(target));
+            }
+            checkDestructuring(target);
+        } else {
+            checkTargets(node.targets);
+        }
+    }
+
+    /**
+     * Checks the target of an assignment that unpacks the assigned value, e.g. in a {@code for}
+     * loop, a {@code with} statement or a comprehension.
+     */
+    void checkDestructuring(SSTNode target) {
+        if (isCollection(target, PythonBuiltinClassType.PTuple) || isCollection(target, PythonBuiltinClassType.PList)) {
+            checkTargets(((CollectionSSTNode) target).values);
+        }
+    }
+
+    void checkTargets(SSTNode[] targets) {
+        boolean starred = false;
+        for (SSTNode target : targets) {
+            if (target instanceof StarSSTNode) {
+                if (starred) {
+                    throw raise(targets[0], "two starred expressions in assignment");
+                }
+                starred = true;
+                checkDestructuring(((StarSSTNode) target).value);
+            } else {
+                checkDestructuring(target);
+            }
+        }
+    }
+
+    void checkDelTarget(SSTNode target) {
+        if (isCollection(target, PythonBuiltinClassType.PTuple)) {
+            for (SSTNode value : ((CollectionSSTNode) target).values) {
+                checkDelTarget(value);
+            }
+        } else if (!isReadTarget(target)) {
+            throw raise(target, "can't delete '%s'", getText(target));
+        }
+    }
+
+    void checkImportFrom(ImportFromSSTNode node) {
+        if (node.asNames == null && node.scope.getScopeKind() != ScopeKind.Module) {
+            throw raise(node, "import * only allowed at module level");
+        }
+    }
+
+    void checkReturn(ReturnSSTNode node, ScopeInfo scope) {
+        if (scope.getScopeKind() == ScopeKind.Module || scope.getScopeKind() == ScopeKind.Class) {
+            throw raise(node, "'return' outside function");
+        }
+    }
+
+    void checkVarLookup(VarLookupSSTNode node, ScopeInfo scope) {
+        // see ScopeEnvironment#findVariable, which finds no variable only in this case
+        ScopeKind kind = scope.getScopeKind();
+        boolean inGenerator = kind == ScopeKind.Generator || kind == ScopeKind.GenExp || kind == ScopeKind.ListComp || kind == ScopeKind.SetComp || kind == ScopeKind.DictComp;
+        if (!inGenerator && !scope.isExplicitGlobalVariable(node.name) && scope.isExplicitNonlocalVariable(node.name) && scope.findFrameSlot(node.name) == null) {
+            throw raise(node, "no binding for nonlocal variable \"%s\" found", node.name);
+        }
+    }
+}
@@ -369,11 +369,10 @@ public abstract class ExecutionContext {
     public abstract static class ForeignCallContext {
 
         /**
-         * Prepare a call from a Python frame to foreign callable. This will also call
-         * {@link IndirectCallContext#enter} to transfer the state to the context. In addition, this
-         * will acquire the interop lock from the {@link PythonContext} to ensure exclusive
-         * execution to prevent unsynchronized global state modification (which is in particular a
-         * problem when calling native code).
+         * Prepare a call from a Python frame to foreign callable. This will call
+         * {@link IndirectCallContext#enter} to transfer the state to the context. The transferred
+         * state is kept per thread, so no lock is needed and foreign calls from several threads may
+         * run concurrently. Calls into native code must use {@link NativeCallContext} instead.
          *
          * <pre>
          * public abstract class SomeNode extends Node {
@@ -398,6 +397,32 @@ public abstract class ExecutionContext {
          * </pre>
          * </p>
          */
+        public static Object enter(VirtualFrame frame, PythonContext context, IndirectCallNode callNode) {
+            if (context == null) {
+                return null;
+            }
+            return IndirectCallContext.enter(frame, context, callNode);
+        }
+
+        /**
+         * Cleanup after an interop call. For more details, see {@link #enter}.
+         */
+        public static void exit(VirtualFrame frame, PythonContext context, Object savedState) {
+            if (context != null) {
+                IndirectCallContext.exit(frame, context, savedState);
+            }
+        }
+    }
+
+    public abstract static class NativeCallContext {
+
+        /**
+         * Prepare a call from a Python frame to native code, e.g. a function of a C extension. In
+         * addition to what {@link ForeignCallContext#enter} does, this will acquire the interop
+         * lock from the {@link PythonContext} to ensure exclusive execution to prevent
+         * unsynchronized global state modification, because native code assumes that it runs
+         * exclusively.
+         */
         public static Object enter(VirtualFrame frame, PythonContext context, IndirectCallNode callNode) {
             if (context == null) {
                 return null;
@@ -409,7 +434,7 @@ public abstract class ExecutionContext {
         }
 
         /**
-         * Cleanup after an interop call. For more details, see {@link #enter}.
+         * Cleanup after a call to native code. For more details, see {@link #enter}.
          */
         public static void exit(VirtualFrame frame, PythonContext context, Object savedState) {
             if (context != null) {
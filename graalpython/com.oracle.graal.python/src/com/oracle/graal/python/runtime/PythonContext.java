@@ -37,6 +37,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.lang.ref.WeakReference;
+import java.nio.channels.Selector;
 import java.nio.file.LinkOption;
 import java.text.MessageFormat;
 import java.util.ArrayDeque;
@@ -68,10 +69,12 @@ import com.oracle.graal.python.builtins.objects.frame.PFrame.Reference;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.builtins.objects.str.LazyString;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
 import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.attributes.AttributeLookupCache;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.runtime.AsyncHandler.AsyncAction;
@@ -118,6 +121,12 @@ public final class PythonContext {
         /* corresponds to 'PyThreadState.exc_*' */
         PException caughtException;
 
+        /* a scratch buffer for I/O that is reused by all calls from this thread */
+        byte[] scratchBuffer;
+
+        /* the selector for 'select.select', opened on first use */
+        Selector selector;
+
         PythonThreadState() {
             owners = new LinkedList<>();
         }
@@ -153,6 +162,17 @@ public final class PythonContext {
         List<WeakReference<Thread>> getOwners() {
             return owners;
         }
+
+        void closeSelector() {
+            if (selector != null) {
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // nothing is registered between two calls, so there is nothing to clean up
+                }
+                selector = null;
+            }
+        }
     }
 
     static final String PREFIX = "/";
@@ -203,11 +223,20 @@ public final class PythonContext {
 
     private static final Assumption singleNativeContext = Truffle.getRuntime().createAssumption("single native context assumption");
 
-    /* A lock for interop calls when this context is used by multiple threads. */
+    /*
+     * A lock for calls into native code when this context is used by multiple threads. Other
+     * foreign calls only touch the per-thread state and do not take it.
+     */
     private ReentrantLock interopLock;
 
+    /* The number of times a thread had to wait for the interop lock. */
+    private final AtomicLong interopLockContentionCount = new AtomicLong();
+
     @CompilationFinal private HashingStorage.Equivalence slowPathEquivalence;
 
+    /** The cache for megamorphic attribute lookups in the MRO of classes of this context. */
+    private final AttributeLookupCache attributeLookupCache = new AttributeLookupCache();
+
     /** The thread-local state object. */
     private ThreadLocal<PThreadState> customThreadState;
 
@@ -360,6 +389,41 @@ public final class PythonContext {
         return getThreadState().topframeref;
     }
 
+    /**
+     * Returns a buffer of at least {@code size} bytes that is owned by the current thread of this
+     * context. It is reused by the next call from the same thread, so the contents must be copied
+     * out before returning to Python code.
+     */
+    /**
+     * Returns the {@link Selector} of the current thread of this context, so that
+     * {@code select.select} does not open a new one on every call. The caller must deregister all
+     * channels before it returns. The selector is closed when the thread is disposed or the
+     * context is finalized.
+     */
+    @TruffleBoundary
+    public Selector getSelector() throws IOException {
+        PythonThreadState ts = getThreadState();
+        if (ts.selector == null) {
+            ts.selector = Selector.open();
+        }
+        return ts.selector;
+    }
+
+    @TruffleBoundary
+    public void closeSelectors() {
+        applyToAllThreadStates(PythonThreadState::closeSelector);
+    }
+
+    public byte[] getScratchBuffer(int size) {
+        PythonThreadState ts = getThreadState();
+        byte[] buffer = ts.scratchBuffer;
+        if (buffer == null || buffer.length < size) {
+            buffer = new byte[size];
+            ts.scratchBuffer = buffer;
+        }
+        return buffer;
+    }
+
     public boolean isInitialized() {
         return isInitialized;
     }
@@ -368,6 +432,9 @@ public final class PythonContext {
         core.initialize(this);
         setupRuntimeInformation(false);
         core.postInitialize();
+        if (LazyString.collectsStatistics()) {
+            registerShutdownHook(context -> PythonLanguage.getLogger().info(LazyString.getStatistics()));
+        }
     }
 
     public void patch(Env newEnv) {
@@ -610,6 +677,10 @@ public final class PythonContext {
         this.capiLibrary = capiLibrary;
     }
 
+    public AttributeLookupCache getAttributeLookupCache() {
+        return attributeLookupCache;
+    }
+
     public HashingStorage.Equivalence getSlowPathEquivalence() {
         if (slowPathEquivalence == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -774,16 +845,24 @@ public final class PythonContext {
 
     @TruffleBoundary
     public void acquireInteropLock() {
-        interopLock.lock();
+        if (!interopLock.tryLock()) {
+            interopLockContentionCount.incrementAndGet();
+            interopLock.lock();
+        }
     }
 
     @TruffleBoundary
     public void releaseInteropLock() {
-        if (interopLock.isLocked()) {
+        // the context may have become multi-threaded while the lock was not taken
+        if (interopLock.isHeldByCurrentThread()) {
             interopLock.unlock();
         }
     }
 
+    public long getInteropLockContentionCount() {
+        return interopLockContentionCount.get();
+    }
+
     /**
      * This is like {@code Env#getPublicTruffleFile(String)} but also allows access to files in the
      * language home directory matching one of the given file extensions. This is mostly useful to
@@ -941,6 +1020,7 @@ public final class PythonContext {
             // only release sentinel lock if all owners are gone
             if (!singleThreadState.hasOwners()) {
                 releaseSentinelLock(singleThreadState.sentinelLock);
+                singleThreadState.closeSelector();
             }
         } else {
             PythonThreadState ts = threadStateMapping.get(threadId);
@@ -949,6 +1029,7 @@ public final class PythonContext {
             threadStateMapping.remove(threadId);
             if (!ts.hasOwners()) {
                 releaseSentinelLock(ts.sentinelLock);
+                ts.closeSelector();
             }
         }
     }
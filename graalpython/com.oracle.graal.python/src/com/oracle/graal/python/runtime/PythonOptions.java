@@ -106,6 +106,12 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Prints parser time statistis after number of parsed files, set by this option. 0 or <0 means no statistics are printed.") //
     public static final OptionKey<Integer> ParserStatistics = new OptionKey<>(0);
 
+    @Option(category = OptionCategory.EXPERT, help = "Store the parse results of source files in __pycache__ directories and reuse them as long as the source does not change.") //
+    public static final OptionKey<Boolean> ParserCache = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Translate the bodies of functions in modules loaded from files to Truffle nodes only when the function is called for the first time. Default true.") //
+    public static final OptionKey<Boolean> LazyFunctionBodies = new OptionKey<>(true);
+
     @Option(category = OptionCategory.EXPERT, help = "") //
     public static final OptionKey<Boolean> IntrinsifyBuiltinCalls = new OptionKey<>(true);
 
@@ -139,6 +145,9 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Switch on/off using lazy strings for performance reasons. Default true.") //
     public static final OptionKey<Boolean> LazyStrings = new OptionKey<>(true);
 
+    @Option(category = OptionCategory.EXPERT, help = "Count how often lazy strings are created, flattened and rebalanced, and log the counts on exit. Helps to tune MinLazyStringLength.") //
+    public static final OptionKey<Boolean> LazyStringStatistics = new OptionKey<>(false);
+
     @Option(category = OptionCategory.EXPERT, help = "Enable forced splitting (of builtins). Default false.") //
     public static final OptionKey<Boolean> EnableForcedSplits = new OptionKey<>(false);
 
@@ -225,6 +234,10 @@ public final class PythonOptions {
         return getOption(PythonLanguage.getContext(), MinLazyStringLength);
     }
 
+    public static boolean collectLazyStringStatistics() {
+        return getOption(PythonLanguage.getContext(), LazyStringStatistics);
+    }
+
     public static boolean isWithThread(Env env) {
         return getOption(env, WithThread);
     }
@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.formatting;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A parsed template of {@code str.format}. The template string is parsed once into literal text
+ * and replacement fields, so that rendering does not need to look at the template string again.
+ * Automatic field numbering is resolved during parsing as well, so every field knows the
+ * positional index or the keyword of its argument.
+ */
+public final class FormatTemplate {
+
+    private static final int ANS_INIT = 1;
+    private static final int ANS_AUTO = 2;
+    private static final int ANS_MANUAL = 3;
+
+    /**
+     * The elements of the template: literal {@link String}s and {@link Field}s.
+     */
+    @CompilationFinal(dimensions = 1) private final Object[] parts;
+
+    private FormatTemplate(Object[] parts) {
+        this.parts = parts;
+    }
+
+    public Object[] getParts() {
+        return parts;
+    }
+
+    /**
+     * Returns the text of the template if it does not contain any fields, {@code null} otherwise.
+     */
+    public String getLiteral() {
+        if (parts.length == 0) {
+            return "";
+        } else if (parts.length == 1 && parts[0] instanceof String) {
+            return (String) parts[0];
+        }
+        return null;
+    }
+
+    /**
+     * A replacement field like {@code {0.name[key]!r:>10}}.
+     */
+    public static final class Field {
+        private final int argIndex;
+        private final String keyword;
+        @CompilationFinal(dimensions = 1) private final Object[] lookups;
+        private final char conversion;
+        private final String spec;
+        private final FormatTemplate specTemplate;
+
+        Field(int argIndex, String keyword, Object[] lookups, char conversion, String spec, FormatTemplate specTemplate) {
+            this.argIndex = argIndex;
+            this.keyword = keyword;
+            this.lookups = lookups;
+            this.conversion = conversion;
+            this.spec = spec;
+            this.specTemplate = specTemplate;
+        }
+
+        /**
+         * The index of the positional argument, or {@code -1} if the field refers to a keyword
+         * argument.
+         */
+        public int getArgIndex() {
+            return argIndex;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        /**
+         * The attribute and item lookups applied to the argument in order. Attribute names are
+         * {@link String}s, item keys are wrapped in an {@link ItemLookup}.
+         */
+        public Object[] getLookups() {
+            return lookups;
+        }
+
+        /**
+         * One of {@code 'r'}, {@code 's'}, {@code 'a'} or {@code 0} if there is no conversion.
+         */
+        public char getConversion() {
+            return conversion;
+        }
+
+        /**
+         * The format spec, or {@code null} if the spec contains nested fields. In that case, the
+         * spec must be rendered from {@link #getSpecTemplate()}, whose fields have constant specs.
+         */
+        public String getSpec() {
+            return spec;
+        }
+
+        public FormatTemplate getSpecTemplate() {
+            return specTemplate;
+        }
+    }
+
+    /**
+     * An item lookup like {@code [0]} or {@code [key]} in a field name.
+     */
+    public static final class ItemLookup {
+        private final Object key;
+
+        ItemLookup(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * The key, which is an {@link Integer} if it consists only of digits and a {@link String}
+         * otherwise.
+         */
+        public Object getKey() {
+            return key;
+        }
+    }
+
+    @TruffleBoundary
+    public static FormatTemplate parse(PythonCore core, String template) {
+        return new Parser(core, template).build(0, template.length(), 2);
+    }
+
+    private static final class Parser {
+        private final PythonCore core;
+        private final String s;
+        private int autoNumberingState = ANS_INIT;
+        private int autoNumber;
+
+        Parser(PythonCore core, String template) {
+            this.core = core;
+            this.s = template;
+        }
+
+        FormatTemplate build(int start, int end, int recursionLevel) {
+            if (recursionLevel == 0) {
+                throw core.raise(ValueError, "Max string recursion exceeded");
+            }
+            int level = recursionLevel - 1;
+            ArrayList<Object> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int lastLiteral = start;
+            int i = start;
+            while (i < end) {
+                char c = s.charAt(i++);
+                if (c != '{' && c != '}') {
+                    continue;
+                }
+                boolean atEnd = i == end;
+                boolean markupFollows = true;
+                if (c == '}') {
+                    if (atEnd || s.charAt(i) != '}') {
+                        throw core.raise(ValueError, "Single '}' encountered in format string");
+                    }
+                    i++;
+                    markupFollows = false;
+                } else {
+                    if (atEnd) {
+                        throw core.raise(ValueError, "Single '{' encountered in format string");
+                    }
+                    if (s.charAt(i) == '{') {
+                        i++;
+                        markupFollows = false;
+                    }
+                }
+                // attach literal data, ending with '{' or '}'
+                literal.append(s, lastLiteral, i - 1);
+                if (!markupFollows) {
+                    lastLiteral = i;
+                    continue;
+                }
+                int nested = 1;
+                int fieldStart = i;
+                boolean recursive = false;
+                while (i < end) {
+                    c = s.charAt(i);
+                    if (c == '{') {
+                        recursive = true;
+                        nested++;
+                    } else if (c == '}') {
+                        nested--;
+                        if (nested == 0) {
+                            break;
+                        }
+                    } else if (c == '[') {
+                        i++;
+                        while (i < end && s.charAt(i) != ']') {
+                            i++;
+                        }
+                        continue;
+                    }
+                    i++;
+                }
+                if (nested != 0) {
+                    throw core.raise(ValueError, "expected '}' before end of string");
+                }
+                if (literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+                parts.add(parseField(fieldStart, i, recursive, level));
+                i++;
+                lastLiteral = i;
+            }
+            literal.append(s, lastLiteral, end);
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+            }
+            return new FormatTemplate(parts.toArray());
+        }
+
+        private Field parseField(int start, int end, boolean recursive, int level) {
+            // find the end of the field name, marked by ':' or '!'
+            int nameEnd = end;
+            int specStart = end;
+            char conversion = 0;
+            int i = start;
+            while (i < end) {
+                char c = s.charAt(i);
+                if (c == ':' || c == '!') {
+                    nameEnd = i;
+                    i++;
+                    if (c == '!') {
+                        if (i == end) {
+                            throw core.raise(ValueError, "end of string while looking for conversion specifier");
+                        }
+                        conversion = s.charAt(i++);
+                        if (i < end) {
+                            if (s.charAt(i) != ':') {
+                                throw core.raise(ValueError, "expected ':' after conversion specifier");
+                            }
+                            i++;
+                        }
+                        if (conversion != 'r' && conversion != 's' && conversion != 'a') {
+                            throw core.raise(ValueError, "Unknown conversion specifier %s", String.valueOf(conversion));
+                        }
+                    }
+                    specStart = i;
+                    break;
+                } else if (c == '[') {
+                    while (i + 1 < end && s.charAt(i + 1) != ']') {
+                        i++;
+                    }
+                } else if (c == '{') {
+                    throw core.raise(ValueError, "unexpected '{' in field name");
+                }
+                i++;
+            }
+
+            // the argument is named by everything up to the first lookup
+            int firstEnd = start;
+            while (firstEnd < nameEnd && s.charAt(firstEnd) != '.' && s.charAt(firstEnd) != '[') {
+                firstEnd++;
+            }
+            int argIndex = -1;
+            String keyword = null;
+            boolean empty = firstEnd == start;
+            if (empty) {
+                checkNumbering(ANS_AUTO);
+                argIndex = autoNumber++;
+            } else {
+                argIndex = parseIndex(start, firstEnd);
+                if (argIndex >= 0) {
+                    checkNumbering(ANS_MANUAL);
+                } else {
+                    keyword = s.substring(start, firstEnd);
+                }
+            }
+            Object[] lookups = parseLookups(firstEnd, nameEnd);
+
+            if (recursive) {
+                return new Field(argIndex, keyword, lookups, conversion, null, build(specStart, end, level));
+            }
+            return new Field(argIndex, keyword, lookups, conversion, s.substring(specStart, end), null);
+        }
+
+        private void checkNumbering(int state) {
+            if (autoNumberingState == ANS_INIT) {
+                autoNumberingState = state;
+            } else if (autoNumberingState != state) {
+                if (state == ANS_AUTO) {
+                    throw core.raise(ValueError, "cannot switch from manual field specification to automatic field numbering");
+                } else {
+                    throw core.raise(ValueError, "cannot switch from automatic field numbering to manual field specification");
+                }
+            }
+        }
+
+        /**
+         * Returns the value of the decimal number in {@code s[start:end]} or {@code -1} if it is
+         * not made of digits only.
+         */
+        private int parseIndex(int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = Character.digit(s.charAt(i), 10);
+                if (digit < 0) {
+                    return -1;
+                }
+                if (value > (Integer.MAX_VALUE - digit) / 10) {
+                    throw core.raise(ValueError, "Too many decimal digits in format string");
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private Object[] parseLookups(int start, int end) {
+            ArrayList<Object> lookups = new ArrayList<>();
+            int i = start;
+            while (i < end) {
+                char c = s.charAt(i++);
+                int lookupStart = i;
+                if (c == '.') {
+                    while (i < end && s.charAt(i) != '.' && s.charAt(i) != '[') {
+                        i++;
+                    }
+                    if (lookupStart == i) {
+                        throw core.raise(ValueError, "Empty attribute in format string");
+                    }
+                    lookups.add(s.substring(lookupStart, i));
+                } else if (c == '[') {
+                    while (i < end && s.charAt(i) != ']') {
+                        i++;
+                    }
+                    if (i == end) {
+                        throw core.raise(ValueError, "Missing ']' in format string");
+                    }
+                    if (lookupStart == i) {
+                        throw core.raise(ValueError, "Empty attribute in format string");
+                    }
+                    int index = parseIndex(lookupStart, i);
+                    lookups.add(new ItemLookup(index >= 0 ? (Object) index : s.substring(lookupStart, i)));
+                    i++;
+                } else {
+                    throw core.raise(ValueError, "Only '.' or '[' may follow ']' in format field specifier");
+                }
+            }
+            return lookups.toArray();
+        }
+    }
+}
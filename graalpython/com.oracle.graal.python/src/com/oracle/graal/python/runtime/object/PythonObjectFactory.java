@@ -28,6 +28,7 @@ package com.oracle.graal.python.runtime.object;
 import java.io.ByteArrayOutputStream;
 import java.lang.ref.ReferenceQueue;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.util.Map;
@@ -45,11 +46,14 @@ import com.oracle.graal.python.builtins.objects.cext.PythonNativeVoidPtr;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.FastDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectDictStorage;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIter;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsView;
@@ -64,23 +68,39 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PGeneratorFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.PBytesIO;
+import com.oracle.graal.python.builtins.objects.io.PStringIO;
 import com.oracle.graal.python.builtins.objects.iterator.PArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
 import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.lzma.PLZMACompressor;
 import com.oracle.graal.python.builtins.objects.lzma.PLZMADecompressor;
@@ -106,6 +126,9 @@ import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.struct.PStruct;
+import com.oracle.graal.python.builtins.objects.struct.PStructUnpackIterator;
+import com.oracle.graal.python.builtins.objects.struct.StructFormat;
 import com.oracle.graal.python.builtins.objects.superobject.SuperObject;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
 import com.oracle.graal.python.builtins.objects.thread.PRLock;
@@ -146,7 +169,6 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-
 import org.tukaani.xz.FinishableOutputStream;
 
 @GenerateUncached
@@ -218,11 +240,18 @@ public abstract class PythonObjectFactory extends Node {
      * Primitive types
      */
     public PInt createInt(int value) {
-        return trace(new PInt(PythonBuiltinClassType.PInt, BigInteger.valueOf(value)));
+        return trace(new PInt(PythonBuiltinClassType.PInt, value >> 31, value));
     }
 
     public PInt createInt(long value) {
-        return trace(new PInt(PythonBuiltinClassType.PInt, BigInteger.valueOf(value)));
+        return trace(new PInt(PythonBuiltinClassType.PInt, value >> 63, value));
+    }
+
+    /**
+     * Creates an int from the 128-bit two's complement value {@code high:low}.
+     */
+    public PInt createInt128(long high, long low) {
+        return trace(new PInt(PythonBuiltinClassType.PInt, high, low));
     }
 
     public PInt createInt(BigInteger value) {
@@ -230,11 +259,11 @@ public abstract class PythonObjectFactory extends Node {
     }
 
     public Object createInt(LazyPythonClass cls, int value) {
-        return trace(new PInt(cls, BigInteger.valueOf(value)));
+        return trace(new PInt(cls, value >> 31, value));
     }
 
     public Object createInt(LazyPythonClass cls, long value) {
-        return trace(new PInt(cls, BigInteger.valueOf(value)));
+        return trace(new PInt(cls, value >> 63, value));
     }
 
     public PInt createInt(LazyPythonClass cls, BigInteger value) {
@@ -353,8 +382,12 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PythonAbstractNativeObject(ptr));
     }
 
-    public PMemoryView createMemoryView(LazyPythonClass metaclass, Object value) {
-        return trace(new PMemoryView(metaclass, value));
+    public PMemoryView createMemoryView(LazyPythonClass metaclass, Object owner, Object buffer, int length, boolean readonly) {
+        return trace(new PMemoryView(metaclass, owner, buffer, 0, readonly, PMemoryView.DEFAULT_FORMAT, 1, new int[]{length}, new int[]{1}));
+    }
+
+    public PMemoryView createMemoryView(LazyPythonClass metaclass, Object owner, Object buffer, int offset, boolean readonly, String format, int itemsize, int[] shape, int[] strides) {
+        return trace(new PMemoryView(metaclass, owner, buffer, offset, readonly, format, itemsize, shape, strides));
     }
 
     public final PMethod createMethod(LazyPythonClass cls, Object self, Object function) {
@@ -746,6 +779,14 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PZip(cls, iterables));
     }
 
+    public PMap createMap(LazyPythonClass cls, Object function, Object[] iterators) {
+        return trace(new PMap(cls, function, iterators));
+    }
+
+    public PFilter createFilter(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PFilter(cls, function, iterator));
+    }
+
     public PForeignArrayIterator createForeignArrayIterator(Object iterable, int size) {
         return trace(new PForeignArrayIterator(PythonBuiltinClassType.PForeignArrayIterator, iterable, size));
     }
@@ -839,12 +880,8 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PDirEntry(cls, name, file));
     }
 
-    public PMMap createMMap(SeekableByteChannel channel, long length, long offset) {
-        return trace(new PMMap(PythonBuiltinClassType.PMMap, channel, length, offset));
-    }
-
-    public PMMap createMMap(LazyPythonClass clazz, SeekableByteChannel channel, long length, long offset) {
-        return trace(new PMMap(clazz, channel, length, offset));
+    public PMMap createMMap(LazyPythonClass clazz, SeekableByteChannel channel, ByteBuffer[] segments, long length, long offset, boolean readonly) {
+        return trace(new PMMap(clazz, channel, segments, length, offset, readonly));
     }
 
     public PLZMACompressor createLZMACompressor(LazyPythonClass clazz, FinishableOutputStream lzmaStream, ByteArrayOutputStream bos) {
@@ -854,4 +891,97 @@ public abstract class PythonObjectFactory extends Node {
     public PLZMADecompressor createLZMADecompressor(LazyPythonClass clazz, int format, int memlimit) {
         return trace(new PLZMADecompressor(clazz, format, memlimit));
     }
+
+    public PStruct createStruct(LazyPythonClass clazz, StructFormat format) {
+        return trace(new PStruct(clazz, format));
+    }
+
+    public PStructUnpackIterator createStructUnpackIterator(StructFormat format, Object buffer, long length) {
+        return trace(new PStructUnpackIterator(PythonBuiltinClassType.PStructUnpackIterator, format, buffer, length));
+    }
+
+    /*
+     * IO
+     */
+
+    public PStringIO createStringIO(LazyPythonClass clazz) {
+        return trace(new PStringIO(clazz));
+    }
+
+    public PBytesIO createBytesIO(LazyPythonClass clazz) {
+        return trace(new PBytesIO(clazz));
+    }
+
+    /*
+     * Collections
+     */
+
+    public PDeque createDeque(LazyPythonClass clazz) {
+        return trace(new PDeque(clazz));
+    }
+
+    public PDequeIter createDequeIter(PDeque deque) {
+        return trace(new PDequeIter(PythonBuiltinClassType.PDequeIter, deque, false));
+    }
+
+    public PDequeIter createDequeRevIter(PDeque deque) {
+        return trace(new PDequeIter(PythonBuiltinClassType.PDequeRevIter, deque, true));
+    }
+
+    /*
+     * Itertools
+     */
+
+    public PChain createChain(LazyPythonClass clazz, Object source) {
+        return trace(new PChain(clazz, source));
+    }
+
+    public PIslice createIslice(LazyPythonClass clazz, Object iterator, long start, long stop, long step) {
+        return trace(new PIslice(clazz, iterator, start, stop, step));
+    }
+
+    public PCount createCount(LazyPythonClass clazz, Object start, Object step) {
+        return trace(new PCount(clazz, start, step));
+    }
+
+    public PCycle createCycle(LazyPythonClass clazz, Object iterator) {
+        return trace(new PCycle(clazz, iterator));
+    }
+
+    public PAccumulate createAccumulate(LazyPythonClass clazz, Object iterator, Object func) {
+        return trace(new PAccumulate(clazz, iterator, func));
+    }
+
+    public PZipLongest createZipLongest(LazyPythonClass clazz, Object[] iterators, Object fillValue) {
+        return trace(new PZipLongest(clazz, iterators, fillValue));
+    }
+
+    public PPermutations createPermutations(LazyPythonClass clazz, Object[] pool, int r) {
+        return trace(new PPermutations(clazz, pool, r));
+    }
+
+    public PProduct createProduct(LazyPythonClass clazz, Object[][] gears) {
+        return trace(new PProduct(clazz, gears));
+    }
+
+    public PGroupBy createGroupBy(LazyPythonClass clazz, Object iterator, Object keyFunc) {
+        return trace(new PGroupBy(clazz, iterator, keyFunc));
+    }
+
+    public PGrouper createGrouper(PGroupBy parent, Object tgtKey) {
+        return trace(new PGrouper(PythonBuiltinClassType.PGrouper, parent, tgtKey));
+    }
+
+    /*
+     * Functools
+     */
+
+    public PPartial createPartial(LazyPythonClass clazz, Object fn, Object[] args, PKeyword[] keywords) {
+        return trace(new PPartial(clazz, fn, args, keywords));
+    }
+
+    public PLruCacheWrapper createLruCacheWrapper(LazyPythonClass clazz, Object function, int maxSize, boolean typed, Object cacheInfoType) {
+        PythonObject kwdMark = createPythonObject(PythonBuiltinClassType.PythonObject);
+        return trace(new PLruCacheWrapper(clazz, function, maxSize, typed, cacheInfoType, kwdMark, createDict(EconomicMapStorage.create(false))));
+    }
 }
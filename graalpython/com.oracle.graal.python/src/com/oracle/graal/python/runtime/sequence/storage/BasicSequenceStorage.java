@@ -27,6 +27,12 @@ package com.oracle.graal.python.runtime.sequence.storage;
 
 public abstract class BasicSequenceStorage extends SequenceStorage {
 
+    /**
+     * Minimum length of a slice that is shared with its parent storage instead of being copied.
+     * Smaller slices are copied eagerly since the copy is cheaper than keeping the parent alive.
+     */
+    protected static final int MIN_VIEW_LENGTH = 64;
+
     // nominated storage length
     protected int length;
 
@@ -76,4 +82,28 @@ public abstract class BasicSequenceStorage extends SequenceStorage {
     public void minimizeCapacity() {
         capacity = length;
     }
+
+    /**
+     * Whether a slice of the first {@code sliceLength} elements should rather be a
+     * {@link #getPrefixView view} than a copy. Only big slices that cover at least half of the
+     * internal array are shared, so a small slice never keeps a huge parent array alive.
+     */
+    public final boolean isPrefixViewProfitable(int sliceLength) {
+        return sliceLength >= MIN_VIEW_LENGTH && sliceLength >= (capacity >> 1);
+    }
+
+    /**
+     * Returns a storage of the first {@code sliceLength} elements that shares the internal array
+     * with this storage. The capacity of the view is its length, so the first operation that grows
+     * it copies the array. Since setting an element is visible in both storages, this must only be
+     * used for immutable sequences like tuples and bytes.
+     */
+    public final BasicSequenceStorage getPrefixView(int sliceLength) {
+        assert sliceLength <= length;
+        BasicSequenceStorage view = (BasicSequenceStorage) createEmpty(0);
+        view.setInternalArrayObject(getInternalArrayObject());
+        view.length = sliceLength;
+        view.capacity = sliceLength;
+        return view;
+    }
 }
@@ -27,12 +27,17 @@ package com.oracle.graal.python.runtime.sequence.storage;
 
 import java.util.Arrays;
 
+/**
+ * Stores booleans packed into the bits of a {@code long[]}, 64 elements per word. Element
+ * {@code i} is bit {@code i & 63} of word {@code i >> 6}. Bits beyond {@link #length()} are
+ * undefined and every write sets or clears its bit explicitly.
+ */
 public final class BoolSequenceStorage extends TypedSequenceStorage {
 
-    private boolean[] values;
+    private long[] words;
 
     public BoolSequenceStorage() {
-        values = new boolean[]{};
+        words = new long[]{};
     }
 
     public BoolSequenceStorage(boolean[] elements) {
@@ -40,32 +45,102 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
     }
 
     public BoolSequenceStorage(boolean[] elements, int length) {
-        this.values = elements;
-        this.capacity = values.length;
+        this.words = pack(elements, length);
+        this.capacity = elements.length;
         this.length = length;
     }
 
     public BoolSequenceStorage(int capacity) {
-        this.values = new boolean[capacity];
+        this.words = new long[wordsFor(capacity)];
         this.capacity = capacity;
         this.length = 0;
     }
 
+    private BoolSequenceStorage(long[] words, int length) {
+        this.words = words;
+        this.capacity = length;
+        this.length = length;
+    }
+
+    static int wordsFor(int bits) {
+        return (int) ((bits + 63L) >>> 6);
+    }
+
+    private static long[] pack(boolean[] elements, int length) {
+        long[] packed = new long[wordsFor(elements.length)];
+        for (int i = 0; i < length; i++) {
+            if (elements[i]) {
+                packed[i >> 6] |= 1L << i;
+            }
+        }
+        return packed;
+    }
+
+    private static boolean getBit(long[] words, int idx) {
+        return (words[idx >> 6] & (1L << idx)) != 0;
+    }
+
+    private static void setBit(long[] words, int idx, boolean value) {
+        if (value) {
+            words[idx >> 6] |= 1L << idx;
+        } else {
+            words[idx >> 6] &= ~(1L << idx);
+        }
+    }
+
+    /**
+     * Returns {@code n <= 64} bits starting at bit {@code pos} in the low bits of the result. The
+     * higher bits of the result are undefined.
+     */
+    private static long readBits(long[] src, int pos, int n) {
+        int word = pos >> 6;
+        int offset = pos & 63;
+        long bits = src[word] >>> offset;
+        if (offset != 0 && offset + n > 64) {
+            bits |= src[word + 1] << (64 - offset);
+        }
+        return bits;
+    }
+
+    /**
+     * Like {@link System#arraycopy} but for the packed bits of two bool storages. Bits in
+     * {@code dest} outside of the copied range are preserved. The source and destination ranges
+     * must not overlap unless the destination starts after the end of the source.
+     */
+    public static void copyBits(long[] src, int srcPos, long[] dest, int destPos, int length) {
+        int copied = 0;
+        if ((srcPos & 63) == 0 && (destPos & 63) == 0) {
+            int fullWords = length >> 6;
+            System.arraycopy(src, srcPos >> 6, dest, destPos >> 6, fullWords);
+            copied = fullWords << 6;
+        }
+        while (copied < length) {
+            int d = destPos + copied;
+            int offset = d & 63;
+            int n = Math.min(64 - offset, length - copied);
+            long mask = n == 64 ? -1L : (1L << n) - 1;
+            long bits = readBits(src, srcPos + copied, n) & mask;
+            int word = d >> 6;
+            dest[word] = (dest[word] & ~(mask << offset)) | (bits << offset);
+            copied += n;
+        }
+    }
+
     @Override
     protected void increaseCapacityExactWithCopy(int newCapacity) {
-        values = Arrays.copyOf(values, newCapacity);
-        capacity = values.length;
+        words = Arrays.copyOf(words, wordsFor(newCapacity));
+        capacity = newCapacity;
     }
 
     @Override
     protected void increaseCapacityExact(int newCapacity) {
-        values = new boolean[newCapacity];
-        capacity = values.length;
+        words = new long[wordsFor(newCapacity)];
+        capacity = newCapacity;
     }
 
     @Override
     public SequenceStorage copy() {
-        return new BoolSequenceStorage(Arrays.copyOf(values, length));
+        return new BoolSequenceStorage(Arrays.copyOf(words, wordsFor(length)), length);
     }
 
     @Override
@@ -81,14 +156,21 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
         Object[] boxed = new Object[length];
 
         for (int i = 0; i < length; i++) {
-            boxed[i] = values[i];
+            boxed[i] = getBit(words, i);
         }
 
         return boxed;
     }
 
+    /**
+     * Returns an unpacked copy of the elements.
+     */
     public boolean[] getInternalBoolArray() {
-        return values;
+        boolean[] unpacked = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            unpacked[i] = getBit(words, i);
+        }
+        return unpacked;
     }
 
     @Override
@@ -97,7 +179,7 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
     }
 
     public boolean getBoolItemNormalized(int idx) {
-        return values[idx];
+        return getBit(words, idx);
     }
 
     @Override
@@ -110,7 +192,7 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
     }
 
     public void setBoolItemNormalized(int idx, boolean value) {
-        values[idx] = value;
+        setBit(words, idx, value);
     }
 
     @Override
@@ -126,33 +208,33 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
         ensureCapacity(length + 1);
 
         // shifting tail to the right by one slot
-        for (int i = values.length - 1; i > idx; i--) {
-            values[i] = values[i - 1];
+        for (int i = length; i > idx; i--) {
+            setBit(words, i, getBit(words, i - 1));
         }
 
-        values[idx] = value;
+        setBit(words, idx, value);
         length++;
     }
 
     @Override
     public void copyItem(int idxTo, int idxFrom) {
-        values[idxTo] = values[idxFrom];
+        setBit(words, idxTo, getBit(words, idxFrom));
     }
 
     @Override
     public SequenceStorage getSliceInBound(int start, int stop, int step, int sliceLength) {
-        boolean[] newArray = new boolean[sliceLength];
+        long[] newWords = new long[wordsFor(sliceLength)];
 
         if (step == 1) {
-            System.arraycopy(values, start, newArray, 0, sliceLength);
-            return new BoolSequenceStorage(newArray);
+            copyBits(words, start, newWords, 0, sliceLength);
+            return new BoolSequenceStorage(newWords, sliceLength);
         }
 
         for (int i = start, j = 0; j < sliceLength; i += step, j++) {
-            newArray[j] = values[i];
+            setBit(newWords, j, getBit(words, i));
         }
 
-        return new BoolSequenceStorage(newArray);
+        return new BoolSequenceStorage(newWords, sliceLength);
     }
 
     public void setBoolSliceInBound(int start, int stop, int step, BoolSequenceStorage sequence) {
@@ -160,7 +242,7 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
 
         // range is the whole sequence?
         if (start == 0 && stop == length) {
-            values = Arrays.copyOf(sequence.values, otherLength);
+            words = Arrays.copyOf(sequence.words, wordsFor(otherLength));
             length = otherLength;
             minimizeCapacity();
             return;
@@ -169,43 +251,49 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
         ensureCapacity(stop);
 
         for (int i = start, j = 0; i < stop; i += step, j++) {
-            values[i] = sequence.values[j];
+            setBit(words, i, getBit(sequence.words, j));
         }
 
         length = length > stop ? length : stop;
     }
 
     public boolean popBool() {
-        boolean pop = values[capacity - 1];
+        boolean pop = getBit(words, length - 1);
         length--;
         return pop;
     }
 
     public int indexOfBool(boolean value) {
-        for (int i = 0; i < length; i++) {
-            if (values[i] == value) {
-                return i;
+        int nwords = wordsFor(length);
+        for (int w = 0; w < nwords; w++) {
+            long candidates = value ? words[w] : ~words[w];
+            if (candidates != 0) {
+                int idx = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                return idx < length ? idx : -1;
             }
         }
 
         return -1;
     }
 
+    /**
+     * Sets all elements up to the capacity to {@code value}. The length is not changed.
+     */
+    public void fillBool(boolean value) {
+        Arrays.fill(words, value ? -1L : 0L);
+    }
+
     public void appendBool(boolean value) {
         ensureCapacity(length + 1);
-        values[length] = value;
+        setBit(words, length, value);
         length++;
     }
 
     public void extendWithBoolStorage(BoolSequenceStorage other) throws ArithmeticException {
-        boolean[] otherValues = other.values;
-        int extendedLength = Math.addExact(length, otherValues.length);
+        int otherLength = other.length();
+        int extendedLength = Math.addExact(length, otherLength);
         ensureCapacity(extendedLength);
-
-        for (int i = length, j = 0; i < extendedLength; i++, j++) {
-            values[i] = otherValues[j];
-        }
-
+        copyBits(other.words, 0, words, length, otherLength);
         length = extendedLength;
     }
 
@@ -217,9 +305,9 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
             int middle = (length - 1) / 2;
 
             for (; head <= middle; head++, tail--) {
-                boolean temp = values[head];
-                values[head] = values[tail];
-                values[tail] = temp;
+                boolean temp = getBit(words, head);
+                setBit(words, head, getBit(words, tail));
+                setBit(words, tail, temp);
             }
         }
     }
@@ -235,29 +323,38 @@ public final class BoolSequenceStorage extends TypedSequenceStorage {
             return false;
         }
 
-        boolean[] otherArray = ((BoolSequenceStorage) other).getInternalBoolArray();
-        for (int i = 0; i < length(); i++) {
-            if (values[i] != otherArray[i]) {
+        long[] otherWords = ((BoolSequenceStorage) other).words;
+        int fullWords = length >> 6;
+        for (int w = 0; w < fullWords; w++) {
+            if (words[w] != otherWords[w]) {
                 return false;
             }
         }
+        int rest = length & 63;
+        if (rest != 0) {
+            long mask = (1L << rest) - 1;
+            return (words[fullWords] & mask) == (otherWords[fullWords] & mask);
+        }
 
         return true;
     }
 
+    /**
+     * Returns the packed {@code long[]} words. Use {@link #copyBits} to copy ranges of elements.
+     */
     @Override
     public Object getInternalArrayObject() {
-        return values;
+        return words;
     }
 
     @Override
     public Object getCopyOfInternalArrayObject() {
-        return Arrays.copyOf(values, length);
+        return Arrays.copyOf(words, wordsFor(length));
     }
 
     @Override
     public void setInternalArrayObject(Object arrayObject) {
-        this.values = (boolean[]) arrayObject;
+        this.words = (long[]) arrayObject;
     }
 
     @Override
@@ -35,10 +35,23 @@ import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.nodes.util.CastToByteNode;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
+/**
+ * The storage of {@code bytes}, {@code bytearray} and other bytes-like objects. Lists never start
+ * out with this storage: a list of small ints uses an {@link IntSequenceStorage}, see
+ * {@link SequenceStorageFactory#createStorage(Object[])}.
+ */
 public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     private byte[] values;
 
+    /**
+     * The index of the first element in {@link #values}. It is only non-zero for a
+     * {@link #getSliceView slice view} that shares the array of its parent. Reading methods take
+     * the offset into account. Methods that write to or hand out the 0-based internal array first
+     * copy the elements of a view into an own array, see {@link #materialize()}.
+     */
+    private int offset;
+
     public ByteSequenceStorage(byte[] elements) {
         this(elements, elements.length);
     }
@@ -57,19 +70,38 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     @Override
     protected void increaseCapacityExactWithCopy(int newCapacity) {
-        values = Arrays.copyOf(values, newCapacity);
+        values = Arrays.copyOfRange(values, offset, offset + newCapacity);
+        offset = 0;
         capacity = values.length;
     }
 
     @Override
     protected void increaseCapacityExact(int newCapacity) {
         values = new byte[newCapacity];
+        offset = 0;
         capacity = values.length;
     }
 
+    /**
+     * Copies the elements of a slice view into an own array that starts at index 0. The parent
+     * keeps its array.
+     */
+    private void materialize() {
+        if (offset != 0) {
+            materializeSlowPath();
+        }
+    }
+
+    @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+    private void materializeSlowPath() {
+        values = Arrays.copyOfRange(values, offset, offset + length);
+        offset = 0;
+        capacity = length;
+    }
+
     @Override
     public SequenceStorage copy() {
-        return new ByteSequenceStorage(Arrays.copyOf(values, length));
+        return new ByteSequenceStorage(Arrays.copyOfRange(values, offset, offset + length));
     }
 
     @Override
@@ -85,25 +117,54 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
         Object[] boxed = new Object[length];
 
         for (int i = 0; i < length; i++) {
-            boxed[i] = values[i];
+            boxed[i] = values[offset + i];
         }
 
         return boxed;
     }
 
+    /**
+     * Returns an array of exactly {@link #length()} elements. A slice view gets an own, trimmed
+     * array on the first call, so it is not copied again on later calls. Read-only accesses that
+     * can deal with an offset should use {@link #getArrayForReading()} instead, which keeps the
+     * view.
+     */
     @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
     public byte[] getInternalByteArray() {
-        if (length != values.length) {
-            assert length < values.length;
+        if (offset != 0 || length != values.length) {
+            assert offset + length <= values.length;
+            if (offset != 0 || capacity == length) {
+                // a view cannot grow in place anyway, so trim its array once instead of copying
+                // it on every call
+                materializeSlowPath();
+                return values;
+            }
             return Arrays.copyOf(values, length);
         }
         return values;
     }
 
+    /**
+     * Returns the internal array without copying or trimming it. The elements of this storage are
+     * at the indices {@link #getArrayOffset()} to {@code getArrayOffset() + length() - 1}. The
+     * array may be shared with other storages, so it must not be written to.
+     */
+    public byte[] getArrayForReading() {
+        return values;
+    }
+
+    /**
+     * The index of the first element in {@link #getArrayForReading()}.
+     */
+    public int getArrayOffset() {
+        return offset;
+    }
+
     @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
     public ByteBuffer getBufferView() {
+        materialize();
         ByteBuffer view = ByteBuffer.wrap(values);
-        view.limit(values.length);
+        view.limit(length);
         return view;
     }
 
@@ -113,11 +174,11 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
     }
 
     public final byte getByteItemNormalized(int idx) {
-        return values[idx];
+        return values[offset + idx];
     }
 
     public int getIntItemNormalized(int idx) {
-        return values[idx] & 0xFF;
+        return values[offset + idx] & 0xFF;
     }
 
     @Override
@@ -135,6 +196,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
     }
 
     public void setByteItemNormalized(int idx, byte value) {
+        materialize();
         values[idx] = value;
     }
 
@@ -150,6 +212,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
     }
 
     public void insertByteItem(int idx, byte value) {
+        materialize();
         ensureCapacity(length + 1);
 
         // shifting tail to the right by one slot
@@ -163,6 +226,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     @Override
     public void copyItem(int idxTo, int idxFrom) {
+        materialize();
         values[idxTo] = values[idxFrom];
     }
 
@@ -171,19 +235,43 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
         byte[] newArray = new byte[sliceLength];
 
         if (step == 1) {
-            System.arraycopy(values, start, newArray, 0, sliceLength);
+            System.arraycopy(values, offset + start, newArray, 0, sliceLength);
             return new ByteSequenceStorage(newArray);
         }
 
-        for (int i = start, j = 0; j < sliceLength; i += step, j++) {
+        for (int i = offset + start, j = 0; j < sliceLength; i += step, j++) {
             newArray[j] = values[i];
         }
 
         return new ByteSequenceStorage(newArray);
     }
 
+    /**
+     * Whether a {@link #getSliceView slice view} of {@code sliceLength} elements is preferable to
+     * a copy. Like {@link #isPrefixViewProfitable}, this keeps short slices and slices that would
+     * keep a much larger array alive as copies.
+     */
+    public boolean isSliceViewProfitable(int sliceLength) {
+        return sliceLength >= MIN_VIEW_LENGTH && sliceLength >= (values.length >> 1);
+    }
+
+    /**
+     * Creates a storage for the elements {@code start} to {@code start + sliceLength - 1} that
+     * shares the array of this storage. Only use this for immutable sequences like {@code bytes}:
+     * the view copies the elements before it is changed, but this storage does not.
+     */
+    public ByteSequenceStorage getSliceView(int start, int sliceLength) {
+        assert start >= 0 && sliceLength >= 0 && start + sliceLength <= length;
+        ByteSequenceStorage view = new ByteSequenceStorage(values, 0);
+        view.offset = offset + start;
+        view.length = sliceLength;
+        view.capacity = sliceLength;
+        return view;
+    }
+
     @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
     public void setByteSliceInBound(int start, int stop, int step, IntSequenceStorage sequence) {
+        materialize();
         int otherLength = sequence.length();
         int[] seqValues = sequence.getInternalIntArray();
 
@@ -225,15 +313,19 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
     @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
     public void setByteSliceInBound(int start, int stop, int step, ByteSequenceStorage sequence) {
         int otherLength = sequence.length();
+        int otherOffset = sequence.offset;
 
         // range is the whole sequence?
         if (start == 0 && stop == length) {
-            values = Arrays.copyOf(sequence.values, otherLength);
+            values = Arrays.copyOfRange(sequence.values, otherOffset, otherOffset + otherLength);
+            offset = 0;
             length = otherLength;
             minimizeCapacity();
             return;
         }
 
+        materialize();
+
         // (stop - start) = bytes to be replaced; otherLength = bytes to be written
         int newLength = length - (stop - start - otherLength);
 
@@ -249,7 +341,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
         int i = start;
         for (int j = 0; j < otherLength; i += step, j++) {
-            values[i] = sequence.values[j];
+            values[i] = sequence.values[sequence.offset + j];
         }
 
         // if shrinking, move the suffix afterwards
@@ -267,6 +359,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
     }
 
     public int popInt() {
+        materialize();
         int pop = values[capacity - 1] & 0xFF;
         length--;
         return pop;
@@ -274,7 +367,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     public int indexOfByte(byte value) {
         for (int i = 0; i < length; i++) {
-            if (values[i] == value) {
+            if (values[offset + i] == value) {
                 return i;
             }
         }
@@ -284,7 +377,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     public int indexOfInt(int value) {
         for (int i = 0; i < length; i++) {
-            if ((values[i] & 0xFF) == value) {
+            if ((values[offset + i] & 0xFF) == value) {
                 return i;
             }
         }
@@ -296,6 +389,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
         if (value < 0 || value >= 256) {
             throw new SequenceStoreException(value);
         }
+        materialize();
         ensureCapacity(length + 1);
         values[length] = (byte) value;
         length++;
@@ -305,12 +399,14 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
         if (value < 0 || value >= 256) {
             throw new SequenceStoreException(value);
         }
+        materialize();
         ensureCapacity(length + 1);
         values[length] = (byte) value;
         length++;
     }
 
     public void appendByte(byte value) {
+        materialize();
         ensureCapacity(length + 1);
         values[length] = value;
         length++;
@@ -318,6 +414,7 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     @Override
     public void reverse() {
+        materialize();
         if (length > 0) {
             int head = 0;
             int tail = length - 1;
@@ -342,9 +439,11 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
             return false;
         }
 
-        byte[] otherArray = ((ByteSequenceStorage) other).getInternalByteArray();
+        ByteSequenceStorage otherStorage = (ByteSequenceStorage) other;
+        byte[] otherArray = otherStorage.values;
+        int otherOffset = otherStorage.offset;
         for (int i = 0; i < length(); i++) {
-            if (values[i] != otherArray[i]) {
+            if (values[offset + i] != otherArray[otherOffset + i]) {
                 return false;
             }
         }
@@ -354,17 +453,19 @@ public final class ByteSequenceStorage extends TypedSequenceStorage {
 
     @Override
     public Object getInternalArrayObject() {
+        materialize();
         return values;
     }
 
     @Override
     public Object getCopyOfInternalArrayObject() {
-        return Arrays.copyOf(values, length);
+        return Arrays.copyOfRange(values, offset, offset + length);
     }
 
     @Override
     public void setInternalArrayObject(Object arrayObject) {
         this.values = (byte[]) arrayObject;
+        this.offset = 0;
     }
 
     @Override
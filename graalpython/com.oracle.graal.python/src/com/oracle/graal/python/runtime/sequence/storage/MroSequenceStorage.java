@@ -45,6 +45,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.truffle.api.Assumption;
@@ -65,10 +66,18 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
 
     /**
      * These assumptions will be invalidated whenever the value of the given slot changes. All
-     * assumptions will be invalidated if the mro changes.
+     * assumptions will be invalidated if the mro changes. Megamorphic lookups register assumptions
+     * from any thread, so all accesses synchronize on this storage.
      */
     private final Map<String, List<Assumption>> attributesInMROFinalAssumptions = new HashMap<>();
 
+    /**
+     * The assumptions created by {@link #createSharedAttributeInMROFinalAssumption(String)}. They
+     * are reused while valid so that repeated lookups of the same attribute do not register ever
+     * more assumptions with the classes in the MRO.
+     */
+    private final Map<String, Assumption> sharedAttributesInMROFinalAssumptions = new ConcurrentHashMap<>();
+
     @CompilationFinal(dimensions = 1) private PythonAbstractClass[] values;
 
     public MroSequenceStorage(String className, PythonAbstractClass[] elements) {
@@ -261,7 +270,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
         return lookupStableAssumption.getAssumption();
     }
 
-    public Assumption createAttributeInMROFinalAssumption(String name) {
+    public synchronized Assumption createAttributeInMROFinalAssumption(String name) {
         CompilerAsserts.neverPartOfCompilation();
         List<Assumption> attrAssumptions = attributesInMROFinalAssumptions.getOrDefault(name, null);
         if (attrAssumptions == null) {
@@ -274,7 +283,27 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
         return assumption;
     }
 
-    public void addAttributeInMROFinalAssumption(String name, Assumption assumption) {
+    /**
+     * Returns the valid assumption previously created by
+     * {@link #createSharedAttributeInMROFinalAssumption(String)} for {@code name}, or {@code null}.
+     */
+    public Assumption getSharedAttributeInMROFinalAssumption(String name) {
+        CompilerAsserts.neverPartOfCompilation();
+        Assumption assumption = sharedAttributesInMROFinalAssumptions.get(name);
+        return assumption != null && assumption.isValid() ? assumption : null;
+    }
+
+    /**
+     * Like {@link #createAttributeInMROFinalAssumption(String)}, but the assumption is remembered
+     * and returned by {@link #getSharedAttributeInMROFinalAssumption(String)} while it is valid.
+     */
+    public Assumption createSharedAttributeInMROFinalAssumption(String name) {
+        Assumption assumption = createAttributeInMROFinalAssumption(name);
+        sharedAttributesInMROFinalAssumptions.put(name, assumption);
+        return assumption;
+    }
+
+    public synchronized void addAttributeInMROFinalAssumption(String name, Assumption assumption) {
         CompilerAsserts.neverPartOfCompilation();
         List<Assumption> attrAssumptions = attributesInMROFinalAssumptions.getOrDefault(name, null);
         if (attrAssumptions == null) {
@@ -286,7 +315,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
     }
 
     @TruffleBoundary
-    public void invalidateAttributeInMROFinalAssumptions(String name) {
+    public synchronized void invalidateAttributeInMROFinalAssumptions(String name) {
         List<Assumption> assumptions = attributesInMROFinalAssumptions.getOrDefault(name, new ArrayList<>());
         if (!assumptions.isEmpty()) {
             String message = getClassName() + "." + name;
@@ -297,21 +326,22 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
     }
 
     public void lookupChanged() {
-        for (List<Assumption> list : attributesInMROFinalAssumptions.values()) {
-            for (Assumption assumption : list) {
-                assumption.invalidate();
-            }
-        }
+        invalidateAllAttributeInMROFinalAssumptions();
         lookupStableAssumption.invalidate();
     }
 
     public void lookupChanged(String msg) {
+        invalidateAllAttributeInMROFinalAssumptions();
+        lookupStableAssumption.invalidate(msg);
+    }
+
+    @TruffleBoundary
+    private synchronized void invalidateAllAttributeInMROFinalAssumptions() {
         for (List<Assumption> list : attributesInMROFinalAssumptions.values()) {
             for (Assumption assumption : list) {
                 assumption.invalidate();
             }
         }
-        lookupStableAssumption.invalidate(msg);
     }
 
 }
@@ -549,23 +549,19 @@ sys.__stderr__ = sys.stderr
 #
 # following definitions: patched in the __builtins_patches__ module
 #
+# Only StringIO and BytesIO are native. FileIO above, the buffered classes and TextIOWrapper are
+# replaced by the _pyio classes in pyio_patches.py, which also adds the readline and readall fast
+# paths for them.
+#
 # ----------------------------------------------------------------------------------------------------------------------
 class _BufferedIOBase(_IOBase):
     pass
 
 
-class BytesIO(_BufferedIOBase):
-    pass
-
-
 class _TextIOBase(_IOBase):
     pass
 
 
-class StringIO(_TextIOBase):
-    pass
-
-
 class BufferedReader(_BufferedIOBase):
     pass
 
@@ -594,6 +590,85 @@ def open(*args, **kwargs):
     raise NotImplementedError
 
 
+# ----------------------------------------------------------------------------------------------------------------------
+#
+# StringIO and BytesIO are builtin types, the generic stream methods are added here
+#
+# ----------------------------------------------------------------------------------------------------------------------
+def _memio_check_closed(self):
+    if self.closed:
+        raise ValueError("I/O operation on closed file.")
+
+
+def _memio_true(self):
+    _memio_check_closed(self)
+    return True
+
+
+def _memio_isatty(self):
+    _memio_check_closed(self)
+    return False
+
+
+def _memio_iter(self):
+    _memio_check_closed(self)
+    return self
+
+
+def _memio_exit(self, *args):
+    self.close()
+
+
+def _memio_fileno(self):
+    raise UnsupportedOperation("fileno")
+
+
+def _memio_readlines(self, hint=-1):
+    _memio_check_closed(self)
+    if hint is None or hint <= 0:
+        return list(self)
+    lines = []
+    length = 0
+    for line in self:
+        lines.append(line)
+        length += len(line)
+        if length >= hint:
+            break
+    return lines
+
+
+def _memio_writelines(self, lines):
+    _memio_check_closed(self)
+    for line in lines:
+        self.write(line)
+
+
+def _memio_detach(self):
+    raise UnsupportedOperation("detach")
+
+
+for _memio in (StringIO, BytesIO):
+    _memio.readable = _memio_true
+    _memio.writable = _memio_true
+    _memio.seekable = _memio_true
+    _memio.flush = _memio_check_closed
+    _memio.isatty = _memio_isatty
+    _memio.__iter__ = _memio_iter
+    _memio.__enter__ = _memio_iter
+    _memio.__exit__ = _memio_exit
+    _memio.fileno = _memio_fileno
+    _memio.readlines = _memio_readlines
+    _memio.writelines = _memio_writelines
+    _memio.detach = _memio_detach
+del _memio
+
+
+StringIO.line_buffering = property(lambda self: False)
+StringIO.encoding = None
+StringIO.errors = None
+StringIO.newlines = None
+
+
 # ----------------------------------------------------------------------------------------------------------------------
 #
 # needed for imports will be patched in the __builtins_patches__ module
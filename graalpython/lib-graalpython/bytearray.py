@@ -38,13 +38,3 @@
 # SOFTWARE.
 
 # an empty file for now
-
-bytearray.decode = bytes.decode
-
-
-def strip(self, what=None):
-    return self.lstrip(what).rstrip(what)
-
-
-bytearray.strip = strip
-bytearray.rfind = bytes.rfind
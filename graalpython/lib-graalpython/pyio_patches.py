@@ -44,6 +44,7 @@ sys.path.append(sys.graal_python_stdlib_home)
 try:
     import _pyio
     import io
+    import os
 finally:
     assert len(sys.path) == 1
     sys.path.pop()
@@ -73,12 +74,10 @@ for module in [_io, io]:
     setattr(module, 'BufferedRWPair', _pyio.BufferedRWPair)
     setattr(module, 'BufferedWriter', _pyio.BufferedWriter)
     setattr(module, 'BufferedReader', _pyio.BufferedReader)
-    setattr(module, 'StringIO', _pyio.StringIO)
     setattr(module, '_IOBase', _pyio.IOBase)
     setattr(module, 'BufferedIOBase', _pyio.BufferedIOBase)
     setattr(module, 'RawIOBase', _pyio.RawIOBase)
     setattr(module, 'FileIO', _pyio.FileIO)
-    setattr(module, 'BytesIO', _pyio.BytesIO)
     setattr(module, '_TextIOBase', _pyio.TextIOBase)
 
 
@@ -102,3 +101,107 @@ sys.__stderr__ = sys.stderr
 # associated with that. We remove it and rely on the (for us faster) base
 # implementation.
 del _pyio.BufferedReader._readinto
+
+
+# The generic readline slices off all remaining decoded characters of the current chunk for every
+# line it returns, which is quadratic in the number of lines per chunk. In the common case the line
+# ending is found in the current chunk, so we search from the current offset and only slice the line.
+_TextIOWrapper_readline = _pyio.TextIOWrapper.readline
+
+
+def _TextIOWrapper_readline_fast(self, size=None):
+    if (size is None or (type(size) is int and size < 0)) and self._readtranslate and self._decoder and not self.closed:
+        chars = self._decoded_chars
+        start = self._decoded_chars_used
+        end = chars.find('\n', start)
+        if end >= 0:
+            self._decoded_chars_used = end + 1
+            return chars[start:end + 1]
+    return _TextIOWrapper_readline(self, size)
+
+
+_pyio.TextIOWrapper.readline = _TextIOWrapper_readline_fast
+
+
+# The generic readline of binary streams reads a line by peeking and reading the buffer in pieces
+# and collects it in a bytearray. In the common case the line ending is in the buffer of the reader,
+# so we search it there and only slice the line.
+_BufferedReader_readline = _pyio.BufferedReader.readline
+
+
+def _BufferedReader_readline_fast(self, size=-1):
+    if size is None:
+        size = -1
+    if type(size) is int:
+        with self._read_lock:
+            buf = self._read_buf
+            pos = self._read_pos
+            limit = len(buf) if size < 0 else min(len(buf), pos + size)
+            end = buf.find(b'\n', pos, limit)
+            if end >= 0:
+                limit = end + 1
+            if end >= 0 or limit - pos == size:
+                self._read_pos = limit
+                return buf[pos:limit]
+    return _BufferedReader_readline(self, size)
+
+
+_pyio.BufferedReader.readline = _BufferedReader_readline_fast
+
+
+# The generic readall grows a bytearray chunk by chunk and copies it into the resulting bytes object,
+# so reading a large file repeatedly copies and over-allocates it. If the size of the file is known,
+# we read it with a single os.read, whose result array is filled directly from the file and becomes
+# the storage of the returned bytes. Only what the file grew by in the meantime is read separately.
+_FileIO_readall = _pyio.FileIO.readall
+
+
+def _FileIO_readall_fast(self):
+    self._checkClosed()
+    self._checkReadable()
+    try:
+        pos = os.lseek(self._fd, 0, _pyio.SEEK_CUR)
+        size = os.fstat(self._fd).st_size - pos
+    except OSError:
+        size = 0
+    if size <= 0:
+        return _FileIO_readall(self)
+    try:
+        result = os.read(self._fd, size)
+    except BlockingIOError:
+        return None
+    # the file may have grown in the meantime
+    rest = _FileIO_readall(self)
+    return result + rest if rest else result
+
+
+_pyio.FileIO.readall = _FileIO_readall_fast
+
+
+# The generic readinto methods export the buffer through memoryviews that are never released. Since
+# we do not release views when they go out of scope, the caller could not resize its bytearray
+# afterwards (e.g. RawIOBase.read truncates the bytearray to the number of bytes read). We release
+# the views explicitly instead.
+def _FileIO_readinto(self, b):
+    with memoryview(b) as view, view.cast('B') as m:
+        data = self.read(len(m))
+        n = len(data)
+        m[:n] = data
+    return n
+
+
+_pyio.FileIO.readinto = _FileIO_readinto
+
+
+def _BufferedIOBase_readinto(self, b, read1):
+    with memoryview(b) as view, view.cast('B') as m:
+        if read1:
+            data = self.read1(len(m))
+        else:
+            data = self.read(len(m))
+        n = len(data)
+        m[:n] = data
+    return n
+
+
+_pyio.BufferedIOBase._readinto = _BufferedIOBase_readinto
@@ -0,0 +1,201 @@
+# Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+error = OSError
+
+POLLIN = 0x001
+POLLPRI = 0x002
+POLLOUT = 0x004
+POLLERR = 0x008
+POLLHUP = 0x010
+POLLNVAL = 0x020
+POLLRDNORM = 0x040
+POLLRDBAND = 0x080
+POLLWRNORM = 0x100
+POLLWRBAND = 0x200
+POLLMSG = 0x400
+POLLRDHUP = 0x2000
+
+EPOLLIN = 0x001
+EPOLLPRI = 0x002
+EPOLLOUT = 0x004
+EPOLLERR = 0x008
+EPOLLHUP = 0x010
+EPOLLRDNORM = 0x040
+EPOLLRDBAND = 0x080
+EPOLLWRNORM = 0x100
+EPOLLWRBAND = 0x200
+EPOLLMSG = 0x400
+EPOLLRDHUP = 0x2000
+EPOLLEXCLUSIVE = 1 << 28
+EPOLLONESHOT = 1 << 30
+EPOLLET = 1 << 31
+
+_READ_EVENTS = POLLIN | POLLPRI | POLLRDNORM | POLLRDBAND
+_WRITE_EVENTS = POLLOUT | POLLWRNORM | POLLWRBAND
+
+
+def _fileno(fd):
+    if isinstance(fd, int):
+        result = fd
+    elif hasattr(fd, "fileno"):
+        result = fd.fileno()
+        if not isinstance(result, int):
+            raise TypeError("fileno() returned a non-integer")
+    else:
+        raise TypeError("argument must be an int, or have a fileno() method.")
+    if result < 0:
+        raise ValueError("file descriptor cannot be a negative integer (%d)" % result)
+    return result
+
+
+def _wait(registered, timeout):
+    """
+    Waits on the selector-backed 'select' for the registered fds and returns a dict mapping
+    each ready fd to its ready event mask. 'timeout' is in seconds or None to block.
+    """
+    rfds = [fd for fd, mask in registered.items() if mask & _READ_EVENTS]
+    wfds = [fd for fd, mask in registered.items() if mask & _WRITE_EVENTS]
+    r, w, _ = select(rfds, wfds, [], timeout)
+    ready = {}
+    for fd in r:
+        ready[fd] = registered[fd] & _READ_EVENTS
+    for fd in w:
+        ready[fd] = ready.get(fd, 0) | (registered[fd] & _WRITE_EVENTS)
+    return ready
+
+
+class poll():
+    def __init__(self):
+        self._registered = {}
+
+    def register(self, fd, eventmask=POLLIN | POLLPRI | POLLOUT):
+        self._registered[_fileno(fd)] = eventmask
+
+    def modify(self, fd, eventmask):
+        fd = _fileno(fd)
+        if fd not in self._registered:
+            raise FileNotFoundError(2, "No such file or directory")
+        self._registered[fd] = eventmask
+
+    def unregister(self, fd):
+        del self._registered[_fileno(fd)]
+
+    def poll(self, timeout=None):
+        if timeout is not None:
+            timeout = int(timeout)
+            timeout = None if timeout < 0 else timeout / 1000.0
+        return list(_wait(self._registered, timeout).items())
+
+
+class epoll():
+    """
+    An epoll object multiplexing on the same selector-backed wait as 'select'. Edge-triggered
+    mode (EPOLLET) is accepted but behaves like level-triggered mode. There is no kernel epoll
+    instance behind it, so it has no file descriptor and cannot be created from one.
+    """
+    def __init__(self, sizehint=-1, flags=0):
+        if sizehint == 0 or sizehint < -1:
+            raise ValueError("negative sizehint")
+        self._registered = {}
+        self._closed = False
+
+    def __enter__(self):
+        self._check_closed()
+        return self
+
+    def __exit__(self, *args):
+        self.close()
+
+    def _check_closed(self):
+        if self._closed:
+            raise ValueError("I/O operation on closed epoll object")
+
+    @property
+    def closed(self):
+        return self._closed
+
+    def close(self):
+        self._closed = True
+        self._registered = {}
+
+    def fileno(self):
+        self._check_closed()
+        raise NotImplementedError("epoll objects have no file descriptor")
+
+    @classmethod
+    def fromfd(cls, fd):
+        raise NotImplementedError("epoll objects cannot be created from a file descriptor")
+
+    def register(self, fd, eventmask=EPOLLIN | EPOLLPRI | EPOLLOUT):
+        self._check_closed()
+        fd = _fileno(fd)
+        if fd in self._registered:
+            raise FileExistsError(17, "File exists")
+        self._registered[fd] = eventmask
+
+    def modify(self, fd, eventmask):
+        self._check_closed()
+        fd = _fileno(fd)
+        if fd not in self._registered:
+            raise FileNotFoundError(2, "No such file or directory")
+        self._registered[fd] = eventmask
+
+    def unregister(self, fd):
+        self._check_closed()
+        fd = _fileno(fd)
+        if fd not in self._registered:
+            raise FileNotFoundError(2, "No such file or directory")
+        del self._registered[fd]
+
+    def poll(self, timeout=None, maxevents=-1):
+        self._check_closed()
+        if timeout is not None and timeout < 0:
+            timeout = None
+        if maxevents == 0 or maxevents < -1:
+            raise ValueError("maxevents must be greater than 0, got %d" % maxevents)
+        result = []
+        for fd, events in _wait(self._registered, timeout).items():
+            if maxevents != -1 and len(result) >= maxevents:
+                break
+            mask = self._registered[fd]
+            if mask & EPOLLONESHOT:
+                self._registered[fd] = 0
+            result.append((fd, events))
+        return result
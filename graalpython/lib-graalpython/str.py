@@ -339,14 +339,6 @@ class TemplateFormatter(object):
         return iter(self.parser_list)
 
 
-def strformat(___self, *___args, **___kwargs):
-    template = TemplateFormatter(___self)
-    return template.build(___args, ___kwargs)
-
-
-str.format = strformat
-
-
 def __iter__(self):
     return list(self).__iter__()
 